@@ -0,0 +1,248 @@
+package edu.ucla.astro.irlab.util.graph;
+
+import org.apache.log4j.Logger;
+import org.jfree.data.general.SeriesException;
+import org.jfree.data.time.Second;
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+
+/**
+ * Parses log data, as it is tailed, into time series.
+ *
+ * Each line of the log is <code>yy/MM/dd,HH:mm:ss,value1,...,valueN,</code>: a date, a time,
+ * and one value for each series.  Any text after the last comma is ignored.  Series are added
+ * to the collection as lines with more values are read.
+ *
+ * Data may be given in chunks of any size; a line split between chunks is kept until the rest
+ * of it arrives.  Fields are parsed from the bytes, without splitting into strings.  Points
+ * in a chunk are added to the series without notification, and each series changed is
+ * notified once at the end of the chunk, so a chart is redrawn once per chunk rather than
+ * once per point.  Lines that cannot be parsed are skipped.
+ *
+ * A parser is not thread-safe, and should be given data from one thread, such as a tail.
+ *
+ * @see LogGraphPanel
+ */
+public class LogDataParser {
+	private static final Logger logger = Logger.getLogger(LogDataParser.class);
+	//. exact powers of ten, for parsing values with few digits exactly without strings
+	private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+	//. mantissas up to this are exact as doubles
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	private static final int FIELD_DATE = 0;
+	private static final int FIELD_TIME = 1;
+	private static final int FIRST_VALUE_FIELD = 2;
+
+	private TimeSeriesCollection timeData;
+	private String seriesNamePrefix;
+	//. partial line carried over between chunks
+	private byte[] line = new byte[256];
+	private int lineLength = 0;
+	//. comma positions in current line
+	private int[] commas = new int[16];
+	private double[] values = new double[16];
+	private final int[] dateFields = new int[3];
+	private final int[] timeFields = new int[3];
+	//. number of series with points added in current chunk
+	private int seriesChanged = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param timeData          TimeSeriesCollection to add series and points to
+	 * @param seriesNamePrefix  prefix of series names, which are followed by series number, from 1
+	 */
+	public LogDataParser(TimeSeriesCollection timeData, String seriesNamePrefix) {
+		this.timeData = timeData;
+		this.seriesNamePrefix = seriesNamePrefix;
+	}
+
+	/**
+	 * Discard any partial line and add further data to another collection.
+	 *
+	 * @param timeData  TimeSeriesCollection to add series and points to
+	 */
+	public void reset(TimeSeriesCollection timeData) {
+		this.timeData = timeData;
+		lineLength = 0;
+	}
+
+	public void setSeriesNamePrefix(String seriesNamePrefix) {
+		this.seriesNamePrefix = seriesNamePrefix;
+	}
+
+	/**
+	 * Parse chunk of log data.
+	 *
+	 * @param  buffer  array containing data
+	 * @param  offset  start of data in buffer
+	 * @param  length  number of bytes of data
+	 * @return         number of complete lines added
+	 */
+	public int parse(byte[] buffer, int offset, int length) {
+		int rows = 0;
+		seriesChanged = 0;
+		int end = offset + length;
+		for (int ii=offset; ii<end; ii++) {
+			byte b = buffer[ii];
+			if (b == '\n') {
+				if (parseLine()) {
+					rows++;
+				}
+				lineLength = 0;
+			} else {
+				if (lineLength == line.length) {
+					byte[] newLine = new byte[2 * line.length];
+					System.arraycopy(line, 0, newLine, 0, lineLength);
+					line = newLine;
+				}
+				line[lineLength++] = b;
+			}
+		}
+		for (int ii=0; ii<seriesChanged; ii++) {
+			timeData.getSeries(ii).fireSeriesChanged();
+		}
+		return rows;
+	}
+
+	//. parse line in line buffer, adding its values to series.  returns false if line was skipped.
+	private boolean parseLine() {
+		int commaCount = 0;
+		for (int ii=0; ii<lineLength; ii++) {
+			if (line[ii] == ',') {
+				if (commaCount == commas.length) {
+					int[] newCommas = new int[2 * commas.length];
+					System.arraycopy(commas, 0, newCommas, 0, commaCount);
+					commas = newCommas;
+				}
+				commas[commaCount++] = ii;
+			}
+		}
+		//. fields end at commas.  text after the last comma is not a value.
+		int valueCount = commaCount - FIRST_VALUE_FIELD;
+		if (valueCount < 0) {
+			if (lineLength > 0) {
+				logger.debug("Skipping log line without date and time: <"+new String(line, 0, lineLength)+">");
+			}
+			return false;
+		}
+		if (!parseFields(0, commas[FIELD_DATE], '/', dateFields) ||
+				!parseFields(commas[FIELD_DATE] + 1, commas[FIELD_TIME], ':', timeFields)) {
+			logger.debug("Skipping log line with invalid date or time: <"+new String(line, 0, lineLength)+">");
+			return false;
+		}
+		if (values.length < valueCount) {
+			values = new double[Math.max(valueCount, 2 * values.length)];
+		}
+		for (int ii=0; ii<valueCount; ii++) {
+			int field = FIRST_VALUE_FIELD + ii;
+			int start = commas[field - 1] + 1;
+			int stop = commas[field];
+			try {
+				values[ii] = parseDouble(start, stop);
+			} catch (NumberFormatException ex) {
+				logger.debug("Skipping log line with invalid value: <"+new String(line, 0, lineLength)+">");
+				return false;
+			}
+		}
+		//. two digit years are 20yy
+		int year = (dateFields[0] < 100) ? 2000 + dateFields[0] : dateFields[0];
+		Second time;
+		try {
+			time = new Second(timeFields[2], timeFields[1], timeFields[0], dateFields[2], dateFields[1], year);
+		} catch (IllegalArgumentException ex) {
+			logger.debug("Skipping log line with invalid date or time: <"+new String(line, 0, lineLength)+">");
+			return false;
+		}
+		while (timeData.getSeriesCount() < valueCount) {
+			timeData.addSeries(new TimeSeries(seriesNamePrefix+" "+(timeData.getSeriesCount()+1), Second.class));
+		}
+		for (int ii=0; ii<valueCount; ii++) {
+			try {
+				timeData.getSeries(ii).add(time, values[ii], false);
+			} catch (SeriesException ex) {
+				//. already have a point for this second
+				logger.debug("Skipping duplicate point at "+time+" in series "+(ii+1)+".");
+			}
+		}
+		seriesChanged = Math.max(seriesChanged, valueCount);
+		return true;
+	}
+
+	//. parse three unsigned integers separated by separator.  returns false if invalid.
+	private boolean parseFields(int start, int stop, char separator, int[] fields) {
+		int field = 0;
+		int value = 0;
+		int digits = 0;
+		for (int ii=start; ii<stop; ii++) {
+			byte b = line[ii];
+			if ((b >= '0') && (b <= '9')) {
+				if (digits == 9) {
+					return false;
+				}
+				value = 10 * value + (b - '0');
+				digits++;
+			} else if ((b == separator) && (field < 2) && (digits > 0)) {
+				fields[field++] = value;
+				value = 0;
+				digits = 0;
+			} else if ((b != ' ') || (digits > 0)) {
+				return false;
+			}
+		}
+		if ((field != 2) || (digits == 0)) {
+			return false;
+		}
+		fields[2] = value;
+		return true;
+	}
+
+	//. parse decimal number.  numbers with up to 15 digits and no exponent are parsed
+	//. exactly here, since mantissa and power of ten are both exact; others are parsed
+	//. by Double.parseDouble.
+	private double parseDouble(int start, int stop) {
+		while ((start < stop) && isBlank(line[start])) {
+			start++;
+		}
+		while ((stop > start) && isBlank(line[stop - 1])) {
+			stop--;
+		}
+		int ii = start;
+		boolean negative = false;
+		if ((ii < stop) && ((line[ii] == '-') || (line[ii] == '+'))) {
+			negative = (line[ii] == '-');
+			ii++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean point = false;
+		for (; ii<stop; ii++) {
+			byte b = line[ii];
+			if ((b >= '0') && (b <= '9')) {
+				mantissa = 10 * mantissa + (b - '0');
+				digits++;
+				if (point) {
+					fractionDigits++;
+				}
+				if (digits > 15) {
+					break;
+				}
+			} else if ((b == '.') && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+		if ((ii == stop) && (digits > 0) && (mantissa < MAX_EXACT_MANTISSA) && (fractionDigits < POWERS_OF_TEN.length)) {
+			double value = mantissa / POWERS_OF_TEN[fractionDigits];
+			return negative ? -value : value;
+		}
+		return Double.parseDouble(new String(line, start, stop - start));
+	}
+
+	private static boolean isBlank(byte b) {
+		return (b == ' ') || (b == '\t') || (b == '\r');
+	}
+}
@@ -24,14 +24,12 @@ import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.time.Second;
-import org.jfree.data.time.TimeSeries;
 import org.jfree.data.time.TimeSeriesCollection;
 
 import edu.ucla.astro.irlab.util.Tail;
-import edu.ucla.astro.irlab.util.TailListener;
+import edu.ucla.astro.irlab.util.TailBufferListener;
 
-public class LogGraphPanel extends JPanel implements TailListener {
+public class LogGraphPanel extends JPanel implements TailBufferListener {
 	JToolBar toolbar;
 	JButton openFileButton = new JButton("Open...");
 	JButton startTailButton = new JButton("Tail");
@@ -44,10 +42,11 @@ public class LogGraphPanel extends JPanel implements TailListener {
 	String valueAxisLabel = "Value";
 	String valueType = "Value";
 	TimeSeriesCollection timeData;
+	LogDataParser parser;
 	JFreeChart chart;
 	ChartPanel chartPanel;
 	SimpleDateFormat dateFormatter;
-	boolean gotFirstSet = false;
+	volatile boolean gotFirstSet = false;
 	boolean doToolbar;
 	private File currentReadPath;
 	private File defaultSaveFile;
@@ -59,9 +58,10 @@ public class LogGraphPanel extends JPanel implements TailListener {
 	public LogGraphPanel(boolean includeToolbar) {
 		doToolbar = includeToolbar;
 		timeData = new TimeSeriesCollection();
+		parser = new LogDataParser(timeData, valueType);
 		dateFormatter = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
 		currentReadPath = new File("");
-		tail.addTailListener(this);
+		tail.addTailBufferListener(this);
 		init();
 	}
 	void init() {
@@ -163,6 +163,7 @@ public class LogGraphPanel extends JPanel implements TailListener {
 	}
 	public void setValueType(String label) {
 		valueType = label;
+		parser.setSeriesNamePrefix(label);
 	}
 	public void setTitle(String label) {
 		title = label;
@@ -173,6 +174,7 @@ public class LogGraphPanel extends JPanel implements TailListener {
 		//. TODO the following is faster, but may be a memory leak
 		timeData = new TimeSeriesCollection();
 		tail.setFilename(logFile);
+		parser.reset(timeData);
 		gotFirstSet = false;
 		tail.startReading();
 		
@@ -209,31 +211,8 @@ public class LogGraphPanel extends JPanel implements TailListener {
 	public JToolBar getToolBar() {
 		return toolbar;
 	}
-	public void receiveNewData(byte[] data) {
-		String dataStr = new String(data);
-		String[] lines = dataStr.split("\n");
-		String[] parts;
-		String[] dateParts;
-		String[] timeParts;
-		int numParts;
-		for (int ii=0; ii<lines.length; ii++) {
-			parts = lines[ii].split(",");
-			numParts = parts.length;
-			if (lines[ii].endsWith(",")) {
-				numParts++;
-			}
-			dateParts = parts[0].split("/");
-			timeParts = parts[1].split(":");
-			while (timeData.getSeriesCount() < numParts-3) {
-				timeData.addSeries(new TimeSeries(valueType+" "+(timeData.getSeriesCount()+1), Second.class));				
-			}
-			for (int jj=2; jj<(numParts-1); jj++) {
-				timeData.getSeries(jj-2).add(new Second(Integer.valueOf(timeParts[2]), Integer.valueOf(timeParts[1]),
-						Integer.valueOf(timeParts[0]), Integer.valueOf(dateParts[2]),
-						Integer.valueOf(dateParts[1]), Integer.valueOf("20"+dateParts[0])), 
-						Double.valueOf(parts[jj]));
-			}
-		}
+	public void receiveNewData(byte[] buffer, int offset, int length) {
+		parser.parse(buffer, offset, length);
 		if (gotFirstSet == false) {
 			gotFirstSet = true;
 		}	
@@ -6,9 +6,7 @@ package edu.ucla.astro.irlab.util.graph;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartFrame;
 import org.jfree.chart.JFreeChart;
-import org.jfree.data.time.Second;
 import org.jfree.data.time.TimeSeriesCollection;
-import org.jfree.data.time.TimeSeries;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.axis.DateAxis;
 import org.jfree.chart.axis.NumberAxis;
@@ -21,19 +19,21 @@ import java.io.FileNotFoundException;
 import java.text.SimpleDateFormat;
 
 
-import edu.ucla.astro.irlab.util.TailListener;
+import edu.ucla.astro.irlab.util.TailBufferListener;
 import edu.ucla.astro.irlab.util.Tail;
 
-public class LogGrapher implements TailListener {
+public class LogGrapher implements TailBufferListener {
 	String title="Test Chart";
 	String timeLabel = "Time";
 	String valueLabel = "Temperature";
 	TimeSeriesCollection timedata;
+	LogDataParser parser;
 	JFreeChart chart;
 	SimpleDateFormat dateFormatter;
-	public boolean gotFirstSet = false;
+	public volatile boolean gotFirstSet = false;
 	public LogGrapher() {
 		timedata = new TimeSeriesCollection();
+		parser = new LogDataParser(timedata, "Temp");
 		dateFormatter = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
 	}
 
@@ -67,32 +67,8 @@ public class LogGrapher implements TailListener {
 
 	}
 
-	public void receiveNewData(byte[] data) {
-		String dataStr = new String(data);
-		String[] lines = dataStr.split("\n");
-		String[] parts;
-		String[] dateParts;
-		String[] timeParts;
-		int numParts;
-		for (int ii=0; ii<lines.length; ii++) {
-			//System.out.println("<"+lines[ii]+">");
-			parts = lines[ii].split(",");
-			numParts = parts.length;
-			if (lines[ii].endsWith(",")) {
-				numParts++;
-			}
-			dateParts = parts[0].split("/");
-			timeParts = parts[1].split(":");
-			while (timedata.getSeriesCount() < numParts-3) {
-				timedata.addSeries(new TimeSeries("Temp "+timedata.getSeriesCount()+1, Second.class));				
-			}
-			for (int jj=2; jj<(numParts-1); jj++) {
-				timedata.getSeries(jj-2).add(new Second(Integer.valueOf(timeParts[2]), Integer.valueOf(timeParts[1]),
-						Integer.valueOf(timeParts[0]), Integer.valueOf(dateParts[2]),
-						Integer.valueOf(dateParts[1]), Integer.valueOf("20"+dateParts[0])), 
-						Double.valueOf(parts[jj]));
-			}
-		}
+	public void receiveNewData(byte[] buffer, int offset, int length) {
+		parser.parse(buffer, offset, length);
 		if (gotFirstSet == false) {
 			gotFirstSet = true;
 		}
@@ -105,7 +81,7 @@ public class LogGrapher implements TailListener {
 		// TODO Auto-generated method stub
 		LogGrapher lg = new LogGrapher();
 		Tail tail = new Tail("/usr/local/home/mosdev/kroot/kss/mosfire/gui/temp/temp.log");
-		tail.addTailListener(lg);
+		tail.addTailBufferListener(lg);
 		try {
 			tail.startReading();
 		} catch (FileNotFoundException ex) {
@@ -0,0 +1,142 @@
+package edu.ucla.astro.irlab.util.gui;
+
+import java.awt.AlphaComposite;
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Transparent image layer of a component, redrawn only when invalidated or when the
+ * component changes size.
+ *
+ * A component drawn as a stack of layers only redraws the layers whose inputs have
+ * changed, and otherwise just copies the cached images, which the graphics pipeline
+ * can keep in video memory.  Only the clip region of the destination is copied, so
+ * repainting part of the component is cheap.  While the view is panned, the cached image
+ * can be moved with it instead of being redrawn.
+ */
+public class CachedImageLayer {
+
+	/**
+	 * Draws the contents of a layer.
+	 */
+	public interface Renderer {
+		/**
+		 * Draw layer contents.  The image is cleared before this is called.
+		 *
+		 * @param g2  Graphics2D of layer image
+		 */
+		public void render(Graphics2D g2);
+	}
+
+	private BufferedImage image;
+	private boolean valid = false;
+	//. offset of cached image since it was drawn, in pixels
+	private double offsetX = 0;
+	private double offsetY = 0;
+
+	/**
+	 * Mark layer as needing to be redrawn on next paint.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * Move cached image without redrawing it, e.g. while panning.  Offsets add up until
+	 * the layer is redrawn.
+	 *
+	 * @param dx  pixels to move right
+	 * @param dy  pixels to move down
+	 */
+	public void translate(double dx, double dy) {
+		offsetX += dx;
+		offsetY += dy;
+	}
+
+	/**
+	 * Check whether layer has been moved since it was drawn.
+	 *
+	 * @return true if layer is offset
+	 */
+	public boolean isTranslated() {
+		return (offsetX != 0) || (offsetY != 0);
+	}
+
+	/**
+	 * Check whether layer will be redrawn on next paint.
+	 *
+	 * @return true if cached image is up to date
+	 */
+	public boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * Paint layer onto component graphics, redrawing it first if needed.
+	 *
+	 * @param g2         Graphics2D to paint onto
+	 * @param component  Component being painted, which determines layer size
+	 * @param renderer   Renderer to redraw layer contents
+	 */
+	public void paint(Graphics2D g2, Component component, Renderer renderer) {
+		int width = component.getWidth();
+		int height = component.getHeight();
+		if ((width <= 0) || (height <= 0)) {
+			return;
+		}
+		if ((image == null) || (image.getWidth() != width) || (image.getHeight() != height)) {
+			if (image != null) {
+				image.flush();
+			}
+			GraphicsConfiguration gc = component.getGraphicsConfiguration();
+			if (gc != null) {
+				image = gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+			} else {
+				image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			}
+			valid = false;
+		}
+		if (!valid) {
+			Graphics2D imageGraphics = image.createGraphics();
+			try {
+				imageGraphics.setComposite(AlphaComposite.Clear);
+				imageGraphics.fillRect(0, 0, width, height);
+				imageGraphics.setComposite(AlphaComposite.SrcOver);
+				renderer.render(imageGraphics);
+			} finally {
+				imageGraphics.dispose();
+			}
+			valid = true;
+			offsetX = 0;
+			offsetY = 0;
+		}
+		int x = (int)Math.round(offsetX);
+		int y = (int)Math.round(offsetY);
+		//. copy only the part of the image inside the clip
+		Rectangle area = new Rectangle(x, y, width, height);
+		Rectangle clip = g2.getClipBounds();
+		if (clip != null) {
+			area = area.intersection(clip);
+			if (area.isEmpty()) {
+				return;
+			}
+		}
+		g2.drawImage(image, area.x, area.y, area.x + area.width, area.y + area.height,
+				area.x - x, area.y - y, area.x - x + area.width, area.y - y + area.height, null);
+	}
+
+	/**
+	 * Release cached image.  It will be recreated on next paint.
+	 */
+	public void flush() {
+		if (image != null) {
+			image.flush();
+			image = null;
+		}
+		valid = false;
+	}
+}
@@ -0,0 +1,184 @@
+package edu.ucla.astro.irlab.util.gui;
+
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+/**
+ * Uniform grid index of shapes, for finding the shape under the mouse pointer without
+ * testing every shape.
+ *
+ * The bounding box of all shapes is divided into roughly one cell per shape, and each
+ * shape is listed in every cell its bounds overlap.  A lookup only tests the shapes
+ * listed in the cell containing the point, and does not allocate.
+ *
+ * The index is immutable.  Use <code>matches</code> to check whether newly drawn shapes
+ * are the same as those indexed, so the index need only be rebuilt when they change.
+ */
+public class ShapeGridIndex<T> {
+	//. limit on cells per side, so memory is bounded for very large shape sets
+	private static final int MAX_CELLS_PER_SIDE = 256;
+
+	private final Shape[] shapes;
+	private final Object[] values;
+	private final double[] minX;
+	private final double[] minY;
+	private final double[] maxX;
+	private final double[] maxY;
+	private final double gridMinX;
+	private final double gridMinY;
+	private final double cellWidth;
+	private final double cellHeight;
+	private final int columns;
+	private final int rows;
+	//. shape indices for cell c are cellEntries[cellStart[c]] to cellEntries[cellStart[c+1]-1]
+	private final int[] cellStart;
+	private final int[] cellEntries;
+
+	/**
+	 * Constructor.  Shapes later in the list are considered to be drawn on top of earlier ones.
+	 *
+	 * @param shapeList  List of shapes to index
+	 * @param valueList  List of values associated with shapes, same size as <code>shapeList</code>
+	 */
+	public ShapeGridIndex(List<? extends Shape> shapeList, List<? extends T> valueList) {
+		if (shapeList.size() != valueList.size()) {
+			throw new IllegalArgumentException("Shape and value lists must be same size.");
+		}
+		int count = shapeList.size();
+		shapes = new Shape[count];
+		values = new Object[count];
+		minX = new double[count];
+		minY = new double[count];
+		maxX = new double[count];
+		maxY = new double[count];
+
+		double allMinX = Double.POSITIVE_INFINITY;
+		double allMinY = Double.POSITIVE_INFINITY;
+		double allMaxX = Double.NEGATIVE_INFINITY;
+		double allMaxY = Double.NEGATIVE_INFINITY;
+		for (int ii=0; ii<count; ii++) {
+			shapes[ii] = shapeList.get(ii);
+			values[ii] = valueList.get(ii);
+			Rectangle2D bounds = shapes[ii].getBounds2D();
+			minX[ii] = bounds.getMinX();
+			minY[ii] = bounds.getMinY();
+			maxX[ii] = bounds.getMaxX();
+			maxY[ii] = bounds.getMaxY();
+			allMinX = Math.min(allMinX, minX[ii]);
+			allMinY = Math.min(allMinY, minY[ii]);
+			allMaxX = Math.max(allMaxX, maxX[ii]);
+			allMaxY = Math.max(allMaxY, maxY[ii]);
+		}
+		if (count == 0) {
+			allMinX = allMinY = allMaxX = allMaxY = 0;
+		}
+
+		int cellsPerSide = Math.min(MAX_CELLS_PER_SIDE, Math.max(1, (int)Math.ceil(Math.sqrt(count))));
+		columns = cellsPerSide;
+		rows = cellsPerSide;
+		gridMinX = allMinX;
+		gridMinY = allMinY;
+		cellWidth = Math.max((allMaxX - allMinX) / columns, Double.MIN_VALUE);
+		cellHeight = Math.max((allMaxY - allMinY) / rows, Double.MIN_VALUE);
+
+		//. count entries in each cell, then fill.  entries within a cell stay in list order.
+		cellStart = new int[columns * rows + 1];
+		for (int ii=0; ii<count; ii++) {
+			int firstColumn = getColumn(minX[ii]);
+			int lastColumn = getColumn(maxX[ii]);
+			int firstRow = getRow(minY[ii]);
+			int lastRow = getRow(maxY[ii]);
+			for (int row=firstRow; row<=lastRow; row++) {
+				for (int column=firstColumn; column<=lastColumn; column++) {
+					cellStart[row * columns + column + 1]++;
+				}
+			}
+		}
+		for (int cell=0; cell<columns * rows; cell++) {
+			cellStart[cell+1] += cellStart[cell];
+		}
+		cellEntries = new int[cellStart[columns * rows]];
+		int[] fill = new int[columns * rows];
+		for (int ii=0; ii<count; ii++) {
+			int firstColumn = getColumn(minX[ii]);
+			int lastColumn = getColumn(maxX[ii]);
+			int firstRow = getRow(minY[ii]);
+			int lastRow = getRow(maxY[ii]);
+			for (int row=firstRow; row<=lastRow; row++) {
+				for (int column=firstColumn; column<=lastColumn; column++) {
+					int cell = row * columns + column;
+					cellEntries[cellStart[cell] + fill[cell]] = ii;
+					fill[cell]++;
+				}
+			}
+		}
+	}
+
+	private int getColumn(double x) {
+		return Math.max(0, Math.min(columns - 1, (int)((x - gridMinX) / cellWidth)));
+	}
+	private int getRow(double y) {
+		return Math.max(0, Math.min(rows - 1, (int)((y - gridMinY) / cellHeight)));
+	}
+
+	/**
+	 * Find topmost shape containing point.
+	 *
+	 * @param  x  x coordinate of point
+	 * @param  y  y coordinate of point
+	 * @return    value associated with topmost (latest in list) shape containing point,
+	 *            or null if no shape contains point
+	 */
+	@SuppressWarnings("unchecked")
+	public T find(double x, double y) {
+		if ((shapes.length == 0) || (x < gridMinX) || (y < gridMinY)) {
+			return null;
+		}
+		int cell = getRow(y) * columns + getColumn(x);
+		for (int jj=cellStart[cell+1]-1; jj>=cellStart[cell]; jj--) {
+			int ii = cellEntries[jj];
+			if ((x >= minX[ii]) && (x <= maxX[ii]) && (y >= minY[ii]) && (y <= maxY[ii]) && shapes[ii].contains(x, y)) {
+				return (T)values[ii];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Check whether shapes and values are the same as those indexed, such that an index built
+	 * from them would give the same results.  Values are compared by identity, and shapes by bounds
+	 * and class.
+	 *
+	 * @param  shapeList  List of shapes
+	 * @param  valueList  List of values associated with shapes
+	 * @return            true if index is valid for shapes and values
+	 */
+	public boolean matches(List<? extends Shape> shapeList, List<? extends T> valueList) {
+		int count = shapeList.size();
+		if ((count != shapes.length) || (valueList.size() != count)) {
+			return false;
+		}
+		for (int ii=0; ii<count; ii++) {
+			Shape shape = shapeList.get(ii);
+			if ((valueList.get(ii) != values[ii]) || (shape.getClass() != shapes[ii].getClass())) {
+				return false;
+			}
+			Rectangle2D bounds = shape.getBounds2D();
+			if ((bounds.getMinX() != minX[ii]) || (bounds.getMinY() != minY[ii]) ||
+					(bounds.getMaxX() != maxX[ii]) || (bounds.getMaxY() != maxY[ii])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get number of shapes indexed.
+	 *
+	 * @return number of shapes
+	 */
+	public int size() {
+		return shapes.length;
+	}
+}
@@ -24,6 +24,8 @@ import javax.swing.JSplitPane;
 import javax.swing.JTabbedPane;
 import javax.swing.SwingConstants;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.io.File;
 import java.io.IOException;
@@ -38,6 +40,7 @@ import org.jdom.*;
 import edu.ucla.astro.irlab.util.Property;
 import edu.ucla.astro.irlab.util.PropertyList;
 import edu.ucla.astro.irlab.util.PropertySetter;
+import edu.ucla.astro.irlab.util.SwingUpdateDispatcher;
 import edu.ucla.astro.irlab.util.ValueFormatter;
 import edu.ucla.astro.irlab.util.ValueValidator;
 import edu.ucla.astro.irlab.util.gui.MechButton;
@@ -51,6 +54,18 @@ public class GUILayout {
 	private Dimension screenSize;
 	private String name = "";
 	private String title = "";
+	//. targets of widgets to update when each property changes, by property name.  built when layout is read.
+	private HashMap<String, SwingUpdateDispatcher.UpdateTarget[]> propertyBindings = new HashMap<String, SwingUpdateDispatcher.UpdateTarget[]>();
+	//. applies property changes to widgets on the event dispatch thread, once per frame
+	private volatile SwingUpdateDispatcher updateDispatcher = SwingUpdateDispatcher.getSharedDispatcher();
+	//. properties the listener below is registered with.  only used on event dispatch thread.
+	private HashSet<Property> registeredProperties = new HashSet<Property>();
+	//. one listener is added to each registered property, and posts changes to its bound widgets
+	private final PropertyChangeListener propertyBindingListener = new PropertyChangeListener() {
+		public void propertyChange(PropertyChangeEvent evt) {
+			postValueOfComponent(evt.getPropertyName(), evt.getNewValue());
+		}
+	};
 	public static String WIDGET_LABEL = "label";
 	public static String WIDGET_FIELD = "field";
 	public static String WIDGET_MECH_BUTTON = "mechButton";
@@ -192,6 +207,45 @@ public class GUILayout {
 		List<Element> elements=root.getChildren();
 		
 		recursePanel(elements, mainContainer);
+		
+		bindProperties();
+	}
+	//. map each property name to the targets of the widgets that show it, so a property change
+	//. goes straight to its widgets, with their formats, instead of searching the whole layout
+	private void bindProperties() {
+		HashMap<String, ArrayList<SwingUpdateDispatcher.UpdateTarget>> bindings = new HashMap<String, ArrayList<SwingUpdateDispatcher.UpdateTarget>>();
+		bindProperties(bindings, mainContainer.getComponents());
+		HashMap<String, SwingUpdateDispatcher.UpdateTarget[]> newBindings = new HashMap<String, SwingUpdateDispatcher.UpdateTarget[]>();
+		for (String propName : bindings.keySet()) {
+			ArrayList<SwingUpdateDispatcher.UpdateTarget> targets = bindings.get(propName);
+			newBindings.put(propName, targets.toArray(new SwingUpdateDispatcher.UpdateTarget[targets.size()]));
+		}
+		propertyBindings = newBindings;
+	}
+	private void bindProperties(HashMap<String, ArrayList<SwingUpdateDispatcher.UpdateTarget>> bindings, ArrayList<GUIComponent> components) {
+		for (GUIComponent comp : components) {
+			if (comp instanceof GUIContainer) {
+				bindProperties(bindings, ((GUIContainer)comp).getComponents());
+			} else if (comp instanceof GUIWidget) {
+				GUIWidget widget = (GUIWidget)comp;
+				//. set controls only set their properties
+				if (widget.getWidgetType().compareTo(GUIWidget.WIDGET_TYPE_SET_CONTROL) == 0)
+					continue;
+				for (String propString : widget.getPropertyNames()) {
+					String propName = propString.trim();
+					if (propName.length() == 0)
+						continue;
+					ArrayList<SwingUpdateDispatcher.UpdateTarget> targets = bindings.get(propName);
+					if (targets == null) {
+						targets = new ArrayList<SwingUpdateDispatcher.UpdateTarget>();
+						bindings.put(propName, targets);
+					}
+					SwingUpdateDispatcher.UpdateTarget target = widget.getPropertyTarget(propName);
+					if (!targets.contains(target))
+						targets.add(target);
+				}
+			}
+		}
 	}
 	private void recursePanel(List<Element> elements, GUIContainer panel) throws InvalidGUILayoutException {
 		Attribute workingAtt;
@@ -823,7 +877,12 @@ public class GUILayout {
 	}
 	
 	public void setValueOfComponent(String propName, Object value) {
-		setValueOfComponent(propName, value, mainContainer.getComponents());
+		SwingUpdateDispatcher.UpdateTarget[] targets = propertyBindings.get(propName);
+		if (targets != null) {
+			for (SwingUpdateDispatcher.UpdateTarget target : targets) {
+				target.setValue(propName, value);
+			}
+		}
 	}
 	public void setValueOfComponent(String propName, Object value, ArrayList<GUIComponent> components) {
 		for (GUIComponent comp : components) {
@@ -839,6 +898,19 @@ public class GUILayout {
 			}
 		}
 	}
+	//. set value of bound widgets at next frame tick, on event dispatch thread.
+	//. only the latest value of each widget is applied.
+	private void postValueOfComponent(String propName, Object value) {
+		SwingUpdateDispatcher.UpdateTarget[] targets = propertyBindings.get(propName);
+		if (targets != null) {
+			for (SwingUpdateDispatcher.UpdateTarget target : targets) {
+				updateDispatcher.post(target, propName, value);
+			}
+		}
+	}
+	public void setUpdateDispatcher(SwingUpdateDispatcher dispatcher) {
+		updateDispatcher = dispatcher;
+	}
 	public void registerComponentsWithSetter(PropertySetter setter) {
 		registerComponentsWithSetter(setter, mainContainer.getComponents());
 	}
@@ -852,13 +924,28 @@ public class GUILayout {
 		}
 	}
 	public void registerComponentsWithProperties(PropertyList list) {
-		registerComponentsWithProperties(list, mainContainer.getComponents());
+		HashSet<Property> properties = new HashSet<Property>();
+		registerComponentsWithProperties(list, mainContainer.getComponents(), properties);
+		//. add property change handler once per property, not once per widget showing it
+		for (Property prop : properties) {
+			if (registeredProperties.add(prop)) {
+				prop.addPropertyChangeListener(propertyBindingListener);
+			}
+		}
 	}
-	private void registerComponentsWithProperties(PropertyList list, ArrayList<GUIComponent> components) {
+	//. stop updating components when properties change, e.g. while layout is hidden.
+	//. registerComponentsWithProperties updates them to current values again.
+	public void unregisterComponentsWithProperties() {
+		for (Property prop : registeredProperties) {
+			prop.removePropertyChangeListener(propertyBindingListener);
+		}
+		registeredProperties.clear();
+	}
+	private void registerComponentsWithProperties(PropertyList list, ArrayList<GUIComponent> components, HashSet<Property> properties) {
 		for (GUIComponent comp : components) {
 			if (comp instanceof GUIContainer) {
 				//. if it is a container, recurse through container components
-				registerComponentsWithProperties(list, ((GUIContainer)comp).getComponents());
+				registerComponentsWithProperties(list, ((GUIContainer)comp).getComponents(), properties);
 			} else if (comp instanceof GUIWidget) {
 				//. if it is a widget, get properties
 				String[] widgetProperties = ((GUIWidget)comp).getPropertyNames();
@@ -870,12 +957,7 @@ public class GUILayout {
 							((GUIWidget)comp).setFormat(propString, prop.getFormat());
 						//. set default value
 						((GUIWidget)comp).setValue(prop.getName(), prop.getValue());
-						//. add property change handler
-						prop.addPropertyChangeListener(new PropertyChangeListener(){
-							public void propertyChange(PropertyChangeEvent evt) {
-								setValueOfComponent(evt.getPropertyName(), evt.getNewValue());
-							}
-						});
+						properties.add(prop);
 					}
 				}
 			}
@@ -1,6 +1,8 @@
 package edu.ucla.astro.irlab.util.gui.builder;
 
 import java.awt.Point;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.io.File;
 import java.io.IOException;
@@ -46,12 +48,15 @@ public class GUIManager {
 	ArrayList<ProcessListener> processListenerList;
 	ArrayList<ComponentListener> componentListenerList;
 	private ArrayList<JInternalFrame> frameList;
+	//. layouts of GUI Builder GUIs in frameList, by same index, or null
+	private ArrayList<GUILayout> layoutList;
 	private JDesktopPane desktop;
 	PropertyList propList;
 	InternalFrameListener ifListener;
 	public GUIManager() {
 		guiList = new ArrayList<GUISpecification>();
 		frameList = new ArrayList<JInternalFrame>();	
+		layoutList = new ArrayList<GUILayout>();
 		processListenerList = new ArrayList<ProcessListener>();
 		componentListenerList = new ArrayList<ComponentListener>();
 	}
@@ -79,12 +84,16 @@ public class GUIManager {
 		this.guiList = guiList;
 		frameList.clear();
 		frameList = new ArrayList<JInternalFrame>();
-		while(frameList.size() < guiList.size())
+		layoutList = new ArrayList<GUILayout>();
+		while(frameList.size() < guiList.size()) {
 			frameList.add(null);
+			layoutList.add(null);
+		}
 	}
 	public void addGUI(GUISpecification spec) {
 		guiList.add(spec);
 		frameList.add(null);
+		layoutList.add(null);
 	}
 	public void addProcessListener(ProcessListener l) {
 		processListenerList.add(l);
@@ -247,18 +256,32 @@ public class GUIManager {
 			} else {
 			
 				try {
-					GUILayout layout = new GUILayout(spec.getLayoutFile());
+					//. layout is read when gui is first opened, and kept with its frame
+					final GUILayout layout = new GUILayout(spec.getLayoutFile());
 
 					//. register components with properties
 					if (propList != null) {
 				  	layout.populateListComponents(propList);
-						layout.registerComponentsWithProperties(propList);
 						layout.registerComponentsWithSetter(propList);
 					}
 		
 					//. otherwise, create, and then return
 					frame = GUIBuilder.createInternalGUI(layout);
 
+					//. components only listen to properties while frame is shown.
+					//. frame is created hidden, so registration waits until it is shown.
+					if (propList != null) {
+						frame.addComponentListener(new ComponentAdapter() {
+							public void componentShown(ComponentEvent ev) {
+								layout.registerComponentsWithProperties(propList);
+							}
+							public void componentHidden(ComponentEvent ev) {
+								layout.unregisterComponentsWithProperties();
+							}
+						});
+					}
+					layoutList.set(index, layout);
+
 				} catch (InvalidGUILayoutException iglEx) {
 					throw new InvalidGUISpecificationException("Error with layout <"+spec.getLayoutFilename()+">. "+iglEx.getMessage());
 				}
@@ -330,6 +353,11 @@ public class GUIManager {
 			if (frame != null)
 				frame.dispose();
 		}
+		//. remove property listeners now, rather than when hidden events are delivered
+		for (GUILayout layout : layoutList) {
+			if (layout != null)
+				layout.unregisterComponentsWithProperties();
+		}
 	}
 	public void readGUIList(File guiListFile) throws JDOMException, IOException, InvalidEnvironmentVariableException {
 		org.jdom.input.SAXBuilder builder = new org.jdom.input.SAXBuilder();
@@ -341,6 +369,7 @@ public class GUIManager {
 		//. clear guiList and frameList
 		guiList.clear();
 		frameList.clear();
+		layoutList.clear();
 		//. do we want to do the bottom?
 		//processListenerList.clear();
 		//componentListenerList.clear();
@@ -11,6 +11,7 @@ import javax.swing.JProgressBar;
 import edu.ucla.astro.irlab.util.InvalidValueException;
 import edu.ucla.astro.irlab.util.NoSuchPropertyException;
 import edu.ucla.astro.irlab.util.PropertySetter;
+import edu.ucla.astro.irlab.util.SwingUpdateDispatcher;
 import edu.ucla.astro.irlab.util.ValueFormatter;
 import edu.ucla.astro.irlab.util.ValueValidator;
 import edu.ucla.astro.irlab.util.gui.StatusLightPanel;
@@ -18,6 +19,7 @@ import edu.ucla.astro.irlab.util.gui.StatusLightPanel;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.text.DecimalFormat;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Hashtable;
 
@@ -32,6 +34,10 @@ public class GUIWidget extends GUIComponent {
   private String propertySetValue;
   private boolean valueSetByAction=true;
   private Hashtable<String, DecimalFormat> formatters = new Hashtable<String, DecimalFormat>();
+  //. sets value of component without a formatter.  chosen once, from component type, when widget is constructed.
+  private final ComponentSetter componentSetter;
+  //. setters of propertyNames, by index, with the formatter of each property
+  private ComponentSetter[] propertyComponentSetters;
 
 	public static String WIDGET_TYPE_STATUS = "status";
 	public static String WIDGET_TYPE_CONTROL = "control";
@@ -42,60 +48,121 @@ public class GUIWidget extends GUIComponent {
 		if (component instanceof JButton) {
 			((JButton)component).setText(name);
 		}
+		componentSetter = createComponentSetter(component);
+		propertyComponentSetters = new ComponentSetter[] {componentSetter};
 	}
-	public void setValue(Object value) {
-		setValue(propertyNames[0], value);
-	}
-	public void setValue(String propName, Object value) {
-		JComponent myComponent = super.getComponent();
-		String valueString = value.toString();
-		//. use ValueFormatter is specified
-		if (valueFormatter != null) {
-			//. TODO do we need an exception?
-			valueString = valueFormatter.getFormattedString(value);
-		} else {
-			DecimalFormat formatter = formatters.get(propName);
+
+	//. sets value of one kind of component for one property.  the property's formatter is
+	//. stored here when the property is bound, so updates do not look it up by name.
+	private abstract class ComponentSetter implements SwingUpdateDispatcher.UpdateTarget {
+		private volatile DecimalFormat formatter;
+
+		public abstract void setValue(String propName, Object value);
+		//. get text of value for label and field components
+		String formatValue(Object value) {
+			//. use ValueFormatter is specified
+			if (valueFormatter != null) {
+				//. TODO do we need an exception?
+				return valueFormatter.getFormattedString(value);
+			}
 			//. otherwise, use property formatter, if specified
-			if (formatter != null) {
+			DecimalFormat propertyFormatter = formatter;
+			if (propertyFormatter != null) {
 				if (value instanceof Double) {
-					valueString = formatter.format(((Double)value).doubleValue());
+					return propertyFormatter.format(((Double)value).doubleValue());
 				} else if (value instanceof Integer) {
-					valueString = formatter.format(((Integer)value).longValue());
+					return propertyFormatter.format(((Integer)value).longValue());
 				}
 			}
+			return value.toString();
 		}
-		
-		if (myComponent instanceof JLabel) {
-			((JLabel)myComponent).setText(valueString);
-		} else if (myComponent instanceof JTextField) {
-			((JTextField)myComponent).setText(valueString);
-		} else if (myComponent instanceof StatusLightPanel) {
-			valueSetByAction=false;
-			((StatusLightPanel)myComponent).setStatus(((Boolean)value).booleanValue());
-			valueSetByAction=true;
-		} else if (myComponent instanceof JProgressBar) {
-			((JProgressBar)myComponent).setValue(((Integer)value).intValue());
-			//. todo: change below to include units
-			((JProgressBar)myComponent).setString(((Integer)value).toString()+"%");
-		} else if (myComponent instanceof JComboBox) {
-			valueSetByAction=false;
-			((JComboBox)myComponent).setSelectedItem(value);
-			valueSetByAction=true;
-		} else {
-			try {
-			  //. try to see if the widget has a set value(String, Object) method
-				Method setValueMethod = myComponent.getClass().getMethod("setValue", new Class[] {String.class, Object.class});
-				setValueMethod.invoke(myComponent, propName, value);
-			} catch (NoSuchMethodException nsmEx) {
-			  System.out.println("Cannot set value <"+value.toString()+"> for <"+super.getComponentName()+">:component does not have a setValue(String, Object) method.");
-				//nsmEx.printStackTrace();
-			} catch (IllegalArgumentException iaEx) {
-			  System.out.println("Cannot set value <"+value.toString()+"> for <"+super.getComponentName()+">: illegal value <"+value.toString()+">");
-				iaEx.printStackTrace();
-			} catch (Exception ex) {
-			  System.out.println("Cannot set value <"+value.toString()+"> for <"+super.getComponentName()+">:unknown component type <"+myComponent.toString()+">.");
+	}
+	private ComponentSetter createComponentSetter(final JComponent component) {
+		if (component instanceof JLabel) {
+			return new ComponentSetter() {
+				public void setValue(String propName, Object value) {
+					((JLabel)component).setText(formatValue(value));
+				}
+			};
+		} else if (component instanceof JTextField) {
+			return new ComponentSetter() {
+				public void setValue(String propName, Object value) {
+					((JTextField)component).setText(formatValue(value));
+				}
+			};
+		} else if (component instanceof StatusLightPanel) {
+			return new ComponentSetter() {
+				public void setValue(String propName, Object value) {
+					valueSetByAction=false;
+					((StatusLightPanel)component).setStatus(((Boolean)value).booleanValue());
+					valueSetByAction=true;
+				}
+			};
+		} else if (component instanceof JProgressBar) {
+			return new ComponentSetter() {
+				public void setValue(String propName, Object value) {
+					((JProgressBar)component).setValue(((Integer)value).intValue());
+					//. todo: change below to include units
+					((JProgressBar)component).setString(((Integer)value).toString()+"%");
+				}
+			};
+		} else if (component instanceof JComboBox) {
+			return new ComponentSetter() {
+				public void setValue(String propName, Object value) {
+					valueSetByAction=false;
+					((JComboBox)component).setSelectedItem(value);
+					valueSetByAction=true;
+				}
+			};
+		}
+		//. otherwise, see if the widget has a setValue(String, Object) method.
+		//. it is looked up once here, not on every update.
+		final Method setValueMethod;
+		try {
+			setValueMethod = component.getClass().getMethod("setValue", new Class[] {String.class, Object.class});
+		} catch (NoSuchMethodException nsmEx) {
+			return new ComponentSetter() {
+				public void setValue(String propName, Object value) {
+					System.out.println("Cannot set value <"+value.toString()+"> for <"+getComponentName()+">:component does not have a setValue(String, Object) method.");
+				}
+			};
+		}
+		return new ComponentSetter() {
+			public void setValue(String propName, Object value) {
+				try {
+					setValueMethod.invoke(component, propName, value);
+				} catch (IllegalArgumentException iaEx) {
+					System.out.println("Cannot set value <"+value.toString()+"> for <"+getComponentName()+">: illegal value <"+value.toString()+">");
+					iaEx.printStackTrace();
+				} catch (IllegalAccessException iaEx) {
+					System.out.println("Cannot set value <"+value.toString()+"> for <"+getComponentName()+">:unknown component type <"+component.toString()+">.");
+				} catch (InvocationTargetException itEx) {
+					System.out.println("Cannot set value <"+value.toString()+"> for <"+getComponentName()+">:unknown component type <"+component.toString()+">.");
+				}
+			}
+		};
+	}
+	public void setValue(Object value) {
+		setValue(propertyNames[0], value);
+	}
+	public void setValue(String propName, Object value) {
+		getPropertyTarget(propName).setValue(propName, value);
+	}
+	/**
+	 * Get target that sets value of component for a property, formatted with the property's
+	 * format.  Looked up by name, so should be called when the property is bound, and the
+	 * target kept for updates.  Format set later with <code>setFormat</code> is still used.
+	 *
+	 * @param  propName  name of property
+	 * @return           UpdateTarget for property, without a format if widget does not show it
+	 */
+	public SwingUpdateDispatcher.UpdateTarget getPropertyTarget(String propName) {
+		for (int ii=0; ii<propertyNames.length; ii++) {
+			if (propertyNames[ii].trim().equals(propName)) {
+				return propertyComponentSetters[ii];
 			}
 		}
+		return componentSetter;
 	}
 	public void implementControl() {
 		//. todo: make consistent with SetterGUIWidget
@@ -169,6 +236,12 @@ public class GUIWidget extends GUIComponent {
 		this.propertyName = propertyName;
 		//. parse propertyName for multiple properties
 		propertyNames = propertyName.split(PROPERTY_NAME_DELIMITER);
+		ComponentSetter[] newSetters = new ComponentSetter[propertyNames.length];
+		for (int ii=0; ii<propertyNames.length; ii++) {
+			newSetters[ii] = createComponentSetter(super.getComponent());
+			newSetters[ii].formatter = formatters.get(propertyNames[ii]);
+		}
+		propertyComponentSetters = newSetters;
 	}
 	public boolean containsProperty(String propertyName) {
 		for (int ii=0; ii<propertyNames.length; ii++) {
@@ -215,5 +288,10 @@ public class GUIWidget extends GUIComponent {
 		} else {
 			formatter.applyPattern(format);
 		}
+		for (int ii=0; ii<propertyNames.length; ii++) {
+			if (propertyNames[ii].equals(propertyName)) {
+				propertyComponentSetters[ii].formatter = formatter;
+			}
+		}
 	}
 }
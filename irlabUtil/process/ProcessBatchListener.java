@@ -0,0 +1,15 @@
+package edu.ucla.astro.irlab.util.process;
+
+/**
+ * ProcessListener that can take several lines of output in one call.
+ *
+ * <code>ProcessControl</code> gives a listener implementing this all the lines read from a
+ * stream at once, in order, instead of calling it once per line, so a display can update
+ * once per batch.  Other listeners are called once per line.
+ *
+ * @see ProcessControl
+ */
+public interface ProcessBatchListener extends ProcessListener {
+  public void processErrMessages(ProcessInfo process, String[] messages);
+  public void processOutMessages(ProcessInfo process, String[] messages);
+}
@@ -1,17 +1,55 @@
 package edu.ucla.astro.irlab.util.process;
 
-import java.util.HashSet;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-public class ProcessControl {
+import org.apache.log4j.Logger;
 
+//. processes are run on a bounded pool of threads, so a burst of commands queues
+//. rather than starting three threads per command.  the thread running a process
+//. reads its output; error output is read on a pooled thread, unless merged into
+//. the output.  lines read together are passed to listeners together.  a process
+//. still running after its timeout, or cancelled through its future, is destroyed.
+//. listeners always get an exit code, -1 if the process could not be run.
+public class ProcessControl implements ProcessController {
+  private static final Logger logger = Logger.getLogger(ProcessControl.class);
+  public static final int DEFAULT_MAX_CONCURRENT_PROCESSES = 4;
+  //. most lines passed to listeners in one call
+  public static final int MAX_BATCH_LINES = 256;
+  private static final int THREAD_KEEP_ALIVE_SECONDS = 30;
+  private static ScheduledExecutorService timeoutScheduler;
 
-  private HashSet<ProcessListener> listeners = new HashSet<ProcessListener>();
+  private CopyOnWriteArraySet<ProcessListener> listeners = new CopyOnWriteArraySet<ProcessListener>();
+  private final ThreadPoolExecutor processExecutor;
+  private final ExecutorService errorPumpExecutor;
+  private volatile long defaultTimeoutMs = 0;
+  private volatile boolean mergeErrorStream = false;
 
   public ProcessControl() {
+    this(DEFAULT_MAX_CONCURRENT_PROCESSES);
+  }
+  public ProcessControl(int maxConcurrentProcesses) {
+    processExecutor = new ThreadPoolExecutor(maxConcurrentProcesses, maxConcurrentProcesses,
+        THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new ProcessThreadFactory("ProcessControl"));
+    processExecutor.allowCoreThreadTimeOut(true);
+    errorPumpExecutor = Executors.newCachedThreadPool(new ProcessThreadFactory("ProcessControl stderr"));
   }
   public void addProcessListener(ProcessListener l) {
       listeners.add(l);
@@ -19,12 +57,39 @@ public class ProcessControl {
   public void removeProcessListener(ProcessListener l) {
       listeners.remove(l);
   }
-  public void execute(String[] command) throws IOException, InterruptedException {
-    execute(new ProcessInfo(command, System.currentTimeMillis()));
+  //. time after which processes are destroyed, in milliseconds.  0 for no timeout.
+  public void setDefaultTimeoutMs(long timeoutMs) {
+    defaultTimeoutMs = timeoutMs;
+  }
+  public long getDefaultTimeoutMs() {
+    return defaultTimeoutMs;
+  }
+  //. if true, error output is read with output, and given to listeners as output
+  public void setMergeErrorStream(boolean merge) {
+    mergeErrorStream = merge;
+  }
+  public boolean isMergeErrorStream() {
+    return mergeErrorStream;
   }
-  public void execute(ProcessInfo pi) throws IOException, InterruptedException {
-    ExecuteCommandThread thread = new ExecuteCommandThread(pi);
-    thread.start();
+  //. failures to start the process are passed to listeners and give an exit code of -1,
+  //. rather than being thrown
+  public Future<Integer> execute(String[] command) {
+    return execute(new ProcessInfo(command, System.currentTimeMillis()));
+  }
+  public Future<Integer> execute(ProcessInfo pi) {
+    return execute(pi, defaultTimeoutMs);
+  }
+  //. run process when a pool thread is free.  the returned future gives the exit code,
+  //. and cancelling it destroys the process.
+  public Future<Integer> execute(ProcessInfo pi, long timeoutMs) {
+    ProcessRun run = new ProcessRun(pi, timeoutMs, mergeErrorStream);
+    ProcessFuture future = new ProcessFuture(run);
+    processExecutor.execute(future);
+    return future;
+  }
+  //. stop accepting processes.  processes already queued or running are left to finish.
+  public void shutdown() {
+    processExecutor.shutdown();
   }
 
   public void setExitCode(ProcessInfo process, int code) {
@@ -32,87 +97,234 @@ public class ProcessControl {
       System.out.println(process.getCommandString()+" x "+code);
     } else {
       //. scroll through listeners and call callback method
-      for (java.util.Iterator ii=listeners.iterator(); ii.hasNext(); )
-        ((ProcessListener)ii.next()).processExitCode(process, code);
+      for (ProcessListener l : listeners)
+        l.processExitCode(process, code);
     }
   }
   public void setProcessErrMessage(ProcessInfo process, String message) {
+    setProcessErrMessages(process, new String[] {message});
+  }
+  public void setProcessOutMessage(ProcessInfo process, String message) {
+    setProcessOutMessages(process, new String[] {message});
+  }
+  public void setProcessErrMessages(ProcessInfo process, String[] messages) {
     if (listeners.isEmpty()) {
-      System.out.println(process.getCommandString()+" : "+message);
+      for (String message : messages)
+        System.out.println(process.getCommandString()+" : "+message);
     } else {
-      //. scroll through listeners and call callback method
-      for (java.util.Iterator ii=listeners.iterator(); ii.hasNext(); )
-       ((ProcessListener)ii.next()).processErrMessage(process, message);
+      for (ProcessListener l : listeners) {
+        if (l instanceof ProcessBatchListener) {
+          ((ProcessBatchListener)l).processErrMessages(process, messages);
+        } else {
+          for (String message : messages)
+            l.processErrMessage(process, message);
+        }
+      }
     }
   }
-  public void setProcessOutMessage(ProcessInfo process, String message) {
+  public void setProcessOutMessages(ProcessInfo process, String[] messages) {
     if (listeners.isEmpty()) {
-      System.out.println(process.getCommandString()+" : "+message);
+      for (String message : messages)
+        System.out.println(process.getCommandString()+" : "+message);
     } else {
-      //. scroll through listeners and call callback method
-      for (java.util.Iterator ii=listeners.iterator(); ii.hasNext(); )
-       ((ProcessListener)ii.next()).processOutMessage(process, message);
+      for (ProcessListener l : listeners) {
+        if (l instanceof ProcessBatchListener) {
+          ((ProcessBatchListener)l).processOutMessages(process, messages);
+        } else {
+          for (String message : messages)
+            l.processOutMessage(process, message);
+        }
+      }
     }
   }
-  public class ExecuteCommandThread extends Thread {
-    ProcessInfo pi;
-    public ExecuteCommandThread(ProcessInfo pi) {
+
+  private static synchronized ScheduledExecutorService getTimeoutScheduler() {
+    if (timeoutScheduler == null) {
+      timeoutScheduler = Executors.newSingleThreadScheduledExecutor(new ProcessThreadFactory("ProcessControl timeout"));
+    }
+    return timeoutScheduler;
+  }
+
+  //. runs one process on a pool thread, and reads its output
+  private class ProcessRun implements Callable<Integer> {
+    private final ProcessInfo pi;
+    private final long timeoutMs;
+    private final boolean merge;
+    //. guarded by this
+    private boolean started = false;
+    private Process process;
+    private boolean cancelled = false;
+    private boolean timedOut = false;
+
+    ProcessRun(ProcessInfo pi, long timeoutMs, boolean merge) {
       this.pi = pi;
+      this.timeoutMs = timeoutMs;
+      this.merge = merge;
     }
-    public void run() {
+    public Integer call() {
+      synchronized (this) {
+        if (cancelled) {
+          //. already reported by cancel
+          return -1;
+        }
+        started = true;
+      }
+      Process proc;
       try {
-        Process proc = Runtime.getRuntime().exec(pi.getCommand());
-        ProcessOutputDirector pod = new ProcessOutputDirector(pi, proc.getInputStream());
-        ProcessErrorDirector ped = new ProcessErrorDirector(pi, proc.getErrorStream());
-        pod.start();
-        ped.start(); /* ? */
-        //. when complete, set exit code
-        setExitCode(pi, proc.waitFor());
+        ProcessBuilder builder = new ProcessBuilder(pi.getCommand());
+        builder.redirectErrorStream(merge);
+        proc = builder.start();
       } catch (Exception e) {
-        setProcessErrMessage(pi, "Error executing command:");
-        setProcessErrMessage(pi, pi.getCommandString());
-        setProcessErrMessage(pi, "ID: "+Long.toString(pi.getIdNumber()));
-        setProcessErrMessage(pi, e.getMessage());
+        setProcessErrMessages(pi, new String[] {"Error executing command:", pi.getCommandString(),
+            "ID: "+Long.toString(pi.getIdNumber()), e.getMessage()});
         setExitCode(pi, -1);
+        return -1;
+      }
+      synchronized (this) {
+        process = proc;
+        if (cancelled) {
+          proc.destroy();
+        }
+      }
+      ScheduledFuture<?> timeout = null;
+      if (timeoutMs > 0) {
+        timeout = getTimeoutScheduler().schedule(new Runnable() {
+          public void run() {
+            timeOut();
+          }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+      }
+      int code;
+      try {
+        Future<?> errorPump = null;
+        if (!merge) {
+          errorPump = errorPumpExecutor.submit(new StreamPump(pi, proc.getErrorStream(), true));
+        }
+        new StreamPump(pi, proc.getInputStream(), false).run();
+        code = proc.waitFor();
+        //. pass on all error output before exit code
+        if (errorPump != null) {
+          errorPump.get();
+        }
+      } catch (InterruptedException iEx) {
+        //. cancelled
+        proc.destroy();
+        code = -1;
+      } catch (ExecutionException eEx) {
+        logger.error("Error reading error output of <"+pi.getCommandString()+">", eEx.getCause());
+        code = proc.exitValue();
+      } finally {
+        if (timeout != null) {
+          timeout.cancel(false);
+        }
+      }
+      synchronized (this) {
+        if (cancelled) {
+          setProcessErrMessage(pi, "Process cancelled.");
+          code = -1;
+        } else if (timedOut) {
+          setProcessErrMessage(pi, "Process timed out after "+timeoutMs+" ms.");
+        }
+      }
+      setExitCode(pi, code);
+      return code;
+    }
+    //. destroy process, if running.  returns true if process had not been started,
+    //. in which case it will not be, and the exit code must be reported here.
+    synchronized boolean cancel() {
+      cancelled = true;
+      if (process != null) {
+        process.destroy();
+      }
+      return !started;
+    }
+    synchronized void timeOut() {
+      timedOut = true;
+      if (process != null) {
+        process.destroy();
       }
     }
   }
-  public class ProcessOutputDirector extends Thread {
-    InputStream is;
-    ProcessInfo pi;
-    public ProcessOutputDirector(ProcessInfo pi, InputStream is) {
-      this.is = is;
-      this.pi = pi;
+
+  //. future of process exit code.  cancelling destroys process, since threads
+  //. reading its output cannot be interrupted.
+  private class ProcessFuture extends FutureTask<Integer> {
+    private final ProcessRun run;
+    ProcessFuture(ProcessRun run) {
+      super(run);
+      this.run = run;
     }
-    public void run() {
-      try {
-        BufferedReader br = new BufferedReader(new InputStreamReader(is));
-        String line=null;
-        while( (line=br.readLine()) != null) {
-          setProcessOutMessage(pi, line);
-        }
-      } catch (IOException ioE) {
-        ioE.printStackTrace();
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled && run.cancel()) {
+        setProcessErrMessage(run.pi, "Process cancelled.");
+        setExitCode(run.pi, -1);
       }
+      return cancelled;
     }
   }
-  public class ProcessErrorDirector extends Thread {
+
+  //. reads lines from a process stream, passing lines that are ready together to listeners
+  private class StreamPump implements Runnable {
     InputStream is;
     ProcessInfo pi;
-    public ProcessErrorDirector(ProcessInfo pi, InputStream is) {
+    boolean isErr;
+    public StreamPump(ProcessInfo pi, InputStream is, boolean isErr) {
       this.is = is;
       this.pi = pi;
+      this.isErr = isErr;
     }
     public void run() {
+      ArrayList<String> batch = new ArrayList<String>();
       try {
         BufferedReader br = new BufferedReader(new InputStreamReader(is));
         String line=null;
         while( (line=br.readLine()) != null) {
-          setProcessErrMessage(pi, line);
+          batch.add(line);
+          //. take lines already read without waiting for more
+          while (br.ready() && (batch.size() < MAX_BATCH_LINES) && ((line=br.readLine()) != null)) {
+            batch.add(line);
+          }
+          send(batch);
+          if (line == null) {
+            break;
+          }
         }
       } catch (IOException ioE) {
-        ioE.printStackTrace();
+        //. stream is closed when process is destroyed
+        logger.debug("Error reading output of <"+pi.getCommandString()+">: "+ioE.getMessage());
+      } finally {
+        send(batch);
+        try {
+          is.close();
+        } catch (IOException ioE) {
+          //. nothing to do
+        }
       }
     }
+    private void send(ArrayList<String> batch) {
+      if (batch.isEmpty()) {
+        return;
+      }
+      String[] messages = batch.toArray(new String[batch.size()]);
+      batch.clear();
+      if (isErr) {
+        setProcessErrMessages(pi, messages);
+      } else {
+        setProcessOutMessages(pi, messages);
+      }
+    }
+  }
+
+  private static class ProcessThreadFactory implements ThreadFactory {
+    private final String name;
+    ProcessThreadFactory(String name) {
+      this.name = name;
+    }
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, name);
+      thread.setDaemon(true);
+      return thread;
+    }
   }
 }
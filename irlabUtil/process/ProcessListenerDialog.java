@@ -13,7 +13,7 @@ import javax.swing.*;
  * @version 1.0
  */
 
-public class ProcessListenerDialog extends JDialog implements ProcessListener {
+public class ProcessListenerDialog extends JDialog implements ProcessBatchListener {
   JPanel mainPanel = new JPanel();
   JPanel commandPanel = new JPanel();
   JPanel outputPanel = new JPanel();
@@ -121,6 +121,22 @@ public class ProcessListenerDialog extends JDialog implements ProcessListener {
         outputText.setCaretPosition(outputText.getDocument().getLength());
     }
   }
+  public void processErrMessages(ProcessInfo process, String[] messages) {
+    processOutMessages(process, messages);
+  }
+  public void processOutMessages(ProcessInfo process, String[] messages) {
+    if (process.equals(this.process)) {
+      //. one append for all lines
+      StringBuffer text = new StringBuffer();
+      for (String message : messages) {
+        text.append(message);
+        text.append("\n");
+      }
+      outputText.append(text.toString());
+      if (autoscroll)
+        outputText.setCaretPosition(outputText.getDocument().getLength());
+    }
+  }
   public void processExitCode(ProcessInfo process, int code) {
     if (process.equals(this.process)) {
       exitCodeLabel.setText(Integer.toString(code));
@@ -13,7 +13,7 @@ import javax.swing.JTextArea;
 //. TODO copy messages to stored list to that previous items can be restored to old messages
 //. TODO color code messages according to command
 //. TODO different format for err vs. out messages?
-public class ProcessListenerPanel extends JPanel implements ProcessListener {
+public class ProcessListenerPanel extends JPanel implements ProcessBatchListener {
   /**
 	 * 
 	 */
@@ -80,6 +80,23 @@ public class ProcessListenerPanel extends JPanel implements ProcessListener {
     }
 	}
 
+	public void processErrMessages(ProcessInfo process, String[] messages) {
+		processOutMessages(process, messages);
+	}
+
+	public void processOutMessages(ProcessInfo process, String[] messages) {
+		//. one append for all lines
+		StringBuffer text = new StringBuffer();
+		for (String message : messages) {
+			text.append(formatMessage(process, message));
+			text.append("\n");
+		}
+    outputText.append(text.toString());
+    if (autoscroll) {
+      outputText.setCaretPosition(outputText.getDocument().getLength());
+    }
+	}
+
 	public void processExitCode(ProcessInfo process, int code) {
 		String message = "Process has exited with code (" + code + ")";
     outputText.append(formatMessage(process, message)+"\n");
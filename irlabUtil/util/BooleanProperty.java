@@ -6,16 +6,20 @@ public class BooleanProperty extends Property {
 		value = new Boolean(false);
 	}
 	public void setValue(boolean newValue) {
-		setValue(new Boolean(newValue));
+		while (true) {
+			Boolean oldValue = (Boolean)value;
+			if (oldValue.booleanValue() == newValue) {
+				return;
+			}
+			Boolean newObject = Boolean.valueOf(newValue);
+			if (replaceValue(oldValue, newObject)) {
+				fireValueChange(oldValue, newObject);
+				return;
+			}
+		}
 	}
 	public void setValue(Boolean newValue) {
-		if (!newValue.equals((Boolean)value)) {
-			logger.debug("Setting property <"+name+"> to new value <"+newValue+">.");
-		}
-		Boolean oldValue = (Boolean)value;
-		value = newValue;
-		propertyChangeListeners.firePropertyChange(name, oldValue, value);
-
+		setValue(newValue.booleanValue());
 	}
 	public void setValue(int newValue) {
 		if (newValue == 0)
@@ -36,7 +40,7 @@ public class BooleanProperty extends Property {
 		return (((Boolean)value).booleanValue() ? 1 : 0);
 	}
 	public boolean getPrimitiveValue() {
-		return getValue().booleanValue();
+		return ((Boolean)value).booleanValue();
 	}
 	public Boolean getValue() {
 		return (Boolean)value;
@@ -0,0 +1,106 @@
+package edu.ucla.astro.irlab.util;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Property change listener that passes changes on to a Swing listener on the event dispatch
+ * thread, at most once per frame, with only the latest change of each property.
+ *
+ * Properties set from keyword callbacks notify their listeners on the callback thread, as often
+ * as the keywords are broadcast.  Registering a Swing listener through one of these instead
+ * moves it onto the event dispatch thread, and means it is called at most once per property per
+ * frame however fast the value changes.  A coalesced event has the old value of the first change
+ * and the new value of the last; if these are equal, it is dropped.
+ *
+ * Changes are posted to a <code>SwingUpdateDispatcher</code>, which does the coalescing and
+ * frame timing, so they are delivered in the same frame ticks as other updates posted to it.
+ *
+ * Changes are coalesced by property name, so a listener should not be shared by sources that
+ * fire changes with the same property name.  Keep a reference to the listener to remove it.
+ *
+ * @see SwingUpdateDispatcher
+ */
+public class CoalescedPropertyChangeListener implements PropertyChangeListener, SwingUpdateDispatcher.UpdateTarget {
+	private static final Logger logger = Logger.getLogger(CoalescedPropertyChangeListener.class);
+	//. stands in for null old values, which ConcurrentHashMap does not allow
+	private static final Object NULL_VALUE = new Object();
+
+	private final PropertyChangeListener listener;
+	private final SwingUpdateDispatcher dispatcher;
+	//. old value of first change of each property not yet delivered, by property name
+	private final ConcurrentHashMap<String, Object> firstOldValues = new ConcurrentHashMap<String, Object>();
+
+	/**
+	 * Constructor with shared dispatcher.
+	 *
+	 * @param listener  PropertyChangeListener to call on the event dispatch thread
+	 */
+	public CoalescedPropertyChangeListener(PropertyChangeListener listener) {
+		this(listener, SwingUpdateDispatcher.getSharedDispatcher());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param listener    PropertyChangeListener to call on the event dispatch thread
+	 * @param dispatcher  SwingUpdateDispatcher to post changes to
+	 */
+	public CoalescedPropertyChangeListener(PropertyChangeListener listener, SwingUpdateDispatcher dispatcher) {
+		this.listener = listener;
+		this.dispatcher = dispatcher;
+	}
+
+	public void propertyChange(PropertyChangeEvent evt) {
+		Object oldValue = evt.getOldValue();
+		firstOldValues.putIfAbsent(getKey(evt.getPropertyName()), (oldValue == null) ? NULL_VALUE : oldValue);
+		dispatcher.post(this, evt.getPropertyName(), evt);
+	}
+
+	/**
+	 * Deliver latest change of property to listener.  Called by dispatcher on the event
+	 * dispatch thread.
+	 *
+	 * @param propName  name of property
+	 * @param value     latest PropertyChangeEvent of property
+	 */
+	public void setValue(String propName, Object value) {
+		PropertyChangeEvent evt = (PropertyChangeEvent)value;
+		Object oldValue = firstOldValues.remove(getKey(propName));
+		if (oldValue != null) {
+			//. merge with earlier changes, keeping the first old value
+			evt = new PropertyChangeEvent(evt.getSource(), evt.getPropertyName(), (oldValue == NULL_VALUE) ? null : oldValue, evt.getNewValue());
+		}
+		if (isUnchanged(evt)) {
+			return;
+		}
+		try {
+			listener.propertyChange(evt);
+		} catch (RuntimeException ex) {
+			//. do not lose other properties' changes
+			logger.error("Error delivering change of property <"+evt.getPropertyName()+">", ex);
+		}
+	}
+
+	//. key for events with null property name, which ConcurrentHashMap does not allow
+	private static String getKey(String propName) {
+		return (propName == null) ? "" : propName;
+	}
+
+	private static boolean isUnchanged(PropertyChangeEvent evt) {
+		Object oldValue = evt.getOldValue();
+		return (oldValue != null) && oldValue.equals(evt.getNewValue());
+	}
+
+	/**
+	 * Get listener that changes are passed to.
+	 *
+	 * @return PropertyChangeListener called on the event dispatch thread
+	 */
+	public PropertyChangeListener getListener() {
+		return listener;
+	}
+}
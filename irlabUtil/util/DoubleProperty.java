@@ -9,19 +9,26 @@ public class DoubleProperty extends Property {
 		allowedValues = new ArrayList<Double>();
 	}
 	public void setValue(double newValue) {
-		setValue(new Double(newValue));
+		long newBits = Double.doubleToLongBits(newValue);
+		while (true) {
+			Double oldValue = (Double)value;
+			//. same test as Double.equals
+			if (Double.doubleToLongBits(oldValue.doubleValue()) == newBits) {
+				return;
+			}
+			Double newObject = new Double(newValue);
+			if (replaceValue(oldValue, newObject)) {
+				fireValueChange(oldValue, newObject);
+				return;
+			}
+		}
 	}
 	public void setValue(Double newValue) {
-		if (!newValue.equals((Double)value)) {
-			logger.debug("Setting property <"+name+"> to new value <"+newValue+">.");
-		}
-		Double oldValue = (Double)value;
-		value = newValue;
-		propertyChangeListeners.firePropertyChange(name, oldValue, value);
+		setValue(newValue.doubleValue());
 	}
 	public void setValue(String newValue) throws InvalidValueException{
 		try {
-			setValue(new Double(newValue));
+			setValue(Double.parseDouble(newValue));
 		} catch (NumberFormatException nfEx) {
 			//. throw exception
 			throw new InvalidValueException("Invalid Value <"+newValue+">.  Must be a parsable double value.");
@@ -43,7 +50,7 @@ public class DoubleProperty extends Property {
 	}
 
 	public double getPrimitiveDoubleValue() {
-		return getValue().doubleValue();
+		return ((Double)value).doubleValue();
 	}
 	public Double getValue() {
 		return (Double)value;
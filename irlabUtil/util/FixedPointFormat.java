@@ -0,0 +1,202 @@
+package edu.ucla.astro.irlab.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Fixed-point number formatter producing the same text as a <code>DecimalFormat</code> with
+ * a pattern such as "0.00", "00", "0.0##", or "+00;-00" in the default locale, but which
+ * is immutable and therefore thread-safe, and which appends directly to a <code>StringBuilder</code>.
+ *
+ * Like <code>DecimalFormat</code>, rounding is done on the exact binary value of the number, but
+ * digits beyond those needed to identify the number are zeros.
+ * Most numbers are rounded with long arithmetic; only numbers that are very large or very close
+ * to halfway between two results are rounded with <code>BigDecimal</code>.
+ *
+ * @see NumberFormatters
+ */
+public final class FixedPointFormat {
+	private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L,
+		10000000L, 100000000L, 1000000000L, 10000000000L, 100000000000L, 1000000000000L,
+		10000000000000L, 100000000000000L, 1000000000000000L, 10000000000000000L,
+		100000000000000000L, 1000000000000000000L};
+	//. below this, scaled value is within 1e-7 of exact value, so rounding with long is exact
+	//. unless fraction is within TIE_TOLERANCE of one half.
+	private static final double FAST_PATH_LIMIT = 1e9;
+	private static final double TIE_TOLERANCE = 1e-6;
+
+	private final int minimumIntegerDigits;
+	private final int minimumFractionDigits;
+	private final int maximumFractionDigits;
+	private final RoundingMode roundingMode;
+	//. long rounding is only used for modes that differ only on ties
+	private final boolean halfRounding;
+	private final String positivePrefix;
+	private final String negativePrefix;
+	private final char zeroDigit;
+	private final char decimalSeparator;
+	private final String nanSymbol;
+	private final String infinitySymbol;
+
+	/**
+	 * Constructor for format with no positive prefix, and the locale minus sign as the negative prefix.
+	 *
+	 * @param minimumIntegerDigits   minimum number of integer digits, padded with zeros
+	 * @param minimumFractionDigits  minimum number of fraction digits, padded with zeros
+	 * @param maximumFractionDigits  maximum number of fraction digits
+	 * @param roundingMode           RoundingMode for dropped digits
+	 */
+	public FixedPointFormat(int minimumIntegerDigits, int minimumFractionDigits, int maximumFractionDigits, RoundingMode roundingMode) {
+		this(minimumIntegerDigits, minimumFractionDigits, maximumFractionDigits, roundingMode, "", null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param minimumIntegerDigits   minimum number of integer digits, padded with zeros
+	 * @param minimumFractionDigits  minimum number of fraction digits, padded with zeros
+	 * @param maximumFractionDigits  maximum number of fraction digits
+	 * @param roundingMode           RoundingMode for dropped digits
+	 * @param positivePrefix         String put before positive numbers
+	 * @param negativePrefix         String put before negative numbers, or null for locale minus sign
+	 */
+	public FixedPointFormat(int minimumIntegerDigits, int minimumFractionDigits, int maximumFractionDigits, RoundingMode roundingMode, String positivePrefix, String negativePrefix) {
+		if ((minimumFractionDigits < 0) || (maximumFractionDigits < minimumFractionDigits) || (minimumIntegerDigits < 0)) {
+			throw new IllegalArgumentException("Invalid digit counts: "+minimumIntegerDigits+", "+minimumFractionDigits+", "+maximumFractionDigits);
+		}
+		DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+		this.minimumIntegerDigits = minimumIntegerDigits;
+		this.minimumFractionDigits = minimumFractionDigits;
+		this.maximumFractionDigits = maximumFractionDigits;
+		this.roundingMode = roundingMode;
+		halfRounding = (roundingMode == RoundingMode.HALF_UP) || (roundingMode == RoundingMode.HALF_EVEN) || (roundingMode == RoundingMode.HALF_DOWN);
+		this.positivePrefix = positivePrefix;
+		this.negativePrefix = (negativePrefix == null) ? String.valueOf(symbols.getMinusSign()) : negativePrefix;
+		zeroDigit = symbols.getZeroDigit();
+		decimalSeparator = symbols.getDecimalSeparator();
+		nanSymbol = symbols.getNaN();
+		infinitySymbol = symbols.getInfinity();
+	}
+
+	/**
+	 * Format number.
+	 *
+	 * @param  value  number to format
+	 * @return        formatted String
+	 */
+	public String format(double value) {
+		return append(new StringBuilder(16), value).toString();
+	}
+
+	/**
+	 * Append formatted number to buffer.
+	 *
+	 * @param  buffer StringBuilder to append to
+	 * @param  value  number to format
+	 * @return        <code>buffer</code>, for chaining
+	 */
+	public StringBuilder append(StringBuilder buffer, double value) {
+		if (Double.isNaN(value)) {
+			return buffer.append(nanSymbol);
+		}
+		//. negative zero keeps its sign, like DecimalFormat
+		boolean negative = (value < 0.0) || ((value == 0.0) && (1/value < 0.0));
+		buffer.append(negative ? negativePrefix : positivePrefix);
+		if (Double.isInfinite(value)) {
+			return buffer.append(infinitySymbol);
+		}
+		double magnitude = Math.abs(value);
+
+		if (halfRounding && (maximumFractionDigits < POWERS_OF_TEN.length)) {
+			double scaled = magnitude * POWERS_OF_TEN[maximumFractionDigits];
+			if (scaled < FAST_PATH_LIMIT) {
+				long floor = (long)scaled;
+				double fraction = scaled - floor;
+				long rounded;
+				if (Math.abs(fraction - 0.5) > TIE_TOLERANCE) {
+					rounded = (fraction < 0.5) ? floor : floor + 1;
+				} else {
+					rounded = new BigDecimal(magnitude).setScale(maximumFractionDigits, roundingMode).unscaledValue().longValue();
+				}
+				appendScaled(buffer, rounded);
+				return buffer;
+			}
+		}
+
+		//. slow path for large numbers and other rounding modes.
+		//. like DecimalFormat, digits beyond those of the shortest representation are zeros
+		BigDecimal shortest = new BigDecimal(Double.toString(magnitude));
+		BigDecimal rounded;
+		if (shortest.scale() <= maximumFractionDigits) {
+			rounded = shortest.setScale(maximumFractionDigits);
+		} else {
+			rounded = new BigDecimal(magnitude).setScale(maximumFractionDigits, roundingMode);
+		}
+		String digits = rounded.unscaledValue().toString();
+		int integerLength = digits.length() - maximumFractionDigits;
+		StringBuilder fraction = new StringBuilder(maximumFractionDigits);
+		if (integerLength > 0) {
+			appendZeros(buffer, minimumIntegerDigits - integerLength);
+			appendDigits(buffer, digits, 0, integerLength);
+			fraction.append(digits, integerLength, digits.length());
+		} else {
+			appendZeros(buffer, minimumIntegerDigits);
+			for (int ii=integerLength; ii<0; ii++) {
+				fraction.append('0');
+			}
+			fraction.append(digits);
+		}
+		int fractionLength = maximumFractionDigits;
+		while ((fractionLength > minimumFractionDigits) && (fraction.charAt(fractionLength - 1) == '0')) {
+			fractionLength--;
+		}
+		if (fractionLength > 0) {
+			buffer.append(decimalSeparator);
+			appendDigits(buffer, fraction.toString(), 0, fractionLength);
+		}
+		return buffer;
+	}
+
+	private void appendScaled(StringBuilder buffer, long scaled) {
+		long integerPart = scaled / POWERS_OF_TEN[maximumFractionDigits];
+		long fractionPart = scaled % POWERS_OF_TEN[maximumFractionDigits];
+
+		int integerLength = 0;
+		if (integerPart > 0) {
+			integerLength = 1;
+			while ((integerLength < POWERS_OF_TEN.length) && (integerPart >= POWERS_OF_TEN[integerLength])) {
+				integerLength++;
+			}
+		}
+		appendZeros(buffer, minimumIntegerDigits - integerLength);
+		for (int ii=integerLength-1; ii>=0; ii--) {
+			buffer.append((char)(zeroDigit + (integerPart / POWERS_OF_TEN[ii]) % 10));
+		}
+
+		//. drop trailing zeros down to minimum
+		int fractionLength = maximumFractionDigits;
+		while ((fractionLength > minimumFractionDigits) && (fractionPart % 10 == 0)) {
+			fractionPart /= 10;
+			fractionLength--;
+		}
+		if (fractionLength > 0) {
+			buffer.append(decimalSeparator);
+			for (int ii=fractionLength-1; ii>=0; ii--) {
+				buffer.append((char)(zeroDigit + (fractionPart / POWERS_OF_TEN[ii]) % 10));
+			}
+		}
+	}
+
+	private void appendDigits(StringBuilder buffer, String digits, int start, int end) {
+		for (int ii=start; ii<end; ii++) {
+			buffer.append((char)(zeroDigit + (digits.charAt(ii) - '0')));
+		}
+	}
+
+	private void appendZeros(StringBuilder buffer, int count) {
+		for (int ii=0; ii<count; ii++) {
+			buffer.append(zeroDigit);
+		}
+	}
+}
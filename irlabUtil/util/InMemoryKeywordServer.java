@@ -0,0 +1,126 @@
+package edu.ucla.astro.irlab.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Stand-in for a KTL keyword server, for running property-driven GUIs and testing property
+ * setting without a server.
+ *
+ * Register it with a <code>PropertyList</code> in place of a <code>KJavaPropertyManager</code>.
+ * A modify waits for the simulated round trip time, broadcasts the new value back to the
+ * list, as the server's cshow callback would, and stores it.  Several modifies may be in
+ * progress at once, as with a real server.
+ *
+ * @see KJavaPropertyManager
+ */
+public class InMemoryKeywordServer implements ExternalPropertySetter {
+	private static final Logger logger = Logger.getLogger(InMemoryKeywordServer.class);
+
+	private final String serverName;
+	private final PropertyList propertyList;
+	//. keyword values by upper case keyword name
+	private final ConcurrentHashMap<String, String> keywordValues = new ConcurrentHashMap<String, String>();
+	private volatile int modifyLatencyMs = 0;
+	private final AtomicInteger modifyCount = new AtomicInteger(0);
+	private final AtomicInteger activeModifyCount = new AtomicInteger(0);
+	private final AtomicInteger maxActiveModifyCount = new AtomicInteger(0);
+
+	/**
+	 * Constructor.
+	 *
+	 * @param list    PropertyList that modified values are broadcast to
+	 * @param server  name of server, for logging
+	 */
+	public InMemoryKeywordServer(PropertyList list, String server) {
+		propertyList = list;
+		serverName = server;
+	}
+
+	public void setExternalProperty(Property prop, String value) throws SetExternalPropertyException {
+		String keywordName = prop.getKeywordName();
+		if (keywordName.length() == 0) {
+			throw new SetExternalPropertyException("Property <"+prop.getName()+"> has no keyword.");
+		}
+		value = PropertyList.getKeywordValue(prop, value);
+		logger.info("Doing a modify on "+serverName+"."+keywordName+"="+value);
+		modify(keywordName, value);
+	}
+
+	/**
+	 * Modify keyword, waiting for the simulated round trip before broadcasting the new value.
+	 *
+	 * @param  keywordName                  name of keyword
+	 * @param  value                        new value
+	 * @throws SetExternalPropertyException if value is invalid for the keyword's properties,
+	 *                                      or if interrupted
+	 */
+	public void modify(String keywordName, String value) throws SetExternalPropertyException {
+		int active = activeModifyCount.incrementAndGet();
+		while (true) {
+			int max = maxActiveModifyCount.get();
+			if ((active <= max) || maxActiveModifyCount.compareAndSet(max, active)) {
+				break;
+			}
+		}
+		try {
+			if (modifyLatencyMs > 0) {
+				Thread.sleep(modifyLatencyMs);
+			}
+			//. values the properties reject are not stored, as a server would reject them
+			propertyList.setPropertyValueFromKeywordName(keywordName, value);
+			keywordValues.put(keywordName.toUpperCase(), value);
+			modifyCount.incrementAndGet();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SetExternalPropertyException("Interrupted modifying "+serverName+"."+keywordName, ex);
+		} catch (InvalidValueException ex) {
+			throw new SetExternalPropertyException(ex.getMessage(), ex);
+		} finally {
+			activeModifyCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Get keyword value.
+	 *
+	 * @param  keywordName  name of keyword
+	 * @return              last value modified, or null if keyword has not been modified
+	 */
+	public String show(String keywordName) {
+		return keywordValues.get(keywordName.toUpperCase());
+	}
+
+	public String getServerName() {
+		return serverName;
+	}
+	/**
+	 * Set simulated round trip time of each modify.
+	 *
+	 * @param modifyLatencyMs  time in milliseconds
+	 */
+	public void setModifyLatencyMs(int modifyLatencyMs) {
+		this.modifyLatencyMs = modifyLatencyMs;
+	}
+	public int getModifyLatencyMs() {
+		return modifyLatencyMs;
+	}
+	/**
+	 * Get number of modifies completed.
+	 *
+	 * @return number of modifies
+	 */
+	public int getModifyCount() {
+		return modifyCount.get();
+	}
+	/**
+	 * Get largest number of modifies that have been in progress at once.
+	 *
+	 * @return number of modifies
+	 */
+	public int getMaxConcurrentModifyCount() {
+		return maxActiveModifyCount.get();
+	}
+}
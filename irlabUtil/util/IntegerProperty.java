@@ -9,20 +9,24 @@ public class IntegerProperty extends Property {
 		allowedValues = new ArrayList<Integer>();
 	}
 	public void setValue(int newValue) {
-		setValue(new Integer(newValue));
+		while (true) {
+			Integer oldValue = (Integer)value;
+			if (oldValue.intValue() == newValue) {
+				return;
+			}
+			Integer newObject = Integer.valueOf(newValue);
+			if (replaceValue(oldValue, newObject)) {
+				fireValueChange(oldValue, newObject);
+				return;
+			}
+		}
 	}
 	public void setValue(Integer newValue) {
-		if (!newValue.equals((Integer)value)) {
-			logger.debug("Setting property <"+name+"> to new value <"+newValue+">.");
-		}
-		Integer oldValue = (Integer)value;
-		value = newValue;
-		propertyChangeListeners.firePropertyChange(name, oldValue, value);
-
+		setValue(newValue.intValue());
 	}
 	public void setValue(String newValue) throws InvalidValueException {
 		try {
-			setValue(new Integer(newValue));
+			setValue(Integer.parseInt(newValue));
 		} catch (NumberFormatException nfEx) {
 			//. throw exception
 			throw new InvalidValueException("Invalid Value <"+newValue+">.  Must be a parsable integer value.");
@@ -43,7 +47,7 @@ public class IntegerProperty extends Property {
 		this.allowedValues = allowedValues;
 	}
 	public int getIntValue() {
-		return getValue().intValue();
+		return ((Integer)value).intValue();
 	}
 	public Integer getValue() {
 		return (Integer)value;
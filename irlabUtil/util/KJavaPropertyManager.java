@@ -6,13 +6,9 @@ import edu.hawaii.keck.kjava.KJavaException;
 import edu.hawaii.keck.kjava.KJavaJniException;
 import edu.hawaii.keck.kjava.KeywordInfo;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.Enumeration;
+import java.util.List;
 
 import org.apache.log4j.Logger;
 
@@ -24,16 +20,12 @@ public class KJavaPropertyManager implements KJavaCShowListener, ExternalPropert
 	PropertyList propertyList;
 	String[] cshowKeywords;
   private JniKJavaClient kjavaClient;
-  boolean polling=false;
-	DateFormat lastAliveFormat = new SimpleDateFormat("yy/MM/dd,HH:mm:ss");
-	Calendar calendar;
-	MonitorServerThread monitorServerThread;
+	ServerMonitor serverMonitor;
 	public KJavaPropertyManager(PropertyList list, String server) throws KJavaException {
   	propertyList = list;
   	serverName=server;
   	kjavaClient = new JniKJavaClient(server);
     kjavaClient.addKJavaCShowListener(this);
-		calendar = Calendar.getInstance();
 	}
   public void getCShowKeywordsFromServer() throws KJavaJniException {
   	boolean keywordUsed;
@@ -77,7 +69,9 @@ public class KJavaPropertyManager implements KJavaCShowListener, ExternalPropert
   //. implemented method from KJavaCShowListener interface
   public void kJavaCShowCallback(String serviceName, String keywordName, String value) {
     if (serviceName.equalsIgnoreCase(serverName)) {
-    	logger.trace("kJavaCShowCallback: <"+keywordName+"> = <"+value+">");
+    	if (logger.isTraceEnabled()) {
+    		logger.trace("kJavaCShowCallback: <"+keywordName+"> = <"+value+">");
+    	}
     	
 			try {
 				propertyList.setPropertyValueFromKeywordName(keywordName, value);
@@ -86,16 +80,11 @@ public class KJavaPropertyManager implements KJavaCShowListener, ExternalPropert
 			}
     }
   }
+	//. note: PropertyList.submitNewPropertyValues calls this from several threads at once
 	public void setExternalProperty(Property prop, String value) throws SetExternalPropertyException {
 		try {
 			//. for KTL keywords, convert boolean values to 1 for true and 0 for false
-			if (prop.getDatatype().compareTo(Property.DATATYPE_BOOLEAN) == 0) {
-				if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("t")) {
-					value = "1";
-				} else if (value.equalsIgnoreCase("false") || value.equalsIgnoreCase("f")) {				
-					value = "0";
-				}
-			}
+			value = PropertyList.getKeywordValue(prop, value);
 			logger.info("Doing a modify on "+serverName+"."+prop.getKeywordName()+"="+value);
 			kjavaClient.modify(prop.getKeywordName(), value);
 		} catch (KJavaJniException e) {
@@ -103,72 +92,28 @@ public class KJavaPropertyManager implements KJavaCShowListener, ExternalPropert
 			throw new SetExternalPropertyException(e.getMessage());
 		}
 	}	
-	public void startServerMonitor(Property mainServerProp, ArrayList<Property> aliveProps, int pauseBetweenEachServerMs) {
-		if (polling) {
-			polling = false;
-		}
-		monitorServerThread = new MonitorServerThread(mainServerProp, aliveProps, pauseBetweenEachServerMs);
-		monitorServerThread.start();
-	}
-	public void doServerMonitor(Property mainServerProp, ArrayList<Property> aliveProps, int pauseBetweenEachServerMs) throws InterruptedException {
-		while (polling) {
-			for (Property prop : aliveProps) {
-				try {
-					String lastalive = kjavaClient.show(mainServerProp.getKeywordName());
-					//. lastalive should pretty much be the current time
-					Date lastaliveDate = lastAliveFormat.parse(lastalive);
-					//. if these succeed, the server is alive
-					if (mainServerProp instanceof StringProperty) {
-						//. should be
-						((StringProperty)mainServerProp).setValue(lastalive);
-					}
-					Thread.currentThread().sleep(pauseBetweenEachServerMs);		
-					
-					lastalive = kjavaClient.show(prop.getKeywordName());
-					//. lastalive should pretty much be the current time
-					lastaliveDate = lastAliveFormat.parse(lastalive);
-					//. if these succeed, the server is alive
-					if (prop instanceof StringProperty) {
-						//. should be
-						((StringProperty)prop).setValue(lastalive);
-					}
-				} catch (KJavaJniException ex) {
-					if (prop instanceof StringProperty) {
-						//. should be
-						((StringProperty)prop).setValue("SERVER ERROR");
-					}
-					ex.printStackTrace();
-				} catch (ParseException ex) {
-					if (prop instanceof StringProperty) {
-						//. should be
-						((StringProperty)prop).setValue("KEYWORD ERROR");
-					}
-				}
-				Thread.currentThread().sleep(pauseBetweenEachServerMs);
+	/**
+	 * Start polling lastalive keywords of servers, replacing any monitor already running.
+	 *
+	 * @param aliveProps      List of lastalive properties, one per server
+	 * @param pollPeriodMs    time between polls of each server, in milliseconds
+	 * @param timeoutSeconds  time after which an unanswered poll marks a server as timed out, in seconds
+	 */
+	public void startServerMonitor(List<Property> aliveProps, int pollPeriodMs, int timeoutSeconds) {
+		stopServerMonitor();
+		serverMonitor = new ServerMonitor(new ServerMonitor.KeywordSource() {
+			public String show(String keywordName) throws KJavaJniException {
+				return kjavaClient.show(keywordName);
 			}
-		}
+		}, aliveProps, pollPeriodMs, timeoutSeconds * 1000L);
+		serverMonitor.start();
 	}
 	public void stopServerMonitor() {
-		polling=false;
-	}
-	private class MonitorServerThread extends Thread {
-		ArrayList<Property> props;
-		Property mainProp;
-		int pause;
-		public MonitorServerThread(Property mainServerProp, ArrayList<Property> aliveProps, int pauseBetweenEachServerMs) {
-			mainProp = mainServerProp;
-			props = aliveProps;
-			pause = pauseBetweenEachServerMs;
+		if (serverMonitor != null) {
+			serverMonitor.stop();
 		}
-		public void run() {
-			try {
-				polling = true;
-				doServerMonitor(mainProp, props, pause);
-			} catch (InterruptedException ex) {
-				polling=false;
-				ex.printStackTrace();
-			}
-		}
-		
+	}
+	public ServerMonitor getServerMonitor() {
+		return serverMonitor;
 	}
 }
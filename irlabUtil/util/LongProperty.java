@@ -9,20 +9,24 @@ public class LongProperty extends Property {
 		allowedValues = new ArrayList<Long>();
 	}
 	public void setValue(long newValue) {
-		setValue(new Long(newValue));
+		while (true) {
+			Long oldValue = (Long)value;
+			if (oldValue.longValue() == newValue) {
+				return;
+			}
+			Long newObject = Long.valueOf(newValue);
+			if (replaceValue(oldValue, newObject)) {
+				fireValueChange(oldValue, newObject);
+				return;
+			}
+		}
 	}
 	public void setValue(Long newValue) {
-		if (!newValue.equals((Long)value)) {
-			logger.debug("Setting property <"+name+"> to new value <"+newValue+">.");
-		}
-		Long oldValue = (Long)value;
-		value = newValue;
-		propertyChangeListeners.firePropertyChange(name, oldValue, value);
-
+		setValue(newValue.longValue());
 	}
 	public void setValue(String newValue) throws InvalidValueException {
 		try {
-			setValue(new Long(newValue));
+			setValue(Long.parseLong(newValue));
 		} catch (NumberFormatException nfEx) {
 			//. throw exception
 			throw new InvalidValueException("Invalid Value <"+newValue+">.  Must be a parsable long value.");
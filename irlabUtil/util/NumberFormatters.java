@@ -27,4 +27,15 @@ public class NumberFormatters {
 	public static DecimalFormat StandardFloatFormatter(int minPrecision) {
 		return StandardFloatFormatter(minPrecision, minPrecision);
 	}
+	//. thread-safe equivalents of formatters above, giving identical output
+	public static FixedPointFormat StandardFixedPointFormat(int minPrecision, int maxPrecision) {
+		return new FixedPointFormat(1, minPrecision, maxPrecision, RoundingMode.HALF_UP);
+	}
+	public static FixedPointFormat StandardFixedPointFormat(int minPrecision) {
+		return StandardFixedPointFormat(minPrecision, minPrecision);
+	}
+	//. equivalent of new DecimalFormat(pattern) for patterns such as "00" or "00.00"
+	public static FixedPointFormat ZeroPaddedFixedPointFormat(int integerDigits, int precision) {
+		return new FixedPointFormat(integerDigits, precision, precision, RoundingMode.HALF_EVEN);
+	}
 }
@@ -3,14 +3,18 @@ package edu.ucla.astro.irlab.util;
 import java.beans.PropertyChangeSupport;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.apache.log4j.Logger;
 
 public class Property {
 	protected static final Logger logger = Logger.getLogger(Property.class);
+	private static final AtomicReferenceFieldUpdater<Property, Object> valueUpdater =
+		AtomicReferenceFieldUpdater.newUpdater(Property.class, Object.class, "value");
 	
 	String name;
-	Object value;
+	//. set from keyword callback threads and read from the gui
+	volatile Object value;
 	Object maxValue;
 	Object minValue;
 	String format;
@@ -41,6 +45,18 @@ public class Property {
   }
   public synchronized void addPropertyChangeListener(PropertyChangeListener l) {
     propertyChangeListeners.addPropertyChangeListener(l);
+  }
+  //. set value only if it is still oldValue, without locking.  subclasses compare
+  //. new values with the current one before boxing them, and retry if this fails,
+  //. so updates that do not change the value neither allocate nor notify listeners.
+  protected boolean replaceValue(Object oldValue, Object newValue) {
+  	return valueUpdater.compareAndSet(this, oldValue, newValue);
+  }
+  protected void fireValueChange(Object oldValue, Object newValue) {
+  	if (logger.isDebugEnabled()) {
+  		logger.debug("Setting property <"+name+"> to new value <"+newValue+">.");
+  	}
+  	propertyChangeListeners.firePropertyChange(name, oldValue, newValue);
   }
 	public String getDescription() {
 		return description;
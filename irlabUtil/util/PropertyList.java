@@ -2,10 +2,19 @@ package edu.ucla.astro.irlab.util;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Enumeration;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.beans.PropertyChangeListener;
 import java.util.HashSet;
 import java.util.ArrayList;
@@ -15,7 +24,8 @@ import org.jdom.*;
 
 //. note: should just extend arraylist?
 //. note: need to add number formatting.
-public class PropertyList extends Hashtable<String, Property> implements PropertySetter {
+//. note: lookups do not lock, so keyword callbacks are not serialized with each other or with the gui.
+public class PropertyList extends ConcurrentHashMap<String, Property> implements PropertySetter {
 
 	private static final Logger logger = Logger.getLogger(PropertyList.class);
 	
@@ -31,7 +41,20 @@ public class PropertyList extends Hashtable<String, Property> implements Propert
   public static String XML_PROPERTY_ATTRIBUTE_FORMAT = "format";
   public static String XML_PROPERTY_ATTRIBUTE_UNITS = "units";
   public static String XML_PROPERTY_ATTRIBUTE_ALLOWED_VALUES = "enum";
+  //. number of external sets sent at once by submitNewPropertyValues
+  public static final int MAX_CONCURRENT_EXTERNAL_SETS = 4;
+  private static final int EXTERNAL_SET_THREAD_IDLE_SECONDS = 30;
 	public transient HashSet<ExternalPropertySetter> externalSetters = new HashSet<ExternalPropertySetter>();
+	//. properties by upper case keyword name, so keyword updates do not search all properties.
+	//. arrays are replaced rather than modified, so they can be read without locking.
+	//. kept up to date by put, putAll, remove and clear, which lock the list so the index
+	//. matches the list; keyword names must be set before a property is added.
+	private transient ConcurrentHashMap<String, Property[]> keywordIndex = new ConcurrentHashMap<String, Property[]>();
+	//. incremented when properties are added, replaced or removed, so holders of properties
+	//. can tell when to look them up again
+	private transient volatile int modificationCount = 0;
+	//. created on first batch set.  threads exit when idle.
+	private transient ThreadPoolExecutor externalSetExecutor;
 
   public PropertyList() {
   	super();
@@ -44,18 +67,86 @@ public class PropertyList extends Hashtable<String, Property> implements Propert
   	return super.get(name.toUpperCase());
   }
   public Property getPropertyFromKeywordName(String keywordName) {
-  	Enumeration<String> e = keys();
-  	while (e.hasMoreElements()) {
-  		Property prop = get(e.nextElement());
-  		if (prop.getKeywordName().compareToIgnoreCase(keywordName) == 0) {
-  			return prop;
-  		}
-  	}
-  	return null;
+  	Property[] props = getKeywordProperties(keywordName);
+  	return (props.length > 0) ? props[0] : null;
+  }
+  private Property[] getKeywordProperties(String keywordName) {
+  	Property[] props = keywordIndex.get(keywordName.toUpperCase());
+  	return (props == null) ? new Property[0] : props;
   }
   public void addProperty(Property prop) {
   	this.put(prop.getName().toUpperCase(), prop);
   }
+  @Override
+  public synchronized Property put(String key, Property prop) {
+  	Property oldProp = super.put(key, prop);
+  	if (oldProp != null) {
+  		removeFromKeywordIndex(oldProp);
+  	}
+  	addToKeywordIndex(prop);
+  	modificationCount++;
+  	return oldProp;
+  }
+  @Override
+  public synchronized void putAll(Map<? extends String, ? extends Property> map) {
+  	for (Map.Entry<? extends String, ? extends Property> entry : map.entrySet()) {
+  		put(entry.getKey(), entry.getValue());
+  	}
+  }
+  @Override
+  public synchronized Property remove(Object key) {
+  	Property oldProp = super.remove(key);
+  	if (oldProp != null) {
+  		removeFromKeywordIndex(oldProp);
+  		modificationCount++;
+  	}
+  	return oldProp;
+  }
+  @Override
+  public synchronized void clear() {
+  	super.clear();
+  	keywordIndex.clear();
+  	modificationCount++;
+  }
+  /**
+   * Get number of times properties have been added, replaced, or removed.  A property
+   * looked up from the list is still the one in the list while this is unchanged.
+   *
+   * @return modification count
+   */
+  public int getModificationCount() {
+  	return modificationCount;
+  }
+  private void addToKeywordIndex(Property prop) {
+  	String keyword = prop.getKeywordName().toUpperCase();
+  	Property[] props = keywordIndex.get(keyword);
+  	if (props == null) {
+  		keywordIndex.put(keyword, new Property[] {prop});
+  	} else {
+  		Property[] newProps = new Property[props.length + 1];
+  		System.arraycopy(props, 0, newProps, 0, props.length);
+  		newProps[props.length] = prop;
+  		keywordIndex.put(keyword, newProps);
+  	}
+  }
+  private void removeFromKeywordIndex(Property prop) {
+  	String keyword = prop.getKeywordName().toUpperCase();
+  	Property[] props = keywordIndex.get(keyword);
+  	if (props == null) {
+  		return;
+  	}
+  	ArrayList<Property> remaining = new ArrayList<Property>(props.length);
+  	for (Property current : props) {
+  		if (current != prop) {
+  			remaining.add(current);
+  		}
+  	}
+  	if (remaining.isEmpty()) {
+  		keywordIndex.remove(keyword);
+  	} else {
+  		keywordIndex.put(keyword, remaining.toArray(new Property[remaining.size()]));
+  	}
+  }
   public void registerListener(String name, PropertyChangeListener listener) throws NoSuchPropertyException {
   	Property prop = getProperty(name);
   	if (prop != null) {
@@ -82,12 +173,9 @@ public class PropertyList extends Hashtable<String, Property> implements Propert
 		setPropertyValue(prop, value);
   }
   public void setPropertyValueFromKeywordName(String keywordName, String value) throws InvalidValueException {
-  	Enumeration<String> e = keys();
-  	while (e.hasMoreElements()) {
-  		Property prop = get(e.nextElement());
-  		if (prop.getKeywordName().compareToIgnoreCase(keywordName) == 0) {
-  			setPropertyValue(prop, value);
-  		}
+  	//. properties notify listeners when set, so no lock is held here
+  	for (Property prop : getKeywordProperties(keywordName)) {
+  		setPropertyValue(prop, value);
   	}
   }
 
@@ -130,10 +218,163 @@ public class PropertyList extends Hashtable<String, Property> implements Propert
 			}
 		}
 	}
-  public void readXML(File file) throws IOException, JDOMException {
-    org.jdom.input.SAXBuilder builder = new org.jdom.input.SAXBuilder();
-    org.jdom.Document myDoc = builder.build(file);
+	/**
+	 * Set several properties, returning when all are set.
+	 *
+	 * @param  propertyValues           Map of property names to new values
+	 * @throws NoSuchPropertyException  if any property is not in list; nothing is set
+	 * @throws InvalidValueException    if any set fails, or if interrupted while waiting
+	 * @see    #submitNewPropertyValues(Map)
+	 */
+	public void setNewPropertyValues(Map<String, String> propertyValues) throws NoSuchPropertyException, InvalidValueException {
+		Future<Object> batch = submitNewPropertyValues(propertyValues);
+		try {
+			batch.get();
+		} catch (ExecutionException ex) {
+			throw (InvalidValueException)ex.getCause();
+		} catch (InterruptedException ex) {
+			batch.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new InvalidValueException("Interrupted while setting properties.");
+		}
+	}
+	/**
+	 * Start setting several properties, without waiting for them to be set.  With external
+	 * setters, sets are sent to each setter from a bounded pool of threads rather than one
+	 * after another, so the batch takes about as long as the slowest few round trips rather
+	 * than their sum.  The sets are not ordered, so a set that must follow the others (e.g.
+	 * starting a move to targets set here) should be made after the batch completes.
+	 *
+	 * All property names are checked before anything is set.  Every set is attempted even
+	 * if some fail.  The returned Future completes once, when the last set of the batch has
+	 * finished; if any failed, its <code>get</code> throws an ExecutionException caused by an
+	 * InvalidValueException listing all of the failures.  Cancelling it skips the sets that
+	 * have not yet started.
+	 *
+	 * @param  propertyValues           Map of property names to new values
+	 * @return                          Future of the whole batch, with a null result
+	 * @throws NoSuchPropertyException  if any property is not in list; nothing is set
+	 */
+	public Future<Object> submitNewPropertyValues(Map<String, String> propertyValues) throws NoSuchPropertyException {
+		ArrayList<Property> props = new ArrayList<Property>();
+		ArrayList<String> values = new ArrayList<String>();
+		for (Map.Entry<String, String> entry : propertyValues.entrySet()) {
+			Property prop = getProperty(entry.getKey());
+			if (prop == null) {
+				throw new NoSuchPropertyException("Property <"+entry.getKey()+"> not found.");
+			}
+			props.add(prop);
+			values.add(entry.getValue());
+		}
+		logger.debug("Setting "+props.size()+" properties.");
+		ArrayList<ExternalPropertySetter> setters = new ArrayList<ExternalPropertySetter>(externalSetters);
+		BatchSet batch = new BatchSet(props.size() * setters.size());
+		if (setters.isEmpty()) {
+			for (int ii=0; ii<props.size(); ii++) {
+				try {
+					setPropertyValue(props.get(ii), values.get(ii));
+				} catch (InvalidValueException ex) {
+					batch.addError(props.get(ii), ex.getMessage());
+				}
+			}
+			batch.finish();
+			return batch;
+		}
+		ThreadPoolExecutor executor = getExternalSetExecutor();
+		for (ExternalPropertySetter setter : setters) {
+			for (int ii=0; ii<props.size(); ii++) {
+				executor.execute(batch.new ExternalSet(setter, props.get(ii), values.get(ii)));
+			}
+		}
+		return batch;
+	}
+	private synchronized ThreadPoolExecutor getExternalSetExecutor() {
+		if (externalSetExecutor == null) {
+			externalSetExecutor = new ThreadPoolExecutor(MAX_CONCURRENT_EXTERNAL_SETS, MAX_CONCURRENT_EXTERNAL_SETS,
+					EXTERNAL_SET_THREAD_IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "PropertyList external set");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			externalSetExecutor.allowCoreThreadTimeOut(true);
+		}
+		return externalSetExecutor;
+	}
+	//. Future of a batch of sets, completed by the last set to finish.  it is never run;
+	//. FutureTask is used for its waiting and cancelling.
+	private static class BatchSet extends FutureTask<Object> {
+		private final AtomicInteger remaining;
+		private final StringBuffer errors = new StringBuffer();
 
+		private BatchSet(int setCount) {
+			super(new Callable<Object>() {
+				public Object call() {
+					return null;
+				}
+			});
+			remaining = new AtomicInteger(setCount);
+		}
+		private void addError(Property prop, String message) {
+			errors.append(" <"+prop.getName()+">: "+message);
+		}
+		private void finish() {
+			if (errors.length() > 0) {
+				setException(new InvalidValueException("Error setting properties:"+errors.toString()));
+			} else {
+				set(null);
+			}
+		}
+		private class ExternalSet implements Runnable {
+			private final ExternalPropertySetter setter;
+			private final Property prop;
+			private final String value;
+
+			private ExternalSet(ExternalPropertySetter setter, Property prop, String value) {
+				this.setter = setter;
+				this.prop = prop;
+				this.value = value;
+			}
+			public void run() {
+				try {
+					if (!isCancelled()) {
+						setter.setExternalProperty(prop, value);
+					}
+				} catch (SetExternalPropertyException ex) {
+					addError(prop, ex.getMessage());
+				} catch (RuntimeException ex) {
+					addError(prop, ex.toString());
+				} finally {
+					if (remaining.decrementAndGet() == 0) {
+						finish();
+					}
+				}
+			}
+		}
+	}
+	/**
+	 * Convert property value to form used by keyword servers: booleans are sent as 1 or 0.
+	 *
+	 * @param  prop   Property being set
+	 * @param  value  new value of property
+	 * @return        value to send to server
+	 */
+	public static String getKeywordValue(Property prop, String value) {
+		if (prop.getDatatype().compareTo(Property.DATATYPE_BOOLEAN) == 0) {
+			if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("t")) {
+				return "1";
+			} else if (value.equalsIgnoreCase("false") || value.equalsIgnoreCase("f")) {
+				return "0";
+			}
+		}
+		return value;
+	}
+  public void readXML(File file) throws IOException, JDOMException {
+    //. taken from XmlDocumentCache, in case file was prefetched or has been cached
+    readXML(XmlDocumentCache.getDocument(file));
+  }
+  public void readXML(org.jdom.Document myDoc) throws JDOMException {
     Attribute workingAtt;
     //. get root element.
     Element root=myDoc.getRootElement();
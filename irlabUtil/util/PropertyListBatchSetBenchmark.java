@@ -0,0 +1,81 @@
+package edu.ucla.astro.irlab.util;
+//. NOTE: This class is for benchmarking batch property setting, and is not included in Makefile
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Sets a list of bar target properties through an <code>InMemoryKeywordServer</code> with a
+ * simulated round trip time, one at a time with <code>setNewPropertyValue</code> and then as
+ * one batch with <code>submitNewPropertyValues</code>, and reports how long each took.  Every
+ * keyword must end on the value set, and a batch containing an invalid value must complete
+ * with one failure.
+ *
+ * Usage: PropertyListBatchSetBenchmark [properties] [latencyMs]
+ */
+public class PropertyListBatchSetBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int propertyCount = (args.length > 0) ? Integer.parseInt(args[0]) : 92;
+		int latencyMs = (args.length > 1) ? Integer.parseInt(args[1]) : 20;
+		PropertyList list = new PropertyList();
+		for (int ii=1; ii<=propertyCount; ii++) {
+			DoubleProperty prop = new DoubleProperty("b"+ii+"targ");
+			prop.setKeywordName("B"+ii+"TARG");
+			list.addProperty(prop);
+		}
+		InMemoryKeywordServer server = new InMemoryKeywordServer(list, "csu");
+		server.setModifyLatencyMs(latencyMs);
+		list.externalSetters.add(server);
+		int wrongCount = 0;
+
+		long startTime = System.nanoTime();
+		for (int ii=1; ii<=propertyCount; ii++) {
+			list.setNewPropertyValue("b"+ii+"targ", Double.toString(ii));
+		}
+		long serialTime = System.nanoTime() - startTime;
+		wrongCount += countWrong(list, server, propertyCount, 0);
+
+		LinkedHashMap<String, String> values = new LinkedHashMap<String, String>();
+		for (int ii=1; ii<=propertyCount; ii++) {
+			values.put("b"+ii+"targ", Double.toString(ii + 100));
+		}
+		startTime = System.nanoTime();
+		Future<Object> batch = list.submitNewPropertyValues(values);
+		long submitTime = System.nanoTime() - startTime;
+		batch.get();
+		long batchTime = System.nanoTime() - startTime;
+		wrongCount += countWrong(list, server, propertyCount, 100);
+
+		System.out.println("Set "+propertyCount+" properties with "+latencyMs+" ms round trips:");
+		System.out.println(String.format("  one at a time   %8.1f ms", serialTime / 1e6));
+		System.out.println(String.format("  batch           %8.1f ms (submit returned after %.1f ms, %d modifies at once)",
+				batchTime / 1e6, submitTime / 1e6, server.getMaxConcurrentModifyCount()));
+
+		values.put("b1targ", "not a number");
+		try {
+			list.submitNewPropertyValues(values).get();
+			System.out.println("Batch with invalid value did not fail.");
+			wrongCount++;
+		} catch (ExecutionException ex) {
+			System.out.println("Batch with invalid value failed: "+ex.getCause().getMessage());
+		}
+		System.out.println((wrongCount == 0) ? "All keywords ended on the value set." : wrongCount+" keywords did not end on the value set.");
+		System.exit((wrongCount == 0) ? 0 : 1);
+	}
+
+	//. number of keywords and properties not set to their bar number plus offset
+	private static int countWrong(PropertyList list, InMemoryKeywordServer server, int propertyCount, int offset) {
+		int wrongCount = 0;
+		for (int ii=1; ii<=propertyCount; ii++) {
+			String expected = Double.toString(ii + offset);
+			Object value = list.getProperty("b"+ii+"targ").getValue();
+			if (!expected.equals(server.show("B"+ii+"TARG")) || !expected.equals(value.toString())) {
+				System.out.println("Keyword B"+ii+"TARG is "+server.show("B"+ii+"TARG")+", property "+value+", expected "+expected);
+				wrongCount++;
+			}
+		}
+		return wrongCount;
+	}
+}
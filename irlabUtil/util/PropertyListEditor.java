@@ -83,11 +83,12 @@ public class PropertyListEditor extends JFrame {
 			currentValueLabel.setFont(currentFont);
 			currentValueTitle.setFont(currentFont);
 			
-			prop.addPropertyChangeListener(new PropertyChangeListener() {
+			//. values may be set from keyword callbacks, so update label on event thread, once per frame
+			prop.addPropertyChangeListener(new CoalescedPropertyChangeListener(new PropertyChangeListener() {
 				public void propertyChange(PropertyChangeEvent pcEv) {
 					updateValue(pcEv.getNewValue().toString());
 				}
-			});
+			}));
 			
 			setButton.setActionCommand(prop.getName());
 			setButton.addActionListener(new ActionListener() {
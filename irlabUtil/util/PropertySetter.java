@@ -1,6 +1,10 @@
 package edu.ucla.astro.irlab.util;
 
+import java.util.Map;
+
 public interface PropertySetter {
 	//. throw exception (on propNotFound or invalid Value)
 	public void setNewPropertyValue(String propertyName, String propertyValue) throws NoSuchPropertyException, InvalidValueException;
+	//. set several properties, returning when all are set.  order is not guaranteed.
+	public void setNewPropertyValues(Map<String, String> propertyValues) throws NoSuchPropertyException, InvalidValueException;
 }
@@ -0,0 +1,245 @@
+package edu.ucla.astro.irlab.util;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Polls the lastalive keywords of keyword servers to check that they are running.
+ *
+ * Each server is polled on its own schedule, and each show runs on its own thread, so a slow
+ * or hung server does not delay the others.  A poll still in progress after the timeout
+ * marks the server as timed out, and no new poll of that server starts until it returns,
+ * so a hung server holds at most one thread.
+ *
+ * After each poll, the server's lastalive property is set to the keyword value, or to an
+ * error string containing "ERROR", and a <code>ServerStatus</code> with the latency and
+ * last alive time is published to listeners, with the property name as the event name.
+ * Listeners are called on the polling threads.
+ *
+ * @see ServerStatus
+ * @see ServerStatusPanel
+ */
+public class ServerMonitor {
+	private static final Logger logger = Logger.getLogger(ServerMonitor.class);
+	public static final String LAST_ALIVE_DATE_FORMAT = "yy/MM/dd,HH:mm:ss";
+
+	/**
+	 * Source of keyword values, such as a KTL client.
+	 */
+	public interface KeywordSource {
+		/**
+		 * Get current value of keyword from server.  May block.
+		 *
+		 * @param  keywordName  name of keyword
+		 * @return              keyword value
+		 * @throws Exception    if value cannot be read
+		 */
+		public String show(String keywordName) throws Exception;
+	}
+
+	private final KeywordSource source;
+	private final int pollPeriodMs;
+	private final long timeoutMs;
+	private final ArrayList<ServerPoller> pollers = new ArrayList<ServerPoller>();
+	private final ConcurrentHashMap<String, ServerStatus> statuses = new ConcurrentHashMap<String, ServerStatus>();
+	private final PropertyChangeSupport statusListeners = new PropertyChangeSupport(this);
+	private ScheduledExecutorService scheduler;
+	private ExecutorService showExecutor;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param source        KeywordSource used to show lastalive keywords
+	 * @param aliveProps    List of lastalive properties, one per server, with keyword names set
+	 * @param pollPeriodMs  time between starts of polls of each server, in milliseconds
+	 * @param timeoutMs     time after which a poll in progress marks server as timed out, in milliseconds
+	 */
+	public ServerMonitor(KeywordSource source, List<Property> aliveProps, int pollPeriodMs, long timeoutMs) {
+		this.source = source;
+		this.pollPeriodMs = pollPeriodMs;
+		this.timeoutMs = timeoutMs;
+		for (Property prop : aliveProps) {
+			pollers.add(new ServerPoller(prop));
+			statuses.put(prop.getName(), new ServerStatus(prop.getName(), ServerStatus.STATE_UNKNOWN, "", 0, 0, 0, null));
+		}
+	}
+
+	/**
+	 * Start polling.  Polls of different servers are spread over the poll period.
+	 */
+	public synchronized void start() {
+		if (scheduler != null) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(new MonitorThreadFactory("ServerMonitor scheduler"));
+		showExecutor = Executors.newCachedThreadPool(new MonitorThreadFactory("ServerMonitor show"));
+		for (int ii=0; ii<pollers.size(); ii++) {
+			long initialDelayMs = (long)pollPeriodMs * ii / pollers.size();
+			scheduler.scheduleAtFixedRate(pollers.get(ii), initialDelayMs, pollPeriodMs, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Stop polling.  Polls in progress are left to finish, but publish nothing.
+	 */
+	public synchronized void stop() {
+		if (scheduler == null) {
+			return;
+		}
+		scheduler.shutdownNow();
+		showExecutor.shutdown();
+		scheduler = null;
+		showExecutor = null;
+	}
+
+	public synchronized boolean isRunning() {
+		return scheduler != null;
+	}
+
+	/**
+	 * Get latest status of server.
+	 *
+	 * @param  aliveProp  lastalive Property of server
+	 * @return            ServerStatus, or null if server is not monitored
+	 */
+	public ServerStatus getStatus(Property aliveProp) {
+		return statuses.get(aliveProp.getName());
+	}
+
+	/**
+	 * Get latest status of all servers.
+	 *
+	 * @return List of ServerStatus, in order of properties given to constructor
+	 */
+	public List<ServerStatus> getStatuses() {
+		ArrayList<ServerStatus> list = new ArrayList<ServerStatus>();
+		for (ServerPoller poller : pollers) {
+			list.add(statuses.get(poller.aliveProp.getName()));
+		}
+		return list;
+	}
+
+	public void addPropertyChangeListener(PropertyChangeListener l) {
+		statusListeners.addPropertyChangeListener(l);
+	}
+	public void removePropertyChangeListener(PropertyChangeListener l) {
+		statusListeners.removePropertyChangeListener(l);
+	}
+
+	private void publish(Property aliveProp, ServerStatus status) {
+		synchronized (this) {
+			if (scheduler == null) {
+				return;
+			}
+		}
+		ServerStatus oldStatus = statuses.put(aliveProp.getName(), status);
+		if (aliveProp instanceof StringProperty) {
+			((StringProperty)aliveProp).setValue(status.getLastAlivePropertyValue());
+		}
+		statusListeners.firePropertyChange(aliveProp.getName(), oldStatus, status);
+	}
+
+	//. polls one server.  run on scheduler thread; show is run on a show thread.
+	private class ServerPoller implements Runnable {
+		private final Property aliveProp;
+		//. only used by the one show in progress
+		private final SimpleDateFormat lastAliveFormat = new SimpleDateFormat(LAST_ALIVE_DATE_FORMAT);
+		//. start time of show in progress, or 0 if none
+		private volatile long showStartMillis = 0;
+		private volatile String lastAlive = "";
+		private volatile long lastAliveMillis = 0;
+		private boolean timedOut = false;
+
+		ServerPoller(Property aliveProp) {
+			this.aliveProp = aliveProp;
+		}
+
+		public void run() {
+			long startMillis = showStartMillis;
+			long now = System.currentTimeMillis();
+			if (startMillis != 0) {
+				//. previous show still in progress
+				if (!timedOut && (now - startMillis > timeoutMs)) {
+					timedOut = true;
+					logger.warn("Timeout showing "+aliveProp.getKeywordName()+" after "+(now - startMillis)+" ms.");
+					publish(aliveProp, new ServerStatus(aliveProp.getName(), ServerStatus.STATE_TIMEOUT, lastAlive, lastAliveMillis,
+							now - startMillis, now, "No response in "+timeoutMs+" ms."));
+				}
+				return;
+			}
+			timedOut = false;
+			showStartMillis = now;
+			ExecutorService executor;
+			synchronized (ServerMonitor.this) {
+				executor = showExecutor;
+			}
+			if (executor == null) {
+				showStartMillis = 0;
+				return;
+			}
+			try {
+				executor.execute(new Runnable() {
+					public void run() {
+						poll();
+					}
+				});
+			} catch (RejectedExecutionException ex) {
+				//. stopped
+				showStartMillis = 0;
+			}
+		}
+
+		private void poll() {
+			long startNanos = System.nanoTime();
+			int state;
+			String errorMessage = null;
+			String value = null;
+			try {
+				value = source.show(aliveProp.getKeywordName());
+				//. lastalive should pretty much be the current time
+				lastAliveFormat.parse(value);
+				state = ServerStatus.STATE_ALIVE;
+			} catch (ParseException ex) {
+				state = ServerStatus.STATE_KEYWORD_ERROR;
+				errorMessage = "Invalid lastalive value <"+value+">.";
+			} catch (Exception ex) {
+				state = ServerStatus.STATE_SERVER_ERROR;
+				errorMessage = ex.getMessage();
+				logger.debug("Error showing "+aliveProp.getKeywordName()+": "+ex.getMessage());
+			}
+			long latencyMs = (System.nanoTime() - startNanos) / 1000000;
+			long now = System.currentTimeMillis();
+			if (state == ServerStatus.STATE_ALIVE) {
+				lastAlive = value;
+				lastAliveMillis = now;
+			}
+			publish(aliveProp, new ServerStatus(aliveProp.getName(), state, lastAlive, lastAliveMillis, latencyMs, now, errorMessage));
+			showStartMillis = 0;
+		}
+	}
+
+	private static class MonitorThreadFactory implements ThreadFactory {
+		private final String name;
+		MonitorThreadFactory(String name) {
+			this.name = name;
+		}
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package edu.ucla.astro.irlab.util;
+
+/**
+ * Result of one liveness poll of a keyword server, as published by <code>ServerMonitor</code>.
+ * Immutable, so it can be passed between threads.
+ *
+ * @see ServerMonitor
+ */
+public class ServerStatus {
+	public static final int STATE_UNKNOWN = 0;
+	public static final int STATE_ALIVE = 1;
+	//. show of lastalive keyword failed
+	public static final int STATE_SERVER_ERROR = 2;
+	//. lastalive keyword value could not be parsed
+	public static final int STATE_KEYWORD_ERROR = 3;
+	//. show of lastalive keyword did not return within timeout
+	public static final int STATE_TIMEOUT = 4;
+
+	private final String name;
+	private final int state;
+	private final String lastAlive;
+	private final long lastAliveMillis;
+	private final long latencyMs;
+	private final long polledMillis;
+	private final String errorMessage;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param name             name of lastalive property of server
+	 * @param state            state of server, one of the STATE constants
+	 * @param lastAlive        lastalive keyword value from the last successful poll, or empty if none
+	 * @param lastAliveMillis  local time of last successful poll, or 0 if none
+	 * @param latencyMs        round trip time of this poll, or of the poll in progress if timed out
+	 * @param polledMillis     local time this poll completed or timed out
+	 * @param errorMessage     description of error, or null if alive
+	 */
+	public ServerStatus(String name, int state, String lastAlive, long lastAliveMillis, long latencyMs, long polledMillis, String errorMessage) {
+		this.name = name;
+		this.state = state;
+		this.lastAlive = lastAlive;
+		this.lastAliveMillis = lastAliveMillis;
+		this.latencyMs = latencyMs;
+		this.polledMillis = polledMillis;
+		this.errorMessage = errorMessage;
+	}
+
+	public String getName() {
+		return name;
+	}
+	public int getState() {
+		return state;
+	}
+	public boolean isAlive() {
+		return state == STATE_ALIVE;
+	}
+	public String getLastAlive() {
+		return lastAlive;
+	}
+	public long getLastAliveMillis() {
+		return lastAliveMillis;
+	}
+	public long getLatencyMs() {
+		return latencyMs;
+	}
+	public long getPolledMillis() {
+		return polledMillis;
+	}
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+	/**
+	 * Get value shown in lastalive properties for this state: the lastalive keyword
+	 * value if alive, otherwise an error string containing "ERROR".
+	 *
+	 * @return lastalive property value
+	 */
+	public String getLastAlivePropertyValue() {
+		switch (state) {
+		case STATE_ALIVE:
+			return lastAlive;
+		case STATE_KEYWORD_ERROR:
+			return "KEYWORD ERROR";
+		case STATE_TIMEOUT:
+			return "TIMEOUT ERROR";
+		default:
+			return "SERVER ERROR";
+		}
+	}
+	public String toString() {
+		return name+": "+getLastAlivePropertyValue()+" ("+latencyMs+" ms)";
+	}
+}
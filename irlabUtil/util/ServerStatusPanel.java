@@ -13,7 +13,6 @@ import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
-import javax.swing.SwingUtilities;
 
 public class ServerStatusPanel extends JPanel implements PropertyChangeListener {
   ImageIcon lightOnIcon;
@@ -28,6 +27,9 @@ public class ServerStatusPanel extends JPanel implements PropertyChangeListener
   boolean showLastAlive = false;
   boolean doSwitch = true;
   StringProperty lastAliveProperty;
+  //. set if status comes from a monitor, which also gives latency.  only used on event thread.
+  ServerMonitor serverMonitor;
+  PropertyChangeListener monitorListener;
   public ServerStatusPanel(String serverName, StringProperty lastAliveProperty, boolean showLastAlive) {
   	this.serverName = serverName;
   	this.showLastAlive = showLastAlive;
@@ -52,7 +54,51 @@ public class ServerStatusPanel extends JPanel implements PropertyChangeListener
   	}
   	init();
   	
-  	lastAliveProperty.addPropertyChangeListener(this);
+  	//. property is set from the monitor thread, so update on event thread
+  	lastAliveProperty.addPropertyChangeListener(new CoalescedPropertyChangeListener(this));
+  }
+  /**
+   * Show status published by monitor, including poll latency and time since last alive,
+   * instead of just lastalive property.  Call on event thread.
+   *
+   * @param monitor  ServerMonitor polling this server, or null to show lastalive property only
+   */
+  public void setServerMonitor(ServerMonitor monitor) {
+  	if (serverMonitor != null) {
+  		serverMonitor.removePropertyChangeListener(monitorListener);
+  	}
+  	serverMonitor = monitor;
+  	if (monitor != null) {
+  		monitorListener = new CoalescedPropertyChangeListener(new PropertyChangeListener() {
+  			public void propertyChange(PropertyChangeEvent evt) {
+  				if (evt.getPropertyName().equals(lastAliveProperty.getName())) {
+  					updateStatus((ServerStatus)evt.getNewValue());
+  				}
+  			}
+  		});
+  		monitor.addPropertyChangeListener(monitorListener);
+  		ServerStatus status = monitor.getStatus(lastAliveProperty);
+  		if ((status != null) && (status.getState() != ServerStatus.STATE_UNKNOWN)) {
+  			updateStatus(status);
+  		}
+  	}
+  }
+  private void updateStatus(ServerStatus status) {
+  	lastAliveLabel.setText(status.getLastAlivePropertyValue());
+  	StringBuffer tip = new StringBuffer("<html>lastalive: "+status.getLastAlive());
+  	tip.append("<br>response time: "+status.getLatencyMs()+" ms");
+  	if (!status.isAlive()) {
+  		tip.append("<br>"+status.getLastAlivePropertyValue());
+  		if (status.getErrorMessage() != null) {
+  			tip.append(": "+status.getErrorMessage());
+  		}
+  		if (status.getLastAliveMillis() > 0) {
+  			tip.append("<br>last alive "+(status.getPolledMillis() - status.getLastAliveMillis()) / 1000+" s ago");
+  		}
+  	}
+  	tip.append("</html>");
+  	lastAliveLabel.setToolTipText(tip.toString());
+  	setSwitch(status.isAlive());
   }
   private void init() {
     serverLabel.setBorder(BorderFactory.createLoweredBevelBorder());
@@ -104,16 +150,11 @@ public class ServerStatusPanel extends JPanel implements PropertyChangeListener
 
 	@Override
 	public void propertyChange(PropertyChangeEvent evt) {
-		if (evt.getPropertyName().equals(lastAliveProperty.getName())) {
+		//. with a monitor, status comes from it instead
+		if ((serverMonitor == null) && evt.getPropertyName().equals(lastAliveProperty.getName())) {
 			lastAliveLabel.setText(lastAliveProperty.getValue());
 			lastAliveLabel.setToolTipText("lastalive: "+lastAliveProperty.getValue());
-			SwingUtilities.invokeLater(new Runnable() {
-				
-				@Override
-				public void run() {
-					setSwitch(!lastAliveProperty.getValue().contains("ERROR"));
-				}
-			});
+			setSwitch(!lastAliveProperty.getValue().contains("ERROR"));
 		}
 		
 	}
@@ -9,12 +9,16 @@ public class StringProperty extends Property {
 		allowedValues = new ArrayList<String>();
 	}
 	public void setValue(String newValue) {
-		if (!newValue.equals((String)value)) {
-			logger.debug("Setting property <"+name+"> to new value <"+newValue+">.");
+		while (true) {
+			String oldValue = (String)value;
+			if (newValue.equals(oldValue)) {
+				return;
+			}
+			if (replaceValue(oldValue, newValue)) {
+				fireValueChange(oldValue, newValue);
+				return;
+			}
 		}
-		String oldValue = (String)value;
-		value = newValue;
-		propertyChangeListeners.firePropertyChange(name, oldValue, value);
 	}
 	public void setValueIfAllowed(String newValue) throws InvalidValueException {
 		//. conversely, could invert logic and do a setValueIgnoreRange or such
@@ -0,0 +1,167 @@
+package edu.ucla.astro.irlab.util;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Applies value updates to Swing components on the event dispatch thread, once per frame,
+ * with only the latest value of each component and property.
+ *
+ * Values from keyword callbacks arrive on the callback thread, as often as the keywords are
+ * broadcast.  Posting them here instead of setting them on the component moves them onto the
+ * event dispatch thread, and means each component is updated, and repainted, at most once per
+ * frame however fast the values change.  Updates of all targets pending at a frame tick are
+ * applied together.
+ *
+ * Posting may be done from any thread.  Targets are compared by identity.
+ *
+ * @see CoalescedPropertyChangeListener
+ */
+public class SwingUpdateDispatcher {
+	private static final Logger logger = Logger.getLogger(SwingUpdateDispatcher.class);
+	//. about 60 frames per second
+	public static final int DEFAULT_FRAME_INTERVAL_MS = 16;
+	//. stands in for null values, which ConcurrentHashMap does not allow
+	private static final Object NULL_VALUE = new Object();
+	private static final SwingUpdateDispatcher sharedDispatcher = new SwingUpdateDispatcher(DEFAULT_FRAME_INTERVAL_MS);
+
+	/**
+	 * Component, or wrapper of one, that values are applied to.
+	 */
+	public interface UpdateTarget {
+		/**
+		 * Set value.  Called on the event dispatch thread.
+		 *
+		 * @param propName  name of property value is of
+		 * @param value     new value
+		 */
+		public void setValue(String propName, Object value);
+	}
+
+	private final int frameIntervalMs;
+	private final ConcurrentHashMap<UpdateKey, Object> pendingValues = new ConcurrentHashMap<UpdateKey, Object>();
+	//. true from when a tick is requested until pending values are taken by it
+	private final AtomicBoolean tickScheduled = new AtomicBoolean(false);
+	private final AtomicLong postedCount = new AtomicLong(0);
+	private final AtomicLong appliedCount = new AtomicLong(0);
+	//. only used on event dispatch thread
+	private final Timer frameTimer;
+	private long lastTickMs = 0;
+	private final Runnable scheduleTick = new Runnable() {
+		public void run() {
+			long waitMs = lastTickMs + frameIntervalMs - System.currentTimeMillis();
+			if (waitMs > 0) {
+				frameTimer.setInitialDelay((int)Math.min(waitMs, frameIntervalMs));
+				frameTimer.restart();
+			} else {
+				applyPendingValues();
+			}
+		}
+	};
+
+	/**
+	 * Get dispatcher shared by all property-driven panels, so their updates are applied
+	 * in the same frame ticks.
+	 *
+	 * @return shared SwingUpdateDispatcher
+	 */
+	public static SwingUpdateDispatcher getSharedDispatcher() {
+		return sharedDispatcher;
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param frameIntervalMs  minimum time between frame ticks, in milliseconds
+	 */
+	public SwingUpdateDispatcher(int frameIntervalMs) {
+		this.frameIntervalMs = frameIntervalMs;
+		frameTimer = new Timer(frameIntervalMs, new ActionListener() {
+			public void actionPerformed(ActionEvent ev) {
+				applyPendingValues();
+			}
+		});
+		frameTimer.setRepeats(false);
+	}
+
+	/**
+	 * Post value to be applied to target at next frame tick.  Replaces any value of the same
+	 * target and property not yet applied.
+	 *
+	 * @param target    UpdateTarget to apply value to
+	 * @param propName  name of property value is of
+	 * @param value     new value
+	 */
+	public void post(UpdateTarget target, String propName, Object value) {
+		pendingValues.put(new UpdateKey(target, propName), (value == null) ? NULL_VALUE : value);
+		postedCount.incrementAndGet();
+		if (tickScheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(scheduleTick);
+		}
+	}
+
+	private void applyPendingValues() {
+		lastTickMs = System.currentTimeMillis();
+		//. posts after this schedule another tick
+		tickScheduled.set(false);
+		for (UpdateKey key : pendingValues.keySet()) {
+			Object value = pendingValues.remove(key);
+			if (value == null) {
+				continue;
+			}
+			try {
+				key.target.setValue(key.propName, (value == NULL_VALUE) ? null : value);
+				appliedCount.incrementAndGet();
+			} catch (RuntimeException ex) {
+				//. do not lose other targets' updates
+				logger.error("Error applying value of property <"+key.propName+">", ex);
+			}
+		}
+	}
+
+	/**
+	 * Get number of values posted.
+	 *
+	 * @return number of values
+	 */
+	public long getPostedCount() {
+		return postedCount.get();
+	}
+	/**
+	 * Get number of values applied to targets.  Values replaced before a tick are not applied.
+	 *
+	 * @return number of values
+	 */
+	public long getAppliedCount() {
+		return appliedCount.get();
+	}
+
+	private static class UpdateKey {
+		private final UpdateTarget target;
+		private final String propName;
+
+		UpdateKey(UpdateTarget target, String propName) {
+			this.target = target;
+			this.propName = propName;
+		}
+		public boolean equals(Object o) {
+			if (!(o instanceof UpdateKey)) {
+				return false;
+			}
+			UpdateKey other = (UpdateKey)o;
+			return (target == other.target) &&
+				((propName == null) ? (other.propName == null) : propName.equals(other.propName));
+		}
+		public int hashCode() {
+			return 31 * System.identityHashCode(target) + ((propName == null) ? 0 : propName.hashCode());
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package edu.ucla.astro.irlab.util;
+//. NOTE: This class is for benchmarking update dispatching, and is not included in Makefile
+
+import java.util.concurrent.CountDownLatch;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Posts a burst of values to a <code>SwingUpdateDispatcher</code> from several threads, as
+ * keyword callbacks would, and reports how many were applied and how long the burst took.
+ * Each thread posts to its own targets, in increasing order of value, so every target must
+ * end on the last value posted to it.
+ *
+ * Usage: SwingUpdateDispatcherBenchmark [posts] [threads] [targets]
+ */
+public class SwingUpdateDispatcherBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		final int posts = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		final int threadCount = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+		final int targetCount = (args.length > 2) ? Integer.parseInt(args[2]) : 50;
+		final SwingUpdateDispatcher dispatcher = new SwingUpdateDispatcher(SwingUpdateDispatcher.DEFAULT_FRAME_INTERVAL_MS);
+		final LastValueTarget[] targets = new LastValueTarget[targetCount];
+		for (int ii=0; ii<targetCount; ii++) {
+			targets[ii] = new LastValueTarget();
+		}
+		final int postsPerThread = posts / threadCount;
+		final CountDownLatch done = new CountDownLatch(threadCount);
+		long startTime = System.nanoTime();
+		for (int ii=0; ii<threadCount; ii++) {
+			final int threadNumber = ii;
+			final int threadTargetCount = getThreadTargetCount(ii, threadCount, targetCount);
+			new Thread() {
+				public void run() {
+					for (int jj=0; (jj<postsPerThread) && (threadTargetCount > 0); jj++) {
+						//. targets threadNumber, threadNumber + threadCount, ...
+						int targetNumber = threadNumber + threadCount * (jj % threadTargetCount);
+						dispatcher.post(targets[targetNumber], "value", Integer.valueOf(jj));
+					}
+					done.countDown();
+				}
+			}.start();
+		}
+		done.await();
+		long postTime = System.nanoTime() - startTime;
+		//. let pending tick run, then wait for it on the event dispatch thread
+		Thread.sleep(4 * SwingUpdateDispatcher.DEFAULT_FRAME_INTERVAL_MS);
+		SwingUtilities.invokeAndWait(new Runnable() {
+			public void run() {
+			}
+		});
+		long totalTime = System.nanoTime() - startTime;
+
+		int wrongCount = 0;
+		for (int ii=0; ii<threadCount; ii++) {
+			int threadTargetCount = getThreadTargetCount(ii, threadCount, targetCount);
+			//. last value posted to each of thread's targets
+			for (int jj=postsPerThread-1; jj>=Math.max(0, postsPerThread-threadTargetCount); jj--) {
+				int targetNumber = ii + threadCount * (jj % threadTargetCount);
+				if (targets[targetNumber].value != jj) {
+					System.out.println("Target "+targetNumber+" ended on "+targets[targetNumber].value+", last posted "+jj);
+					wrongCount++;
+				}
+			}
+		}
+		System.out.println("Posted "+dispatcher.getPostedCount()+" values from "+threadCount+" threads to "+targetCount+" targets in "+(postTime / 1000000)+" ms.");
+		System.out.println("Applied "+dispatcher.getAppliedCount()+" values; done after "+(totalTime / 1000000)+" ms.");
+		System.out.println((wrongCount == 0) ? "All targets ended on their last value." : wrongCount+" targets did not end on their last value.");
+		System.exit((wrongCount == 0) ? 0 : 1);
+	}
+
+	//. number of targets posted to by a thread
+	private static int getThreadTargetCount(int threadNumber, int threadCount, int targetCount) {
+		return (targetCount - threadNumber + threadCount - 1) / threadCount;
+	}
+
+	private static class LastValueTarget implements SwingUpdateDispatcher.UpdateTarget {
+		//. only used on event dispatch thread, and read after it is drained
+		private volatile int value = -1;
+
+		public void setValue(String propName, Object value) {
+			this.value = ((Integer)value).intValue();
+		}
+	}
+}
@@ -1,23 +1,41 @@
 package edu.ucla.astro.irlab.util;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArraySet;
 
+import org.apache.log4j.Logger;
 
-//. the core algorithm of this code was taken from a berkeley message board, 
+
+//. the core algorithm of this code was taken from a berkeley message board,
 //. posted by Pankaj Jain (jpankaj@vayusphere.com) 23-April-2002
+//. reads are now made from a file channel position.  when there is no new data, the
+//. tail thread waits, doubling the wait up to MAX_POLL_MS, and when paused it waits
+//. until resumed, so an idle tail uses no cpu.  if the file shrinks it is read again
+//. from the start, and if the file name refers to a new file (e.g. after a log is
+//. rotated) the new file is opened and read from the start.  files are told apart by
+//. their file key (device and inode), or by size where the platform has no file keys.
 
 
 public class Tail {
+	private static final Logger logger = Logger.getLogger(Tail.class);
+	public static final int BUFFER_SIZE = 64 * 1024;
+	public static final long MIN_POLL_MS = 10;
+	public static final long MAX_POLL_MS = 500;
+
 	String filename;
-	HashSet<TailListener> tailListeners = new HashSet<TailListener>(); 
+	CopyOnWriteArraySet<TailListener> tailListeners = new CopyOnWriteArraySet<TailListener>();
+	CopyOnWriteArraySet<TailBufferListener> tailBufferListeners = new CopyOnWriteArraySet<TailBufferListener>();
 	TailThread tailThread;
 	boolean tailStarted = false;
-	
+
 	public Tail() {
 		this("");
 	}
@@ -32,6 +50,12 @@ public class Tail {
 	public void removeTailListener(TailListener listener) {
 		tailListeners.remove(listener);
 	}
+	public void addTailBufferListener(TailBufferListener listener) {
+		tailBufferListeners.add(listener);
+	}
+	public void removeTailBufferListener(TailBufferListener listener) {
+		tailBufferListeners.remove(listener);
+	}
 	public void setFilename(String filename) {
 		this.filename = filename;
 		stopReading();
@@ -39,7 +63,7 @@ public class Tail {
 	public void startReading() throws FileNotFoundException {
 		startReading(filename);
 	}
-	
+
 	public void startReading(String name) throws FileNotFoundException {
 		if (tailStarted) {
 			resumeReading();
@@ -59,62 +83,168 @@ public class Tail {
 		tailThread.stopTail();
 		tailStarted=false;
 	}
+	//. stop tail thread and close file.  tail cannot be used after this.
+	public void close() {
+		tailThread.stopThread();
+	}
 	void log(byte [] data) {
 		System.out.println("<"+new String(data)+">");
 	}
-	
+	void sendData(byte[] buffer, int length) {
+		if (tailListeners.isEmpty() && tailBufferListeners.isEmpty()) {
+			log(Arrays.copyOf(buffer, length));
+			return;
+		}
+		for (TailBufferListener listener : tailBufferListeners) {
+			listener.receiveNewData(buffer, 0, length);
+		}
+		if (!tailListeners.isEmpty()) {
+			byte[] data = Arrays.copyOf(buffer, length);
+			for (TailListener listener : tailListeners) {
+				listener.receiveNewData(data);
+			}
+		}
+	}
+
 	class TailThread extends Thread {
+		//. guarded by this thread's lock
 		String name = "";
-		volatile boolean doTail = false;
-		volatile BufferedInputStream bis;
-		volatile boolean threadRunning = true;
-		
-		public void setTailFilename(String filename) throws FileNotFoundException {
+		boolean doTail = false;
+		boolean threadRunning = true;
+		RandomAccessFile file;
+		FileChannel channel;
+		long position = 0;
+		//. identity of open file, or null if platform has none
+		Object fileKey;
+		//. only used by tail thread
+		final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+		TailThread() {
+			super("Tail");
+			setDaemon(true);
+		}
+		public synchronized void setTailFilename(String filename) throws FileNotFoundException {
+			//. key is read first, so if the file is replaced before it is opened,
+			//. the new file is opened again rather than the replacement being missed
+			Object newFileKey = getFileKey(filename);
+			RandomAccessFile newFile = new RandomAccessFile(filename, "r");
+			closeFile();
 			name = filename;
-			bis = new BufferedInputStream(new FileInputStream(name));
+			fileKey = newFileKey;
+			file = newFile;
+			channel = file.getChannel();
+			position = 0;
 		}
-		public void startTail() {
+		public synchronized void startTail() {
 			doTail = true;
+			notifyAll();
 		}
-		public void stopTail() {
+		public synchronized void stopTail() {
 			doTail = false;
 		}
-		public void stopThread() {
+		public synchronized void stopThread() {
 			threadRunning = false;
+			notifyAll();
+		}
+		private void closeFile() {
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException ex) {
+					logger.warn("Error closing <"+name+">: "+ex.getMessage());
+				}
+				file = null;
+				channel = null;
+			}
+		}
+		//. called with lock held.  returns number of bytes read into buffer.
+		private int readNewData() throws IOException {
+			long size = channel.size();
+			if (size < position) {
+				logger.info("File <"+name+"> truncated.  Reading from start.");
+				position = 0;
+			} else if (size == position) {
+				//. no new data in open file.  if the name now refers to a different
+				//. file, open it.  old file is assumed not to grow once replaced.
+				if (isReplaced(size)) {
+					logger.info("File <"+name+"> replaced.  Reading new file from start.");
+					setTailFilename(name);
+				} else {
+					return 0;
+				}
+			}
+			buffer.clear();
+			int length = channel.read(buffer, position);
+			if (length > 0) {
+				position += length;
+			}
+			return length;
+		}
+		//. called with lock held.  check whether name refers to a different file than the open one.
+		private boolean isReplaced(long size) {
+			File path = new File(name);
+			if (!path.exists()) {
+				return false;
+			}
+			Object pathFileKey = getFileKey(name);
+			if ((pathFileKey == null) || (fileKey == null)) {
+				//. no file keys on this platform, so compare sizes
+				return path.length() != size;
+			}
+			return !pathFileKey.equals(fileKey);
 		}
 		public void run() {
-			int length = -1;
-			int counter=0;
-			threadRunning = true;
-			while (threadRunning) {
-				while(doTail) {
-					try {
-						length = bis.available();
-						if(length == -1) throw new IOException("file ended");
-						if(length <= 0) continue;
-						byte [] data = new byte[length];
-						if(bis.read(data, 0, length ) == -1) continue;
-						if (tailListeners.isEmpty()) {
-							log(data);								
-						} else {
-							Iterator<TailListener> itTL = tailListeners.iterator();
-							while (itTL.hasNext()) {
-								itTL.next().receiveNewData(data);
-							}
+			long pollMs = MIN_POLL_MS;
+			try {
+				while (true) {
+					int length;
+					synchronized (this) {
+						while (threadRunning && !(doTail && (channel != null))) {
+							wait();
+						}
+						if (!threadRunning) {
+							break;
+						}
+						try {
+							length = readNewData();
+						} catch (IOException ex) {
+							//. todo: improve, but how?  exceptionListeners?
+							logger.error("Error reading <"+name+">: "+ex.getMessage(), ex);
+							doTail = false;
+							continue;
 						}
-						counter++;
-						// System.out.println("tail thread counter = "+counter);
-						Thread.sleep(10);
-					} catch(Exception ex) {
-						//. todo: improve, but how?  exceptionListeners?
-						ex.printStackTrace();
-						doTail=false;
+						if (length <= 0) {
+							wait(pollMs);
+							pollMs = Math.min(2 * pollMs, MAX_POLL_MS);
+							continue;
+						}
+					}
+					pollMs = MIN_POLL_MS;
+					try {
+						sendData(buffer.array(), length);
+					} catch (RuntimeException ex) {
+						logger.error("Error in tail listener: "+ex.getMessage(), ex);
 					}
 				}
+			} catch (InterruptedException ex) {
+				logger.debug("Tail thread interrupted.");
+			} finally {
+				synchronized (this) {
+					closeFile();
+				}
 			}
 		}
 	}
-	
+
+	//. get identity of file, or null if platform has none or file cannot be read
+	private static Object getFileKey(String filename) {
+		try {
+			return Files.readAttributes(new File(filename).toPath(), BasicFileAttributes.class).fileKey();
+		} catch (IOException ex) {
+			return null;
+		}
+	}
+
 	public static void main(String [] args) {
 		Tail t = new Tail();
 		t.setFilename(args[0]);
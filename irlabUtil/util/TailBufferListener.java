@@ -0,0 +1,7 @@
+package edu.ucla.astro.irlab.util;
+
+//. receives tailed data in the tail's read buffer, which is reused for the next read.
+//. data must be used or copied before returning.
+public interface TailBufferListener {
+	public void receiveNewData(byte[] buffer, int offset, int length);
+}
@@ -0,0 +1,125 @@
+package edu.ucla.astro.irlab.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Process-wide cache of compiled XSLT stylesheets.
+ *
+ * Parsing and compiling a stylesheet is much more expensive than applying it, so
+ * stylesheets are compiled once into <code>Templates</code>, which are thread-safe
+ * and can be shared.  Callers get a new <code>Transformer</code> from the returned
+ * <code>Templates</code> for each transformation.
+ *
+ * Entries are keyed by stylesheet URL, and a stylesheet is recompiled if its
+ * modification time has changed since it was compiled.
+ */
+public class XSLTTemplatesCache {
+	private static final Logger logger = Logger.getLogger(XSLTTemplatesCache.class);
+
+	private static final ConcurrentHashMap<String, CachedTemplates> cache = new ConcurrentHashMap<String, CachedTemplates>();
+	//. TransformerFactory is not thread-safe, so compiling is done with lock held
+	private static final Object compileLock = new Object();
+	private static TransformerFactory transformerFactory;
+
+	//. make constructor private.  should just use statically.
+	private XSLTTemplatesCache() {
+	}
+
+	/**
+	 * Get compiled stylesheet from file.
+	 *
+	 * @param  stylesheet           File containing XSLT stylesheet
+	 * @return                      Templates compiled from stylesheet
+	 * @throws TransformerException if file does not exist or stylesheet cannot be compiled
+	 */
+	public static Templates getTemplates(File stylesheet) throws TransformerException {
+		if (!stylesheet.exists()) {
+			throw new TransformerException("XSLT file <"+stylesheet+"> does not exist.");
+		}
+		try {
+			return getTemplates(stylesheet.toURI().toURL());
+		} catch (MalformedURLException ex) {
+			throw new TransformerException(ex);
+		}
+	}
+
+	/**
+	 * Get compiled stylesheet from URL.
+	 *
+	 * @param  stylesheet           URL of XSLT stylesheet
+	 * @return                      Templates compiled from stylesheet
+	 * @throws TransformerException if stylesheet cannot be compiled
+	 */
+	public static Templates getTemplates(URL stylesheet) throws TransformerException {
+		String key = stylesheet.toExternalForm();
+		long lastModified = getLastModified(stylesheet);
+		CachedTemplates entry = cache.get(key);
+		if ((entry != null) && (entry.lastModified == lastModified)) {
+			return entry.templates;
+		}
+		synchronized (compileLock) {
+			//. another thread may have compiled it while we waited
+			entry = cache.get(key);
+			if ((entry != null) && (entry.lastModified == lastModified)) {
+				return entry.templates;
+			}
+			if (transformerFactory == null) {
+				transformerFactory = TransformerFactory.newInstance();
+			}
+			logger.debug("Compiling XSLT stylesheet <"+key+">.");
+			entry = new CachedTemplates(transformerFactory.newTemplates(new StreamSource(key)), lastModified);
+			cache.put(key, entry);
+			return entry.templates;
+		}
+	}
+
+	/**
+	 * Remove all compiled stylesheets from cache.
+	 */
+	public static void clear() {
+		cache.clear();
+	}
+
+	private static long getLastModified(URL url) {
+		if ("file".equals(url.getProtocol())) {
+			try {
+				return new File(url.toURI()).lastModified();
+			} catch (URISyntaxException ex) {
+				return new File(url.getPath()).lastModified();
+			} catch (IllegalArgumentException ex) {
+				return new File(url.getPath()).lastModified();
+			}
+		}
+		try {
+			URLConnection connection = url.openConnection();
+			return connection.getLastModified();
+		} catch (IOException ex) {
+			//. cannot check, so use whatever has been compiled
+			CachedTemplates entry = cache.get(url.toExternalForm());
+			return (entry != null) ? entry.lastModified : 0;
+		}
+	}
+
+	private static class CachedTemplates {
+		private final Templates templates;
+		private final long lastModified;
+
+		CachedTemplates(Templates templates, long lastModified) {
+			this.templates = templates;
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -0,0 +1,278 @@
+package edu.ucla.astro.irlab.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.log4j.Logger;
+import org.jdom.Attribute;
+import org.jdom.Document;
+import org.jdom.Element;
+import org.jdom.JDOMException;
+import org.jdom.input.SAXBuilder;
+
+/**
+ * Process-wide loader of XML configuration files, for loading several files at startup at once.
+ *
+ * A file can be prefetched, which starts loading it on a background thread.  The next
+ * <code>getDocument</code> of the file takes the prefetched document, waiting for it if
+ * needed, so files prefetched together are parsed concurrently, and startup can go on with
+ * other work meanwhile.  Parsers are reused by each thread rather than created for each file.
+ *
+ * If a cache directory is set, each parsed document is also saved there in a compact binary
+ * form, named by hashes of the file's path and contents, and later loads of an unchanged file
+ * read that instead of parsing the XML.  When a changed file is parsed, the copy of its old
+ * contents is removed.  Only elements, attributes, and element text are kept, which is all the
+ * configuration formats use; namespaces, comments, and processing instructions are not.
+ *
+ * @see XmlToParams
+ * @see PropertyList
+ */
+public class XmlDocumentCache {
+	private static final Logger logger = Logger.getLogger(XmlDocumentCache.class);
+	//. start of cache files, changed if their format changes
+	private static final int CACHE_FILE_MAGIC = 0x58444331;
+	private static final String CACHE_FILE_SUFFIX = ".xdc";
+
+	//. prefetched documents, by canonical path.  removed when taken.
+	private static final ConcurrentHashMap<String, Future<Document>> prefetched = new ConcurrentHashMap<String, Future<Document>>();
+	//. threads are daemons, and exit when idle, so the pool lasts for the whole process
+	private static final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "XmlDocumentCache");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	private static final ThreadLocal<SAXBuilder> builders = new ThreadLocal<SAXBuilder>() {
+		protected SAXBuilder initialValue() {
+			return new SAXBuilder();
+		}
+	};
+	private static volatile File cacheDirectory = null;
+
+	//. make constructor private.  should just use statically.
+	private XmlDocumentCache() {
+	}
+
+	/**
+	 * Set directory where parsed documents are saved.  Directory is not created until a
+	 * document is first saved there.
+	 *
+	 * @param directory  cache directory, or null to not cache
+	 */
+	public static void setCacheDirectory(File directory) {
+		cacheDirectory = directory;
+	}
+	public static File getCacheDirectory() {
+		return cacheDirectory;
+	}
+
+	/**
+	 * Start loading file on a background thread, for a later <code>getDocument</code>.
+	 * Does nothing if file is already being prefetched.
+	 *
+	 * @param file  XML file
+	 */
+	public static void prefetch(final File file) {
+		String key = getPath(file);
+		if (!prefetched.containsKey(key)) {
+			Future<Document> future = executor.submit(new Callable<Document>() {
+				public Document call() throws IOException, JDOMException {
+					return loadDocument(file);
+				}
+			});
+			if (prefetched.putIfAbsent(key, future) != null) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Get document from XML file.  Takes the document if file was prefetched, otherwise loads
+	 * it, from the cache directory if it has a copy of the file.
+	 *
+	 * @param  file           XML file
+	 * @return                Document parsed from file
+	 * @throws IOException    if file cannot be read
+	 * @throws JDOMException  if XML is improperly formatted
+	 */
+	public static Document getDocument(File file) throws IOException, JDOMException {
+		Future<Document> future = prefetched.remove(getPath(file));
+		if (future == null) {
+			return loadDocument(file);
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted loading <"+file+">.");
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException)cause;
+			} else if (cause instanceof JDOMException) {
+				throw (JDOMException)cause;
+			}
+			throw new JDOMException("Error loading <"+file+">.", cause);
+		}
+	}
+
+	private static Document loadDocument(File file) throws IOException, JDOMException {
+		File directory = cacheDirectory;
+		if ((directory == null) || (directory.getPath().length() == 0)) {
+			return builders.get().build(file);
+		}
+		byte[] contents = readContents(file);
+		//. copies of a file all start with the hash of its path, so old ones can be found
+		String cachePrefix = getHash(getPath(file).getBytes("UTF-8"))+"-";
+		File cacheFile = new File(directory, cachePrefix+getHash(contents)+CACHE_FILE_SUFFIX);
+		if (cacheFile.exists()) {
+			try {
+				return readCacheFile(cacheFile);
+			} catch (IOException ex) {
+				logger.warn("Error reading cached copy <"+cacheFile+"> of <"+file+">, parsing file: "+ex.getMessage());
+			}
+		}
+		Document doc = builders.get().build(new ByteArrayInputStream(contents), file.toURI().toString());
+		try {
+			writeCacheFile(doc, directory, cacheFile);
+			removeStaleCacheFiles(directory, cachePrefix, cacheFile);
+		} catch (IOException ex) {
+			logger.warn("Error caching parsed copy of <"+file+"> in <"+directory+">: "+ex.getMessage());
+		}
+		return doc;
+	}
+
+	private static String getPath(File file) {
+		try {
+			return file.getCanonicalPath();
+		} catch (IOException ex) {
+			return file.getAbsolutePath();
+		}
+	}
+	private static byte[] readContents(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			byte[] contents = new byte[(int)file.length()];
+			in.readFully(contents);
+			return contents;
+		} finally {
+			in.close();
+		}
+	}
+	private static String getHash(byte[] contents) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException ex) {
+			//. every java platform has SHA-1
+			throw new IllegalStateException(ex);
+		}
+		StringBuffer hash = new StringBuffer();
+		for (byte b : digest.digest(contents)) {
+			hash.append(Character.forDigit((b >> 4) & 0xf, 16));
+			hash.append(Character.forDigit(b & 0xf, 16));
+		}
+		return hash.toString();
+	}
+
+	//. remove copies of earlier contents of file
+	private static void removeStaleCacheFiles(File directory, String cachePrefix, File cacheFile) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			String name = file.getName();
+			if (name.startsWith(cachePrefix) && name.endsWith(CACHE_FILE_SUFFIX) && !file.equals(cacheFile)) {
+				if (!file.delete()) {
+					logger.warn("Stale cached copy <"+file+"> cannot be removed.");
+				}
+			}
+		}
+	}
+
+	private static Document readCacheFile(File cacheFile) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+		try {
+			if (in.readInt() != CACHE_FILE_MAGIC) {
+				throw new IOException("Not a cache file.");
+			}
+			return new Document(readElement(in));
+		} finally {
+			in.close();
+		}
+	}
+	private static Element readElement(DataInputStream in) throws IOException {
+		Element element = new Element(in.readUTF());
+		int attributeCount = in.readInt();
+		for (int ii=0; ii<attributeCount; ii++) {
+			element.setAttribute(in.readUTF(), in.readUTF());
+		}
+		String text = in.readUTF();
+		if (text.length() > 0) {
+			element.setText(text);
+		}
+		int childCount = in.readInt();
+		for (int ii=0; ii<childCount; ii++) {
+			element.addContent(readElement(in));
+		}
+		return element;
+	}
+
+	private static void writeCacheFile(Document doc, File directory, File cacheFile) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Directory cannot be created.");
+		}
+		//. write to temporary file and rename, so other readers never see a partial file
+		File tempFile = File.createTempFile("xdc", ".tmp", directory);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			out.writeInt(CACHE_FILE_MAGIC);
+			writeElement(out, doc.getRootElement());
+		} finally {
+			out.close();
+		}
+		if (!tempFile.renameTo(cacheFile)) {
+			tempFile.delete();
+			if (!cacheFile.exists()) {
+				throw new IOException("Cache file <"+cacheFile+"> cannot be written.");
+			}
+		}
+	}
+	private static void writeElement(DataOutputStream out, Element element) throws IOException {
+		out.writeUTF(element.getName());
+		List<?> attributes = element.getAttributes();
+		out.writeInt(attributes.size());
+		for (Object o : attributes) {
+			Attribute attribute = (Attribute)o;
+			out.writeUTF(attribute.getName());
+			out.writeUTF(attribute.getValue());
+		}
+		List<?> children = element.getChildren();
+		//. whitespace between child elements is formatting, not text
+		out.writeUTF(children.isEmpty() ? element.getText() : element.getTextTrim());
+		out.writeInt(children.size());
+		for (Object o : children) {
+			writeElement(out, (Element)o);
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package edu.ucla.astro.irlab.util;
+//. NOTE: This class is for benchmarking XML loading, and is not included in Makefile
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.jdom.Document;
+import org.jdom.Element;
+
+/**
+ * Times loading XML files through <code>XmlDocumentCache</code>, with and without a cache
+ * directory, and one after another or concurrently, by prefetching all files before getting
+ * them, as MSCGUI does at startup.  Each run is a fresh JVM, which loads all files once (cold,
+ * as at startup, with class loading) and then again several times (warm).  The cache
+ * directory is filled before the cached runs.  Cached and parsed documents must have the same
+ * elements.  The number of processors is printed, since concurrent loads only gain on more
+ * than one.
+ *
+ * Usage: XmlDocumentCacheBenchmark [-runs N] file...
+ */
+public class XmlDocumentCacheBenchmark {
+	private static final int WARM_LOADS = 20;
+
+	public static void main(String[] args) throws Exception {
+		if ((args.length > 0) && args[0].equals("-load")) {
+			load(args);
+			return;
+		}
+		int runs = 10;
+		ArrayList<String> files = new ArrayList<String>();
+		for (int ii=0; ii<args.length; ii++) {
+			if (args[ii].equals("-runs") && (ii < args.length-1)) {
+				runs = Integer.parseInt(args[++ii]);
+			} else {
+				files.add(args[ii]);
+			}
+		}
+		if (files.isEmpty()) {
+			System.out.println("Usage: XmlDocumentCacheBenchmark [-runs N] file...");
+			System.exit(1);
+		}
+
+		File cacheDirectory = File.createTempFile("xdc", "");
+		cacheDirectory.delete();
+		//. fill cache, and check cached copies match the files
+		int mismatchCount = 0;
+		for (String file : files) {
+			XmlDocumentCache.setCacheDirectory(null);
+			Document parsed = XmlDocumentCache.getDocument(new File(file));
+			XmlDocumentCache.setCacheDirectory(cacheDirectory);
+			XmlDocumentCache.getDocument(new File(file));
+			Document cached = XmlDocumentCache.getDocument(new File(file));
+			if (countElements(parsed.getRootElement()) != countElements(cached.getRootElement())) {
+				System.out.println("MISMATCH "+file+": cached copy has different elements");
+				mismatchCount++;
+			}
+		}
+
+		System.out.println("Loading "+files.size()+" files with "+Runtime.getRuntime().availableProcessors()+" processors, median of "+runs+" runs:");
+		report("no cache", runs, "", false, files);
+		report("cache", runs, cacheDirectory.getPath(), false, files);
+		report("no cache, concurrent", runs, "", true, files);
+		report("cache, concurrent", runs, cacheDirectory.getPath(), true, files);
+
+		for (File file : cacheDirectory.listFiles()) {
+			file.delete();
+		}
+		cacheDirectory.delete();
+		System.exit((mismatchCount == 0) ? 0 : 1);
+	}
+
+	//. run JVMs, and print median cold and warm times
+	private static void report(String name, int runs, String cacheDirectory, boolean concurrent, ArrayList<String> files) throws Exception {
+		long[] coldTimes = new long[runs];
+		long[] warmTimes = new long[runs];
+		for (int ii=0; ii<runs; ii++) {
+			ArrayList<String> command = new ArrayList<String>();
+			command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add(XmlDocumentCacheBenchmark.class.getName());
+			command.add("-load");
+			command.add(cacheDirectory);
+			command.add(concurrent ? "1" : "0");
+			command.addAll(files);
+			Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+			String line;
+			String result = null;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("TIMES ")) {
+					result = line;
+				} else {
+					System.out.println(line);
+				}
+			}
+			if ((process.waitFor() != 0) || (result == null)) {
+				throw new Exception("Load run failed.");
+			}
+			String[] times = result.split(" ");
+			coldTimes[ii] = Long.parseLong(times[1]);
+			warmTimes[ii] = Long.parseLong(times[2]);
+		}
+		System.out.println(String.format("  %-20s cold %8d us   warm %8d us", name, median(coldTimes), median(warmTimes)));
+	}
+
+	//. child JVM: load files once cold, then repeatedly warm, and print times in microseconds
+	private static void load(String[] args) throws Exception {
+		XmlDocumentCache.setCacheDirectory(new File(args[1]));
+		boolean concurrent = args[2].equals("1");
+		File[] files = new File[args.length-3];
+		for (int ii=0; ii<files.length; ii++) {
+			files[ii] = new File(args[ii+3]);
+		}
+		long coldTime = loadAll(files, concurrent);
+		long[] warmTimes = new long[WARM_LOADS];
+		for (int ii=0; ii<WARM_LOADS; ii++) {
+			warmTimes[ii] = loadAll(files, concurrent);
+		}
+		System.out.println("TIMES "+coldTime+" "+median(warmTimes));
+	}
+	private static long loadAll(File[] files, boolean concurrent) throws Exception {
+		long startTime = System.nanoTime();
+		if (concurrent) {
+			for (File file : files) {
+				XmlDocumentCache.prefetch(file);
+			}
+		}
+		for (File file : files) {
+			XmlDocumentCache.getDocument(file);
+		}
+		return (System.nanoTime() - startTime) / 1000;
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+	private static int countElements(Element element) {
+		int count = 1;
+		for (Object child : element.getChildren()) {
+			count += countElements((Element)child);
+		}
+		return count;
+	}
+}
@@ -4,6 +4,11 @@ import org.jdom.*;
 import java.util.*;
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
 
 
 /**
@@ -16,6 +21,10 @@ import java.io.IOException;
  */
 
 public class XmlToParams {
+  private static final Logger logger = Logger.getLogger(XmlToParams.class);
+  //. public fields of parameter classes by name, so fields are looked up once per class
+  private static final ConcurrentHashMap<Class<?>, HashMap<String, Field>> paramFieldsCache =
+    new ConcurrentHashMap<Class<?>, HashMap<String, Field>>();
 
   /**
    *  Constructor
@@ -104,199 +113,231 @@ public class XmlToParams {
    */
   public static void extractParams(File xmlFile, Object paramObj) throws IOException, JDOMException, InvalidEnvironmentVariableException{
     //. open file and build local document model.  throws IOException or JDOMException on errors.
-    org.jdom.input.SAXBuilder builder = new org.jdom.input.SAXBuilder();
-    org.jdom.Document myDoc = builder.build(xmlFile);
+    //. taken from XmlDocumentCache, in case file was prefetched or has been cached.
+    extractParams(XmlDocumentCache.getDocument(xmlFile), paramObj);
+  }
 
+  /**
+   *  Sets fields of a Java Object from settings in an XML document already parsed.
+   *  See <code>extractParams(File, Object)</code> for the format.
+   *  <p>
+   *  All tags are checked before any field is set, so a document with errors sets nothing,
+   *  and the exception lists every bad tag rather than only the first.
+   *  @param  myDoc          XML Document from which values are read
+   *  @param  paramObj       object whose fields are set to values defined in XML document
+   *  @throws JDOMException  if XML or <code>paramObj</code> is improperly formatted
+   *  @throws InvalidEnvironmentVariableException if invalid environment variable used in File property
+   */
+  public static void extractParams(org.jdom.Document myDoc, Object paramObj) throws JDOMException, InvalidEnvironmentVariableException{
+    long startTime = System.nanoTime();
+    //. fields of param object by name, looked up once per class
+    HashMap<String, Field> fields = getParamFields(paramObj.getClass());
     //. get root element.  can be anything.
     Element root=myDoc.getRootElement();
     //. get children elements
-    List elements=root.getChildren();
-    //. loop through them
-    for (Iterator ii = elements.iterator(); ii.hasNext(); ) {
+    List<?> elements=root.getChildren();
+    ArrayList<Field> paramFields = new ArrayList<Field>(elements.size());
+    ArrayList<Object> paramValues = new ArrayList<Object>(elements.size());
+    ArrayList<String> errors = new ArrayList<String>();
+    boolean environmentError = false;
+    //. first pass: build value of each tag, and check it fits its field
+    for (Object element : elements) {
       //. get current element
-      Element current=(Element)ii.next();
+      Element current=(Element)element;
       //. get name of element, which is datatype
       String paramType=current.getName();
       //. get name of field in param object
-      String paramName=current.getAttribute("paramName").getValue();
+      Attribute paramNameAtt=current.getAttribute("paramName");
+      if (paramNameAtt == null) {
+        errors.add("Invalid XML: "+paramType+" tag must have paramName attribute.");
+        continue;
+      }
+      String paramName=paramNameAtt.getValue();
+      Field paramField=fields.get(paramName);
+      if (paramField == null) {
+        //. if field doesn't exist in param object
+        errors.add("Error setting attribute "+paramName+" in parameter object. "
+          +"Make sure paramName fields in XML file match variable names in the Parameter class. ");
+        continue;
+      }
+      if (Modifier.isFinal(paramField.getModifiers())) {
+        errors.add("Error accessing field in parameter object for "+paramName+". "
+          +"Make sure field exists and is declared public, and is not final.");
+        continue;
+      }
+      Object value;
       try {
-	//. get a refenece to param object field
-        java.lang.reflect.Field paramField=paramObj.getClass().getField(paramName);
-	//. if it is a dimension
-	if ("Dimension".equals(paramType)) {
-	  //. get xs attribute
-	  Attribute xsAtt=current.getAttribute("xs");
-	  if (xsAtt == null)
-	    throw new JDOMException("Invalid XML: Dimension tag must have xs attribute.");
-	  //. get ys attribute
-	  Attribute ysAtt=current.getAttribute("ys");
-	  if (ysAtt == null)
-	    throw new JDOMException("Invalid XML: Dimension tag must have ys attribute.");
-	  //. set field in param object with xs and ys attribute values
-	  paramField.set(paramObj, new java.awt.Dimension(xsAtt.getIntValue(),
-	    ysAtt.getIntValue()));
+        value=getParamValue(paramType, current);
+      } catch (JDOMException jdE) {
+        errors.add(paramName+": "+jdE.getMessage());
+        continue;
+      } catch (InvalidEnvironmentVariableException ievE) {
+        errors.add(paramName+": "+ievE.getMessage());
+        environmentError = true;
+        continue;
+      } catch (IllegalArgumentException iaE) {
+        //. e.g. Color component out of range
+        errors.add(paramName+": "+iaE.getMessage());
+        continue;
+      }
+      if (!isAssignable(paramField.getType(), value)) {
+        errors.add("Error setting value for "+paramName+" in parameter object.  Make sure datatypes are correct.");
+        continue;
+      }
+      paramFields.add(paramField);
+      paramValues.add(value);
+    }
+    if (!errors.isEmpty()) {
+      StringBuffer message = new StringBuffer("Errors in parameter XML for "+paramObj.getClass().getName()+":");
+      for (String error : errors) {
+        message.append("\n").append(error);
+      }
+      if (environmentError) {
+        throw new InvalidEnvironmentVariableException(message.toString());
+      }
+      throw new JDOMException(message.toString());
+    }
+    //. second pass: set fields.  values have been checked, so this does not fail.
+    for (int kk=0; kk<paramFields.size(); kk++) {
+      try {
+        paramFields.get(kk).set(paramObj, paramValues.get(kk));
+      } catch (IllegalAccessException iaE) {
+        throw new JDOMException("Error accessing field in parameter object for "+paramFields.get(kk).getName()+". "
+          +"Make sure field exists and is declared public. IllegalAccessException message:"
+          +iaE.getMessage());
+      }
+    }
+    logger.debug("Set "+paramFields.size()+" parameters of "+paramObj.getClass().getName()+" in "
+      +((System.nanoTime()-startTime)/1000)+" us.");
+  }
+
+  //. get public fields of class by name, from cache
+  private static HashMap<String, Field> getParamFields(Class<?> paramClass) {
+    HashMap<String, Field> fields = paramFieldsCache.get(paramClass);
+    if (fields == null) {
+      fields = new HashMap<String, Field>();
+      for (Field field : paramClass.getFields()) {
+        //. first of same name is the one getField would find
+        if (!fields.containsKey(field.getName())) {
+          fields.put(field.getName(), field);
+        }
+      }
+      paramFieldsCache.putIfAbsent(paramClass, fields);
+    }
+    return fields;
+  }
+
+  //. whether value can be set in field of type, including primitive widening
+  private static boolean isAssignable(Class<?> fieldType, Object value) {
+    if (!fieldType.isPrimitive()) {
+      return fieldType.isInstance(value);
+    }
+    if (value instanceof Boolean) {
+      return fieldType == boolean.class;
+    } else if (value instanceof Integer) {
+      return (fieldType == int.class) || (fieldType == long.class) || (fieldType == float.class) || (fieldType == double.class);
+    } else if (value instanceof Long) {
+      return (fieldType == long.class) || (fieldType == float.class) || (fieldType == double.class);
+    } else if (value instanceof Float) {
+      return (fieldType == float.class) || (fieldType == double.class);
+    } else if (value instanceof Double) {
+      return fieldType == double.class;
+    }
+    return false;
+  }
 
-	//. if it is a point
-	} else if ("Point".equals(paramType)) {
-	  //. get xs attribute
-	  Attribute xAtt=current.getAttribute("x");
-	  if (xAtt == null)
-	    throw new JDOMException("Invalid XML: Point tag must have x attribute.");
-	  //. get ys attribute
-	  Attribute yAtt=current.getAttribute("y");
-	  if (yAtt == null)
-	    throw new JDOMException("Invalid XML: Point tag must have y attribute.");
-	  //. set field in param object with xs and ys attribute values
-	  paramField.set(paramObj, new java.awt.Point(xAtt.getIntValue(),
-	    yAtt.getIntValue()));
+  //. build value of parameter from element
+  private static Object getParamValue(String paramType, Element current) throws JDOMException, InvalidEnvironmentVariableException {
+    //. if it is a dimension
+    if ("Dimension".equals(paramType)) {
+      //. get xs and ys attributes
+      return new java.awt.Dimension(getRequiredAttribute(current, "xs").getIntValue(),
+        getRequiredAttribute(current, "ys").getIntValue());
 
-	//. if it is a font
-        } else if ("Font".equals(paramType)) {
-	  int style;
-	  //. get name attribute
-	  Attribute nameAtt=current.getAttribute("name");
-	  if (nameAtt == null)
-	    throw new JDOMException("Invalid XML: Font tag must have name attribute.");
-	  //. get style attribute
-	  Attribute styleAtt=current.getAttribute("style");
-	  if (styleAtt == null)
-	    throw new JDOMException("Invalid XML: Font tag must have style attribute.");
-	  //. get size attribute
-	  Attribute sizeAtt=current.getAttribute("size");
-	  if (sizeAtt == null)
-	    throw new JDOMException("Invalid XML: Font tag must have size attribute.");
+    //. if it is a point
+    } else if ("Point".equals(paramType)) {
+      //. get x and y attributes
+      return new java.awt.Point(getRequiredAttribute(current, "x").getIntValue(),
+        getRequiredAttribute(current, "y").getIntValue());
 
-	  //. convert style string to java.awt.Font style integer constants
-	  String styleString=styleAtt.getValue();
-	  if (styleString.compareToIgnoreCase("plain")==0) {
-	    style=java.awt.Font.PLAIN;
-	  } else if (styleString.compareToIgnoreCase("bold")==0) {
-	    style=java.awt.Font.BOLD;
-	  } else if (styleString.compareToIgnoreCase("italic")==0) {
-	    style=java.awt.Font.ITALIC;
-	  } else if ((styleString.compareToIgnoreCase("bold+italic")==0) ||
-            (styleString.compareToIgnoreCase("italic+bold")==0) ) {
-	    style=java.awt.Font.BOLD+java.awt.Font.ITALIC;
-	  } else {
-	    throw new JDOMException("Invalid font style ("+styleString+
-	      "). Must be one of: PLAIN, BOLD, ITALIC, BOLD+ITALIC.");
-	  }
-	  //. set field in param object with name, style, and size attribute values
-	  paramField.set(paramObj, new java.awt.Font(nameAtt.getValue(), style,
-	    sizeAtt.getIntValue()));
+    //. if it is a font
+    } else if ("Font".equals(paramType)) {
+      int style;
+      //. get name, style, and size attributes
+      Attribute nameAtt=getRequiredAttribute(current, "name");
+      Attribute styleAtt=getRequiredAttribute(current, "style");
+      Attribute sizeAtt=getRequiredAttribute(current, "size");
 
-	//. if it is a color
-        } else if ("Color".equals(paramType)) {
-	  //. get red attribute
-	  Attribute redAtt=current.getAttribute("red");
-	  if (redAtt == null)
-	    throw new JDOMException("Invalid XML: Color tag must have red attribute.");
-	  //. get green attribute
-	  Attribute greenAtt=current.getAttribute("green");
-	  if (greenAtt == null)
-	    throw new JDOMException("Invalid XML: Color tag must have green attribute.");
-	  //. get blue attribute
-	  Attribute blueAtt=current.getAttribute("blue");
-	  if (blueAtt == null)
-	    throw new JDOMException("Invalid XML: Color tag must have blue attribute.");
-	  //. set field in param object with red, green, and blue attribute values
-	  paramField.set(paramObj, new java.awt.Color(redAtt.getIntValue(), greenAtt.getIntValue(), blueAtt.getIntValue()));
+      //. convert style string to java.awt.Font style integer constants
+      String styleString=styleAtt.getValue();
+      if (styleString.compareToIgnoreCase("plain")==0) {
+        style=java.awt.Font.PLAIN;
+      } else if (styleString.compareToIgnoreCase("bold")==0) {
+        style=java.awt.Font.BOLD;
+      } else if (styleString.compareToIgnoreCase("italic")==0) {
+        style=java.awt.Font.ITALIC;
+      } else if ((styleString.compareToIgnoreCase("bold+italic")==0) ||
+        (styleString.compareToIgnoreCase("italic+bold")==0) ) {
+        style=java.awt.Font.BOLD+java.awt.Font.ITALIC;
+      } else {
+        throw new JDOMException("Invalid font style ("+styleString+
+          "). Must be one of: PLAIN, BOLD, ITALIC, BOLD+ITALIC.");
+      }
+      return new java.awt.Font(nameAtt.getValue(), style, sizeAtt.getIntValue());
 
-	//. if it is a File
-	} else if ("File".equals(paramType)) {
-	  //. get value attribute
-	  Attribute valueAtt=current.getAttribute("value");
-	  if (valueAtt == null)
-	    throw new JDOMException("Invalid XML: File tag must have a value attribute.");
-	  //. set field in param object with value attribute value
-	  paramField.set(paramObj, new File(FileUtilities.replaceEnvironmentVariables(valueAtt.getValue())));
+    //. if it is a color
+    } else if ("Color".equals(paramType)) {
+      //. get red, green, and blue attributes
+      return new java.awt.Color(getRequiredAttribute(current, "red").getIntValue(),
+        getRequiredAttribute(current, "green").getIntValue(), getRequiredAttribute(current, "blue").getIntValue());
 
-	//. if it is a string
-	} else if ("String".equals(paramType)) {
-	  //. get value attribute
-	  Attribute valueAtt=current.getAttribute("value");
-	  if (valueAtt == null)
-	    throw new JDOMException("Invalid XML: String tag must have a value attribute.");
-	  //. set field in param object with value attribute value
-	  paramField.set(paramObj, new String(valueAtt.getValue()));
-	//. if it is a boolean
-        } else if ("boolean".equals(paramType)) {
-	  //. get value attribute
-	  Attribute valueAtt=current.getAttribute("value");
-	  if (valueAtt == null)
-	    throw new JDOMException("Invalid XML: boolean tag must have a value attribute.");
-	  //. set field in param object with value attribute value
-	  paramField.setBoolean(paramObj, valueAtt.getBooleanValue());
-	//. if it is a int
-        } else if ("int".equals(paramType)) {
-	  //. get value attribute
-	  Attribute valueAtt=current.getAttribute("value");
-	  if (valueAtt == null)
-	    throw new JDOMException("Invalid XML: int tag must have a value attribute.");
-	  //. set field in param object with value attribute value
-	  paramField.setInt(paramObj, valueAtt.getIntValue());
-	//. if it is a long
-        } else if ("long".equals(paramType)) {
-	  //. get value attribute
-	  Attribute valueAtt=current.getAttribute("value");
-	  if (valueAtt == null)
-	    throw new JDOMException("Invalid XML: long tag must have a value attribute.");
-	  //. set field in param object with value attribute value
-	  paramField.setLong(paramObj, valueAtt.getLongValue());
-	//. if it is a float
-        } else if ("float".equals(paramType)) {
-	  //. get value attribute
-	  Attribute valueAtt=current.getAttribute("value");
-	  if (valueAtt == null)
-	    throw new JDOMException("Invalid XML: float tag must have a value attribute.");
-	  //. set field in param object with value attribute value
-	  paramField.setFloat(paramObj, valueAtt.getFloatValue());
-	//. if it is a double
-        } else if ("double".equals(paramType)) {
-	  //. get value attribute
-	  Attribute valueAtt=current.getAttribute("value");
-	  if (valueAtt == null)
-	    throw new JDOMException("Invalid XML: double tag must have a value attribute.");
-	  //. set field in param object with value attribute value
-	  paramField.setDouble(paramObj, valueAtt.getDoubleValue());
-        } else if ("StringArray".equals(paramType)) {
-	  //. get children
-	  List stringArrayChildren = current.getChildren();
-	  int jjI=0;
-	  String[] stringArray = new String[stringArrayChildren.size()];
-	  for (Iterator jj = stringArrayChildren.iterator(); jj.hasNext();) {
-	    Element stringArrayChild = (Element)jj.next();
-	    if (!stringArrayChild.getName().equals("String"))
-	      throw new JDOMException("Invalid XML: StringArray children must be String types.");
+    //. if it is a File
+    } else if ("File".equals(paramType)) {
+      return new File(FileUtilities.replaceEnvironmentVariables(getRequiredAttribute(current, "value").getValue()));
 
-	    Attribute valueAtt=stringArrayChild.getAttribute("value");
-	    if (valueAtt == null)
-	      throw new JDOMException("Invalid XML: String tag in StringArray must have a value attribute.");
+    //. if it is a string
+    } else if ("String".equals(paramType)) {
+      return new String(getRequiredAttribute(current, "value").getValue());
+    } else if ("boolean".equals(paramType)) {
+      return Boolean.valueOf(getRequiredAttribute(current, "value").getBooleanValue());
+    } else if ("int".equals(paramType)) {
+      return Integer.valueOf(getRequiredAttribute(current, "value").getIntValue());
+    } else if ("long".equals(paramType)) {
+      return Long.valueOf(getRequiredAttribute(current, "value").getLongValue());
+    } else if ("float".equals(paramType)) {
+      return Float.valueOf(getRequiredAttribute(current, "value").getFloatValue());
+    } else if ("double".equals(paramType)) {
+      return Double.valueOf(getRequiredAttribute(current, "value").getDoubleValue());
+    } else if ("StringArray".equals(paramType)) {
+      //. get children
+      List<?> stringArrayChildren = current.getChildren();
+      int jjI=0;
+      String[] stringArray = new String[stringArrayChildren.size()];
+      for (Object child : stringArrayChildren) {
+        Element stringArrayChild = (Element)child;
+        if (!stringArrayChild.getName().equals("String"))
+          throw new JDOMException("Invalid XML: StringArray children must be String types.");
 
-	    stringArray[jjI] = valueAtt.getValue();
-	    jjI++;
-	  }
-	  //. set field in param object with value attribute value
-	  paramField.set(paramObj, stringArray);
-        } else {
-	  //. if it isn't one of the accepted datatypes, throw exception
-	  throw new JDOMException("Illegal datatype for parameter ("+paramType
-	    +"). Must be one of: boolean, int, long, float, double, String, Color, Dimension, File, Font, Point");
-        }
-      } catch (NoSuchFieldException nsfE) {
-	//. if field doesn't exist in param object, throw exception
-	throw new JDOMException("Error setting attribute "+nsfE.getMessage()+" in parameter object. "
-	  +"Make sure paramName fields in XML file match variable names in the Parameter class. ");
-      } catch (IllegalAccessException iaE) {
-	//. if error accessing field in object, throw exception
-	throw new JDOMException("Error accessing field in parameter object for "+paramName+". "
-	  +"Make sure field exists and is declared public. IllegalAccessException message:"
-	  +iaE.getMessage());
-      } catch (IllegalArgumentException iarE) {
-	//. if error setting value of field in object, throw exception
-	throw new JDOMException("Error setting value for "+paramName+" in parameter object.  Make sure datatypes are correct.");
+        Attribute valueAtt=stringArrayChild.getAttribute("value");
+        if (valueAtt == null)
+          throw new JDOMException("Invalid XML: String tag in StringArray must have a value attribute.");
+
+        stringArray[jjI] = valueAtt.getValue();
+        jjI++;
       }
+      return stringArray;
+    } else {
+      //. if it isn't one of the accepted datatypes, throw exception
+      throw new JDOMException("Illegal datatype for parameter ("+paramType
+        +"). Must be one of: boolean, int, long, float, double, String, Color, Dimension, File, Font, Point");
     }
   }
 
+  private static Attribute getRequiredAttribute(Element current, String name) throws JDOMException {
+    Attribute att=current.getAttribute(name);
+    if (att == null)
+      throw new JDOMException("Invalid XML: "+current.getName()+" tag must have "+name+" attribute.");
+    return att;
+  }
+
 }
@@ -0,0 +1,124 @@
+package edu.ucla.astro.irlab.util;
+//. NOTE: This class is for benchmarking parameter binding, and is not included in Makefile
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jdom.Document;
+import org.jdom.Element;
+
+/**
+ * Times <code>XmlToParams.extractParams</code> binding an already parsed document to a
+ * parameter class.  The document has one tag for each public static field of the class of a
+ * simple type, set to the field's current value, so binding it leaves the class unchanged.
+ * For comparison, the time to look up the field of each tag with <code>Class.getField</code>,
+ * as was done for every tag before fields were cached, is also reported.
+ *
+ * The parameter class must have a static <code>getInstance</code> method, as
+ * MosfireParameters and MSCGUIParameters do.
+ *
+ * Usage: XmlToParamsBenchmark paramClass [binds]
+ */
+public class XmlToParamsBenchmark {
+	private static final int WARMUP_BINDS = 1000;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Usage: XmlToParamsBenchmark paramClass [binds]");
+			System.exit(1);
+		}
+		Class<?> paramClass = Class.forName(args[0]);
+		int binds = (args.length > 1) ? Integer.parseInt(args[1]) : 10000;
+		//. parameter classes are singletons
+		Object paramObj = paramClass.getMethod("getInstance").invoke(null);
+		Document doc = buildDocument(paramClass);
+		List<?> elements = doc.getRootElement().getChildren();
+		System.out.println("Binding "+elements.size()+" tags to "+paramClass.getName()+", median of "+binds+" binds:");
+
+		for (int ii=0; ii<WARMUP_BINDS; ii++) {
+			XmlToParams.extractParams(doc, paramObj);
+		}
+		long[] bindTimes = new long[binds];
+		for (int ii=0; ii<binds; ii++) {
+			long startTime = System.nanoTime();
+			XmlToParams.extractParams(doc, paramObj);
+			bindTimes[ii] = System.nanoTime() - startTime;
+		}
+
+		String[] names = new String[elements.size()];
+		for (int ii=0; ii<names.length; ii++) {
+			names[ii] = ((Element)elements.get(ii)).getAttributeValue("paramName");
+		}
+		int found = 0;
+		for (int ii=0; ii<WARMUP_BINDS; ii++) {
+			found += lookUpFields(paramClass, names);
+		}
+		long[] lookupTimes = new long[binds];
+		for (int ii=0; ii<binds; ii++) {
+			long startTime = System.nanoTime();
+			found += lookUpFields(paramClass, names);
+			lookupTimes[ii] = System.nanoTime() - startTime;
+		}
+
+		System.out.println(String.format("  bind                    %8.1f us", median(bindTimes) / 1000.0));
+		System.out.println(String.format("  getField of every tag   %8.1f us", median(lookupTimes) / 1000.0));
+		//. use result, so lookups are not optimized away
+		if (found == 0) {
+			System.out.println("No fields found.");
+		}
+	}
+
+	//. tag for each public static field of simple type, with its current value
+	private static Document buildDocument(Class<?> paramClass) throws IllegalAccessException {
+		Element root = new Element("params");
+		for (Field field : paramClass.getFields()) {
+			int modifiers = field.getModifiers();
+			if (!Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+				continue;
+			}
+			Object value = field.get(null);
+			String type;
+			if (field.getType() == boolean.class) {
+				type = "boolean";
+			} else if (field.getType() == int.class) {
+				type = "int";
+			} else if (field.getType() == long.class) {
+				type = "long";
+			} else if (field.getType() == float.class) {
+				type = "float";
+			} else if (field.getType() == double.class) {
+				type = "double";
+			} else if ((field.getType() == String.class) && (value != null)) {
+				type = "String";
+			} else {
+				continue;
+			}
+			Element element = new Element(type);
+			element.setAttribute("paramName", field.getName());
+			element.setAttribute("value", value.toString());
+			root.addContent(element);
+		}
+		return new Document(root);
+	}
+
+	private static int lookUpFields(Class<?> paramClass, String[] names) {
+		int found = 0;
+		for (String name : names) {
+			try {
+				paramClass.getField(name);
+				found++;
+			} catch (NoSuchFieldException ex) {
+				//. counted as not found
+			}
+		}
+		return found;
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+}
@@ -0,0 +1,180 @@
+package edu.ucla.astro.irlab.mosfire.util;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bar targets for one CSU setup, gathered from any number of slit lists, such as the slits
+ * of a mask and the unused bars being closed off, so they are sent and moved together in
+ * one setup.
+ *
+ * Given the current bar positions, the plan gives a rough estimate of the time to complete
+ * the moves, assuming up to <code>CSU_MAXIMUM_SIMULTANEOUS_BAR_MOVES</code> bars move at
+ * once at the nominal bar speed, longest moves first, with each next move starting when a
+ * bar finishes.  The CSU motion parameters in MosfireParameters are placeholders, so the
+ * estimate is only useful for comparing setups.
+ *
+ * @see SlitConfiguration
+ */
+public class CSUMovePlan {
+	private static final int NUMBER_OF_BARS = 2 * MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS;
+
+	private final String setupName;
+	//. target of each bar in mm, by bar number - 1, or NaN if bar has no target
+	private final double[] targets = new double[NUMBER_OF_BARS];
+	//. current position of each bar in mm, by bar number - 1, or negative if unknown
+	private double[] currentPositions;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param setupName  setup name sent to CSU
+	 */
+	public CSUMovePlan(String setupName) {
+		this.setupName = setupName;
+		Arrays.fill(targets, Double.NaN);
+	}
+
+	/**
+	 * Add bar targets of slits to plan.  Targets replace any already in the plan for the same bars.
+	 *
+	 * @param slits  List of MechanicalSlits
+	 */
+	public void addSlits(List<MechanicalSlit> slits) {
+		for (MechanicalSlit slit : slits) {
+			targets[slit.getRightBarNumber()-1] = slit.getRightBarPositionInMM();
+			targets[slit.getLeftBarNumber()-1] = slit.getLeftBarPositionInMM();
+		}
+	}
+
+	/**
+	 * Set current bar positions, used to estimate time.
+	 *
+	 * @param positions  position of each bar in mm, by bar number - 1.  negative if unknown.
+	 */
+	public void setCurrentPositions(double[] positions) {
+		currentPositions = positions;
+	}
+
+	public String getSetupName() {
+		return setupName;
+	}
+
+	/**
+	 * Get number of bars with targets.
+	 *
+	 * @return number of bars
+	 */
+	public int getTargetCount() {
+		int count = 0;
+		for (double target : targets) {
+			if (!Double.isNaN(target)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Get number of bars that move to reach their targets.  Bars with unknown positions are counted.
+	 *
+	 * @return number of bars
+	 */
+	public int getMovingBarCount() {
+		int count = 0;
+		for (int ii=0; ii<NUMBER_OF_BARS; ii++) {
+			if (getTravelMM(ii) > MosfireParameters.CSU_BAR_POSITION_TOLERANCE_MM) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Get estimated time for bars to reach their targets.
+	 *
+	 * @return time in seconds
+	 */
+	public double getEstimatedTimeSec() {
+		//. end times of moves in progress, one per bar that can move at once
+		PriorityQueue<Double> endTimes = new PriorityQueue<Double>();
+		for (int ii=0; ii<MosfireParameters.CSU_MAXIMUM_SIMULTANEOUS_BAR_MOVES; ii++) {
+			endTimes.add(0.0);
+		}
+		double lastEndTime = 0.0;
+		for (Integer barNumber : getOrderedBarNumbers()) {
+			double travel = getTravelMM(barNumber.intValue()-1);
+			if (travel <= MosfireParameters.CSU_BAR_POSITION_TOLERANCE_MM) {
+				continue;
+			}
+			double endTime = endTimes.poll().doubleValue() + getMoveTimeSec(travel);
+			endTimes.add(endTime);
+			lastEndTime = Math.max(lastEndTime, endTime);
+		}
+		return lastEndTime;
+	}
+
+	//. numbers of bars with targets, longest move first.  bars with unknown positions are
+	//. taken to move the full range; bars already at their targets are last.
+	private ArrayList<Integer> getOrderedBarNumbers() {
+		ArrayList<Integer> barNumbers = new ArrayList<Integer>();
+		for (int ii=0; ii<NUMBER_OF_BARS; ii++) {
+			if (!Double.isNaN(targets[ii])) {
+				barNumbers.add(ii+1);
+			}
+		}
+		Collections.sort(barNumbers, new Comparator<Integer>() {
+			public int compare(Integer bar1, Integer bar2) {
+				return Double.compare(getTravelMM(bar2.intValue()-1), getTravelMM(bar1.intValue()-1));
+			}
+		});
+		return barNumbers;
+	}
+
+	/**
+	 * Write script that sends all targets to CSU, in bar number order.  The CSU starts all
+	 * moves together on setupinit, so the order of targets does not matter.
+	 *
+	 * @param  outputFile            String path to file to write to
+	 * @param  setTargetsOnly        Flag for whether to only send targets, without starting setup
+	 * @throws FileNotFoundException if File cannot be created from <code>outputFile</code>
+	 */
+	public void writeScript(String outputFile, boolean setTargetsOnly) throws FileNotFoundException {
+		PrintStream p = new PrintStream(new BufferedOutputStream(new FileOutputStream(outputFile)));
+
+		p.printf("modify -s mcsus setupname=\"%s\"\n", setupName);
+		for (int ii=0; ii<NUMBER_OF_BARS; ii++) {
+			if (!Double.isNaN(targets[ii])) {
+				p.printf("modify -s mcsus b%02dtarg= %7.3f\n", ii+1, targets[ii]);
+			}
+		}
+		if (!setTargetsOnly) {
+			p.printf("modify -s mcsus setupinit=1\n");
+		}
+		p.close();
+	}
+
+	//. distance bar moves to target, or 0 if it has none
+	private double getTravelMM(int barIndex) {
+		double target = targets[barIndex];
+		if (Double.isNaN(target)) {
+			return 0.0;
+		}
+		if ((currentPositions == null) || (barIndex >= currentPositions.length) || (currentPositions[barIndex] < 0)) {
+			return MosfireParameters.CSU_MAXIMUM_BAR_POSITION_MM - MosfireParameters.CSU_MINIMUM_BAR_POSITION_MM;
+		}
+		return Math.abs(target - currentPositions[barIndex]);
+	}
+
+	private static double getMoveTimeSec(double travelMM) {
+		return MosfireParameters.CSU_BAR_MOVE_OVERHEAD_SEC + travelMM / MosfireParameters.CSU_BAR_SPEED_MM_PER_SEC;
+	}
+}
@@ -118,6 +118,13 @@ public class MosfireParameters {
   public static double CSU_OPEN_MASK_SLIT_WIDTH = CSU_OPEN_MASK_SLIT_WITH_MM * CSU_ARCSEC_PER_MM;
   public static double CSU_MINIMUM_BAR_POSITION_MM = 4.0;
   public static double CSU_MAXIMUM_BAR_POSITION_MM = 270.4;
+  //. bar motion, for estimating mask setup times.  rough placeholders, not measured:
+  //. replace with values from CSU timing once known.
+  public static double CSU_BAR_SPEED_MM_PER_SEC = 2.0;
+  public static double CSU_BAR_MOVE_OVERHEAD_SEC = 2.0;
+  public static int    CSU_MAXIMUM_SIMULTANEOUS_BAR_MOVES = 8;
+  //. bars closer than this to their targets are not counted as moving
+  public static double CSU_BAR_POSITION_TOLERANCE_MM = 0.01;
 
   public static double[] CSU_OPEN_BAR_TARGETS = {
   	4.0,
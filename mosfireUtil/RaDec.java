@@ -1,5 +1,9 @@
 package edu.ucla.astro.irlab.mosfire.util;
 
+import java.math.RoundingMode;
+
+import edu.ucla.astro.irlab.util.FixedPointFormat;
+import edu.ucla.astro.irlab.util.NumberFormatters;
 
 
 public class RaDec implements Cloneable {
@@ -18,9 +22,10 @@ public class RaDec implements Cloneable {
 	
 	private double xCoordinate;
 	private double yCoordinate;
-	java.text.DecimalFormat secondPlace = new java.text.DecimalFormat("00.00");
-	java.text.DecimalFormat wholePlace = new java.text.DecimalFormat("00");
-	java.text.DecimalFormat wholeDecPlace = new java.text.DecimalFormat("+00;-00");
+	//. shared by all instances and clones, since formats are immutable
+	private static final FixedPointFormat secondPlace = NumberFormatters.ZeroPaddedFixedPointFormat(2, 2);
+	private static final FixedPointFormat wholePlace = NumberFormatters.ZeroPaddedFixedPointFormat(2, 0);
+	private static final FixedPointFormat wholeDecPlace = new FixedPointFormat(2, 0, 0, RoundingMode.HALF_EVEN, "+", null);
 
 	public RaDec(int raHour, int raMin, double raSec, double decDeg, 
 			double decMin, double decSec) {
@@ -51,12 +51,13 @@ import static edu.ucla.astro.irlab.mosfire.util.MosfireParameters.SINGLE_SLIT_HE
 
 import java.awt.Point;
 import java.awt.geom.Point2D;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.math.RoundingMode;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.DecimalFormat;
@@ -66,7 +67,11 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 
-import javax.xml.transform.TransformerFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.stream.StreamSource;
@@ -74,6 +79,9 @@ import javax.xml.transform.stream.StreamResult;
 
 import nom.tam.fits.AsciiTable;
 import nom.tam.fits.AsciiTableHDU;
+import nom.tam.fits.BasicHDU;
+import nom.tam.fits.BinaryTable;
+import nom.tam.fits.BinaryTableHDU;
 import nom.tam.fits.Fits;
 import nom.tam.fits.FitsException;
 import nom.tam.fits.Header;
@@ -86,7 +94,9 @@ import org.jdom.output.Format;
 import org.jdom.output.XMLOutputter;
 
 import edu.ucla.astro.irlab.util.CombinationGenerator;
+import edu.ucla.astro.irlab.util.FixedPointFormat;
 import edu.ucla.astro.irlab.util.NumberFormatters;
+import edu.ucla.astro.irlab.util.XSLTTemplatesCache;
 
 //. TODO history (written on mascgen, and on modifies)
 /**
@@ -173,6 +183,38 @@ public class SlitConfiguration implements Cloneable {
 	public static final String XML_ATTRIBUTE_MECH_SLIT_NUMBER = "mechSlitNumber";
 	public static final String XML_ELEMENT_MASCGEN_ARGUMENTS = "mascgenArguments";
 
+	public static final String FITS_EXTNAME_TARGET_LIST = "Target_List";
+	public static final String FITS_EXTNAME_SCIENCE_SLIT_LIST = "Science_Slit_List";
+	public static final String FITS_EXTNAME_MECHANICAL_SLIT_LIST = "Mechanical_Slit_List";
+	public static final String FITS_EXTNAME_ALIGNMENT_SLIT_LIST = "Alignment_Slit_List";
+	public static final String FITS_KEYWORD_MASK_NAME = "MASKNAME";
+	public static final String FITS_KEYWORD_MSC_VERSION = "MSCVER";
+	public static final String FITS_KEYWORD_TOTAL_PRIORITY = "TOTPRI";
+	public static final String FITS_KEYWORD_CENTER_RAH = "CENRAH";
+	public static final String FITS_KEYWORD_CENTER_RAM = "CENRAM";
+	public static final String FITS_KEYWORD_CENTER_RAS = "CENRAS";
+	public static final String FITS_KEYWORD_CENTER_DECD = "CENDECD";
+	public static final String FITS_KEYWORD_CENTER_DECM = "CENDECM";
+	public static final String FITS_KEYWORD_CENTER_DECS = "CENDECS";
+	public static final String FITS_KEYWORD_MASK_PA = "MASKPA";
+	public static final String FITS_KEYWORD_ALIGNMENT_MASK = "ALIGNMSK";
+
+	//. column labels and units of FITS table extensions.  null unit means none.
+	private static final String[] FITS_TARGET_LIST_COLUMNS = {"Target_Name", "Priority", "Magnitude", "RA_Hours", "RA_Minutes", "RA_Seconds", 
+		"Dec_Degrees", "Dec_Minutes", "Dec_Seconds", "Epoch", "Equinox"};
+	private static final String[] FITS_TARGET_LIST_UNITS = new String[FITS_TARGET_LIST_COLUMNS.length];
+	private static final String[] FITS_SCIENCE_SLIT_LIST_COLUMNS = {"Slit_Number", "Slit_RA_Hours", "Slit_RA_Minutes", "Slit_RA_Seconds", 
+		"Slit_Dec_Degrees", "Slit_Dec_Minutes", "Slit_Dec_Seconds", "Slit_width", "Slit_length", "Target_to_center_of_slit_distance", 
+		"Target_Name", "Target_Priority"};
+	private static final String[] FITS_SCIENCE_SLIT_LIST_UNITS = {null, null, null, null, null, null, null, "arcsec", "arcsec", "arcsec", null, null};
+	private static final String[] FITS_MECHANICAL_SLIT_LIST_COLUMNS = {"Slit_Number", "Target_in_Slit", "Target_Priority", "Position_of_Slit", 
+		"Slit_width", "Target_to_center_of_slit_distance"};
+	private static final String[] FITS_MECHANICAL_SLIT_LIST_UNITS = {null, null, null, "arcsec", "arcsec", "arcsec"};
+	private static final String[] FITS_ALIGNMENT_SLIT_LIST_COLUMNS = {"Slit_Number", "Position_of_Slit", "Slit_width", "Target_to_center_of_slit_distance", 
+		"Target_in_Slit", "Target_Priority", "Target_Magnitude", "Target_RA_Hours", "Target_RA_Minutes", "Target_RA_Seconds", 
+		"Target_Dec_Degrees", "Target_Dec_Minutes", "Target_Dec_Seconds", "Target_Epoch", "Target_Equinox"};
+	private static final String[] FITS_ALIGNMENT_SLIT_LIST_UNITS = {null, "arcsec", "arcsec", "arcsec", null, null, null, null, null, null, null, null, null, null, null};
+
 	public static final String STATUS_NEW = "new";
 	public static final String STATUS_MODIFIED = "modified";
 	public static final String STATUS_SAVED = "saved";
@@ -200,14 +242,17 @@ public class SlitConfiguration implements Cloneable {
 	private boolean hasObjectsIn23Ra = false;
 
 	private static SlitPositionSorter slitPositionSorter;
-	private final XMLOutputter outputter = new XMLOutputter(Format.getPrettyFormat());
-	private final SAXBuilder builder = new SAXBuilder();
-	private final DecimalFormat oneDigitFormatter = NumberFormatters.StandardFloatFormatter(1);  
-	private final DecimalFormat twoDigitFormatter = NumberFormatters.StandardFloatFormatter(2);  
-	private final DecimalFormat threeDigitFormatter = NumberFormatters.StandardFloatFormatter(3);  
-	private final DecimalFormat fiveDigitFormatter = NumberFormatters.StandardFloatFormatter(5);
-	private final DecimalFormat twoDigitWholeNumberFormatter = new DecimalFormat("00");
-	private final DecimalFormat degreeSecondFormatter = new DecimalFormat("00.00");
+	private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+	//. fixed point formats are immutable, so can be shared by all configurations and writer threads
+	private static final FixedPointFormat oneDigitFormatter = NumberFormatters.StandardFixedPointFormat(1);
+	private static final FixedPointFormat twoDigitFormatter = NumberFormatters.StandardFixedPointFormat(2);
+	private static final FixedPointFormat threeDigitFormatter = NumberFormatters.StandardFixedPointFormat(3);
+	private static final FixedPointFormat fiveDigitFormatter = NumberFormatters.StandardFixedPointFormat(5);
+	private static final FixedPointFormat twoDigitWholeNumberFormatter = NumberFormatters.ZeroPaddedFixedPointFormat(2, 0);
+	private static final FixedPointFormat degreeSecondFormatter = NumberFormatters.ZeroPaddedFixedPointFormat(2, 2);
+	//. parser and outputter are not thread-safe, so each clone gets its own.  see clone()
+	private XMLOutputter outputter = new XMLOutputter(Format.getPrettyFormat());
+	private SAXBuilder builder = new SAXBuilder();
 
 	/**
 	 * Constructor for a unsaveable configuration.
@@ -255,6 +300,8 @@ public class SlitConfiguration implements Cloneable {
 	public SlitConfiguration clone() {
 		try {
 			SlitConfiguration newConfig = (SlitConfiguration)super.clone();
+			newConfig.outputter = new XMLOutputter(Format.getPrettyFormat());
+			newConfig.builder = new SAXBuilder();
 			ArrayList<MechanicalSlit> newMechSlitList = new ArrayList<MechanicalSlit>(mechanicalSlitList.size());
 			for (MechanicalSlit slit : mechanicalSlitList) {
 				newMechSlitList.add(slit.clone());
@@ -916,6 +963,23 @@ public class SlitConfiguration implements Cloneable {
 		}
 
 		//. if we made it this far, no issues, go ahead and set all new members
+		applyReadConfiguration(listFile, newVersion, newMaskName, newMascgenResult, newSlitList, newScienceSlitList, newAlignList, newMascgenArgs);
+	}
+
+	/**
+	 * Set members of this configuration from the contents of a parsed MSC, and
+	 * update the derived target information.  Used by both the JDOM and streaming readers.
+	 * 
+	 * @param listFile            File object pointing to MSC file that was read
+	 * @param newVersion          String version of MSC
+	 * @param newMaskName         String name of mask
+	 * @param newMascgenResult    MascgenResult with mask center, position angle and total priority
+	 * @param newSlitList         ArrayList of MechanicalSlits read from MSC
+	 * @param newScienceSlitList  ArrayList of ScienceSlits read from MSC
+	 * @param newAlignList        ArrayList of alignment MechanicalSlits read from MSC
+	 * @param newMascgenArgs      MascgenArguments read from MSC
+	 */
+	private void applyReadConfiguration(File listFile, String newVersion, String newMaskName, MascgenResult newMascgenResult, ArrayList<MechanicalSlit> newSlitList, ArrayList<ScienceSlit> newScienceSlitList, ArrayList<MechanicalSlit> newAlignList, MascgenArguments newMascgenArgs) {
 	  setVersion(newVersion);
 	  setMaskName(newMaskName);
 		setMechanicalSlitList(newSlitList);
@@ -959,6 +1023,307 @@ public class SlitConfiguration implements Cloneable {
 		status =  STATUS_SAVED;
 	}
 
+	/**
+	 * Read MOSFIRE Slit Configuration file with a streaming (StAX) parser and populate this configuration 
+	 * with specification in file.  Produces the same configuration and warnings as 
+	 * <code>readSlitConfiguration</code>, but does not build a JDOM document of the MSC, so is 
+	 * faster and uses less memory when reading many files.  Only the MASCGEN arguments element, which
+	 * is small, is built as a JDOM element so that it can be parsed by <code>MascgenArguments</code>.
+	 * 
+	 * @param  listFile        File object pointing to MSC file
+	 * @param  outWarningList  String ArrayList to receive warnings found with MSC
+	 * @throws JDOMException   on error parsing MSC
+	 * @throws IOException     on error opening MSC file
+	 * @see    #readSlitConfiguration(File, ArrayList)
+	 */
+	public void readSlitConfigurationStreaming(File listFile, ArrayList<String> outWarningList) throws JDOMException, IOException {
+		FileInputStream inStream = new FileInputStream(listFile);
+		try {
+			XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(listFile.toURI().toString(), inStream);
+			try {
+				readSlitConfiguration(reader, listFile, outWarningList);
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException ex) {
+			throw new JDOMException("Error parsing "+listFile.getAbsolutePath()+": "+ex.getMessage(), ex);
+		} finally {
+			inStream.close();
+		}
+	}
+
+	private void readSlitConfiguration(XMLStreamReader reader, File listFile, ArrayList<String> outWarningList) throws JDOMException, XMLStreamException {
+		String newVersion = "unknown";
+		String value;
+
+		//. get root element.
+		if (!nextChildElement(reader)) {
+			throw new JDOMException("Root element must be "+XML_ROOT);
+		}
+
+		//. check that it has the proper name
+		if (reader.getLocalName().compareTo(XML_ROOT) != 0)
+			throw new JDOMException("Root element must be "+XML_ROOT);
+
+		//. get version
+		value = reader.getAttributeValue(null, XML_ATTRIBUTE_MSC_VERSION);
+		if (value != null) {
+			newVersion = value;
+		}
+		
+		boolean maskDescriptionFound = false;
+		boolean mechanicalSlitsFound = false;
+		boolean scienceSlitsFound = false;
+
+		//. initialize this configuration
+		String newMaskName = "";
+		MascgenResult newMascgenResult = new MascgenResult();
+		ArrayList<MechanicalSlit> newSlitList = new ArrayList<MechanicalSlit>(MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS);
+		ArrayList<ScienceSlit> newScienceSlitList = new ArrayList<ScienceSlit>(MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS);
+		ArrayList<MechanicalSlit> newAlignList = new ArrayList<MechanicalSlit>(MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS);
+		MascgenArguments newMascgenArgs = new MascgenArguments();
+		status = STATUS_NEW;
+
+		if (originalTargetList != null) {
+			originalTargetList.clear();
+		}
+		hasObjectsIn0Ra = false;
+		hasObjectsIn23Ra = false;
+		
+		//. loop through children elements of root
+		while (nextChildElement(reader)) {
+			String name = reader.getLocalName();
+			String element;
+
+			//. begin MASK DESCRIPTION
+			if (name.equals(XML_ELEMENT_MASK_DESCRIPTION)) {
+				maskDescriptionFound = true;
+				element = XML_ELEMENT_MASK_DESCRIPTION;
+				
+				newMaskName = getRequiredAttribute(reader, element, XML_ATTRIBUTE_MASK_NAME);
+				newMascgenResult.setTotalPriority(parseDoubleAttribute(XML_ATTRIBUTE_TOTAL_PRIORITY, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TOTAL_PRIORITY)));
+				newMascgenResult.getCenter().setRaHour(parseIntAttribute(XML_ATTRIBUTE_CENTER_RAH, getRequiredAttribute(reader, element, XML_ATTRIBUTE_CENTER_RAH)));
+				newMascgenResult.getCenter().setRaMin(parseIntAttribute(XML_ATTRIBUTE_CENTER_RAM, getRequiredAttribute(reader, element, XML_ATTRIBUTE_CENTER_RAM)));
+				newMascgenResult.getCenter().setRaSec(parseDoubleAttribute(XML_ATTRIBUTE_CENTER_RAS, getRequiredAttribute(reader, element, XML_ATTRIBUTE_CENTER_RAS)));
+				newMascgenResult.getCenter().setDecDeg(parseDoubleAttribute(XML_ATTRIBUTE_CENTER_DECD, getRequiredAttribute(reader, element, XML_ATTRIBUTE_CENTER_DECD)));
+				newMascgenResult.getCenter().setDecMin(parseDoubleAttribute(XML_ATTRIBUTE_CENTER_DECM, getRequiredAttribute(reader, element, XML_ATTRIBUTE_CENTER_DECM)));
+				newMascgenResult.getCenter().setDecSec(parseDoubleAttribute(XML_ATTRIBUTE_CENTER_DECS, getRequiredAttribute(reader, element, XML_ATTRIBUTE_CENTER_DECS)));
+				newMascgenResult.setPositionAngle(parseDoubleAttribute(XML_ATTRIBUTE_MASK_PA, getRequiredAttribute(reader, element, XML_ATTRIBUTE_MASK_PA)));
+				skipElement(reader);
+				//. end MASK DESCRIPTION, begin MECHANICAL SLIT
+			} else if (name.equals(XML_ELEMENT_MECHANICAL_SLIT_CONFIG)) {
+				mechanicalSlitsFound = true;
+				element = XML_ELEMENT_MECHANICAL_SLIT;
+
+				while (nextChildElement(reader)) {
+					if (reader.getLocalName().equals(XML_ELEMENT_MECHANICAL_SLIT)) {
+						int number = parseIntAttribute(XML_ATTRIBUTE_SLIT_NUMBER, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_NUMBER));
+						double center = parseDoubleAttribute(XML_ATTRIBUTE_CENTER_POSITION, getRequiredAttribute(reader, element, XML_ATTRIBUTE_CENTER_POSITION));
+						double width = parseDoubleAttribute(XML_ATTRIBUTE_SLIT_WIDTH, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_WIDTH));
+						MechanicalSlit newSlitPos = new MechanicalSlit(number, center, width);
+
+						value = reader.getAttributeValue(null, XML_ATTRIBUTE_TARGET);
+						if (value != null) {
+							newSlitPos.setTargetName(value);
+						} else {
+							outWarningList.add(newSlitPos+" does not have a target tag.");
+						}
+
+						newSlitList.add(newSlitPos);
+						skipElement(reader);
+					} else {
+						throw new JDOMException(reader.getLocalName()+" is not a valid child element of "+XML_ELEMENT_MECHANICAL_SLIT_CONFIG+" elements.");
+					}
+				} //. end loop over mechanicalSlitConfig elements
+				//. end MECHANICAL SLITS begin SCIENCE SLITS
+			} else if (name.equals(XML_ELEMENT_SCIENCE_SLIT_CONFIG)) {
+				scienceSlitsFound = true;
+				element = XML_ELEMENT_SCIENCE_SLIT;
+
+				while (nextChildElement(reader)) {
+					if (reader.getLocalName().equals(XML_ELEMENT_SCIENCE_SLIT)) {
+						ScienceSlit newSlit = new ScienceSlit();
+
+						newSlit.setSlitNumber(parseIntAttribute(XML_ATTRIBUTE_SLIT_NUMBER, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_NUMBER)));
+						value = reader.getAttributeValue(null, XML_ATTRIBUTE_SLIT_RAH);
+						if (value == null) {
+							throw new JDOMException(XML_ELEMENT_SCIENCE_SLIT+" elements must have a "+XML_ATTRIBUTE_SLIT_RAH+" attribute (slit number="+newSlit.getSlitNumber()+")");
+						}
+						newSlit.getSlitRaDec().setRaHour(parseIntAttribute(XML_ATTRIBUTE_SLIT_RAH, value));
+						newSlit.getSlitRaDec().setRaMin(parseIntAttribute(XML_ATTRIBUTE_SLIT_RAM, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_RAM)));
+						newSlit.getSlitRaDec().setRaSec(parseDoubleAttribute(XML_ATTRIBUTE_SLIT_RAS, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_RAS)));
+						newSlit.getSlitRaDec().setDecDeg(parseDoubleAttribute(XML_ATTRIBUTE_SLIT_DECD, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_DECD)));
+						newSlit.getSlitRaDec().setDecMin(parseDoubleAttribute(XML_ATTRIBUTE_SLIT_DECM, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_DECM)));
+						newSlit.getSlitRaDec().setDecSec(parseDoubleAttribute(XML_ATTRIBUTE_SLIT_DECS, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_DECS)));
+						newSlit.setSlitWidth(parseDoubleAttribute(XML_ATTRIBUTE_SLIT_WIDTH, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_WIDTH)));
+						newSlit.setSlitLength(parseDoubleAttribute(XML_ATTRIBUTE_SLIT_LENGTH, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_LENGTH)));
+
+						newSlit.getTarget().setObjName(getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET));
+						newSlit.getTarget().setObjPriority(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_PRIORITY, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_PRIORITY)));
+						newSlit.getTarget().setObjMag(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_MAGNITUDE, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_MAGNITUDE)));
+						double centerDistance = parseDoubleAttribute(XML_ATTRIBUTE_TARGET_CENTER_DISTANCE, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_CENTER_DISTANCE));
+						newSlit.setCenterDistance(centerDistance);
+						newSlit.getTarget().setCenterDistance(centerDistance);
+						readTargetCoordinates(reader, element, newSlit.getTarget());
+
+						newScienceSlitList.add(newSlit);
+						skipElement(reader);
+					} else {
+						throw new JDOMException(reader.getLocalName()+" is not a valid child element of "+XML_ELEMENT_SCIENCE_SLIT_CONFIG+" elements.");
+					}
+				}  //. end loop over ScienceSlitConfig elements
+				//. end SCIENCE SLITS begin ALIGNMENT
+			} else if (name.equals(XML_ELEMENT_ALIGNMENT)) {
+				element = XML_ELEMENT_ALIGNMENT_SLIT;
+
+				while (nextChildElement(reader)) {
+					if (reader.getLocalName().equals(XML_ELEMENT_ALIGNMENT_SLIT)) {
+						int number = parseIntAttribute(XML_ATTRIBUTE_MECH_SLIT_NUMBER, getRequiredAttribute(reader, element, XML_ATTRIBUTE_MECH_SLIT_NUMBER));
+						double center = parseDoubleAttribute(XML_ATTRIBUTE_CENTER_POSITION, getRequiredAttribute(reader, element, XML_ATTRIBUTE_CENTER_POSITION));
+						double width = parseDoubleAttribute(XML_ATTRIBUTE_SLIT_WIDTH, getRequiredAttribute(reader, element, XML_ATTRIBUTE_SLIT_WIDTH));
+						MechanicalSlit newSlit = new MechanicalSlit(number, center, width);
+
+						newSlit.setTargetName(getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET));
+						newSlit.getTarget().setObjPriority(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_PRIORITY, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_PRIORITY)));
+						newSlit.getTarget().setObjMag(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_MAGNITUDE, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_MAGNITUDE)));
+						double centerDistance = parseDoubleAttribute(XML_ATTRIBUTE_TARGET_CENTER_DISTANCE, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_CENTER_DISTANCE));
+						newSlit.setCenterDistance(centerDistance);
+						newSlit.getTarget().setCenterDistance(centerDistance);
+						readTargetCoordinates(reader, element, newSlit.getTarget());
+
+						newAlignList.add(newSlit);
+						skipElement(reader);
+					} else {
+						throw new JDOMException(reader.getLocalName()+" is not a valid child element of "+XML_ELEMENT_ALIGNMENT+" elements.");
+					}
+				}  //. end loop on alignment elements
+				//. end ALIGNMENT begin MASCGEN ARGUMENTS
+			} else if (name.equals(XML_ELEMENT_MASCGEN_ARGUMENTS)) {
+				newMascgenArgs = MascgenArguments.getMascgenArgsFromElement(readElement(reader), outWarningList);
+				//. end MASCGEN ARGUMENTS
+			} else {
+				throw new JDOMException(name+" is not a valid child element of the "+XML_ROOT+" element.");
+			}
+		}  //. end loop over all elements
+
+		if (!maskDescriptionFound) {
+			throw new JDOMException("Required element "+XML_ELEMENT_MASK_DESCRIPTION+" not found.");
+		}
+		if (!mechanicalSlitsFound) {
+			throw new JDOMException("Required element "+XML_ELEMENT_MECHANICAL_SLIT_CONFIG+" not found.");
+		}
+		if (!scienceSlitsFound) {
+			throw new JDOMException("Required element "+XML_ELEMENT_SCIENCE_SLIT_CONFIG+" not found.");
+		}
+
+		//. if we made it this far, no issues, go ahead and set all new members
+		applyReadConfiguration(listFile, newVersion, newMaskName, newMascgenResult, newSlitList, newScienceSlitList, newAlignList, newMascgenArgs);
+	}
+
+	/**
+	 * Read target coordinates, epoch and equinox attributes common to science and alignment slit elements.
+	 */
+	private static void readTargetCoordinates(XMLStreamReader reader, String element, AstroObj target) throws JDOMException {
+		target.setRaHour(parseIntAttribute(XML_ATTRIBUTE_TARGET_RAH, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_RAH)));
+		target.setRaMin(parseIntAttribute(XML_ATTRIBUTE_TARGET_RAM, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_RAM)));
+		target.setRaSec(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_RAS, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_RAS)));
+		target.setDecDeg(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_DECD, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_DECD)));
+		target.setDecMin(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_DECM, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_DECM)));
+		target.setDecSec(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_DECS, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_DECS)));
+		target.setEpoch(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_EPOCH, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_EPOCH)));
+		target.setEquinox(parseDoubleAttribute(XML_ATTRIBUTE_TARGET_EQUINOX, getRequiredAttribute(reader, element, XML_ATTRIBUTE_TARGET_EQUINOX)));
+	}
+
+	private static String getRequiredAttribute(XMLStreamReader reader, String element, String attribute) throws JDOMException {
+		String value = reader.getAttributeValue(null, attribute);
+		if (value == null) {
+			throw new JDOMException(element+" elements must have a "+attribute+" attribute");
+		}
+		return value;
+	}
+
+	//. number conversions match those of org.jdom.Attribute, so both readers accept the same values
+	private static int parseIntAttribute(String attribute, String value) throws DataConversionException {
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException ex) {
+			throw new DataConversionException(attribute, "int");
+		}
+	}
+
+	private static double parseDoubleAttribute(String attribute, String value) throws DataConversionException {
+		try {
+			return Double.valueOf(value.trim()).doubleValue();
+		} catch (NumberFormatException ex) {
+			String trimmed = value.trim();
+			if ("INF".equals(trimmed)) {
+				return Double.POSITIVE_INFINITY;
+			}
+			if ("-INF".equals(trimmed)) {
+				return Double.NEGATIVE_INFINITY;
+			}
+			throw new DataConversionException(attribute, "double");
+		}
+	}
+
+	/**
+	 * Advance the reader to the next child element of the current element.  Text, comments,
+	 * and processing instructions are skipped.
+	 * 
+	 * @return true if reader is positioned at the start of a child element, false if
+	 *         the end of the current element (or document) was reached
+	 */
+	private static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				return true;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Skip over the remaining contents of the current element, leaving the
+	 * reader positioned at its end tag.
+	 */
+	private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * Build a JDOM element from the current element and its contents.
+	 */
+	private static Element readElement(XMLStreamReader reader) throws XMLStreamException {
+		Element element = new Element(reader.getLocalName());
+		for (int ii=0; ii<reader.getAttributeCount(); ii++) {
+			element.setAttribute(reader.getAttributeLocalName(ii), reader.getAttributeValue(ii));
+		}
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				element.addContent(readElement(reader));
+			} else if ((event == XMLStreamConstants.CHARACTERS) || (event == XMLStreamConstants.CDATA) || (event == XMLStreamConstants.SPACE)) {
+				element.addContent(reader.getText());
+			} else if (event == XMLStreamConstants.COMMENT) {
+				element.addContent(new Comment(reader.getText()));
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				break;
+			}
+		}
+		return element;
+	}
+
 	/**
 	 * Set the proper targets for each mechanical slit.
 	 * An object may be in more than on mechanical slit,
@@ -2057,48 +2422,18 @@ public class SlitConfiguration implements Cloneable {
 	 * @throws IOException   on error writing MSC to disk.
 	 */
 	public void writeSlitConfiguration(File file, String version) throws JDOMException, IOException {
-		Element newElement;
-		RaDec currentRaDec;
-
 		//. root element 
 		Element root = new Element(XML_ROOT);
 		root.setAttribute(XML_ATTRIBUTE_MSC_VERSION, version);
 
-		newElement = new Element(XML_ELEMENT_MASK_DESCRIPTION);
-
-		newElement.setAttribute(XML_ATTRIBUTE_MASK_NAME, maskName);
-		newElement.setAttribute(XML_ATTRIBUTE_TOTAL_PRIORITY, twoDigitFormatter.format(mascgenResult.getTotalPriority()));
-		currentRaDec = mascgenResult.getCenter(); 
-		newElement.setAttribute(XML_ATTRIBUTE_CENTER_RAH, twoDigitWholeNumberFormatter.format(currentRaDec.getRaHour()));
-		newElement.setAttribute(XML_ATTRIBUTE_CENTER_RAM, twoDigitWholeNumberFormatter.format(currentRaDec.getRaMin()));
-		newElement.setAttribute(XML_ATTRIBUTE_CENTER_RAS, degreeSecondFormatter.format(currentRaDec.getRaSec()));
-		newElement.setAttribute(XML_ATTRIBUTE_CENTER_DECD, twoDigitWholeNumberFormatter.format(currentRaDec.getDecDeg()));
-		newElement.setAttribute(XML_ATTRIBUTE_CENTER_DECM, twoDigitWholeNumberFormatter.format(currentRaDec.getDecMin()));
-		newElement.setAttribute(XML_ATTRIBUTE_CENTER_DECS, degreeSecondFormatter.format(currentRaDec.getDecSec()));
-		newElement.setAttribute(XML_ATTRIBUTE_MASK_PA, twoDigitFormatter.format(mascgenResult.getPositionAngle()));
-
-		root.addContent(newElement);
+		root.addContent(getMaskDescriptionElement());
 
 		Element mechSlitConfig = new Element(XML_ELEMENT_MECHANICAL_SLIT_CONFIG);
 
 		if (mechanicalSlitList != null) {
-			ArrayList<MechanicalSlit> tempList = new ArrayList<MechanicalSlit>(mechanicalSlitList);
-			
-			Collections.sort(tempList, slitPositionSorter);
-
 			//. write slit position elements
-			for (MechanicalSlit pos : tempList) {
-				newElement = new Element(XML_ELEMENT_MECHANICAL_SLIT);
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_NUMBER, Integer.toString(pos.getSlitNumber()));
-				newElement.setAttribute(XML_ATTRIBUTE_LEFT_BAR_NUMBER, Integer.toString(pos.getLeftBarNumber()));
-				newElement.setAttribute(XML_ATTRIBUTE_RIGHT_BAR_NUMBER, Integer.toString(pos.getRightBarNumber()));
-				newElement.setAttribute(XML_ATTRIBUTE_LEFT_BAR_POSITION_MM, threeDigitFormatter.format(pos.getLeftBarPositionInMM()));
-				newElement.setAttribute(XML_ATTRIBUTE_RIGHT_BAR_POSITION_MM, threeDigitFormatter.format(pos.getRightBarPositionInMM()));
-				newElement.setAttribute(XML_ATTRIBUTE_CENTER_POSITION, threeDigitFormatter.format(pos.getCenterPosition()));
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_WIDTH, threeDigitFormatter.format(pos.getSlitWidth()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET, pos.getTargetName());
-
-				mechSlitConfig.addContent(newElement);	    	
+			for (MechanicalSlit pos : getSortedSlitList(mechanicalSlitList)) {
+				mechSlitConfig.addContent(getMechanicalSlitElement(pos));	    	
 			}
 		}
 
@@ -2106,77 +2441,16 @@ public class SlitConfiguration implements Cloneable {
 
 		Element scienceSlitConfig = new Element(XML_ELEMENT_SCIENCE_SLIT_CONFIG);
 
-		if (scienceSlitConfig != null) {
-			ArrayList<ScienceSlit> tempList = new ArrayList<ScienceSlit>(scienceSlitList);
-			
-			Collections.sort(tempList, slitPositionSorter);
-
-			
-			for (ScienceSlit slit : tempList) {
-				newElement = new Element(XML_ELEMENT_SCIENCE_SLIT);
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_NUMBER, Integer.toString(slit.getSlitNumber()));
-				currentRaDec = slit.getSlitRaDec();
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_RAH, twoDigitWholeNumberFormatter.format(currentRaDec.getRaHour()));
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_RAM, twoDigitWholeNumberFormatter.format(currentRaDec.getRaMin()));
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_RAS, degreeSecondFormatter.format(currentRaDec.getRaSec()));
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_DECD, twoDigitWholeNumberFormatter.format(currentRaDec.getDecDeg()));
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_DECM, twoDigitWholeNumberFormatter.format(currentRaDec.getDecMin()));
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_DECS, degreeSecondFormatter.format(currentRaDec.getDecSec()));
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_WIDTH, twoDigitFormatter.format(slit.getSlitWidth()));
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_LENGTH, twoDigitFormatter.format(slit.getSlitLength()));
-
-				AstroObj target = slit.getTarget();
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET, target.getObjName());
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_PRIORITY, twoDigitFormatter.format(target.getObjPriority()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_MAGNITUDE, twoDigitFormatter.format(target.getObjMag()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_CENTER_DISTANCE, twoDigitFormatter.format(slit.getCenterDistance()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_RAH, twoDigitWholeNumberFormatter.format(target.getRaHour()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_RAM, twoDigitWholeNumberFormatter.format(target.getRaMin()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_RAS, degreeSecondFormatter.format(target.getRaSec()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_DECD, twoDigitWholeNumberFormatter.format(target.getDecDeg()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_DECM, twoDigitWholeNumberFormatter.format(target.getDecMin()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_DECS, degreeSecondFormatter.format(target.getDecSec()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_EPOCH, twoDigitFormatter.format(target.getEpoch()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_EQUINOX, twoDigitFormatter.format(target.getEquinox()));
-
-				scienceSlitConfig.addContent(newElement);
-			}
+		for (ScienceSlit slit : getSortedSlitList(scienceSlitList)) {
+			scienceSlitConfig.addContent(getScienceSlitElement(slit));
 		}
 		root.addContent(scienceSlitConfig);
 
 		Element alignment = new Element(XML_ELEMENT_ALIGNMENT);
 
 		if (alignSlitList != null) {
-			ArrayList<MechanicalSlit> tempList = new ArrayList<MechanicalSlit>(alignSlitList);
-			
-			Collections.sort(tempList, slitPositionSorter);
-
-			
-			for (MechanicalSlit slit : tempList) {
-				newElement = new Element(XML_ELEMENT_ALIGNMENT_SLIT);
-				newElement.setAttribute(XML_ATTRIBUTE_MECH_SLIT_NUMBER, Integer.toString(slit.getSlitNumber()));
-				newElement.setAttribute(XML_ATTRIBUTE_LEFT_BAR_NUMBER, Integer.toString(slit.getLeftBarNumber()));
-				newElement.setAttribute(XML_ATTRIBUTE_RIGHT_BAR_NUMBER, Integer.toString(slit.getRightBarNumber()));
-				newElement.setAttribute(XML_ATTRIBUTE_LEFT_BAR_POSITION_MM, threeDigitFormatter.format(slit.getLeftBarPositionInMM()));
-				newElement.setAttribute(XML_ATTRIBUTE_RIGHT_BAR_POSITION_MM, threeDigitFormatter.format(slit.getRightBarPositionInMM()));
-				newElement.setAttribute(XML_ATTRIBUTE_CENTER_POSITION, threeDigitFormatter.format(slit.getCenterPosition()));
-				newElement.setAttribute(XML_ATTRIBUTE_SLIT_WIDTH, threeDigitFormatter.format(slit.getSlitWidth()));
-
-				AstroObj target = slit.getTarget();
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET, target.getObjName());
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_PRIORITY, twoDigitFormatter.format(target.getObjPriority()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_MAGNITUDE, twoDigitFormatter.format(target.getObjMag()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_CENTER_DISTANCE, twoDigitFormatter.format(slit.getCenterDistance()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_RAH, twoDigitWholeNumberFormatter.format(target.getRaHour()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_RAM, twoDigitWholeNumberFormatter.format(target.getRaMin()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_RAS, degreeSecondFormatter.format(target.getRaSec()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_DECD, twoDigitWholeNumberFormatter.format(target.getDecDeg()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_DECM, twoDigitWholeNumberFormatter.format(target.getDecMin()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_DECS, degreeSecondFormatter.format(target.getDecSec()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_EPOCH, twoDigitFormatter.format(target.getEpoch()));
-				newElement.setAttribute(XML_ATTRIBUTE_TARGET_EQUINOX, twoDigitFormatter.format(target.getEquinox()));
-
-				alignment.addContent(newElement);
+			for (MechanicalSlit slit : getSortedSlitList(alignSlitList)) {
+				alignment.addContent(getAlignmentSlitElement(slit));
 			}
 		}
 
@@ -2192,12 +2466,98 @@ public class SlitConfiguration implements Cloneable {
 
 		doc.setRootElement(root);
 		
-		outputter.output(doc, new java.io.FileOutputStream(file));
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			outputter.output(doc, out);
+		} finally {
+			out.close();
+		}
 
 		originalFilename = file.getAbsolutePath();
 		status = STATUS_SAVED;
 	}
 
+	private <T extends SlitPosition> ArrayList<T> getSortedSlitList(List<T> slitList) {
+		ArrayList<T> tempList = new ArrayList<T>(slitList);
+		Collections.sort(tempList, slitPositionSorter);
+		return tempList;
+	}
+
+	private Element getMaskDescriptionElement() {
+		Element newElement = new Element(XML_ELEMENT_MASK_DESCRIPTION);
+
+		newElement.setAttribute(XML_ATTRIBUTE_MASK_NAME, maskName);
+		newElement.setAttribute(XML_ATTRIBUTE_TOTAL_PRIORITY, twoDigitFormatter.format(mascgenResult.getTotalPriority()));
+		RaDec currentRaDec = mascgenResult.getCenter(); 
+		newElement.setAttribute(XML_ATTRIBUTE_CENTER_RAH, twoDigitWholeNumberFormatter.format(currentRaDec.getRaHour()));
+		newElement.setAttribute(XML_ATTRIBUTE_CENTER_RAM, twoDigitWholeNumberFormatter.format(currentRaDec.getRaMin()));
+		newElement.setAttribute(XML_ATTRIBUTE_CENTER_RAS, degreeSecondFormatter.format(currentRaDec.getRaSec()));
+		newElement.setAttribute(XML_ATTRIBUTE_CENTER_DECD, twoDigitWholeNumberFormatter.format(currentRaDec.getDecDeg()));
+		newElement.setAttribute(XML_ATTRIBUTE_CENTER_DECM, twoDigitWholeNumberFormatter.format(currentRaDec.getDecMin()));
+		newElement.setAttribute(XML_ATTRIBUTE_CENTER_DECS, degreeSecondFormatter.format(currentRaDec.getDecSec()));
+		newElement.setAttribute(XML_ATTRIBUTE_MASK_PA, twoDigitFormatter.format(mascgenResult.getPositionAngle()));
+		return newElement;
+	}
+
+	private Element getMechanicalSlitElement(MechanicalSlit pos) {
+		Element newElement = new Element(XML_ELEMENT_MECHANICAL_SLIT);
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_NUMBER, Integer.toString(pos.getSlitNumber()));
+		newElement.setAttribute(XML_ATTRIBUTE_LEFT_BAR_NUMBER, Integer.toString(pos.getLeftBarNumber()));
+		newElement.setAttribute(XML_ATTRIBUTE_RIGHT_BAR_NUMBER, Integer.toString(pos.getRightBarNumber()));
+		newElement.setAttribute(XML_ATTRIBUTE_LEFT_BAR_POSITION_MM, threeDigitFormatter.format(pos.getLeftBarPositionInMM()));
+		newElement.setAttribute(XML_ATTRIBUTE_RIGHT_BAR_POSITION_MM, threeDigitFormatter.format(pos.getRightBarPositionInMM()));
+		newElement.setAttribute(XML_ATTRIBUTE_CENTER_POSITION, threeDigitFormatter.format(pos.getCenterPosition()));
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_WIDTH, threeDigitFormatter.format(pos.getSlitWidth()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET, pos.getTargetName());
+		return newElement;
+	}
+
+	private Element getScienceSlitElement(ScienceSlit slit) {
+		Element newElement = new Element(XML_ELEMENT_SCIENCE_SLIT);
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_NUMBER, Integer.toString(slit.getSlitNumber()));
+		RaDec currentRaDec = slit.getSlitRaDec();
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_RAH, twoDigitWholeNumberFormatter.format(currentRaDec.getRaHour()));
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_RAM, twoDigitWholeNumberFormatter.format(currentRaDec.getRaMin()));
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_RAS, degreeSecondFormatter.format(currentRaDec.getRaSec()));
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_DECD, twoDigitWholeNumberFormatter.format(currentRaDec.getDecDeg()));
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_DECM, twoDigitWholeNumberFormatter.format(currentRaDec.getDecMin()));
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_DECS, degreeSecondFormatter.format(currentRaDec.getDecSec()));
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_WIDTH, twoDigitFormatter.format(slit.getSlitWidth()));
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_LENGTH, twoDigitFormatter.format(slit.getSlitLength()));
+
+		setTargetAttributes(newElement, slit.getTarget(), slit.getCenterDistance());
+		return newElement;
+	}
+
+	private Element getAlignmentSlitElement(MechanicalSlit slit) {
+		Element newElement = new Element(XML_ELEMENT_ALIGNMENT_SLIT);
+		newElement.setAttribute(XML_ATTRIBUTE_MECH_SLIT_NUMBER, Integer.toString(slit.getSlitNumber()));
+		newElement.setAttribute(XML_ATTRIBUTE_LEFT_BAR_NUMBER, Integer.toString(slit.getLeftBarNumber()));
+		newElement.setAttribute(XML_ATTRIBUTE_RIGHT_BAR_NUMBER, Integer.toString(slit.getRightBarNumber()));
+		newElement.setAttribute(XML_ATTRIBUTE_LEFT_BAR_POSITION_MM, threeDigitFormatter.format(slit.getLeftBarPositionInMM()));
+		newElement.setAttribute(XML_ATTRIBUTE_RIGHT_BAR_POSITION_MM, threeDigitFormatter.format(slit.getRightBarPositionInMM()));
+		newElement.setAttribute(XML_ATTRIBUTE_CENTER_POSITION, threeDigitFormatter.format(slit.getCenterPosition()));
+		newElement.setAttribute(XML_ATTRIBUTE_SLIT_WIDTH, threeDigitFormatter.format(slit.getSlitWidth()));
+
+		setTargetAttributes(newElement, slit.getTarget(), slit.getCenterDistance());
+		return newElement;
+	}
+
+	private void setTargetAttributes(Element newElement, AstroObj target, double centerDistance) {
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET, target.getObjName());
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_PRIORITY, twoDigitFormatter.format(target.getObjPriority()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_MAGNITUDE, twoDigitFormatter.format(target.getObjMag()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_CENTER_DISTANCE, twoDigitFormatter.format(centerDistance));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_RAH, twoDigitWholeNumberFormatter.format(target.getRaHour()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_RAM, twoDigitWholeNumberFormatter.format(target.getRaMin()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_RAS, degreeSecondFormatter.format(target.getRaSec()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_DECD, twoDigitWholeNumberFormatter.format(target.getDecDeg()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_DECM, twoDigitWholeNumberFormatter.format(target.getDecMin()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_DECS, degreeSecondFormatter.format(target.getDecSec()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_EPOCH, twoDigitFormatter.format(target.getEpoch()));
+		newElement.setAttribute(XML_ATTRIBUTE_TARGET_EQUINOX, twoDigitFormatter.format(target.getEquinox()));
+	}
+
 	/**
 	 * Write slit configuration in HTML format to file specified in <code>MascgenArguments</code>.
 	 *
@@ -2216,7 +2576,6 @@ public class SlitConfiguration implements Cloneable {
    * @throws MalformedURLException  on error getting XSLT transformation URL
    */
 	public void writeSlitConfigurationHTML(File mscFile) throws TransformerException, MalformedURLException {
-		TransformerFactory tFactory = TransformerFactory.newInstance();
 		//////////////////////////////////////////////////////////////////
 		// Part of MAGMA UPGRADE item E2 by Ji Man Sohn, UCLA 2016-2017 //
 		// * Following codes commented out is to solve problem 			//
@@ -2238,13 +2597,27 @@ public class SlitConfiguration implements Cloneable {
 //			transformer.transform(new StreamSource(mscFile), new StreamResult(mscFile.getAbsolutePath()+".html"));
 //		} else {
 			if (MosfireParameters.DEFAULT_MSC_XSLT_FILE.exists()) {
-				Transformer transformer = tFactory.newTransformer(new StreamSource(MosfireParameters.DEFAULT_MSC_XSLT_FILE));
-				transformer.transform(new StreamSource(mscFile), new StreamResult(mscFile.getAbsolutePath()+".html"));
+				//. compiled stylesheet is cached, so it is only parsed once per process
+				writeSlitConfigurationHTML(mscFile, XSLTTemplatesCache.getTemplates(MosfireParameters.DEFAULT_MSC_XSLT_FILE));
 			} else {
 				throw new TransformerException("XSLT URL <"+MosfireParameters.DEFAULT_MSC_XSLT_URL+"> cannot be acecssed, and file <"+MosfireParameters.DEFAULT_MSC_XSLT_FILE+"> does not exist.");
 			}
 //		}
 	}
+
+	/**
+	 * Write slit configuration in HTML format to specified file, using an already compiled
+	 * XSLT transformation.  Use this when writing HTML for many configurations, so that the
+	 * stylesheet is only parsed and compiled once.
+	 *
+	 * @param  mscFile                File object pointing to file to write to
+	 * @param  mscTemplates           Templates compiled from MSC XSLT transformation
+	 * @throws TransformerException   on error constructing HTML
+	 */
+	public void writeSlitConfigurationHTML(File mscFile, Templates mscTemplates) throws TransformerException {
+		Transformer transformer = mscTemplates.newTransformer();
+		transformer.transform(new StreamSource(mscFile), new StreamResult(mscFile.getAbsolutePath()+".html"));
+	}
 	
 	/**
 	 * Write MASCGEN parameters to file specified in <code>MascgenArguments</code>.
@@ -2283,8 +2656,7 @@ public class SlitConfiguration implements Cloneable {
 	 * @throws FileNotFoundException if File cannot be created from <code>fileName</code>
 	 */
 	public void writeOrigCoordsFile(String fileName) throws FileNotFoundException{
-		FileOutputStream out = new FileOutputStream(fileName);
-		PrintStream p = new PrintStream(out);
+		PrintStream p = new PrintStream(new BufferedOutputStream(new FileOutputStream(fileName)));
 		
 		for (AstroObj target : originalTargetList) {
 			p.printf("%s  %7.2f  %5.2f  %02.0f  %02.0f  %06.3f  % 03.0f  %02.0f  %05.2f  %6.1f  %6.1f  %3.1f  %3.1f\n", 
@@ -2312,8 +2684,7 @@ public class SlitConfiguration implements Cloneable {
 	 * @throws FileNotFoundException if File cannot be created from <code>fileName</code>
 	 */
 	public void writeCoordsFile(String fileName) throws FileNotFoundException{
-		FileOutputStream out = new FileOutputStream(fileName);
-		PrintStream p = new PrintStream(out);
+		PrintStream p = new PrintStream(new BufferedOutputStream(new FileOutputStream(fileName)));
 
 		for (ScienceSlit thisSlit: scienceSlitList){ 
 			AstroObj target = thisSlit.getTarget();
@@ -2354,36 +2725,36 @@ public class SlitConfiguration implements Cloneable {
 	 * @throws FileNotFoundException if File cannot be created from <code>outputSlitFile</code>
 	 */
 	public void writeOutSlitList(String outputSlitFile) throws FileNotFoundException {
-		twoDigitFormatter.setRoundingMode(RoundingMode.HALF_UP);
-		
-		FileOutputStream out = new FileOutputStream(outputSlitFile);
-		PrintStream p = new PrintStream(out);
+		PrintStream p = new PrintStream(new BufferedOutputStream(new FileOutputStream(outputSlitFile)));
 
 		ArrayList<ScienceSlit> tempList = new ArrayList<ScienceSlit>(scienceSlitList);
 		
 		Collections.sort(tempList, slitPositionSorter);
 		
+		StringBuilder line = new StringBuilder(160);
 		for (ScienceSlit slit : tempList) {
 			RaDec slitRaDec = slit.getSlitRaDec();
 			AstroObj target = slit.getTarget();
-			p.println(slit.getSlitNumber() + "\t" + 
-					twoDigitWholeNumberFormatter.format(slitRaDec.getRaHour()) + "\t" + 
-					twoDigitWholeNumberFormatter.format(slitRaDec.getRaMin()) + "\t" + 
-					degreeSecondFormatter.format(slit.getSlitRaDec().getRaSec()) + "\t" + 
-					twoDigitWholeNumberFormatter.format(slitRaDec.getDecDeg()) + "\t" + 
-					twoDigitWholeNumberFormatter.format(slitRaDec.getDecMin()) + "\t" + 
-					degreeSecondFormatter.format(slitRaDec.getDecSec()) + "\t" + 
-					twoDigitFormatter.format(slit.getSlitWidth()) + "\t" + 
-					twoDigitFormatter.format(slit.getSlitLength()) + "\t" + 
-					target.getObjName() + "\t" + 
-					twoDigitFormatter.format(target.getObjPriority()) + "\t" + 
-					twoDigitFormatter.format(slit.getCenterDistance()) + "\t" +
-					twoDigitWholeNumberFormatter.format(target.getRaHour()) + "\t" + 
-					twoDigitWholeNumberFormatter.format(target.getRaMin()) + "\t" + 
-					degreeSecondFormatter.format(target.getRaSec()) + "\t" + 
-					twoDigitWholeNumberFormatter.format(target.getDecDeg()) + "\t" + 
-					twoDigitWholeNumberFormatter.format(target.getDecMin()) + "\t" + 
-					degreeSecondFormatter.format(target.getDecSec()));
+			line.setLength(0);
+			line.append(slit.getSlitNumber()).append('\t');
+			twoDigitWholeNumberFormatter.append(line, slitRaDec.getRaHour()).append('\t');
+			twoDigitWholeNumberFormatter.append(line, slitRaDec.getRaMin()).append('\t');
+			degreeSecondFormatter.append(line, slitRaDec.getRaSec()).append('\t');
+			twoDigitWholeNumberFormatter.append(line, slitRaDec.getDecDeg()).append('\t');
+			twoDigitWholeNumberFormatter.append(line, slitRaDec.getDecMin()).append('\t');
+			degreeSecondFormatter.append(line, slitRaDec.getDecSec()).append('\t');
+			twoDigitFormatter.append(line, slit.getSlitWidth()).append('\t');
+			twoDigitFormatter.append(line, slit.getSlitLength()).append('\t');
+			line.append(target.getObjName()).append('\t');
+			twoDigitFormatter.append(line, target.getObjPriority()).append('\t');
+			twoDigitFormatter.append(line, slit.getCenterDistance()).append('\t');
+			twoDigitWholeNumberFormatter.append(line, target.getRaHour()).append('\t');
+			twoDigitWholeNumberFormatter.append(line, target.getRaMin()).append('\t');
+			degreeSecondFormatter.append(line, target.getRaSec()).append('\t');
+			twoDigitWholeNumberFormatter.append(line, target.getDecDeg()).append('\t');
+			twoDigitWholeNumberFormatter.append(line, target.getDecMin()).append('\t');
+			degreeSecondFormatter.append(line, target.getDecSec());
+			p.println(line);
 		}
 		p.close();
 	}
@@ -2404,8 +2775,7 @@ public class SlitConfiguration implements Cloneable {
  	 * @throws FileNotFoundException if File cannot be created from <code>outputFile</code>
 	 */
 	public void writeDS9Regions(String outputFile) throws FileNotFoundException {
-		FileOutputStream out = new FileOutputStream(outputFile);
-		PrintStream p = new PrintStream( out );
+		PrintStream p = new PrintStream(new BufferedOutputStream(new FileOutputStream(outputFile)));
 
 		RaDec cp = mascgenResult.getCenter(); 
 		double positionAngle = mascgenResult.getPositionAngle();
@@ -2591,14 +2961,11 @@ public class SlitConfiguration implements Cloneable {
 		// 92 bars in the MOSFIRE CSU, odd-numbered bars extend from the left and 
 		// even-numbered bars extend from the right.
 
-		FileOutputStream out = new FileOutputStream(outputFile);
-		PrintStream p = new PrintStream(out);
+		PrintStream p = new PrintStream(new BufferedOutputStream(new FileOutputStream(outputFile)));
 
-		ArrayList<MechanicalSlit> tempList = new ArrayList<MechanicalSlit>(mechanicalSlitList);
-		
-		Collections.sort(tempList, slitPositionSorter);
+		ArrayList<MechanicalSlit> tempList = getCSUScriptSlitList(false);
 		
-		p.printf("modify -s mcsus setupname=\"%s\"\n", maskName);
+		p.printf("modify -s mcsus setupname=\"%s\"\n", getCSUSetupName(false));
 		for (MechanicalSlit slit : tempList) {
 			p.printf("modify -s mcsus b%02dtarg= %7.3f\n",slit.getRightBarNumber(),slit.getRightBarPositionInMM());
 			p.printf("modify -s mcsus b%02dtarg= %7.3f\n",slit.getLeftBarNumber(),slit.getLeftBarPositionInMM());
@@ -2632,27 +2999,11 @@ public class SlitConfiguration implements Cloneable {
 		// 92 bars in the MOSFIRE CSU, odd-numbered bars extend from the left and 
 		// even-numbered bars extend from the right.
 
-		FileOutputStream out = new FileOutputStream(outputFile);
-		PrintStream p = new PrintStream(out);
+		PrintStream p = new PrintStream(new BufferedOutputStream(new FileOutputStream(outputFile)));
 
-		@SuppressWarnings("unchecked")
-		//. mechanicalSlitList if of type ArrayList<MechanicalSlit> so therefore its clone is too
-		ArrayList<MechanicalSlit> tempList = (ArrayList<MechanicalSlit>)mechanicalSlitList.clone();
-		
-		Collections.sort(tempList, slitPositionSorter);
-		
-		if (tempList.size() == MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS) {
-			for (MechanicalSlit alignSlit : alignSlitList) {
-				//. assumes mechSlitList is sorted.
-				tempList.set(alignSlit.getSlitNumber()-1, alignSlit);
-			}
-		} else {
-			for (MechanicalSlit alignSlit : alignSlitList) {
-				tempList.set(getMechSlitIndex(alignSlit.getSlitNumber()), alignSlit);
-			}
-		}
+		ArrayList<MechanicalSlit> tempList = getCSUScriptSlitList(true);
 		
-		p.printf("modify -s mcsus setupname=\"%s (align)\"\n", maskName);
+		p.printf("modify -s mcsus setupname=\"%s\"\n", getCSUSetupName(true));
 		for (MechanicalSlit slit : tempList) {
 			p.printf("modify -s mcsus b%02dtarg= %7.3f\n",slit.getRightBarNumber(),slit.getRightBarPositionInMM());
 			p.printf("modify -s mcsus b%02dtarg= %7.3f\n",slit.getLeftBarNumber(),slit.getLeftBarPositionInMM());
@@ -2664,6 +3015,43 @@ public class SlitConfiguration implements Cloneable {
 
 	}
 
+	/**
+	 * Get slits whose bar targets are sent to the CSU for this mask, sorted by slit position.
+	 * For an alignment mask, alignment slits replace the science slits in their rows.
+	 * 
+	 * @param  isAlign Flag for whether to get slits of alignment mask
+	 * @return         List of slits
+	 */
+	public ArrayList<MechanicalSlit> getCSUScriptSlitList(boolean isAlign) {
+		ArrayList<MechanicalSlit> tempList = new ArrayList<MechanicalSlit>(mechanicalSlitList);
+		
+		Collections.sort(tempList, slitPositionSorter);
+		
+		if (isAlign) {
+			if (tempList.size() == MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS) {
+				for (MechanicalSlit alignSlit : alignSlitList) {
+					//. assumes mechSlitList is sorted.
+					tempList.set(alignSlit.getSlitNumber()-1, alignSlit);
+				}
+			} else {
+				for (MechanicalSlit alignSlit : alignSlitList) {
+					tempList.set(getMechSlitIndex(alignSlit.getSlitNumber()), alignSlit);
+				}
+			}
+		}
+		return tempList;
+	}
+
+	/**
+	 * Get setup name sent to CSU for this mask.
+	 * 
+	 * @param  isAlign Flag for whether to get name of alignment mask
+	 * @return         Setup name
+	 */
+	public String getCSUSetupName(boolean isAlign) {
+		return isAlign ? maskName+" (align)" : maskName;
+	}
+
 	/**
 	 * Gets the index of mechanical slit in mechanical slit list for specified slit number
 	 *
@@ -2698,8 +3086,7 @@ public class SlitConfiguration implements Cloneable {
 	 */
 	public void writeOutStarList(String file) throws FileNotFoundException {
 		// Write the outputStarList with the center of the field and the PA
-		FileOutputStream out = new FileOutputStream(file);
-		PrintStream p = new PrintStream(out);
+		PrintStream p = new PrintStream(new BufferedOutputStream(new FileOutputStream(file)));
 
 		RaDec cp = mascgenResult.getCenter();
 
@@ -2719,7 +3106,7 @@ public class SlitConfiguration implements Cloneable {
 	}
 	
 	/**
-	 * Write FITS file with FITS table extensions describing CSU mask to specified file.
+	 * Write FITS file with FITS ASCII table extensions describing CSU mask to specified file.
 	 * 
 	 * @param  file          String path to file to write extensions to
 	 * @param  doAlign       Flag for whether to write alignment table extension
@@ -2727,11 +3114,36 @@ public class SlitConfiguration implements Cloneable {
 	 * @throws FitsException on error constructing extensions
 	 */
 	public void writeFITSExtension(String file, boolean doAlign) throws IOException, FitsException {
+		writeFITSExtension(file, doAlign, false);
+	}
+
+	/**
+	 * Write FITS file with FITS table extensions describing CSU mask to specified file.
+	 * 
+	 * ASCII tables contain values formatted as they are in the other output products.  Binary tables
+	 * contain the values themselves in integer and double columns, which are faster to write and
+	 * to read, and also have keywords describing the mask, so that they can be read back into a 
+	 * configuration with <code>readFITSExtension</code>.  Column labels are the same in both.
+	 * 
+	 * @param  file          String path to file to write extensions to
+	 * @param  doAlign       Flag for whether to write alignment table extension
+	 * @param  binary        Flag for whether to write binary tables instead of ASCII tables
+	 * @throws IOException   on error writing to file
+	 * @throws FitsException on error constructing extensions
+	 */
+	public void writeFITSExtension(String file, boolean doAlign, boolean binary) throws IOException, FitsException {
 		Fits f = new Fits();
-		f.addHDU(constructTargetListFITSExtension());
-		f.addHDU(constructScienceSlitListFITSExtension());
-		f.addHDU(constructMechanicalSlitListFITSExtension(doAlign));
-		f.addHDU(constructAlignmentSlitListFITSExtension());
+		if (binary) {
+			f.addHDU(constructTargetListBinaryFITSExtension());
+			f.addHDU(constructScienceSlitListBinaryFITSExtension());
+			f.addHDU(constructMechanicalSlitListBinaryFITSExtension(doAlign));
+			f.addHDU(constructAlignmentSlitListBinaryFITSExtension());
+		} else {
+			f.addHDU(constructTargetListFITSExtension());
+			f.addHDU(constructScienceSlitListFITSExtension());
+			f.addHDU(constructMechanicalSlitListFITSExtension(doAlign));
+			f.addHDU(constructAlignmentSlitListFITSExtension());
+		}
 		BufferedFile bf = new BufferedFile(file, "rw");
 		f.write(bf);
 		bf.flush();
@@ -2812,18 +3224,7 @@ public class SlitConfiguration implements Cloneable {
 
 		Header h = AsciiTableHDU.manufactureHeader(table);
 		
-		h.addValue("EXTNAME", "Target_List", "Table name");
-		h.addValue("TTYPE1", "Target_Name", "Label for field");
-		h.addValue("TTYPE2", "Priority", "Label for field");
-		h.addValue("TTYPE3", "Magnitude", "Label for field");
-		h.addValue("TTYPE4", "RA_Hours", "Label for field");
-		h.addValue("TTYPE5", "RA_Minutes", "Label for field");
-		h.addValue("TTYPE6", "RA_Seconds", "Label for field");
-		h.addValue("TTYPE7", "Dec_Degrees", "Label for field");
-		h.addValue("TTYPE8", "Dec_Minutes", "Label for field");
-		h.addValue("TTYPE9", "Dec_Seconds", "Label for field");
-		h.addValue("TTYPE10", "Epoch", "Label for field");
-		h.addValue("TTYPE11", "Equinox", "Label for field");
+		addFITSColumnLabels(h, FITS_EXTNAME_TARGET_LIST, FITS_TARGET_LIST_COLUMNS, FITS_TARGET_LIST_UNITS);
 		
 		
 		return new AsciiTableHDU(h, table);
@@ -2892,22 +3293,7 @@ public class SlitConfiguration implements Cloneable {
 
 		Header h = AsciiTableHDU.manufactureHeader(table);
 		
-		h.addValue("EXTNAME", "Science_Slit_List", "Table name");
-		h.addValue("TTYPE1", "Slit_Number", "Label for field");
-		h.addValue("TTYPE2", "Slit_RA_Hours", "Label for field");
-		h.addValue("TTYPE3", "Slit_RA_Minutes", "Label for field");
-		h.addValue("TTYPE4", "Slit_RA_Seconds", "Label for field");
-		h.addValue("TTYPE5", "Slit_Dec_Degrees", "Label for field");
-		h.addValue("TTYPE6", "Slit_Dec_Minutes", "Label for field");
-		h.addValue("TTYPE7", "Slit_Dec_Seconds", "Label for field");
-		h.addValue("TTYPE8", "Slit_width", "Label for field");
-		h.addValue("TUNIT8", "arcsec", "Physical units for field");
-		h.addValue("TTYPE9", "Slit_length", "Label for field");
-		h.addValue("TUNIT9", "arcsec", "Physical units for field");
-		h.addValue("TTYPE10", "Target_to_center_of_slit_distance", "Label for field");
-		h.addValue("TUNIT10", "arcsec", "Physical units for field");
-		h.addValue("TTYPE11", "Target_Name", "Label for field");
-		h.addValue("TTYPE12", "Target_Priority", "Label for field");
+		addFITSColumnLabels(h, FITS_EXTNAME_SCIENCE_SLIT_LIST, FITS_SCIENCE_SLIT_LIST_COLUMNS, FITS_SCIENCE_SLIT_LIST_UNITS);
 		
 		return new AsciiTableHDU(h, table);
 		
@@ -2921,24 +3307,8 @@ public class SlitConfiguration implements Cloneable {
 	 */
 	private AsciiTableHDU constructMechanicalSlitListFITSExtension(boolean doAlign) throws FitsException {
 		AsciiTable table = new AsciiTable();
-		@SuppressWarnings("unchecked")
-		//. mechanicalSlitList if of type ArrayList<MechanicalSlit> so therefore its clone is too
-		ArrayList<MechanicalSlit> tempList = (ArrayList<MechanicalSlit>)mechanicalSlitList.clone();
-		
-		Collections.sort(tempList, slitPositionSorter);
-		
-		if (doAlign) {
-			if (tempList.size() == MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS) {
-				for (MechanicalSlit alignSlit : alignSlitList) {
-					//. assumes mechSlitList is sorted.
-					tempList.set(alignSlit.getSlitNumber()-1, alignSlit);
-				}
-			} else {
-				for (MechanicalSlit alignSlit : alignSlitList) {
-					tempList.set(getMechSlitIndex(alignSlit.getSlitNumber()), alignSlit);
-				}
-			}			
-		}
+		ArrayList<MechanicalSlit> tempList = getFITSMechanicalSlitList(doAlign);
+
 		int tempListSize = tempList.size();
 		String[] slitNumberColumn = new String[tempListSize];
 		String[] targetNameColumn = new String[tempListSize];
@@ -2966,16 +3336,7 @@ public class SlitConfiguration implements Cloneable {
 		
 		Header h = AsciiTableHDU.manufactureHeader(table);
 		
-		h.addValue("EXTNAME", "Mechanical_Slit_List", "Table name");
-		h.addValue("TTYPE1", "Slit_Number", "Label for field");
-		h.addValue("TTYPE2", "Target_in_Slit", "Label for field");
-		h.addValue("TTYPE3", "Target_Priority", "Label for field");
-		h.addValue("TTYPE4", "Position_of_Slit", "Label for field");
-		h.addValue("TUNIT4", "arcsec", "Physical units for field");
-		h.addValue("TTYPE5", "Slit_width", "Label for field");
-		h.addValue("TUNIT5", "arcsec", "Physical units for field");
-		h.addValue("TTYPE6", "Target_to_center_of_slit_distance", "Label for field");
-		h.addValue("TUNIT6", "arcsec", "Physical units for field");
+		addFITSColumnLabels(h, FITS_EXTNAME_MECHANICAL_SLIT_LIST, FITS_MECHANICAL_SLIT_LIST_COLUMNS, FITS_MECHANICAL_SLIT_LIST_UNITS);
 		
 		
 		return new AsciiTableHDU(h, table);
@@ -3053,31 +3414,424 @@ public class SlitConfiguration implements Cloneable {
 		
 		Header h = AsciiTableHDU.manufactureHeader(table);
 		
-		h.addValue("EXTNAME", "Alignment_Slit_List", "Table name");
-		h.addValue("TTYPE1", "Slit_Number", "Label for field");
-		h.addValue("TTYPE2", "Position_of_Slit", "Label for field");
-		h.addValue("TUNIT2", "arcsec", "Physical units for field");
-		h.addValue("TTYPE3", "Slit_width", "Label for field");
-		h.addValue("TUNIT3", "arcsec", "Physical units for field");
-		h.addValue("TTYPE4", "Target_to_center_of_slit_distance", "Label for field");
-		h.addValue("TUNIT4", "arcsec", "Physical units for field");
-		h.addValue("TTYPE5", "Target_in_Slit", "Label for field");
-		h.addValue("TTYPE6", "Target_Priority", "Label for field");
-		h.addValue("TTYPE7", "Target_Magnitude", "Label for field");
-		h.addValue("TTYPE8", "Target_RA_Hours", "Label for field");
-		h.addValue("TTYPE9", "Target_RA_Minutes", "Label for field");
-		h.addValue("TTYPE10", "Target_RA_Seconds", "Label for field");
-		h.addValue("TTYPE11", "Target_Dec_Degrees", "Label for field");
-		h.addValue("TTYPE12", "Target_Dec_Minutes", "Label for field");
-		h.addValue("TTYPE13", "Target_Dec_Seconds", "Label for field");
-		h.addValue("TTYPE14", "Target_Epoch", "Label for field");
-		h.addValue("TTYPE15", "Target_Equinox", "Label for field");
+		addFITSColumnLabels(h, FITS_EXTNAME_ALIGNMENT_SLIT_LIST, FITS_ALIGNMENT_SLIT_LIST_COLUMNS, FITS_ALIGNMENT_SLIT_LIST_UNITS);
 
 		
 		return new AsciiTableHDU(h, table);
 		
 	}
 
+	/**
+	 * Get sorted mechanical slit list as written to FITS extension, with alignment slits in place of
+	 * science slits if for alignment mask.
+	 *
+	 * @param  doAlign  Flag for whether list is for alignment mask
+	 * @return          ArrayList of MechanicalSlits, sorted by slit number
+	 */
+	private ArrayList<MechanicalSlit> getFITSMechanicalSlitList(boolean doAlign) {
+		ArrayList<MechanicalSlit> tempList = getSortedSlitList(mechanicalSlitList);
+
+		if (doAlign) {
+			if (tempList.size() == MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS) {
+				for (MechanicalSlit alignSlit : alignSlitList) {
+					//. assumes mechSlitList is sorted.
+					tempList.set(alignSlit.getSlitNumber()-1, alignSlit);
+				}
+			} else {
+				for (MechanicalSlit alignSlit : alignSlitList) {
+					tempList.set(getMechSlitIndex(alignSlit.getSlitNumber()), alignSlit);
+				}
+			}
+		}
+		return tempList;
+	}
+
+	/**
+	 * Add table name and column labels and units to FITS table header.
+	 *
+	 * @param  h             Header to add keywords to
+	 * @param  extName       name of table
+	 * @param  columnNames   label of each column
+	 * @param  columnUnits   physical units of each column, or null for columns without units
+	 * @throws FitsException on error adding keywords
+	 */
+	private static void addFITSColumnLabels(Header h, String extName, String[] columnNames, String[] columnUnits) throws FitsException {
+		h.addValue("EXTNAME", extName, "Table name");
+		for (int ii=0; ii<columnNames.length; ii++) {
+			h.addValue("TTYPE"+(ii+1), columnNames[ii], "Label for field");
+			if (columnUnits[ii] != null) {
+				h.addValue("TUNIT"+(ii+1), columnUnits[ii], "Physical units for field");
+			}
+		}
+	}
+
+	/**
+	 * Add mask name, MSC version, and MASCGEN result keywords to FITS table header.
+	 *
+	 * @param  h             Header to add keywords to
+	 * @throws FitsException on error adding keywords
+	 */
+	private void addFITSMaskDescription(Header h) throws FitsException {
+		RaDec center = mascgenResult.getCenter();
+		h.addValue(FITS_KEYWORD_MASK_NAME, maskName, "Mask name");
+		h.addValue(FITS_KEYWORD_MSC_VERSION, mscVersion, "MOSFIRE Slit Configuration version");
+		h.addValue(FITS_KEYWORD_TOTAL_PRIORITY, mascgenResult.getTotalPriority(), "Total priority of targets in mask");
+		h.addValue(FITS_KEYWORD_CENTER_RAH, center.getRaHour(), "Mask center RA hours");
+		h.addValue(FITS_KEYWORD_CENTER_RAM, center.getRaMin(), "Mask center RA minutes");
+		h.addValue(FITS_KEYWORD_CENTER_RAS, center.getRaSec(), "Mask center RA seconds");
+		h.addValue(FITS_KEYWORD_CENTER_DECD, center.getDecDeg(), "Mask center Dec degrees");
+		h.addValue(FITS_KEYWORD_CENTER_DECM, center.getDecMin(), "Mask center Dec minutes");
+		h.addValue(FITS_KEYWORD_CENTER_DECS, center.getDecSec(), "Mask center Dec seconds");
+		h.addValue(FITS_KEYWORD_MASK_PA, mascgenResult.getPositionAngle(), "Mask position angle (deg)");
+	}
+
+	/**
+	 * Construct FITS binary table for target list.  Header also contains mask description.
+	 *
+	 * @return               BinaryTableHDU containing target list table
+	 * @throws FitsException on error constructing table
+	 */
+	private BinaryTableHDU constructTargetListBinaryFITSExtension() throws FitsException {
+		ArrayList<AstroObj> targets = new ArrayList<AstroObj>(scienceSlitList.size() + alignSlitList.size());
+		for (ScienceSlit slit : getSortedSlitList(scienceSlitList)) {
+			targets.add(slit.getTarget());
+		}
+		for (MechanicalSlit alignSlit : alignSlitList) {
+			targets.add(alignSlit.getTarget());
+		}
+
+		int size = targets.size();
+		String[] targetNameColumn = new String[size];
+		double[] priorityColumn = new double[size];
+		double[] magnitudeColumn = new double[size];
+		double[] raHColumn = new double[size];
+		double[] raMColumn = new double[size];
+		double[] raSColumn = new double[size];
+		double[] decDColumn = new double[size];
+		double[] decMColumn = new double[size];
+		double[] decSColumn = new double[size];
+		double[] epochColumn = new double[size];
+		double[] equinoxColumn = new double[size];
+		int ii=0;
+		for (AstroObj target : targets) {
+			targetNameColumn[ii] = target.getObjName();
+			priorityColumn[ii] = target.getObjPriority();
+			magnitudeColumn[ii] = target.getObjMag();
+			raHColumn[ii] = target.getRaHour();
+			raMColumn[ii] = target.getRaMin();
+			raSColumn[ii] = target.getRaSec();
+			decDColumn[ii] = target.getDecDeg();
+			decMColumn[ii] = target.getDecMin();
+			decSColumn[ii] = target.getDecSec();
+			epochColumn[ii] = target.getEpoch();
+			equinoxColumn[ii] = target.getEquinox();
+			ii++;
+		}
+
+		BinaryTable table = new BinaryTable(new Object[] {targetNameColumn, priorityColumn, magnitudeColumn,
+				raHColumn, raMColumn, raSColumn, decDColumn, decMColumn, decSColumn, epochColumn, equinoxColumn});
+
+		Header h = BinaryTableHDU.manufactureHeader(table);
+		addFITSColumnLabels(h, FITS_EXTNAME_TARGET_LIST, FITS_TARGET_LIST_COLUMNS, FITS_TARGET_LIST_UNITS);
+		addFITSMaskDescription(h);
+
+		return new BinaryTableHDU(h, table);
+	}
+
+	/**
+	 * Construct FITS binary table for science slit list.
+	 *
+	 * @return               BinaryTableHDU containing science slit list table
+	 * @throws FitsException on error constructing table
+	 */
+	private BinaryTableHDU constructScienceSlitListBinaryFITSExtension() throws FitsException {
+		ArrayList<ScienceSlit> tempList = getSortedSlitList(scienceSlitList);
+
+		int size = tempList.size();
+		int[] slitNumberColumn = new int[size];
+		int[] raHColumn = new int[size];
+		int[] raMColumn = new int[size];
+		double[] raSColumn = new double[size];
+		double[] decDColumn = new double[size];
+		double[] decMColumn = new double[size];
+		double[] decSColumn = new double[size];
+		double[] slitWidthColumn = new double[size];
+		double[] slitLengthColumn = new double[size];
+		double[] centerDistanceColumn = new double[size];
+		String[] targetNameColumn = new String[size];
+		double[] priorityColumn = new double[size];
+		int ii=0;
+		for (ScienceSlit slit : tempList) {
+			slitNumberColumn[ii] = slit.getSlitNumber();
+			RaDec slitRaDec = slit.getSlitRaDec();
+			raHColumn[ii] = slitRaDec.getRaHour();
+			raMColumn[ii] = slitRaDec.getRaMin();
+			raSColumn[ii] = slitRaDec.getRaSec();
+			decDColumn[ii] = slitRaDec.getDecDeg();
+			decMColumn[ii] = slitRaDec.getDecMin();
+			decSColumn[ii] = slitRaDec.getDecSec();
+			slitWidthColumn[ii] = slit.getSlitWidth();
+			slitLengthColumn[ii] = slit.getSlitLength();
+			centerDistanceColumn[ii] = slit.getCenterDistance();
+			targetNameColumn[ii] = slit.getTarget().getObjName();
+			priorityColumn[ii] = slit.getTarget().getObjPriority();
+			ii++;
+		}
+
+		BinaryTable table = new BinaryTable(new Object[] {slitNumberColumn, raHColumn, raMColumn, raSColumn,
+				decDColumn, decMColumn, decSColumn, slitWidthColumn, slitLengthColumn, centerDistanceColumn,
+				targetNameColumn, priorityColumn});
+
+		Header h = BinaryTableHDU.manufactureHeader(table);
+		addFITSColumnLabels(h, FITS_EXTNAME_SCIENCE_SLIT_LIST, FITS_SCIENCE_SLIT_LIST_COLUMNS, FITS_SCIENCE_SLIT_LIST_UNITS);
+
+		return new BinaryTableHDU(h, table);
+	}
+
+	/**
+	 * Construct FITS binary table for mechanical slit list.
+	 *
+	 * @param  doAlign       Flag for whether table is for alignment mask
+	 * @return               BinaryTableHDU containing mechanical slit list table
+	 * @throws FitsException on error constructing table
+	 */
+	private BinaryTableHDU constructMechanicalSlitListBinaryFITSExtension(boolean doAlign) throws FitsException {
+		ArrayList<MechanicalSlit> tempList = getFITSMechanicalSlitList(doAlign);
+
+		int size = tempList.size();
+		int[] slitNumberColumn = new int[size];
+		String[] targetNameColumn = new String[size];
+		double[] priorityColumn = new double[size];
+		double[] centerPositionColumn = new double[size];
+		double[] slitWidthColumn = new double[size];
+		double[] centerDistanceColumn = new double[size];
+		int ii=0;
+		for (MechanicalSlit slit : tempList) {
+			slitNumberColumn[ii] = slit.getSlitNumber();
+			targetNameColumn[ii] = slit.getTargetName();
+			priorityColumn[ii] = slit.getTarget().getObjPriority();
+			centerPositionColumn[ii] = slit.getCenterPosition();
+			slitWidthColumn[ii] = slit.getSlitWidth();
+			centerDistanceColumn[ii] = slit.getCenterDistance();
+			ii++;
+		}
+
+		BinaryTable table = new BinaryTable(new Object[] {slitNumberColumn, targetNameColumn, priorityColumn,
+				centerPositionColumn, slitWidthColumn, centerDistanceColumn});
+
+		Header h = BinaryTableHDU.manufactureHeader(table);
+		addFITSColumnLabels(h, FITS_EXTNAME_MECHANICAL_SLIT_LIST, FITS_MECHANICAL_SLIT_LIST_COLUMNS, FITS_MECHANICAL_SLIT_LIST_UNITS);
+		h.addValue(FITS_KEYWORD_ALIGNMENT_MASK, doAlign, "Alignment slits in place of science slits?");
+
+		return new BinaryTableHDU(h, table);
+	}
+
+	/**
+	 * Construct FITS binary table for alignment slit list.
+	 *
+	 * @return               BinaryTableHDU containing alignment slit list table
+	 * @throws FitsException on error constructing table
+	 */
+	private BinaryTableHDU constructAlignmentSlitListBinaryFITSExtension() throws FitsException {
+		ArrayList<MechanicalSlit> tempList = getSortedSlitList(alignSlitList);
+
+		int size = tempList.size();
+		int[] slitNumberColumn = new int[size];
+		double[] centerPositionColumn = new double[size];
+		double[] slitWidthColumn = new double[size];
+		double[] centerDistanceColumn = new double[size];
+		String[] targetNameColumn = new String[size];
+		double[] priorityColumn = new double[size];
+		double[] magnitudeColumn = new double[size];
+		double[] raHColumn = new double[size];
+		double[] raMColumn = new double[size];
+		double[] raSColumn = new double[size];
+		double[] decDColumn = new double[size];
+		double[] decMColumn = new double[size];
+		double[] decSColumn = new double[size];
+		double[] epochColumn = new double[size];
+		double[] equinoxColumn = new double[size];
+		int ii=0;
+		for (MechanicalSlit slit : tempList) {
+			slitNumberColumn[ii] = slit.getSlitNumber();
+			centerPositionColumn[ii] = slit.getCenterPosition();
+			slitWidthColumn[ii] = slit.getSlitWidth();
+			centerDistanceColumn[ii] = slit.getCenterDistance();
+			targetNameColumn[ii] = slit.getTargetName();
+			AstroObj target = slit.getTarget();
+			priorityColumn[ii] = target.getObjPriority();
+			magnitudeColumn[ii] = target.getObjMag();
+			raHColumn[ii] = target.getRaHour();
+			raMColumn[ii] = target.getRaMin();
+			raSColumn[ii] = target.getRaSec();
+			decDColumn[ii] = target.getDecDeg();
+			decMColumn[ii] = target.getDecMin();
+			decSColumn[ii] = target.getDecSec();
+			epochColumn[ii] = target.getEpoch();
+			equinoxColumn[ii] = target.getEquinox();
+			ii++;
+		}
+
+		BinaryTable table = new BinaryTable(new Object[] {slitNumberColumn, centerPositionColumn, slitWidthColumn,
+				centerDistanceColumn, targetNameColumn, priorityColumn, magnitudeColumn, raHColumn, raMColumn, raSColumn,
+				decDColumn, decMColumn, decSColumn, epochColumn, equinoxColumn});
+
+		Header h = BinaryTableHDU.manufactureHeader(table);
+		addFITSColumnLabels(h, FITS_EXTNAME_ALIGNMENT_SLIT_LIST, FITS_ALIGNMENT_SLIT_LIST_COLUMNS, FITS_ALIGNMENT_SLIT_LIST_UNITS);
+
+		return new BinaryTableHDU(h, table);
+	}
+
+	/**
+	 * Read FITS file with FITS binary table extensions written by <code>writeFITSExtension</code>
+	 * and populate this configuration with it.  MASCGEN arguments are not stored in the extensions,
+	 * so the configuration gets default arguments.  ASCII table extensions cannot be read, since they
+	 * do not contain the mask description.
+	 *
+	 * @param  fitsFile       File with FITS table extensions
+	 * @param  outWarningList ArrayList of Strings, to which any warnings are added
+	 * @throws IOException    on error reading file
+	 * @throws FitsException  if file does not contain the binary table extensions, or on error reading them
+	 */
+	public void readFITSExtension(File fitsFile, ArrayList<String> outWarningList) throws IOException, FitsException {
+		Header h = null;
+		Header mechanicalHeader = null;
+		Object[] targetColumns = null;
+		Object[] scienceColumns = null;
+		Object[] mechanicalColumns = null;
+		Object[] alignmentColumns = null;
+
+		//. table data is read when columns are requested, so get them before closing file
+		Fits f = new Fits(fitsFile);
+		try {
+			for (BasicHDU hdu : f.read()) {
+				if (hdu instanceof BinaryTableHDU) {
+					String extName = hdu.getHeader().getStringValue("EXTNAME");
+					if (FITS_EXTNAME_TARGET_LIST.equals(extName)) {
+						h = hdu.getHeader();
+						targetColumns = ((BinaryTableHDU)hdu).getColumns();
+					} else if (FITS_EXTNAME_SCIENCE_SLIT_LIST.equals(extName)) {
+						scienceColumns = ((BinaryTableHDU)hdu).getColumns();
+					} else if (FITS_EXTNAME_MECHANICAL_SLIT_LIST.equals(extName)) {
+						mechanicalHeader = hdu.getHeader();
+						mechanicalColumns = ((BinaryTableHDU)hdu).getColumns();
+					} else if (FITS_EXTNAME_ALIGNMENT_SLIT_LIST.equals(extName)) {
+						alignmentColumns = ((BinaryTableHDU)hdu).getColumns();
+					}
+				}
+			}
+		} finally {
+			f.getStream().close();
+		}
+		if ((targetColumns == null) || (scienceColumns == null) || (mechanicalColumns == null) || (alignmentColumns == null)) {
+			throw new FitsException(fitsFile+" does not contain all four binary table extensions.");
+		}
+		if (!h.containsKey(FITS_KEYWORD_MASK_NAME)) {
+			throw new FitsException(FITS_EXTNAME_TARGET_LIST+" extension in "+fitsFile+" does not have a "+FITS_KEYWORD_MASK_NAME+" keyword.");
+		}
+
+		//. mask description
+		String newMaskName = h.getStringValue(FITS_KEYWORD_MASK_NAME);
+		String newVersion = h.containsKey(FITS_KEYWORD_MSC_VERSION) ? h.getStringValue(FITS_KEYWORD_MSC_VERSION) : "unknown";
+		MascgenResult newMascgenResult = new MascgenResult();
+		newMascgenResult.setTotalPriority(h.getDoubleValue(FITS_KEYWORD_TOTAL_PRIORITY));
+		newMascgenResult.getCenter().setRaHour(h.getIntValue(FITS_KEYWORD_CENTER_RAH));
+		newMascgenResult.getCenter().setRaMin(h.getIntValue(FITS_KEYWORD_CENTER_RAM));
+		newMascgenResult.getCenter().setRaSec(h.getDoubleValue(FITS_KEYWORD_CENTER_RAS));
+		newMascgenResult.getCenter().setDecDeg(h.getDoubleValue(FITS_KEYWORD_CENTER_DECD));
+		newMascgenResult.getCenter().setDecMin(h.getDoubleValue(FITS_KEYWORD_CENTER_DECM));
+		newMascgenResult.getCenter().setDecSec(h.getDoubleValue(FITS_KEYWORD_CENTER_DECS));
+		newMascgenResult.setPositionAngle(h.getDoubleValue(FITS_KEYWORD_MASK_PA));
+
+		status = STATUS_NEW;
+		if (originalTargetList != null) {
+			originalTargetList.clear();
+		}
+		hasObjectsIn0Ra = false;
+		hasObjectsIn23Ra = false;
+
+		//. science slits.  targets are the first rows of the target list, in the same order.
+		Object[] columns = scienceColumns;
+		int[] slitNumbers = (int[])columns[0];
+		if (slitNumbers.length > ((String[])targetColumns[0]).length) {
+			throw new FitsException(FITS_EXTNAME_TARGET_LIST+" extension does not have a row for each science slit.");
+		}
+		ArrayList<ScienceSlit> newScienceSlitList = new ArrayList<ScienceSlit>(slitNumbers.length);
+		for (int ii=0; ii<slitNumbers.length; ii++) {
+			ScienceSlit newSlit = new ScienceSlit(slitNumbers[ii]);
+			RaDec slitRaDec = newSlit.getSlitRaDec();
+			slitRaDec.setRaHour(((int[])columns[1])[ii]);
+			slitRaDec.setRaMin(((int[])columns[2])[ii]);
+			slitRaDec.setRaSec(((double[])columns[3])[ii]);
+			slitRaDec.setDecDeg(((double[])columns[4])[ii]);
+			slitRaDec.setDecMin(((double[])columns[5])[ii]);
+			slitRaDec.setDecSec(((double[])columns[6])[ii]);
+			newSlit.setSlitWidth(((double[])columns[7])[ii]);
+			newSlit.setSlitLength(((double[])columns[8])[ii]);
+			newSlit.setCenterDistance(((double[])columns[9])[ii]);
+			String targetName = ((String[])columns[10])[ii].trim();
+			if (!targetName.equals(((String[])targetColumns[0])[ii].trim())) {
+				throw new FitsException("Target of science slit "+slitNumbers[ii]+" <"+targetName+"> does not match target list.");
+			}
+			setFITSTargetValues(newSlit.getTarget(), targetColumns, 0, ii);
+			newSlit.getTarget().setCenterDistance(newSlit.getCenterDistance());
+			newScienceSlitList.add(newSlit);
+		}
+
+		//. mechanical slits
+		if (mechanicalHeader.getBooleanValue(FITS_KEYWORD_ALIGNMENT_MASK, false)) {
+			outWarningList.add(FITS_EXTNAME_MECHANICAL_SLIT_LIST+" extension is for alignment mask, and includes alignment slits.");
+		}
+		columns = mechanicalColumns;
+		slitNumbers = (int[])columns[0];
+		ArrayList<MechanicalSlit> newSlitList = new ArrayList<MechanicalSlit>(MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS);
+		for (int ii=0; ii<slitNumbers.length; ii++) {
+			MechanicalSlit newSlitPos = new MechanicalSlit(slitNumbers[ii], ((double[])columns[3])[ii], ((double[])columns[4])[ii]);
+			newSlitPos.setTargetName(((String[])columns[1])[ii].trim());
+			newSlitList.add(newSlitPos);
+		}
+
+		//. alignment slits
+		columns = alignmentColumns;
+		slitNumbers = (int[])columns[0];
+		ArrayList<MechanicalSlit> newAlignList = new ArrayList<MechanicalSlit>(MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS);
+		for (int ii=0; ii<slitNumbers.length; ii++) {
+			MechanicalSlit newSlit = new MechanicalSlit(slitNumbers[ii], ((double[])columns[1])[ii], ((double[])columns[2])[ii]);
+			newSlit.setCenterDistance(((double[])columns[3])[ii]);
+			newSlit.setTargetName(((String[])columns[4])[ii].trim());
+			newSlit.getTarget().setObjName(newSlit.getTargetName());
+			setFITSTargetValues(newSlit.getTarget(), columns, 4, ii);
+			newSlit.getTarget().setCenterDistance(newSlit.getCenterDistance());
+			newAlignList.add(newSlit);
+		}
+
+		applyReadConfiguration(fitsFile, newVersion, newMaskName, newMascgenResult, newSlitList, newScienceSlitList, newAlignList, new MascgenArguments());
+	}
+
+	/**
+	 * Set target values from a row of binary table columns.  The columns starting at
+	 * <code>firstColumn</code> must be name, priority, magnitude, RA hours, minutes, and seconds,
+	 * Dec degrees, minutes, and seconds, epoch, and equinox.
+	 *
+	 * @param target       AstroObj to set values of
+	 * @param columns      table columns
+	 * @param firstColumn  index of target name column
+	 * @param row          index of row
+	 */
+	private static void setFITSTargetValues(AstroObj target, Object[] columns, int firstColumn, int row) {
+		target.setObjName(((String[])columns[firstColumn])[row].trim());
+		target.setObjPriority(((double[])columns[firstColumn+1])[row]);
+		target.setObjMag(((double[])columns[firstColumn+2])[row]);
+		target.setRaHour(((double[])columns[firstColumn+3])[row]);
+		target.setRaMin(((double[])columns[firstColumn+4])[row]);
+		target.setRaSec(((double[])columns[firstColumn+5])[row]);
+		target.setDecDeg(((double[])columns[firstColumn+6])[row]);
+		target.setDecMin(((double[])columns[firstColumn+7])[row]);
+		target.setDecSec(((double[])columns[firstColumn+8])[row]);
+		target.setEpoch(((double[])columns[firstColumn+9])[row]);
+		target.setEquinox(((double[])columns[firstColumn+10])[row]);
+	}
+
 	/**
 	 * Gets all targets in configuration including alignment stars.
 	 *
@@ -3193,8 +3947,7 @@ public class SlitConfiguration implements Cloneable {
 		writeExcessCoordsFile(mascgenArgs.getFullPathOutputExcessTargets());
 	}
 	public void writeExcessCoordsFile(String fileName) throws FileNotFoundException {
-		FileOutputStream out = new FileOutputStream(fileName);
-		PrintStream p = new PrintStream(out);
+		PrintStream p = new PrintStream(new BufferedOutputStream(new FileOutputStream(fileName)));
 		
 		List<AstroObj> unused = new ArrayList<AstroObj>();
 		List<AstroObj> used = getAllTargets();
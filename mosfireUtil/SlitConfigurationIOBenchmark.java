@@ -0,0 +1,130 @@
+package edu.ucla.astro.irlab.mosfire.util;
+//. NOTE: This class is for benchmarking MSC reading and writing, and is not included in Makefile
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Compares the JDOM and streaming readers of MOSFIRE Slit Configuration files.  Every MSC in a
+ * directory (searched recursively) is read with both readers, and each result is written with
+ * <code>writeSlitConfiguration</code>.  Warnings and written files must be identical.  Total
+ * time taken by each reader is reported.
+ *
+ * Usage: SlitConfigurationIOBenchmark directory [repetitions]
+ */
+public class SlitConfigurationIOBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Usage: SlitConfigurationIOBenchmark directory [repetitions]");
+			System.exit(1);
+		}
+		int repetitions = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		ArrayList<File> files = new ArrayList<File>();
+		findMSCs(new File(args[0]), files);
+		System.out.println("Found "+files.size()+" MSC files.");
+
+		File jdomOut = File.createTempFile("jdom", ".xml");
+		File streamOut = File.createTempFile("stream", ".xml");
+		jdomOut.deleteOnExit();
+		streamOut.deleteOnExit();
+
+		//. verify identical results
+		int validCount = 0;
+		for (File file : files) {
+			ArrayList<String> jdomWarnings = new ArrayList<String>();
+			ArrayList<String> streamWarnings = new ArrayList<String>();
+			SlitConfiguration jdomConfig = new SlitConfiguration();
+			SlitConfiguration streamConfig = new SlitConfiguration();
+			String jdomError = null;
+			String streamError = null;
+			try {
+				jdomConfig.readSlitConfiguration(file, jdomWarnings);
+			} catch (Exception ex) {
+				jdomError = ex.getMessage();
+			}
+			try {
+				streamConfig.readSlitConfigurationStreaming(file, streamWarnings);
+			} catch (Exception ex) {
+				streamError = ex.getMessage();
+			}
+			if ((jdomError != null) || (streamError != null)) {
+				if ((jdomError == null) || (streamError == null)) {
+					System.out.println("MISMATCH "+file+": JDOM error <"+jdomError+">, streaming error <"+streamError+">");
+				}
+				continue;
+			}
+			if (!jdomWarnings.equals(streamWarnings)) {
+				System.out.println("MISMATCH "+file+": warnings differ");
+			}
+			jdomConfig.writeSlitConfiguration(jdomOut, jdomConfig.getVersion());
+			streamConfig.writeSlitConfiguration(streamOut, streamConfig.getVersion());
+			if (!Arrays.equals(readBytes(jdomOut), readBytes(streamOut))) {
+				System.out.println("MISMATCH "+file+": written files differ");
+			}
+			files.set(validCount++, file);
+		}
+		while (files.size() > validCount) {
+			files.remove(files.size()-1);
+		}
+		System.out.println(validCount+" valid MSC files compared.");
+
+		Timer timer = new Timer();
+		ArrayList<String> warnings = new ArrayList<String>();
+		SlitConfiguration config = new SlitConfiguration();
+
+		timer.start();
+		for (int ii=0; ii<repetitions; ii++) {
+			for (File file : files) {
+				config.readSlitConfiguration(file, warnings);
+			}
+		}
+		timer.end();
+		System.out.println("JDOM read:      "+timer.duration()+" ms");
+
+		timer.start();
+		for (int ii=0; ii<repetitions; ii++) {
+			for (File file : files) {
+				config.readSlitConfigurationStreaming(file, warnings);
+			}
+		}
+		timer.end();
+		System.out.println("Streaming read: "+timer.duration()+" ms");
+	}
+
+	private static void findMSCs(File dir, ArrayList<File> outFiles) {
+		File[] contents = dir.listFiles();
+		if (contents == null) {
+			return;
+		}
+		Arrays.sort(contents);
+		for (File file : contents) {
+			if (file.isDirectory()) {
+				findMSCs(file, outFiles);
+			} else if (file.getName().endsWith(".xml") || file.getName().endsWith(".msc")) {
+				outFiles.add(file);
+			}
+		}
+	}
+
+	private static byte[] readBytes(File file) throws IOException {
+		byte[] bytes = new byte[(int)file.length()];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			int offset = 0;
+			while (offset < bytes.length) {
+				int count = in.read(bytes, offset, bytes.length - offset);
+				if (count < 0) {
+					break;
+				}
+				offset += count;
+			}
+		} finally {
+			in.close();
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,233 @@
+package edu.ucla.astro.irlab.mosfire.util;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.xml.transform.TransformerException;
+
+import org.apache.log4j.Logger;
+import org.jdom.JDOMException;
+
+/**
+ * Writes the output products of a <code>SlitConfiguration</code> concurrently.
+ *
+ * The products are the MASCGEN parameters file, the target list for targets in the mask, the
+ * MOSFIRE Slit Configuration (MSC) file with optional HTML version, the slit list, the science and
+ * alignment CSU scripts, the star list and the DS9 regions file.  Each product is written
+ * from its own copy of the configuration, taken when <code>writeOutputs</code> is called,
+ * so the products are consistent with each other and writers do not share formatters.
+ * The HTML version is written once the MSC is complete, using the compiled XSLT transformation
+ * from <code>XSLTTemplatesCache</code>.
+ *
+ * The time taken to write each product is logged, and can be retrieved with
+ * <code>getLastProductTimes</code>.
+ *
+ * The writer threads are daemons, so a writer can be kept for the life of the application,
+ * as MSCGUIModel does, without keeping it from exiting.  Call <code>shutdown</code> to stop
+ * them sooner.
+ *
+ * @see SlitConfiguration
+ */
+public class SlitConfigurationOutputWriter {
+	private static final Logger logger = Logger.getLogger(SlitConfigurationOutputWriter.class);
+
+	public static final String PRODUCT_MASCGEN_PARAMS = "MASCGEN parameters";
+	public static final String PRODUCT_COORDS = "Mask targets";
+	public static final String PRODUCT_MSC = "MSC";
+	public static final String PRODUCT_MSC_HTML = "MSC HTML";
+	public static final String PRODUCT_SLIT_LIST = "Slit list";
+	public static final String PRODUCT_SCIENCE_SCRIPT = "Science CSU script";
+	public static final String PRODUCT_ALIGNMENT_SCRIPT = "Alignment CSU script";
+	public static final String PRODUCT_STAR_LIST = "Star list";
+	public static final String PRODUCT_DS9_REGIONS = "DS9 regions";
+
+	private final ExecutorService executor;
+	private LinkedHashMap<String, Long> lastProductTimes = new LinkedHashMap<String, Long>();
+
+	/**
+	 * Constructor with one thread per available processor.
+	 */
+	public SlitConfigurationOutputWriter() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param numberOfThreads  maximum number of products to write at once
+	 */
+	public SlitConfigurationOutputWriter(int numberOfThreads) {
+		executor = Executors.newFixedThreadPool(Math.max(1, numberOfThreads), new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				//. daemon, so that writer does not keep application from exiting
+				Thread thread = new Thread(r, "SlitConfigurationOutputWriter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Write all output products of the configuration to the files specified in its
+	 * <code>MascgenArguments</code>.  Returns when all products have been written.
+	 * If more than one product fails, the exception from the first failing product (in
+	 * the order listed in the class description) is thrown.
+	 *
+	 * @param  config               SlitConfiguration to write
+	 * @param  writeHTML            flag for whether to write HTML version of MSC
+	 * @throws JDOMException        on error constructing MSC or MASCGEN parameters
+	 * @throws IOException          on error writing a product
+	 * @throws TransformerException on error constructing HTML version of MSC
+	 */
+	public void writeOutputs(final SlitConfiguration config, final boolean writeHTML) throws JDOMException, IOException, TransformerException {
+		ArrayList<ProductTask> tasks = new ArrayList<ProductTask>();
+
+		//. the MSC is written from the configuration itself, so that its status and filename are updated.
+		//. all other products use copies, since the formatters in a configuration are not thread-safe.
+		tasks.add(new ProductTask(PRODUCT_MSC, config) {
+			void write(SlitConfiguration snapshot) throws Exception {
+				snapshot.writeSlitConfiguration();
+			}
+		});
+		tasks.add(new ProductTask(PRODUCT_MASCGEN_PARAMS, config.clone()) {
+			void write(SlitConfiguration snapshot) throws Exception {
+				snapshot.writeMascgenParams();
+			}
+		});
+		tasks.add(new ProductTask(PRODUCT_COORDS, config.clone()) {
+			void write(SlitConfiguration snapshot) throws Exception {
+				snapshot.writeCoordsFile();
+			}
+		});
+		tasks.add(new ProductTask(PRODUCT_SLIT_LIST, config.clone()) {
+			void write(SlitConfiguration snapshot) throws Exception {
+				snapshot.writeOutSlitList();
+			}
+		});
+		tasks.add(new ProductTask(PRODUCT_SCIENCE_SCRIPT, config.clone()) {
+			void write(SlitConfiguration snapshot) throws Exception {
+				snapshot.writeScienceCSUScript(false);
+			}
+		});
+		tasks.add(new ProductTask(PRODUCT_STAR_LIST, config.clone()) {
+			void write(SlitConfiguration snapshot) throws Exception {
+				snapshot.writeOutStarList();
+			}
+		});
+		tasks.add(new ProductTask(PRODUCT_DS9_REGIONS, config.clone()) {
+			void write(SlitConfiguration snapshot) throws Exception {
+				snapshot.writeDS9Regions();
+			}
+		});
+		if (config.getAlignmentStarCount() > 0) {
+			tasks.add(new ProductTask(PRODUCT_ALIGNMENT_SCRIPT, config.clone()) {
+				void write(SlitConfiguration snapshot) throws Exception {
+					snapshot.writeAlignmentCSUScript(false);
+				}
+			});
+		}
+
+		ArrayList<Future<Long>> futures = new ArrayList<Future<Long>>(tasks.size());
+		for (ProductTask task : tasks) {
+			futures.add(executor.submit(task));
+		}
+
+		LinkedHashMap<String, Long> productTimes = new LinkedHashMap<String, Long>();
+		Exception firstException = null;
+		for (int ii=0; ii<tasks.size(); ii++) {
+			try {
+				productTimes.put(tasks.get(ii).getName(), futures.get(ii).get());
+			} catch (ExecutionException ex) {
+				if (firstException == null) {
+					firstException = (ex.getCause() instanceof Exception) ? (Exception)ex.getCause() : ex;
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while writing outputs for "+config.getMaskName());
+			}
+		}
+
+		//. HTML is transformed from the MSC file, so must wait until it is written
+		if (writeHTML && (firstException == null)) {
+			long start = System.currentTimeMillis();
+			try {
+				config.writeSlitConfigurationHTML();
+			} catch (TransformerException ex) {
+				firstException = ex;
+			} catch (MalformedURLException ex) {
+				firstException = ex;
+			}
+			productTimes.put(PRODUCT_MSC_HTML, System.currentTimeMillis() - start);
+		}
+
+		synchronized (this) {
+			lastProductTimes = productTimes;
+		}
+		logger.info("Wrote outputs for "+config.getMaskName()+": "+productTimes+" (ms)");
+
+		if (firstException != null) {
+			rethrow(firstException);
+		}
+	}
+
+	private static void rethrow(Exception ex) throws JDOMException, IOException, TransformerException {
+		if (ex instanceof JDOMException) {
+			throw (JDOMException)ex;
+		} else if (ex instanceof IOException) {
+			throw (IOException)ex;
+		} else if (ex instanceof TransformerException) {
+			throw (TransformerException)ex;
+		} else if (ex instanceof RuntimeException) {
+			throw (RuntimeException)ex;
+		} else {
+			throw new IOException(ex.toString());
+		}
+	}
+
+	/**
+	 * Get time taken to write each product in last call to <code>writeOutputs</code>.
+	 *
+	 * @return LinkedHashMap of product name to time in milliseconds, in order products were listed
+	 */
+	public synchronized LinkedHashMap<String, Long> getLastProductTimes() {
+		return new LinkedHashMap<String, Long>(lastProductTimes);
+	}
+
+	/**
+	 * Stop writer threads.  No outputs can be written after this is called.  Not needed
+	 * before exiting, since the threads are daemons.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Task writing one product, returning the time taken in milliseconds.
+	 */
+	private static abstract class ProductTask implements Callable<Long> {
+		private final String name;
+		private final SlitConfiguration snapshot;
+
+		ProductTask(String name, SlitConfiguration snapshot) {
+			this.name = name;
+			this.snapshot = snapshot;
+		}
+		String getName() {
+			return name;
+		}
+		public Long call() throws Exception {
+			long start = System.currentTimeMillis();
+			write(snapshot);
+			return System.currentTimeMillis() - start;
+		}
+		abstract void write(SlitConfiguration snapshot) throws Exception;
+	}
+}
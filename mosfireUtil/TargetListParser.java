@@ -1,25 +1,27 @@
 package edu.ucla.astro.irlab.mosfire.util;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 
-import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Scanner;
 import java.util.StringTokenizer;
 
+import edu.ucla.astro.irlab.util.FixedPointFormat;
 import edu.ucla.astro.irlab.util.NumberFormatters;
 
 public class TargetListParser {
 	public static String   SEPARATOR   = "  ";
 	public static String   TERMINATOR  = "\n";
-	private static DecimalFormat threeDigitFormatter = NumberFormatters.StandardFloatFormatter(2);
-	private static DecimalFormat twoDigitFormatter = NumberFormatters.StandardFloatFormatter(2);
-	private static DecimalFormat oneDigitFormatter = NumberFormatters.StandardFloatFormatter(1);
-	private static DecimalFormat zeroDigitFormatter = NumberFormatters.StandardFloatFormatter(0);
+	//. immutable, so safe to share between threads writing target lists
+	private static final FixedPointFormat threeDigitFormatter = NumberFormatters.StandardFixedPointFormat(2);
+	private static final FixedPointFormat twoDigitFormatter = NumberFormatters.StandardFixedPointFormat(2);
+	private static final FixedPointFormat oneDigitFormatter = NumberFormatters.StandardFixedPointFormat(1);
+	private static final FixedPointFormat zeroDigitFormatter = NumberFormatters.StandardFixedPointFormat(0);
 
 	private static AstroObj parseLine(String newLine, int lineNumber) throws NumberFormatException, TargetListFormatException {
 		Scanner scanner = new Scanner(newLine);
@@ -259,7 +261,7 @@ public class TargetListParser {
 	public static void saveFile(String targetListFilename, ArrayList<AstroObj> targetList) {
 		try{
 			File             currentFile         = new File(targetListFilename);
-			FileWriter       myFileWriter        = new FileWriter(currentFile);
+			BufferedWriter   myFileWriter        = new BufferedWriter(new FileWriter(currentFile));
 			
 			for(AstroObj currentTarget : targetList) {
 				myFileWriter.write(constructTargetDefinitionRecord(currentTarget));
@@ -296,19 +298,21 @@ public class TargetListParser {
 		  * 
 		  *  note: proper motion is ignored and set to 0
 		  */
-		return target.getObjName() + SEPARATOR + 
-			twoDigitFormatter.format(target.getObjPriority()) + SEPARATOR + 
-			twoDigitFormatter.format(target.getObjMag()) + SEPARATOR + 
-			zeroDigitFormatter.format(target.getRaHour()) + SEPARATOR + 
-			zeroDigitFormatter.format(target.getRaMin()) + SEPARATOR + 
-			threeDigitFormatter.format(target.getRaSec()) +	SEPARATOR + 
-			zeroDigitFormatter.format(target.getDecDeg()) + SEPARATOR + 
-			zeroDigitFormatter.format(target.getDecMin()) + SEPARATOR + 
-			twoDigitFormatter.format(target.getDecSec()) + SEPARATOR +
-			oneDigitFormatter.format(target.getEpoch()) + SEPARATOR + 
-			oneDigitFormatter.format(target.getEquinox()) + SEPARATOR + 
-			oneDigitFormatter.format(0.0) + SEPARATOR + 
-			oneDigitFormatter.format(0.0) + TERMINATOR;
+		StringBuilder record = new StringBuilder(96);
+		record.append(target.getObjName()).append(SEPARATOR);
+		twoDigitFormatter.append(record, target.getObjPriority()).append(SEPARATOR);
+		twoDigitFormatter.append(record, target.getObjMag()).append(SEPARATOR);
+		zeroDigitFormatter.append(record, target.getRaHour()).append(SEPARATOR);
+		zeroDigitFormatter.append(record, target.getRaMin()).append(SEPARATOR);
+		threeDigitFormatter.append(record, target.getRaSec()).append(SEPARATOR);
+		zeroDigitFormatter.append(record, target.getDecDeg()).append(SEPARATOR);
+		zeroDigitFormatter.append(record, target.getDecMin()).append(SEPARATOR);
+		twoDigitFormatter.append(record, target.getDecSec()).append(SEPARATOR);
+		oneDigitFormatter.append(record, target.getEpoch()).append(SEPARATOR);
+		oneDigitFormatter.append(record, target.getEquinox()).append(SEPARATOR);
+		oneDigitFormatter.append(record, 0.0).append(SEPARATOR);
+		oneDigitFormatter.append(record, 0.0).append(TERMINATOR);
+		return record.toString();
 	}
 	public static void main(String args[]) {
 		ArrayList<AstroObj> objs;
@@ -12,7 +12,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.IOException;
 import java.util.ArrayList;
 
 import javax.swing.BorderFactory;
@@ -22,7 +21,6 @@ import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JList;
-import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSpinner;
@@ -210,18 +208,10 @@ public class CalibrationScriptFrame extends JFrame implements ProcessListener {
 	}
 
 	protected void goButton_actionPerformed(ActionEvent e) {
-		try {
-			//. run script
-			executeScript();
-		} catch (IOException ex) {
-			JOptionPane.showMessageDialog(this, "Error running script: "+ex.getMessage(), "Error Running Script", JOptionPane.ERROR_MESSAGE);
-			ex.printStackTrace();
-		} catch (InterruptedException ex) {
-			JOptionPane.showMessageDialog(this, "Script interrupted: "+ex.getMessage(), "Error Running Script", JOptionPane.ERROR_MESSAGE);
-			ex.printStackTrace();
-		}
+		//. run script.  errors are shown in process dialog.
+		executeScript();
 	}
-	private void executeScript() throws IOException, InterruptedException {
+	private void executeScript() {
 		//. construct command from gui
 		String[] command = constructCommand();
 		//. create new process info
@@ -9,6 +9,7 @@ import org.apache.log4j.Logger;
 import org.apache.log4j.PropertyConfigurator;
 
 import edu.ucla.astro.irlab.mosfire.util.MosfireParameters;
+import edu.ucla.astro.irlab.util.XmlDocumentCache;
 import edu.ucla.astro.irlab.util.XmlToParams;
 
 /**
@@ -125,18 +126,29 @@ public class MSCGUI {
 				//. extract parameters from config file
 				XmlToParams.extractParams(cfgFile, MSCGUIParameters.getInstance());
 			}
-			PropertyConfigurator.configure(MSCGUIParameters.LOG4J_CONFIG_FILENAME.getAbsolutePath());
-
-			if (MSCGUIParameters.MOSFIRE_PARAMETERS_FILE.exists()) {
-				XmlToParams.extractParams(MSCGUIParameters.MOSFIRE_PARAMETERS_FILE, MosfireParameters.getInstance());				
-			}
-			
 			if (engineeringModePassedIn) {
 				MSCGUIParameters.ENGINEERING_MODE = engineeringMode;
 			}
 			if (onlineModePassedIn) {
 				MSCGUIParameters.ONLINE_MODE = onlineMode;
 			}
+
+			//. config file gives locations of other startup files, and names the
+			//. cache directory, so it is not cached itself.  load the other files
+			//. concurrently in the background while log4j is configured.  properties
+			//. file is taken by the application when it is constructed.
+			XmlDocumentCache.setCacheDirectory(MSCGUIParameters.XML_CACHE_DIRECTORY);
+			if (MSCGUIParameters.MOSFIRE_PARAMETERS_FILE.exists()) {
+				XmlDocumentCache.prefetch(MSCGUIParameters.MOSFIRE_PARAMETERS_FILE);
+			}
+			if (MSCGUIParameters.ONLINE_MODE) {
+				XmlDocumentCache.prefetch(MSCGUIParameters.MOSFIRE_PROPERTIES_FILENAME);
+			}
+			PropertyConfigurator.configure(MSCGUIParameters.LOG4J_CONFIG_FILENAME.getAbsolutePath());
+
+			if (MSCGUIParameters.MOSFIRE_PARAMETERS_FILE.exists()) {
+				XmlToParams.extractParams(MSCGUIParameters.MOSFIRE_PARAMETERS_FILE, MosfireParameters.getInstance());				
+			}
 			
 			//. define menu fonts here in this way, so that setFont doesn't have
 			//. to be called for each item.
@@ -4,12 +4,14 @@ import java.io.File;
 import java.util.ArrayList;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import edu.ucla.astro.irlab.mosfire.util.MascgenArguments;
 import edu.ucla.astro.irlab.mosfire.util.Timer;
 import edu.ucla.astro.irlab.util.KJavaPropertyManager;
 import edu.ucla.astro.irlab.util.Property;
 import edu.ucla.astro.irlab.util.PropertyList;
+import edu.ucla.astro.irlab.util.ServerMonitor;
 import edu.ucla.astro.irlab.util.StringProperty;
 
 /**
@@ -54,25 +56,13 @@ public class MSCGUIApplication {
   		}
   		
   		myModel.executeMaskSetup(false);
-  		//. wait for mask script to finish
-  		int timeoutCounter=0;
-  		int timeoutMax=50;  //. 5 seconds, should only take fractions
-  		while (myModel.isScriptRunning()) {
-  			Thread.currentThread().sleep(100);
-  			timeoutCounter++;
-  			if (timeoutCounter > timeoutMax) {
-  				throw new Exception("Timeout setting up mask.");
-  			}
+  		//. wait for mask script to finish.  returns as soon as its exit code is received.
+  		if (!myModel.waitForScriptFinished(MSCGUIParameters.MASK_SETUP_SCRIPT_TIMEOUT_MS)) {
+  			throw new Exception("Timeout setting up mask.");
   		}
-  		timeoutCounter = 0;
-  		timeoutMax = 60;  //. 30 seconds
-  		//. wait for mask configuration to complete
-  		while (myModel.getCsuReady() != MSCGUIParameters.CSU_READINESS_STATE_READY_TO_MOVE) {
-  			Thread.currentThread().sleep(1000);
-  			timeoutCounter++;
-  			if (timeoutCounter > timeoutMax) {
-  				throw new Exception("Timeout setting up mask.");
-  			}  			
+  		//. wait for mask configuration to complete.  returns as soon as CSUMoveReadiness changes.
+  		if (!myModel.waitForCsuReady(MSCGUIParameters.CSU_READINESS_STATE_READY_TO_MOVE, MSCGUIParameters.CSU_READY_TIMEOUT_MS)) {
+  			throw new Exception("Timeout setting up mask.");
   		}
   		
   		//. now execute mask
@@ -86,8 +76,9 @@ public class MSCGUIApplication {
   	}
     //. Instantiate model and view
     myModel = new MSCGUIModel(list, MSCGUIParameters.ONLINE_MODE);
+    MSCGUIView myView = null;
     if (showGUI) {
-    	MSCGUIView myView = new MSCGUIView(myModel);
+    	myView = new MSCGUIView(myModel);
 
     	//Validate frames that have preset sizes
     	//Pack frames that have useful preferred size info, e.g. from their layout
@@ -113,6 +104,14 @@ public class MSCGUIApplication {
     		aliveProps.add(list.getProperty("MCSUSAlive"));
     		aliveProps.add(list.getProperty("MDSAlive"));
     		kjavaPropertyManager.startServerMonitor(aliveProps, MSCGUIParameters.PAUSE_MS_BETWEEN_INDIVIDUAL_SERVER_STATUS_POLLS, 10);
+    		final MSCGUIView view = myView;
+    		final ServerMonitor serverMonitor = kjavaPropertyManager.getServerMonitor();
+    		//. view is shown, so only change it on the event dispatch thread
+    		SwingUtilities.invokeLater(new Runnable() {
+    			public void run() {
+    				view.setServerMonitor(serverMonitor);
+    			}
+    		});
     	}
   	}
 
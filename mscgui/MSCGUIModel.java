@@ -6,10 +6,12 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.MalformedURLException;
-import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import javax.xml.transform.TransformerException;
 
@@ -20,12 +22,14 @@ import org.jdom.JDOMException;
 
 import edu.hawaii.keck.kjava.KJavaException;
 import edu.ucla.astro.irlab.mosfire.util.AstroObj;
+import edu.ucla.astro.irlab.mosfire.util.CSUMovePlan;
 import edu.ucla.astro.irlab.mosfire.util.MascgenArgumentException;
 import edu.ucla.astro.irlab.mosfire.util.MascgenArguments;
 import edu.ucla.astro.irlab.mosfire.util.MascgenResult;
 import edu.ucla.astro.irlab.mosfire.util.MechanicalSlit;
 import edu.ucla.astro.irlab.mosfire.util.MosfireParameters;
 import edu.ucla.astro.irlab.mosfire.util.SlitConfiguration;
+import edu.ucla.astro.irlab.mosfire.util.SlitConfigurationOutputWriter;
 import edu.ucla.astro.irlab.mosfire.util.SlitPosition;
 import edu.ucla.astro.irlab.mosfire.util.TargetListFormatException;
 import edu.ucla.astro.irlab.mosfire.util.TargetListParser;
@@ -56,28 +60,36 @@ public class MSCGUIModel extends GenericModel implements PropertyChangeListener
 	private static final Logger logger = Logger.getLogger(MSCGUIModel.class);
 	
 	private SlitConfiguration currentSlitConfiguration = new SlitConfiguration();
+	private final SlitConfigurationOutputWriter outputWriter = new SlitConfigurationOutputWriter();
 	private ArrayList<SlitConfiguration> openedSlitConfigurations  = new ArrayList<SlitConfiguration>();
 	private ArrayList<AstroObj> targetList = new ArrayList<AstroObj>();
 	private int activeRow = -1;
 	private MascgenCore mascgen = new MascgenCore();
 	ProcessControl myProcessControl;
-	private boolean scriptRunning;
+	private volatile boolean scriptRunning;
 	private long currentCommandProcessID;
 	private MascgenResult currentMascgenResult;
 	private int currentSlitConfigurationIndex;
 	private File scriptDirectory = new File("");
 	private String loadedMaskSetup="none";
 	private boolean lastMaskSetupIsAlign=false;
+	private double lastMaskSetupEstimatedTimeSec=0.0;
 	private boolean online = false;
 	private SimpleDateFormat scriptDatFormatter = new SimpleDateFormat("yyMMdd_HHmmss");
 	private MascgenChangeListener mascgenListener = new MascgenChangeListener();
 	MascgenRunThread mascgenThread;
 	private double currentSlitWidth;
 	private boolean sameSlitWidthForAllSlits = true;
-	private int csuReady = 0;
+	private volatile int csuReady = 0;
+	//. notified when scriptRunning or csuReady change
+	private final Object stateLock = new Object();
 	private String csuStatus = "";
 	private StringProperty extFilenameProp;
 	private PropertyList propertyList;
+	//. CSUBarPosition properties, by bar number - 1.  null if not in property list.
+	//. looked up again when the property list changes, e.g. by readXML.
+	private DoubleProperty[] barPositionProperties;
+	private int barPositionPropertiesListCount;
 	private KJavaPropertyManager propertyManager;
 	private double minimumCloseOffSlitWidth;
 	private double closedOffSlitWidth;
@@ -284,21 +296,8 @@ public class MSCGUIModel extends GenericModel implements PropertyChangeListener
 		return false;
 	}
   public void writeCurrentSlitConfigurationOutputs(boolean writeHTML) throws JDOMException, IOException, TransformerException {
-  	//. create output directory
-  	currentSlitConfiguration.writeMascgenParams();
-  	currentSlitConfiguration.writeCoordsFile();
-  	currentSlitConfiguration.writeSlitConfiguration();
-  	if (writeHTML) {
-  		currentSlitConfiguration.writeSlitConfigurationHTML();
-  	}
-  	currentSlitConfiguration.writeOutSlitList();
-  	currentSlitConfiguration.writeScienceCSUScript(false);
-  	currentSlitConfiguration.writeOutStarList();
-  	currentSlitConfiguration.writeDS9Regions();
-
-  	if (currentSlitConfiguration.getAlignmentStarCount() > 0) {
-  		currentSlitConfiguration.writeAlignmentCSUScript(false);
-  	}
+  	//. products are written concurrently.  see SlitConfigurationOutputWriter
+  	outputWriter.writeOutputs(currentSlitConfiguration, writeHTML);
   }
   
   public void openTargetList(File targetListFile) throws FileNotFoundException, IOException, NumberFormatException, TargetListFormatException {
@@ -337,34 +336,20 @@ public class MSCGUIModel extends GenericModel implements PropertyChangeListener
 			//. check directory existence
 			if (scriptDirectory.exists()) {
 				if (scriptDirectory.canWrite()) {
-					String scriptFilename;
-					File scriptFile;
+					//. targets of unused bars and mask slits go in one setup, so all bars move together
+					CSUMovePlan plan = new CSUMovePlan(currentSlitConfiguration.getCSUSetupName(doAlign));
 					if (closeOffType != CLOSE_OFF_TYPE_DO_NOTHING) {
-						//. move unused bars if necessary
-						SlitConfiguration unusedBarsConfig = constructExtraBarsConfiguration(doAlign);
-						if (!unusedBarsConfig.getMechanicalSlitList().isEmpty()) {
-							scriptFilename = constructMaskScriptFilename(doAlign, true, "csh");
-							if (doAlign) {
-								unusedBarsConfig.writeAlignmentCSUScript(scriptFilename, true);
-							} else {
-								unusedBarsConfig.writeScienceCSUScript(scriptFilename, true);
-							}
-							scriptFile = new File(scriptFilename);
-							//. make file executable?
-							scriptFile.setExecutable(true);
-							runMaskScript(scriptFilename);
-							//. sleep a little to give time to finish
-							Thread.currentThread().sleep(1000);
-						}
-					}
-
-					scriptFilename = constructMaskScriptFilename(doAlign, false, "csh");
-					if (doAlign) {
-						currentSlitConfiguration.writeAlignmentCSUScript(scriptFilename, false);
-					} else {
-						currentSlitConfiguration.writeScienceCSUScript(scriptFilename, false);
+						plan.addSlits(constructExtraBarsConfiguration(doAlign).getMechanicalSlitList());
 					}
-					scriptFile = new File(scriptFilename);
+					plan.addSlits(currentSlitConfiguration.getCSUScriptSlitList(doAlign));
+					plan.setCurrentPositions(getBarPositions());
+					lastMaskSetupEstimatedTimeSec = plan.getEstimatedTimeSec();
+					logger.info("Mask setup moves "+plan.getMovingBarCount()+" of "+plan.getTargetCount()+" bars, estimated time "+
+							NumberFormatters.StandardFloatFormatter(1).format(lastMaskSetupEstimatedTimeSec)+" s.");
+
+					String scriptFilename = constructMaskScriptFilename(doAlign, false, "csh");
+					plan.writeScript(scriptFilename, false);
+					File scriptFile = new File(scriptFilename);
 					//. make file executable?
 					scriptFile.setExecutable(true);
 					runMaskScript(scriptFilename);
@@ -395,29 +380,38 @@ public class MSCGUIModel extends GenericModel implements PropertyChangeListener
 				throw ex;
 			}
 		String fitsExtensionFilename = constructMaskScriptFilename(lastMaskSetupIsAlign, false, "fits");
-		currentSlitConfiguration.writeFITSExtension(fitsExtensionFilename, lastMaskSetupIsAlign);
+		currentSlitConfiguration.writeFITSExtension(fitsExtensionFilename, lastMaskSetupIsAlign, MSCGUIParameters.CSU_FITS_EXTENSION_BINARY);
 		propertyList.setNewPropertyValue("CSUFitsExtensionFilename", fitsExtensionFilename);
 		
 	}
-	private void runMaskScript(String maskSetupScriptFilename) throws IOException, InterruptedException {
+	private Future<Integer> runMaskScript(String maskSetupScriptFilename) throws IOException, InterruptedException {
 		//. run script
 		long id = System.currentTimeMillis();
 		String[] command = {maskSetupScriptFilename};
 
 		ProcessInfo pi = new ProcessInfo(command, id);
-		execute(pi, MSCGUIParameters.SCRIPT_EXECUTE_SHOW_DIALOG);
 		currentCommandProcessID = pi.getIdNumber();
+		return execute(pi, MSCGUIParameters.SCRIPT_EXECUTE_SHOW_DIALOG);
 	}
-	public void execute(ProcessInfo pi) throws IOException, InterruptedException {
-		execute(pi, true);
+	public Future<Integer> execute(ProcessInfo pi) throws IOException, InterruptedException {
+		return execute(pi, true);
 	}
-	public void execute(ProcessInfo pi, boolean showDialog) throws IOException, InterruptedException {
+	//. returns future of exit code of process
+	public Future<Integer> execute(ProcessInfo pi, boolean showDialog) throws IOException, InterruptedException {
 		System.out.println("executing <"+pi.getCommandString()+">.");
 		if (!MSCGUIParameters.ENGINEERING_MODE) {
 			processOutputMessages.clear();
-			myProcessControl.execute(pi);
+			return myProcessControl.execute(pi);
 		} else {
 			setScriptRunning(false);
+			//. nothing is run in engineering mode
+			FutureTask<Integer> notRun = new FutureTask<Integer>(new Callable<Integer>() {
+				public Integer call() {
+					return 0;
+				}
+			});
+			notRun.run();
+			return notRun;
 		}
 	}
 	public boolean[] getSlitUsageArray(boolean doAlign) {
@@ -444,14 +438,17 @@ public class MSCGUIModel extends GenericModel implements PropertyChangeListener
 		SlitConfiguration config = new SlitConfiguration(currentSlitConfiguration.getMaskName());
 		
 		boolean[] usedSlits = getSlitUsageArray(doAlign);
+		//. read all bars at once, so both bars of a row are from the same pass
+		double[] barPositions = getBarPositions();
 		
 		for (int ii=0; ii<MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS; ii++) {
 			if (!usedSlits[ii]) {
 				//. slit number is 1-indexed
 				int slitNumber = ii+1;
 				//. get current bar positions
-				double rightBarPosition = getRightBarPosition(slitNumber);
-				double leftBarPosition = getLeftBarPosition(slitNumber);
+				//. right bars are odd, left bars even
+				double rightBarPosition = barPositions[2*slitNumber-2];
+				double leftBarPosition = barPositions[2*slitNumber-1];
 				if (rightBarPosition < 0) continue;
 				if (leftBarPosition < 0) continue;
 				
@@ -482,23 +479,53 @@ public class MSCGUIModel extends GenericModel implements PropertyChangeListener
 		config.setMechanicalSlitList(slitList);
 		return config;
 	}
-	private double getLeftBarPosition(int slitNumber) {
-		//. even bars
-		return getBarPosition(2*slitNumber);
-	}
-	private double getRightBarPosition(int slitNumber) {
-		//. odd bars
-		return getBarPosition(2*slitNumber-1);
+	private synchronized DoubleProperty[] getBarPositionProperties() {
+		int listCount = propertyList.getModificationCount();
+		if ((barPositionProperties == null) || (listCount != barPositionPropertiesListCount)) {
+			DoubleProperty[] props = new DoubleProperty[2*MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS];
+			for (int ii=0; ii<props.length; ii++) {
+				props[ii] = (DoubleProperty)propertyList.getProperty(String.format("CSUBarPosition%02d", ii+1));
+			}
+			barPositionProperties = props;
+			barPositionPropertiesListCount = listCount;
+		}
+		return barPositionProperties;
+	}
+	/**
+	 * Get current positions of all bars.
+	 *
+	 * @return array of bar positions in mm, by bar number - 1.  -1 for bars without positions.
+	 */
+	public double[] getBarPositions() {
+		double[] positions = new double[2*MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS];
+		getBarPositions(positions);
+		return positions;
+	}
+	/**
+	 * Read current positions of all bars into array, so a display can reuse one array.
+	 * Each bar is read once.
+	 *
+	 * @param positions array to fill, of at least 2 * CSU_NUMBER_OF_BAR_PAIRS, by bar number - 1.
+	 *                  -1 for bars without positions.
+	 * @throws IllegalArgumentException if array is too short
+	 */
+	public void getBarPositions(double[] positions) {
+		DoubleProperty[] props = getBarPositionProperties();
+		if (positions.length < props.length) {
+			throw new IllegalArgumentException("Bar position array has length "+positions.length+", must be at least "+props.length+".");
+		}
+		for (int ii=0; ii<props.length; ii++) {
+			positions[ii] = getBarPosition(props[ii]);
+		}
 	}
-	private double getBarPosition(int barNumber) {
-		DecimalFormat format = new DecimalFormat("00");
-		String propName = "CSUBarPosition"+format.format(barNumber);
-		DoubleProperty prop = (DoubleProperty)propertyList.get(propName);
+	private static double getBarPosition(DoubleProperty prop) {
 		if (prop != null) {
-			return prop.getPrimitiveDoubleValue();
-		} else {
-			return -1.0;
+			Double value = prop.getValue();
+			if (value != null) {
+				return value.doubleValue();
+			}
 		}
+		return -1.0;
 	}
 	
   public void writeMSCFile(File file) throws IOException, JDOMException {
@@ -612,8 +639,12 @@ public class MSCGUIModel extends GenericModel implements PropertyChangeListener
 		return scriptRunning;
 	}
 	private void setScriptRunning(Boolean scriptRunning) {
-		Boolean oldValue = this.scriptRunning;
-		this.scriptRunning = scriptRunning;
+		Boolean oldValue;
+		synchronized (stateLock) {
+			oldValue = this.scriptRunning;
+			this.scriptRunning = scriptRunning;
+			stateLock.notifyAll();
+		}
 		propertyChangeListeners.firePropertyChange(MosfireParameters.MOSFIRE_PROPERTY_SCRIPT_RUNNING, oldValue, scriptRunning);
 	}
  
@@ -655,6 +686,11 @@ public class MSCGUIModel extends GenericModel implements PropertyChangeListener
 		return lastMaskSetupIsAlign;
 	}
 
+	//. estimated time for bars to move in last mask setup, in seconds
+	public double getLastMaskSetupEstimatedTimeSec() {
+		return lastMaskSetupEstimatedTimeSec;
+	}
+
 	public void setMascgenArgumentException(MascgenArgumentException ex) {
 		propertyChangeListeners.firePropertyChange("mascgenArgumentException", null, ex);
 	}
@@ -692,10 +728,56 @@ public class MSCGUIModel extends GenericModel implements PropertyChangeListener
 		return csuReady;
 	}
 	public void setCsuReady(int csuReady) {
-		int oldValue = this.csuReady;
-		this.csuReady = csuReady;
+		int oldValue;
+		synchronized (stateLock) {
+			oldValue = this.csuReady;
+			this.csuReady = csuReady;
+			stateLock.notifyAll();
+		}
 		propertyChangeListeners.firePropertyChange("csuReady", new Integer(oldValue), new Integer (csuReady));
 	}
+	/**
+	 * Wait for CSU to reach readiness state, as set from the CSUMoveReadiness keyword.
+	 * Returns as soon as the state changes, without polling.
+	 *
+	 * @param  state      CSU readiness state, one of MSCGUIParameters.CSU_READINESS_STATES
+	 * @param  timeoutMs  longest time to wait, in milliseconds
+	 * @return            true if CSU is in state, false if timed out
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean waitForCsuReady(int state, long timeoutMs) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMs;
+		synchronized (stateLock) {
+			while (csuReady != state) {
+				long waitMs = deadline - System.currentTimeMillis();
+				if (waitMs <= 0) {
+					return false;
+				}
+				stateLock.wait(waitMs);
+			}
+		}
+		return true;
+	}
+	/**
+	 * Wait for running script to exit.  Returns as soon as its exit code is received.
+	 *
+	 * @param  timeoutMs  longest time to wait, in milliseconds
+	 * @return            true if no script is running, false if timed out
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean waitForScriptFinished(long timeoutMs) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMs;
+		synchronized (stateLock) {
+			while (scriptRunning) {
+				long waitMs = deadline - System.currentTimeMillis();
+				if (waitMs <= 0) {
+					return false;
+				}
+				stateLock.wait(waitMs);
+			}
+		}
+		return true;
+	}
 	public String getCsuStatus() {
 		return csuStatus;
 	}
@@ -29,6 +29,9 @@ public class MSCGUIParameters {
 	public static File MOSFIRE_PROPERTIES_FILENAME = new File("/home/mosdev/kroot/kss/mosfire/gui/data/mscguiProperties.xml");
 	public static File MOSFIRE_PARAMETERS_FILE = new File("");
 	public static File LOG4J_CONFIG_FILENAME = new File("/home/mosdev/kroot/kss/mosfire/gui/data/mscgui.log4j");
+	//. directory for parsed copies of startup XML files, read instead of the files
+	//. while they are unchanged.  empty to always parse the files.
+	public static File XML_CACHE_DIRECTORY = new File("");
 
 	public static String MSCGUI_HELPSET_NAME = "mscguiHelp";
 
@@ -122,6 +125,8 @@ public class MSCGUIParameters {
 	public static int     DEFAULT_ANSWER_UNUSED_SLITS = JOptionPane.YES_OPTION;  
 
 	public static boolean SCRIPT_EXECUTE_SHOW_DIALOG = false;
+	//. write CSU FITS extension as binary tables instead of ASCII tables
+	public static boolean CSU_FITS_EXTENSION_BINARY = false;
 	public static File SCRIPT_EXECUTE_MASK = new java.io.File("/home/mosdev/kroot/kss/mosfire/scripts/control/mosfireExecuteMask");
 	public static File SCRIPT_CALIBRATE_MASKS = new java.io.File("/home/mosdev/kroot/kss/mosfire/scripts/control/mosfireTakeMaskCalibrationData");
 
@@ -134,6 +139,8 @@ public class MSCGUIParameters {
 		                                             "3: Moving", 
 																				         "4: Configuring"};
 	public static int CSU_READINESS_STATE_READY_TO_MOVE = 2;
+	public static int CSU_READINESS_STATE_MOVING = 3;
+	public static int CSU_READINESS_STATE_CONFIGURING = 4;
 	//. must be Integers instead of ints so we can use Arrays.asList().contains()
 	public static Integer[] CSU_READINESS_STATES_OK_TO_SEND_TARGETS = {1,2};
 
@@ -146,6 +153,9 @@ public class MSCGUIParameters {
 	public static String SERVER_NAME = "mosfire";
 	public static boolean ONLINE_MODE = false;
   public static int PAUSE_MS_BETWEEN_INDIVIDUAL_SERVER_STATUS_POLLS = 1000;
+  //. mask setup scripts only send targets, so should take fractions of a second
+  public static long MASK_SETUP_SCRIPT_TIMEOUT_MS = 5000;
+  public static long CSU_READY_TIMEOUT_MS = 60000;
 
 
 	//. //. //. //. //. //. KEYWORD NAMES //. //. //. //. //.
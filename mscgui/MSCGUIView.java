@@ -68,6 +68,7 @@ import edu.ucla.astro.irlab.util.FileUtilities;
 import edu.ucla.astro.irlab.util.InvalidValueException;
 import edu.ucla.astro.irlab.util.NoSuchPropertyException;
 import edu.ucla.astro.irlab.util.NumberFormatters;
+import edu.ucla.astro.irlab.util.ServerMonitor;
 import edu.ucla.astro.irlab.util.ServerStatusPanel;
 import edu.ucla.astro.irlab.util.gui.CellEditorsAndRenderers;
 import edu.ucla.astro.irlab.util.gui.OptionCheckBox;
@@ -370,6 +371,13 @@ public class MSCGUIView extends JFrame implements ChangeListener {
 		myController = new MSCGUIController(myModel);
 		updateView();
 	}
+	public void setServerMonitor(ServerMonitor monitor) {
+		if (MSCGUIParameters.ONLINE_MODE) {
+			mosfireStatusPanel.setServerMonitor(monitor);
+			mdsStatusPanel.setServerMonitor(monitor);
+			mcsusStatusPanel.setServerMonitor(monitor);
+		}
+	}
 
 	//Component initialization
 	private void jbInit() throws Exception  {
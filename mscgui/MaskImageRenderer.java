@@ -0,0 +1,1175 @@
+package edu.ucla.astro.irlab.mosfire.mscgui;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import edu.ucla.astro.irlab.mosfire.util.AstroObj;
+import edu.ucla.astro.irlab.mosfire.util.MascgenArguments;
+import edu.ucla.astro.irlab.mosfire.util.MechanicalSlit;
+import edu.ucla.astro.irlab.mosfire.util.MosfireParameters;
+import edu.ucla.astro.irlab.mosfire.util.ScienceSlit;
+import edu.ucla.astro.irlab.mosfire.util.SlitConfiguration;
+import edu.ucla.astro.irlab.util.ColorUtilities;
+import edu.ucla.astro.irlab.util.InvalidValueException;
+import static edu.ucla.astro.irlab.mosfire.util.MosfireParameters.*;
+
+/**
+ * Draws the slit mask and spectral format views of a <code>SlitConfiguration</code>, and
+ * renders them to images for saving.
+ *
+ * All state needed for drawing (the configuration, targets, display options, filter and
+ * view sizes) is held by the renderer, so drawing does not depend on any Swing component.
+ * <code>MaskVisualizationPanel</code> draws its views on screen with one, and images are
+ * rendered at <code>IMAGE_SIZE</code> on a copy, so rendering an image does not change the
+ * state of the renderer it was called on.
+ *
+ * The mask view can be zoomed and panned.  Only targets within the view are drawn, and when
+ * more than <code>DENSITY_TARGET_LIMIT</code> of all targets are in view, they are drawn as
+ * cells of target density instead of individually, so large target lists stay fast to draw.
+ *
+ * A renderer is not thread-safe.  To render images on another thread, or for several masks
+ * in parallel, give each thread its own renderer, or a <code>snapshot</code> of one, which
+ * does not share the configuration with the original.
+ *
+ * @see MaskVisualizationPanel
+ */
+public class MaskImageRenderer implements Cloneable {
+	//. width and height of rendered images, in pixels
+	public static final double IMAGE_SIZE = 2000;
+	public static final String DEFAULT_FILTER = "K";
+	public static final double MAX_MASK_ZOOM = 32;
+	//. when more targets than this would be drawn in the mask view, all targets are drawn as density cells
+	public static final int DENSITY_TARGET_LIMIT = 1000;
+	//. size of density cells, in pixels
+	private static final int DENSITY_CELL_SIZE = 4;
+	//. opacity of density cell with one target.  cell with most targets is opaque.
+	private static final double DENSITY_MIN_ALPHA = 0.35;
+
+	private SlitConfiguration config = new SlitConfiguration();
+	private ArrayList<AstroObj> allObjects = new ArrayList<AstroObj>();
+	private int activeRow = -1;
+	private String maskName;
+	private String pa;
+	private double xLimit;
+	private double xCenter;
+	private boolean showTargets = true;
+	private boolean scaleTargetColorWithPriority = true;
+	private boolean scaleTargetSizeWithPriority = true;
+	private boolean showAllTargets = false;
+	private boolean showColorScale = true;
+	private int targetSizePercentageOfRow = MSCGUIParameters.DEFAULT_TARGET_SIZE_PERCENTAGE_OF_ROW;
+	private int colorScaleMode = MSCGUIParameters.DEFAULT_COLOR_SCALE_MODE;
+	private Color targetColor = MSCGUIParameters.DEFAULT_COLOR_TARGET;
+
+	//. mask view zoom, and fraction of full mask width and height at center of view
+	private double maskZoom = 1;
+	private double maskViewCenterX = 0.5;
+	private double maskViewCenterY = 0.5;
+
+	//. mask view geometry.  all but guiSize are scaled by zoom, and centers are panned.
+	private double guiSize;
+	private double guiCSUHeight;
+	private double guiCenterX;
+	private double guiCenterY;
+	private double guiFocalPlane;
+	private double guiXLimit;
+	private double guiXCenter;
+	private double guiRatio;
+	private double guiSlitHeight;
+	private double guiOverlap;
+
+	//. spectra view geometry
+	private double guiSpecSize;
+	private double guiSpecLength;
+	private double guiRatioPix;
+	private double guiDetectorSize;
+	private double guiSpecCenterX;
+	private double guiSpecCenterY;
+	private double guiSlitHeightPix;
+	private double guiOverlapPix;
+
+	private String filter;
+	private double[] markerWavelength = new double[0];
+	private double[] markedWaveFraction = new double[0];
+	private String markedWavelengthString = "";
+	// local variables to save the minimum and maximum expected wavelegths
+	//given the filter choice
+	private double minLam;
+	private double maxLam;
+	private double shift;
+	private double minBand;
+	private double maxBand;
+	// The length of a spectrum in pixels
+	private double specLength;
+	private DecimalFormat wholeNumberFormatter = new DecimalFormat("0");
+
+	/**
+	 * Constructor for renderer of an empty configuration, with the default filter.
+	 */
+	public MaskImageRenderer() {
+		try {
+			setFilter(DEFAULT_FILTER);
+		} catch (InvalidValueException ex) {
+			//. default filter is always valid
+			throw new IllegalStateException(ex.getMessage());
+		}
+	}
+
+	/**
+	 * Copy renderer.  The copy shares the configuration and targets, but has its own
+	 * display state, view sizes and formatters.
+	 *
+	 * @return new MaskImageRenderer with same state as this one
+	 */
+	public MaskImageRenderer copy() {
+		try {
+			MaskImageRenderer copy = (MaskImageRenderer)super.clone();
+			copy.allObjects = new ArrayList<AstroObj>(allObjects);
+			copy.markerWavelength = markerWavelength.clone();
+			copy.markedWaveFraction = markedWaveFraction.clone();
+			copy.wholeNumberFormatter = (DecimalFormat)wholeNumberFormatter.clone();
+			return copy;
+		} catch (CloneNotSupportedException ex) {
+			throw new IllegalStateException(ex.getMessage());
+		}
+	}
+
+	/**
+	 * Copy renderer with its own copy of the configuration, so that it can be used on another
+	 * thread while the configuration is modified.
+	 *
+	 * @return new MaskImageRenderer with same state as this one
+	 */
+	public MaskImageRenderer snapshot() {
+		MaskImageRenderer copy = copy();
+		copy.config = config.clone();
+		return copy;
+	}
+
+	/**
+	 * Set configuration to draw.  The mask name, position angle and legal slit range are
+	 * taken from the configuration.
+	 *
+	 * @param config  SlitConfiguration to draw
+	 */
+	public void setConfiguration(SlitConfiguration config) {
+		this.config = config;
+		MascgenArguments data = config.getMascgenArgs();
+		maskName = data.getMaskName();
+
+		xLimit = data.getxRange()*60/CSU_ARCSEC_PER_MM;
+		xCenter = data.getxCenter()*60/CSU_ARCSEC_PER_MM;
+
+		// Some formatters
+		java.text.DecimalFormat secondPlace =
+			new java.text.DecimalFormat("0.00");
+
+		pa = secondPlace.format(config.getMascgenResult().getPositionAngle());
+
+		//. legal range depends on configuration
+		if (guiSize > 0) {
+			setMaskSize(guiSize);
+		}
+	}
+	public SlitConfiguration getConfiguration() {
+		return config;
+	}
+	/**
+	 * Set targets drawn when showing all targets.  Target coordinates must already be
+	 * transformed to the configuration.
+	 *
+	 * @param objects  Collection of AstroObj targets
+	 */
+	public void setAllObjects(Collection<AstroObj> objects) {
+		allObjects = new ArrayList<AstroObj>(objects);
+	}
+	public List<AstroObj> getAllObjects() {
+		return allObjects;
+	}
+	public void setActiveRow(int activeRow) {
+		this.activeRow = activeRow;
+	}
+	public int getActiveRow() {
+		return activeRow;
+	}
+	public void setShowTargets(boolean showTargets) {
+		this.showTargets = showTargets;
+	}
+	public boolean doesShowTargets() {
+		return showTargets;
+	}
+	public void setShowAllTargets(boolean showAllTargets) {
+		this.showAllTargets = showAllTargets;
+	}
+	public boolean doesShowAllTargets() {
+		return showAllTargets;
+	}
+	public void setScaleTargetColorWithPriority(boolean scaleTargetColorWithPriority) {
+		this.scaleTargetColorWithPriority = scaleTargetColorWithPriority;
+	}
+	public boolean doesScaleTargetColorWithPriority() {
+		return scaleTargetColorWithPriority;
+	}
+	public void setScaleTargetSizeWithPriority(boolean scaleTargetSizeWithPriority) {
+		this.scaleTargetSizeWithPriority = scaleTargetSizeWithPriority;
+	}
+	public boolean doesScaleTargetSizeWithPriority() {
+		return scaleTargetSizeWithPriority;
+	}
+	public void setShowColorScale(boolean showColorScale) {
+		this.showColorScale = showColorScale;
+	}
+	public boolean doesShowColorScale() {
+		return showColorScale;
+	}
+	public void setTargetSizePercentageOfRow(int targetSizePercentageOfRow) {
+		this.targetSizePercentageOfRow = targetSizePercentageOfRow;
+	}
+	public int getTargetSizePercentageOfRow() {
+		return targetSizePercentageOfRow;
+	}
+	public void setColorScaleMode(int colorScaleMode) {
+		this.colorScaleMode = colorScaleMode;
+	}
+	public int getColorScaleMode() {
+		return colorScaleMode;
+	}
+	public void setTargetColor(Color targetColor) {
+		this.targetColor = targetColor;
+	}
+	public Color getTargetColor() {
+		return targetColor;
+	}
+
+	/**
+	 * Set size of mask view, which is square.  At zoom 1, the view shows the whole mask.
+	 *
+	 * @param size  width and height of view in pixels
+	 */
+	public void setMaskSize(double size) {
+		this.guiSize = size;
+		double zoomedSize = guiSize * maskZoom;
+		// make variables scaled into GUI coordinates where the scaling is done such that
+		// the focal place circle is just enclosed by the GUI window
+		this.guiRatio = CSU_FP_RADIUS_MM*2 / zoomedSize;
+		this.guiCSUHeight = CSU_HEIGHT_MM / guiRatio;
+		this.guiSlitHeight = SINGLE_SLIT_HEIGHT_MM/ guiRatio;
+		this.guiOverlap = OVERLAP_MM / guiRatio;
+		this.guiFocalPlane = CSU_FP_RADIUS_MM*2 / guiRatio;
+		this.guiCenterX = guiSize / 2 + (0.5 - maskViewCenterX) * zoomedSize;
+		this.guiCenterY = guiSize / 2 + (0.5 - maskViewCenterY) * zoomedSize;
+		//  this.guiBarLength = BAR_LENGTH / guiRatio;
+		this.guiXLimit = xLimit / guiRatio;
+		this.guiXCenter = xCenter / guiRatio;
+	}
+
+	public double getMaskSize() {
+		return guiSize;
+	}
+	/**
+	 * Set zoom and pan of mask view.  The view is kept within the mask.
+	 *
+	 * @param zoom         magnification, from 1 (whole mask) to <code>MAX_MASK_ZOOM</code>
+	 * @param viewCenterX  fraction of mask width at center of view, 0 at left edge
+	 * @param viewCenterY  fraction of mask height at center of view, 0 at top edge
+	 */
+	public void setMaskZoom(double zoom, double viewCenterX, double viewCenterY) {
+		maskZoom = Math.max(1, Math.min(MAX_MASK_ZOOM, zoom));
+		double halfView = 0.5 / maskZoom;
+		maskViewCenterX = Math.max(halfView, Math.min(1 - halfView, viewCenterX));
+		maskViewCenterY = Math.max(halfView, Math.min(1 - halfView, viewCenterY));
+		if (guiSize > 0) {
+			setMaskSize(guiSize);
+		}
+	}
+	public double getMaskZoom() {
+		return maskZoom;
+	}
+	/**
+	 * Show whole mask.
+	 */
+	public void resetMaskZoom() {
+		setMaskZoom(1, 0.5, 0.5);
+	}
+	/**
+	 * Change zoom of mask view, keeping the point under a pixel fixed.
+	 *
+	 * @param factor  factor to multiply zoom by
+	 * @param x       x coordinate of fixed pixel in view
+	 * @param y       y coordinate of fixed pixel in view
+	 */
+	public void zoomMask(double factor, double x, double y) {
+		if (guiSize <= 0) {
+			return;
+		}
+		double newZoom = Math.max(1, Math.min(MAX_MASK_ZOOM, maskZoom * factor));
+		//. fraction of mask under pixel, before and after
+		double fractionX = maskViewCenterX + (x - guiSize/2) / (guiSize * maskZoom);
+		double fractionY = maskViewCenterY + (y - guiSize/2) / (guiSize * maskZoom);
+		setMaskZoom(newZoom, fractionX - (x - guiSize/2) / (guiSize * newZoom), fractionY - (y - guiSize/2) / (guiSize * newZoom));
+	}
+	/**
+	 * Pan mask view.  The view stops at the edges of the mask, so it may move less than asked.
+	 *
+	 * @param dx  pixels to move mask right
+	 * @param dy  pixels to move mask down
+	 * @return    Point2D of pixels mask moved right and down
+	 */
+	public Point2D panMask(double dx, double dy) {
+		if (guiSize <= 0) {
+			return new Point2D.Double(0, 0);
+		}
+		double oldCenterX = guiCenterX;
+		double oldCenterY = guiCenterY;
+		setMaskZoom(maskZoom, maskViewCenterX - dx / (guiSize * maskZoom), maskViewCenterY - dy / (guiSize * maskZoom));
+		return new Point2D.Double(guiCenterX - oldCenterX, guiCenterY - oldCenterY);
+	}
+	/**
+	 * Get bounds of row in mask view, including the overlap regions on either side.
+	 *
+	 * @param  row  0-based row number
+	 * @return      Rectangle2D bounds of row
+	 */
+	public Rectangle2D getMaskRowBounds(int row) {
+		double top = guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap);
+		return new Rectangle2D.Double(0, top, guiSize, guiSlitHeight + 2*guiOverlap);
+	}
+	/**
+	 * Get CSU x position of horizontal pixel in mask view.
+	 *
+	 * @param  horizontalPixel  x coordinate in view
+	 * @return                  CSU x position in arcsec, positive to the left
+	 */
+	public double getMaskCSUX(int horizontalPixel) {
+		return (guiCenterX - horizontalPixel) * guiRatio * CSU_ARCSEC_PER_MM;
+	}
+
+	public void drawMaskView(Graphics2D g2, Color backgroundColor, Color csuEdgeColor,
+			Color barColor, Color legalColor, Color focalCircleColor, Font font){
+		drawMaskBackground(g2, backgroundColor, csuEdgeColor, barColor, legalColor, focalCircleColor, font);
+		drawMaskSlits(g2);
+		drawActiveRow(g2);
+		drawMaskTargets(g2, null, null);
+	}
+
+	public void drawMaskBackground(Graphics2D g2, Color backgroundColor, Color csuEdgeColor,
+			Color barColor, Color legalColor, Color focalCircleColor, Font font){
+		
+		// make the background Black
+		Rectangle2D fullGUI = new Rectangle2D.Double(0,0,guiSize,guiSize);
+		g2.setPaint(backgroundColor);
+		g2.draw(fullGUI);
+		g2.fill(fullGUI);
+		g2.setFont(font);
+
+
+		g2.setColor(barColor);
+
+		//Draw a large white rectangle to represent the outside of the CSU
+
+		// positionArray is feed the width, height, centerX, and centerY coordinates
+		// and returns the lower left hand corner x and y, and the width and height
+		// the values needed to generate a Graphics2D shape
+		double[] loc = positionArray(guiCSUHeight, guiCSUHeight, guiCenterX, guiCenterY);
+		Rectangle2D csuBorder = new Rectangle2D.Double(loc[0],loc[1],loc[2],loc[3]);
+		//g2.draw(csuBorder);
+		g2.fill(csuBorder);
+
+		//g2.setPaint(Color.black);
+		g2.setColor(csuEdgeColor);
+		g2.draw(csuBorder);
+
+
+		//Draw a gray circle representing the Keck Focal Plane
+		//g2.setPaint(Color.LIGHT_GRAY);
+		g2.setColor(focalCircleColor);
+
+		loc = positionArray(guiFocalPlane, guiFocalPlane, guiCenterX, guiCenterY);
+		Ellipse2D focalPlane = new Ellipse2D.Double(loc[0],loc[1],loc[2],loc[3]);
+		g2.draw(focalPlane);
+
+		// draw in a rectangle that is the bounding box for the legal range
+		//g2.setPaint(Color.RED);
+		g2.setColor(legalColor);
+		double ulx = guiCenterX - guiXCenter - guiXLimit/2.;
+		double uly = guiCenterY - guiCSUHeight/2.0;
+		double urx = guiCenterX - guiXCenter + guiXLimit/2.0;
+		double minX = guiCenterX - guiCSUHeight/2.0;
+		double maxX = guiCenterX + guiCSUHeight/2.0;
+		if (ulx < minX) {
+			ulx = minX;
+		}
+		if (urx > maxX) {
+			urx = maxX;
+		}
+//			loc = positionArray(guiXLimit, guiCSUHeight, guiCenterX-guiXCenter, guiCenterY);
+//			Rectangle2D legalBorder = new Rectangle2D.Double(loc[0],loc[1],loc[2],loc[3]);
+		Rectangle2D legalBorder = new Rectangle2D.Double(ulx, uly, (urx-ulx), guiCSUHeight);
+		g2.draw(legalBorder);
+
+		//. set stroke to 1 pixel wide
+		g2.setStroke( new BasicStroke( 1.0f ) );
+	}
+
+	private GeneralPath getSlitPath(MechanicalSlit pos) {
+		//. draw coordinate system goes positive left to right, but our coordinate 
+		//. system goes positive to the left.  so these values must be subtracted from guiCenterX
+		double leftBarLocationFromCenter = pos.getLeftBarPositionInMM() - MosfireParameters.CSU_ZERO_PT;
+		double rightBarLocationFromCenter = pos.getRightBarPositionInMM() - MosfireParameters.CSU_ZERO_PT;
+		int row = pos.getSlitNumber() - 1;
+
+		// determine the x and y coordinates of the box, in this order: lowerLeft, upperLeft, upperRight, lowerRight						
+		float[] x = {(float) (guiCenterX-leftBarLocationFromCenter/guiRatio-guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS)),
+								 (float) (guiCenterX-leftBarLocationFromCenter/guiRatio+guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS)),
+								 (float) (guiCenterX-rightBarLocationFromCenter/guiRatio+guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS)),
+								 (float) (guiCenterX-rightBarLocationFromCenter/guiRatio-guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS))};
+
+		float[] y = {(float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap/2),
+								 (float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiSlitHeight+guiOverlap),
+								 (float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiSlitHeight+guiOverlap),
+								 (float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap/2)};
+
+		GeneralPath slit = new GeneralPath(GeneralPath.WIND_EVEN_ODD, 4);
+		slit.moveTo(x[0], y[0]);
+		for (int index = 1; index < x.length; index++) {
+			slit.lineTo(x[index], y[index]);
+		}
+		slit.closePath();
+		return slit;
+	}
+
+	public void drawMaskSlits(Graphics2D g2) {
+		double leftBarLocationFromCenter;
+		double rightBarLocationFromCenter;
+		int row;
+		//Draw the alignment boxes first, if alignment stars are available
+		for (MechanicalSlit pos : config.getAlignSlitList()) {
+			//. alignment boxes are distinguished from regular slits because they have
+			//. a different width than the science slit on the same row
+			leftBarLocationFromCenter = pos.getLeftBarPositionInMM() - MosfireParameters.CSU_ZERO_PT;
+			row = pos.getSlitNumber() - 1;
+
+			g2.setColor(Color.ORANGE);
+			g2.fill(getSlitPath(pos));
+
+			// And add the target names
+			float xFloat = (float)(guiCenterX-leftBarLocationFromCenter/guiRatio);
+			float yFloat = (float)(guiCenterY+(row+0.9-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap));
+
+			// Write out the target names
+			g2.setColor(Color.BLACK);
+			g2.drawString(pos.getTargetName(), xFloat, yFloat);
+		}
+
+		// Now draw science slits
+		for (MechanicalSlit pos : config.getMechanicalSlitList()) {
+			rightBarLocationFromCenter = pos.getRightBarPositionInMM() - MosfireParameters.CSU_ZERO_PT;
+			row = pos.getSlitNumber() - 1;
+
+			//. draw slits
+			if (pos.getTarget().isInValidSlit()) {
+				g2.setColor(Color.BLACK);
+			} else {
+				g2.setColor(Color.RED);
+			}
+			g2.fill(getSlitPath(pos));
+
+			// And add the target names
+			float xFloat = (float)(guiCenterX-rightBarLocationFromCenter/guiRatio+ guiSize/40); 
+			float yFloat = (float)(guiCenterY+(row+0.9-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap));
+
+			// Write out the target names
+			g2.drawString(pos.getTargetName(), xFloat, yFloat);
+		}
+
+		g2.setColor(Color.BLACK);
+		for (int ii=0; ii<MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS; ii++) {
+			//Draw a line in the overlap region
+			Rectangle2D overlap = new Rectangle2D.Double(guiCenterX-guiCSUHeight/2,
+					guiCenterY+(ii-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap),
+					guiCSUHeight, guiOverlap);
+
+			g2.fill(overlap);
+		}
+	}
+
+	public void drawActiveRow(Graphics2D g2) {
+		if ((activeRow >= 0) && (activeRow < MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS)) {
+			g2.setColor(MosfireParameters.COLOR_SELECTED_SLIT);
+			Rectangle2D activeRowBox = new Rectangle2D.Double(guiCenterX - guiCSUHeight/2,
+					guiCenterY+(activeRow-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap, guiCSUHeight, guiSlitHeight);
+			g2.fill(activeRowBox);
+		}
+	}
+
+	/**
+	 * Draw targets shown and color scale in mask view.
+	 *
+	 * @param g2                  Graphics2D to draw on
+	 * @param targetShapes        List to add shapes of shown targets and alignment boxes to, in drawing order, or null.
+	 *                            targets drawn as density cells are included.
+	 * @param targetShapeObjects  List to add targets of shapes to, or null
+	 */
+	public void drawMaskTargets(Graphics2D g2, List<Shape> targetShapes, List<AstroObj> targetShapeObjects) {
+		if ((showTargets || showAllTargets) && (targetShapes != null)) {
+			//. alignment boxes are targets too, drawn with slits
+			for (MechanicalSlit pos : config.getAlignSlitList()) {
+				targetShapes.add(getSlitPath(pos));
+				targetShapeObjects.add(pos.getTarget());
+			}
+		}
+
+		double maxPriority=0;
+		if (showAllTargets) {
+			//. draw targets
+			Color objectColor = targetColor;
+			if (scaleTargetColorWithPriority) {
+				//. get max priority
+				for (AstroObj obj : allObjects) {
+					double currentPriority = obj.getObjPriority(); 
+					if  (currentPriority > maxPriority) {
+						maxPriority = currentPriority;
+					}
+				}
+			} else {
+				g2.setColor(objectColor);
+			}
+			//. only targets in view are drawn.  if there are too many to draw individually,
+			//. their density is drawn instead.
+			int[] visibleTargets = new int[allObjects.size()];
+			int visibleCount = 0;
+			for (int ii=0; ii<allObjects.size(); ii++) {
+				AstroObj obj = allObjects.get(ii);
+				double radius = Math.abs(getTargetDiameter(obj)) / 2.0;
+				double centerX = guiCenterX - obj.getObjX() / CSU_ARCSEC_PER_MM / guiRatio;
+				double centerY = guiCenterY - obj.getObjY() / CSU_ARCSEC_PER_MM / guiRatio;
+				if ((centerX + radius >= 0) && (centerX - radius <= guiSize) && (centerY + radius >= 0) && (centerY - radius <= guiSize)) {
+					visibleTargets[visibleCount++] = ii;
+				}
+			}
+			if (visibleCount > DENSITY_TARGET_LIMIT) {
+				drawTargetDensity(g2, visibleTargets, visibleCount, maxPriority);
+				//. targets are not drawn one by one, but their shapes are still listed for hit-testing
+				if (targetShapes != null) {
+					for (int jj=0; jj<visibleCount; jj++) {
+						AstroObj obj = allObjects.get(visibleTargets[jj]);
+						double centerX = guiCenterX - obj.getObjX() / CSU_ARCSEC_PER_MM / guiRatio;
+						double centerY = guiCenterY - obj.getObjY() / CSU_ARCSEC_PER_MM / guiRatio;
+						double diam = getTargetDiameter(obj);
+						targetShapes.add(new Ellipse2D.Double(centerX - diam/2.0, centerY - diam/2., diam, diam));
+						targetShapeObjects.add(obj);
+					}
+				}
+			} else {
+				for (int jj=0; jj<visibleCount; jj++) {
+					AstroObj obj = allObjects.get(visibleTargets[jj]);
+					double centerX = guiCenterX - obj.getObjX() / CSU_ARCSEC_PER_MM / guiRatio;
+					double centerY = guiCenterY - obj.getObjY() / CSU_ARCSEC_PER_MM / guiRatio;
+					double diam = getTargetDiameter(obj);
+					if (scaleTargetColorWithPriority) {
+						objectColor = ColorUtilities.getColorFromScale(colorScaleMode, (float)(obj.getObjPriority()/maxPriority), 1.0f);
+						g2.setColor(objectColor);
+					}
+					Ellipse2D.Double targetCircle = new Ellipse2D.Double(centerX - diam/2.0, centerY - diam/2., diam, diam);
+					g2.fill(targetCircle);
+					if (targetShapes != null) {
+						targetShapes.add(targetCircle);
+						targetShapeObjects.add(obj);
+					}
+				}
+			}				
+		} 
+		if (showTargets) {
+			//. draw targets
+			Color objectColor = targetColor;
+			if (scaleTargetColorWithPriority) {
+				//. get max priority
+				for (ScienceSlit slit : config.getScienceSlitList()) {
+					double currentPriority = slit.getTarget().getObjPriority(); 
+					if  (currentPriority > maxPriority) {
+						maxPriority = currentPriority;
+					}
+				}
+			} else {
+				g2.setColor(objectColor);
+			}
+			for (ScienceSlit slit : config.getScienceSlitList()) {
+				AstroObj obj = slit.getTarget();
+				double centerX = guiCenterX - obj.getObjX() / CSU_ARCSEC_PER_MM / guiRatio;
+				double centerY = guiCenterY - obj.getObjY() / CSU_ARCSEC_PER_MM / guiRatio;
+				double diam = getTargetDiameter(obj);
+				if (scaleTargetColorWithPriority) {
+					objectColor = ColorUtilities.getColorFromScale(colorScaleMode, (float)(obj.getObjPriority()/maxPriority), 1.0f);
+					g2.setColor(objectColor);
+				}
+				Ellipse2D.Double targetCircle = new Ellipse2D.Double(centerX - diam/2.0, centerY - diam/2., diam, diam);
+				g2.fill(targetCircle);
+				if (targetShapes != null) {
+					targetShapes.add(targetCircle);
+					targetShapeObjects.add(obj);
+				}
+			}
+		}
+		if (showTargets || showAllTargets) {
+			if (showColorScale && scaleTargetColorWithPriority) {
+				g2.setStroke(new BasicStroke(1));
+				double scaleBottomY = guiSize;
+				double scaleTopY = guiSize - (guiSize - guiCSUHeight/maskZoom)/6.0;
+				for (int ii=0; ii<(int)Math.round(guiSize); ii++) {
+					Color scaleColor = ColorUtilities.getColorFromScale(colorScaleMode, (float)(ii/guiSize), 1.0f);
+					g2.setColor(scaleColor);
+					Line2D.Double line = new Line2D.Double(ii, scaleBottomY, ii, scaleTopY);
+					g2.draw(line);
+				}
+				g2.setColor(Color.black);
+				g2.drawString("0", 5.0f, (float)(scaleTopY - 10));
+				String maxPriorityString = Double.toString(maxPriority); 
+				double width = g2.getFontMetrics().getStringBounds(maxPriorityString, g2).getWidth();
+				g2.drawString(maxPriorityString, (float)(guiSize - width), (float)(scaleTopY - 10));
+			}
+		}
+	}
+
+	private double getTargetDiameter(AstroObj obj) {
+		double diam = guiSlitHeight * targetSizePercentageOfRow / 100.0;
+		if (scaleTargetSizeWithPriority) {
+			diam *= Math.log10(obj.getObjPriority()); // config.getMascgenResult().getTotalPriority();
+		}
+		return diam;
+	}
+
+	private void drawTargetDensity(Graphics2D g2, int[] targets, int count, double maxPriority) {
+		//. bin target centers into square cells covering the view
+		int cellsPerSide = (int)Math.ceil(guiSize / DENSITY_CELL_SIZE);
+		int[] cellCounts = new int[cellsPerSide * cellsPerSide];
+		double[] cellMaxPriorities = new double[cellsPerSide * cellsPerSide];
+		int maxCount = 0;
+		for (int jj=0; jj<count; jj++) {
+			AstroObj obj = allObjects.get(targets[jj]);
+			double centerX = guiCenterX - obj.getObjX() / CSU_ARCSEC_PER_MM / guiRatio;
+			double centerY = guiCenterY - obj.getObjY() / CSU_ARCSEC_PER_MM / guiRatio;
+			int column = Math.max(0, Math.min(cellsPerSide - 1, (int)Math.floor(centerX / DENSITY_CELL_SIZE)));
+			int row = Math.max(0, Math.min(cellsPerSide - 1, (int)Math.floor(centerY / DENSITY_CELL_SIZE)));
+			int cell = row * cellsPerSide + column;
+			cellCounts[cell]++;
+			cellMaxPriorities[cell] = Math.max(cellMaxPriorities[cell], obj.getObjPriority());
+			maxCount = Math.max(maxCount, cellCounts[cell]);
+		}
+
+		//. cells are colored like the highest priority target in them, more opaque with more targets.
+		//. they are drawn as pixels of an image, scaled up to the cell size.
+		double logMaxCount = Math.log(1 + maxCount);
+		int[] cellPixels = new int[cellCounts.length];
+		for (int cell=0; cell<cellCounts.length; cell++) {
+			if (cellCounts[cell] == 0) {
+				continue;
+			}
+			Color cellColor = targetColor;
+			if (scaleTargetColorWithPriority) {
+				cellColor = ColorUtilities.getColorFromScale(colorScaleMode, (float)(cellMaxPriorities[cell]/maxPriority), 1.0f);
+			}
+			double alpha = DENSITY_MIN_ALPHA + (1 - DENSITY_MIN_ALPHA) * Math.log(1 + cellCounts[cell]) / logMaxCount;
+			cellPixels[cell] = ((int)Math.round(255 * Math.min(1, alpha)) << 24) | (cellColor.getRGB() & 0xffffff);
+		}
+		BufferedImage densityImage = new BufferedImage(cellsPerSide, cellsPerSide, BufferedImage.TYPE_INT_ARGB);
+		densityImage.setRGB(0, 0, cellsPerSide, cellsPerSide, cellPixels, 0, cellsPerSide);
+		Object interpolation = g2.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+		g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+		g2.drawImage(densityImage, 0, 0, cellsPerSide * DENSITY_CELL_SIZE, cellsPerSide * DENSITY_CELL_SIZE, null);
+		if (interpolation != null) {
+			g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+		}
+	}
+
+	public int getMaskRow(int verticalPixel) {
+		//. guiCenterY+(ii-CSU_NUM_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap
+		//. 0-based
+		double topBorder = guiCenterY - (CSU_NUMBER_OF_BAR_PAIRS/2 * (guiSlitHeight+guiOverlap));
+		double bottomBorder = guiCenterY + (CSU_NUMBER_OF_BAR_PAIRS/2 * (guiSlitHeight+guiOverlap));
+		if (verticalPixel < topBorder) {
+			return -1;
+		}
+		if (verticalPixel > bottomBorder) {
+			return -1;
+		}
+		return (int)Math.floor((verticalPixel-topBorder)/((guiSlitHeight+guiOverlap)));
+	}
+
+	/**
+	 * Render mask view of whole mask to an image of size <code>IMAGE_SIZE</code>, for printing.
+	 * The active row is not shown.  This renderer is not modified.
+	 *
+	 * @return BufferedImage of mask view
+	 */
+	public BufferedImage renderMaskImage() {
+		MaskImageRenderer imageRenderer = copy();
+		imageRenderer.resetMaskZoom();
+		imageRenderer.setMaskSize(IMAGE_SIZE);
+		imageRenderer.activeRow = -1;
+		return imageRenderer.drawMaskImage();
+	}
+	private BufferedImage drawMaskImage() {
+		int width = (int) Math.floor(guiSize); 
+		int height = (int) Math.floor(guiSize); 
+		// Create a buffered image in which to draw 
+		BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB); 
+		// Create a graphics contents on the buffered image 
+		Graphics2D g2d = bufferedImage.createGraphics(); 
+		// Draw graphics
+
+		// make lines not pixelized
+		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+
+		Color backgroundColor = Color.white;
+		Color csuEdgeColor = Color.black;
+		Color barColor = Color.lightGray;//.brighter();
+		Color legalColor = Color.red;
+		Color focalCircleColor = Color.blue;
+
+		Font font = new Font("Serif", Font.BOLD, 30);
+		
+		drawMaskView(g2d, backgroundColor, csuEdgeColor, barColor, legalColor, focalCircleColor, font);
+
+		g2d.setColor(Color.BLACK);
+
+		font = new Font("Serif", Font.BOLD, 50);
+		g2d.setFont(font);
+		String label = maskName+"    PA = "+pa;
+
+		FontMetrics fm = g2d.getFontMetrics(font);
+		Rectangle2D labelExtents = fm.getStringBounds(label, g2d);
+		
+		double labelY = (guiSize - guiCSUHeight)/2. - 20;
+
+		g2d.drawString(label, (float)(guiSize - labelExtents.getWidth())/2, (float)labelY);
+		g2d.dispose();
+
+		return bufferedImage;
+	}
+	/**
+	 * Render mask view and save it as a PNG.
+	 *
+	 * @param  file        File to write
+	 * @throws IOException on error writing file
+	 */
+	public void writeMaskImage(File file) throws IOException {
+		ImageIO.write(renderMaskImage(), "png", file); 
+	}
+
+	/**
+	 * Set size of spectra view, which is square.
+	 *
+	 * @param size  width and height of view in pixels
+	 */
+	public void setSpectraSize(double size) {
+		this.guiSpecSize = size;
+
+		// make variables scaled into GUI coordinates where the scaling is done such that
+		// the focal place circle is just enclosed by the GUI window
+		this.guiSpecCenterX = guiSpecSize / 2;
+
+		// a second scale used for the Spectral view format
+		this.guiRatioPix = DETECTOR_USABLE_PIXELS * 15/12 / guiSpecSize;
+		this.guiDetectorSize = DETECTOR_USABLE_PIXELS / guiRatioPix;
+
+
+		this.guiSpecCenterY = guiSpecSize / 2; // - guiSpecSize/25;
+
+		double slitPlusOverlap = DETECTOR_USABLE_PIXELS/CSU_NUMBER_OF_BAR_PAIRS / guiRatioPix;
+		double slitFraction = SINGLE_SLIT_HEIGHT_MM/(SINGLE_SLIT_HEIGHT_MM+OVERLAP_MM);
+		double overlapFraction = OVERLAP_MM/(SINGLE_SLIT_HEIGHT_MM+OVERLAP_MM);
+
+		this.guiSlitHeightPix = slitFraction * slitPlusOverlap;
+		this.guiOverlapPix = overlapFraction * slitPlusOverlap;
+
+		// store the length of the spectrum
+		this.guiSpecLength = specLength / guiRatioPix;
+
+
+
+	}
+
+	public double getSpectraSize() {
+		return guiSpecSize;
+	}
+	/**
+	 * Get bounds of row in spectra view.
+	 *
+	 * @param  row  0-based row number
+	 * @return      Rectangle2D bounds of row
+	 */
+	public Rectangle2D getSpectraRowBounds(int row) {
+		double top = guiSpecCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix);
+		return new Rectangle2D.Double(0, top, guiSpecSize, guiSlitHeightPix+guiOverlapPix);
+	}
+	public String getFilter() {
+		return filter;
+	}
+	public void setMarkedWavelengthString(String text) {
+		markedWavelengthString = text;
+	}
+	public String getMarkedWavelengthString() {
+		return markedWavelengthString;
+	}
+
+	/** Return the bar left position in arcsec. **/
+	public void setFilter(String filter) throws InvalidValueException {
+		this.filter = filter;
+		setMarkerWavelength(new double[0]);
+
+		// decide which wavelength and shift values should be used
+		// based off which filter is selected
+		if (this.filter.compareToIgnoreCase("K") == 0){
+			minLam = MIN_LAM_K;
+			maxLam = MAX_LAM_K;
+			shift = SHIFT_K;
+			minBand = MIN_BAND_WIDTH_K;
+			maxBand = MAX_BAND_WIDTH_K;
+			specLength = (maxBand - minBand)/DISPERSION_K_KS;
+		}
+		else if (this.filter.compareToIgnoreCase("Ks") == 0){
+			minLam = MIN_LAM_KS;
+			maxLam = MAX_LAM_KS;
+			shift = SHIFT_KS;
+			minBand = MIN_BAND_WIDTH_KS;
+			maxBand = MAX_BAND_WIDTH_KS;
+			specLength = (maxBand - minBand)/DISPERSION_K_KS;
+		}
+		else if (this.filter.compareToIgnoreCase("H") == 0){
+			minLam = MIN_LAM_H;
+			maxLam = MAX_LAM_H;
+			shift = SHIFT_H;
+			minBand = MIN_BAND_WIDTH_H;
+			maxBand = MAX_BAND_WIDTH_H;
+			specLength = (maxBand - minBand)/DISPERSION_H;
+		}
+		else if (this.filter.compareToIgnoreCase("J") == 0){
+			minLam = MIN_LAM_J;
+			maxLam = MAX_LAM_J;
+			shift = SHIFT_J;
+			minBand = MIN_BAND_WIDTH_J;
+			maxBand = MAX_BAND_WIDTH_J;
+			specLength = (maxBand - minBand)/DISPERSION_J;
+		}
+		else if (this.filter.compareToIgnoreCase("Y") == 0){
+			minLam = MIN_LAM_Y;
+			maxLam = MAX_LAM_Y;
+			shift = SHIFT_Y;
+			minBand = MIN_BAND_WIDTH_Y;
+			maxBand = MAX_BAND_WIDTH_Y;
+			specLength = (maxBand - minBand)/DISPERSION_Y;
+		} else {
+			throw new InvalidValueException("Invalid filter.  Must be K, Ks, H, J, or Y");
+		}
+	}
+
+	public void setMarkerWavelength(double[] wave) throws InvalidValueException{
+
+
+		for (int i=0; i < wave.length; i++){
+			if ((wave[i] < minBand) || (wave[i] > maxBand)) {
+				throw new InvalidValueException("Wavelength "+wave[i]+" is not within range of filter "+filter+" ("+minBand+" to "+maxBand+" \u212b).");
+			}
+		}
+
+		markerWavelength = wave;
+
+		//the xposition of the marker is the location of the left 
+		// edge of the spectrum (band), xPos, plus, the bandLength
+		// times the bandFraction of the marked wavelength
+		markedWaveFraction = new double[markerWavelength.length];
+
+		for (int ii=0; ii < markedWaveFraction.length; ii++){
+			markedWaveFraction[ii] = (this.markerWavelength[ii] - minBand)/(maxBand-minBand);
+		}
+
+
+
+	}
+
+	//produces the minimum x location of the bar from width of a spectrum
+	//and the fraction of the bandwidth that falls at the zero line of the detector
+	private double spectrumFractionMinX(double width, double bandFraction){
+		return guiSpecCenterX-width*bandFraction;
+
+	}
+
+	public int getSpectraRow(int verticalPixel) {
+		//. (guiSpecCenterY+(row-CSU_NUM_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix))
+		//. 0-based
+		double topBorder = guiSpecCenterY - (CSU_NUMBER_OF_BAR_PAIRS/2 * (guiSlitHeightPix+guiOverlapPix));
+		double bottomBorder = guiSpecCenterY + (CSU_NUMBER_OF_BAR_PAIRS/2 * (guiSlitHeightPix+guiOverlapPix));
+		if (verticalPixel < topBorder) {
+			return -1;
+		}
+		if (verticalPixel > bottomBorder) {
+			return -1;
+		}
+		return (int)Math.floor((verticalPixel-topBorder)/((guiSlitHeightPix+guiOverlapPix)));
+	}
+
+	public void drawSpecView(Graphics2D g2, Color backgroundColor, 	Font f){
+		drawSpectra(g2, backgroundColor, f, activeRow);
+	}
+
+	/**
+	 * Draw spectra view.
+	 *
+	 * @param g2               Graphics2D to draw on
+	 * @param backgroundColor  Color of background
+	 * @param f                Font for labels
+	 * @param highlightedRow   0-based row to highlight, or -1 for none
+	 */
+	public void drawSpectra(Graphics2D g2, Color backgroundColor, Font f, int highlightedRow) {
+		//make the background white
+		Rectangle2D fullGUI = new Rectangle2D.Double(0,0,guiSpecSize,guiSpecSize);
+		g2.setPaint(backgroundColor);
+		g2.draw(fullGUI);
+		g2.fill(fullGUI);
+		g2.setFont(f);
+
+		//set the line color to green
+
+		g2.setPaint(Color.blue.darker().darker());
+
+		//Draw a large green rectangle to represent the detector
+
+		// positionArray is feed the width, height, centerX, and centerY coordinates
+		// and returns the lower left hand corner x and y, and the width and height
+		// the values needed to generate a Graphics2D shape
+		double[] loc = positionArray(guiDetectorSize, guiDetectorSize, guiSpecCenterX, guiSpecCenterY);
+		Rectangle2D csuBorder = new Rectangle2D.Double(loc[0],loc[1],loc[2],loc[3]);
+		//g2.draw(csuBorder);
+		g2.fill(csuBorder);
+
+		//Draw some spectra
+		g2.setStroke( new BasicStroke( 2.0f ) );
+		for (MechanicalSlit slitPos : config.getMechanicalSlitList()) {
+			drawSpectrum(g2, slitPos, (slitPos.getSlitNumber()-1 == highlightedRow));
+		}
+	}
+
+	/**
+	 * Redraw active row of spectra view, highlighted, over spectra drawn without highlight.
+	 *
+	 * @param g2  Graphics2D to draw on, with font for labels set
+	 */
+	public void drawActiveSpectrum(Graphics2D g2) {
+		if (activeRow < 0) {
+			return;
+		}
+		//. redraw active row with highlight, clipped to the row.  rows drawn after it are
+		//. redrawn too, since their outlines and labels overlap its edges.
+		Shape oldClip = g2.getClip();
+		g2.clip(new Rectangle2D.Double(0, guiSpecCenterY+(activeRow-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix),
+				guiSpecSize, guiSlitHeightPix+guiOverlapPix));
+		g2.setStroke( new BasicStroke( 2.0f ) );
+		boolean found = false;
+		for (MechanicalSlit slitPos : config.getMechanicalSlitList()) {
+			boolean active = (slitPos.getSlitNumber()-1 == activeRow);
+			found |= active;
+			if (found) {
+				drawSpectrum(g2, slitPos, active);
+			}
+		}
+		g2.setClip(oldClip);
+	}
+
+	private void drawSpectrum(Graphics2D g2, MechanicalSlit slitPos, boolean highlight) {
+		int row=slitPos.getSlitNumber()-1;
+		// set the values of the minimum, maximum, and central wavelength
+		double minWave = ((slitPos.getLeftBarPositionInMM()+slitPos.getRightBarPositionInMM())/2 - CSU_ZERO_PT)*shift+minLam;
+		double maxWave = ((slitPos.getLeftBarPositionInMM()+slitPos.getRightBarPositionInMM())/2 - CSU_ZERO_PT)*shift+maxLam;
+		double centerWave = (minWave+maxWave)/2;
+		if (minWave < minBand) {
+			minWave = minBand;
+		}
+		if (maxWave > maxBand){
+			maxWave = maxBand;
+		}
+
+		double centerFraction = (centerWave-minBand)/(maxBand-minBand);	
+
+
+		// spectrumFractionMinX is fed the length of the spectrum and the centerFraction of the 
+		// length where the line falls and returns the min x position of the rectangle in gui coordinates
+		double xPos = spectrumFractionMinX(guiSpecLength, centerFraction);
+		Rectangle2D slit = new Rectangle2D.Double(xPos,
+				guiSpecCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix)
+				,guiSpecLength,guiSlitHeightPix+guiOverlapPix);
+
+		//Fill the spectra with a color gradient in gray
+
+		//Gradient needs lower x,y and higher x,y to work - give it the bounds of the spectrum
+		GradientPaint gradient = new GradientPaint((int)xPos,
+				(int) (guiSpecCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix)),
+				Color.DARK_GRAY,(int) (xPos+guiSpecLength),
+				(int)(guiSpecCenterY+(row+1-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix))
+				,Color.LIGHT_GRAY,true);
+		g2.setPaint(gradient);
+		g2.fill(slit);
+
+		if (highlight) {
+			g2.setPaint(MosfireParameters.COLOR_SELECTED_SLIT);
+			Rectangle2D box = new Rectangle2D.Double(xPos,
+					guiSpecCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix),
+					guiSpecLength,
+					guiSlitHeightPix+guiOverlapPix);
+			g2.fill(box);
+		}
+		
+		//outline in black
+		g2.setPaint(Color.BLACK);
+		g2.draw(slit);
+
+		// And add the minimum and maximum wavelength covered
+		//double xDouble = guiSpecCenterX - guiDetectorSize/6;
+		double xDouble = xPos + guiSpecLength/20; 
+		if (xDouble < guiSpecCenterX - guiDetectorSize/2) {
+			xDouble = guiSpecCenterX - guiDetectorSize/2 +5;
+		}
+		float xFloat = (float) xDouble;
+
+		double yDouble = guiSpecCenterY+(row+0.8-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix);
+		float yFloat = (float) yDouble;
+
+		// Write out the minimum and maximum wavelengths
+		g2.setPaint(Color.WHITE);
+		g2.drawString(wholeNumberFormatter.format(minWave), xFloat, yFloat);
+
+		//xDouble = guiSpecCenterX + guiDetectorSize/6;
+		//	if (xDouble > xPos+guiSpecLength) {xDouble = xPos + guiSpecLength/10*9;} 
+		xDouble = xPos + guiSpecLength/10*9;
+		if (xDouble > guiSpecCenterX + guiDetectorSize/2-guiSpecSize/20) {
+			xDouble = guiSpecCenterX + guiDetectorSize/2-guiSpecSize/20;
+		}
+		xFloat = (float) xDouble;
+		g2.setPaint(Color.BLACK);
+		g2.drawString(wholeNumberFormatter.format(maxWave), xFloat, yFloat);
+
+		xFloat = (float) guiSpecSize/2;
+		g2.drawString(slitPos.getTargetName(), xFloat, yFloat);
+
+
+
+		// Draw the marked wavelength if there is one
+		for (int ij=0; ij < markedWaveFraction.length; ij++){
+			Rectangle2D marker = new Rectangle2D.Double(
+					xPos+guiSpecLength*markedWaveFraction[ij],
+					guiSpecCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix)
+					,4,guiSlitHeightPix+guiOverlapPix);
+
+			if (xPos+guiSpecLength*markedWaveFraction[ij] < guiSpecCenterX-guiDetectorSize/2 ||
+					xPos+guiSpecLength*markedWaveFraction[ij] > guiSpecCenterX+guiDetectorSize/2){
+
+				g2.setPaint(Color.RED);
+			}
+			else{
+				g2.setPaint(Color.GREEN);	
+			}
+
+			g2.fill(marker);	
+		}
+	}
+
+	/**
+	 * Render spectra view to an image of size <code>IMAGE_SIZE</code>, for printing.
+	 * This renderer is not modified.
+	 *
+	 * @return BufferedImage of spectra view
+	 */
+	public BufferedImage renderSpectraImage() {
+		MaskImageRenderer imageRenderer = copy();
+		imageRenderer.setSpectraSize(IMAGE_SIZE);
+		return imageRenderer.drawSpectraImage();
+	}
+	private BufferedImage drawSpectraImage() {
+		int width = (int) Math.floor(guiSpecSize); 
+		int height = (int) Math.floor(guiSpecSize); 
+		// Create a buffered image in which to draw 
+		BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB); 
+		// Create a graphics contents on the buffered image 
+		Graphics2D g2d = bufferedImage.createGraphics(); 
+		// Draw graphics
+
+		// make lines not pixelized
+		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+
+		Color backgroundColor = Color.white;
+
+		Font font = new Font("Serif", Font.BOLD, 30);
+		
+		drawSpecView(g2d, backgroundColor, font);
+
+		g2d.setColor(Color.BLACK);
+
+		font = new Font("Serif", Font.BOLD, 50);
+		g2d.setFont(font);
+		
+		String label = maskName+"    PA = "+pa;
+
+		FontMetrics fm = g2d.getFontMetrics(font);
+		Rectangle2D labelExtents = fm.getStringBounds(label, g2d);
+
+
+		String markedWaves = markedWavelengthString.trim();
+		double labelY;
+		if (markedWaves.isEmpty()) {
+			labelY = guiSpecSize - (guiSpecSize - guiDetectorSize)/4.;
+		} else {
+			labelY = guiSpecSize - (guiSpecSize - guiDetectorSize)/3.;
+		}
+		
+		g2d.drawString(label, (float)(guiSpecSize - labelExtents.getWidth())/2, (float)labelY);
+		
+		if (!markedWaves.isEmpty()) {
+			font = new Font("Serif", 0, 40);
+			g2d.setFont(font);
+			label = "Marked Wavelengths: " + markedWaves;
+			fm = g2d.getFontMetrics(font);
+			labelExtents = fm.getStringBounds(label, g2d);
+			labelY = guiSpecSize - (guiSpecSize - guiDetectorSize)/6.;
+			g2d.drawString(label, (float)(guiSpecSize - labelExtents.getWidth())/2, (float)labelY);
+		}
+		g2d.dispose();
+
+		return bufferedImage;
+	}
+	/**
+	 * Render spectra view and save it as a PNG.
+	 *
+	 * @param  file        File to write
+	 * @throws IOException on error writing file
+	 */
+	public void writeSpectraImage(File file) throws IOException {
+		ImageIO.write(renderSpectraImage(), "png", file); 
+	}
+
+	//useful for producing the numbers required for 2D graphics from center positions, height and width
+	private static double[] positionArray(double width, double height, double centerX, double centerY){
+		double[] array={centerX-width/2,centerY-height/2,width,height};
+		return array;
+	}
+}
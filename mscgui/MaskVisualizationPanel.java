@@ -3,27 +3,25 @@ package edu.ucla.astro.irlab.mosfire.mscgui;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
-import java.awt.geom.Ellipse2D;
-import java.awt.geom.GeneralPath;
-import java.awt.geom.Line2D;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
-import java.awt.image.RenderedImage;
 import java.io.File;
 import java.io.IOException;
 import java.lang.Math;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Scanner;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
-import javax.imageio.ImageIO;
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
@@ -39,32 +37,38 @@ import javax.swing.JRadioButton;
 import javax.swing.JTabbedPane;
 import javax.swing.JTextField;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import org.apache.log4j.Logger;
+
 import edu.ucla.astro.irlab.mosfire.util.AstroObj;
-import edu.ucla.astro.irlab.mosfire.util.MascgenArguments;
 import edu.ucla.astro.irlab.mosfire.util.MascgenTransforms;
 import edu.ucla.astro.irlab.mosfire.util.MechanicalSlit;
-import edu.ucla.astro.irlab.mosfire.util.MosfireParameters;
 import edu.ucla.astro.irlab.mosfire.util.RaDec;
 import edu.ucla.astro.irlab.mosfire.util.ScienceSlit;
 import edu.ucla.astro.irlab.mosfire.util.SlitConfiguration;
-import edu.ucla.astro.irlab.util.ColorUtilities;
 import edu.ucla.astro.irlab.util.InvalidValueException;
+import edu.ucla.astro.irlab.util.gui.CachedImageLayer;
 import edu.ucla.astro.irlab.util.gui.ColorScaleChooserPanel;
+import edu.ucla.astro.irlab.util.gui.ShapeGridIndex;
 import static edu.ucla.astro.irlab.mosfire.util.MosfireParameters.*;
 
 //. TODO compass rose
 
 class MaskVisualizationPanel extends JPanel {
+	private static final Logger logger = Logger.getLogger(MaskVisualizationPanel.class);
+
+	//. colors and font for drawing views on screen.  images for printing use their own.
+	private static final Color MASK_BACKGROUND_COLOR = new Color(150,150,175);
+	private static final Color SPECTRA_BACKGROUND_COLOR = Color.black;
+	private static final Font VIEW_FONT = new Font("Serif", Font.BOLD, 12);
+	//. zoom factor of mask view per mouse wheel click
+	private static final double MASK_ZOOM_STEP = 1.25;
 
-	private boolean showTargets = true;
-	private boolean scaleTargetColorWithPriority = true;
-	private boolean scaleTargetSizeWithPriority = true;
-	private boolean showAllTargets = false;
-	private boolean showColorScale = true;
-	private int targetSizePercentageOfRow = MSCGUIParameters.DEFAULT_TARGET_SIZE_PERCENTAGE_OF_ROW;
+	//. display state and drawing of both views
+	private MaskImageRenderer renderer = new MaskImageRenderer();
 	private JTabbedPane tabbedPane = new JTabbedPane();
 	private JPanel maskPanel = new JPanel();
 	private JPanel spectraPanel = new JPanel();
@@ -80,6 +84,7 @@ class MaskVisualizationPanel extends JPanel {
 	private JPanel showTargetsPanel = new JPanel();
 	private JLabel showTargetsLabel = new JLabel("Plot Targets: ");
 	private JButton showTargetsOptionsButton = new JButton("Options");
+	private JButton resetZoomButton = new JButton("Reset Zoom");
 	private JRadioButton showNoTargetsButton = new JRadioButton("None");
 	private JRadioButton showMaskTargetsButton = new JRadioButton("Mask");
 	private JRadioButton showAllTargetsButton = new JRadioButton("All");
@@ -91,26 +96,12 @@ class MaskVisualizationPanel extends JPanel {
 	private JButton printBtn;
 	private JComboBox filterComboBox;
 	private JFileChooser printFileChooser = new JFileChooser();
-	private double xLimit;
-	private double xCenter;
-	private int activeRow=-1;
-	private String filter = "K";
-	private String maskName;
-	private String pa;
+	private String filter = MaskImageRenderer.DEFAULT_FILTER;
 	private Font scaleFont = MSCGUIParameters.FONT_MASK_COLOR_SCALE;
 	private SlitConfiguration config;
-	private Collection<AstroObj> allObjects = new ArrayList<AstroObj>();
-	private int colorScaleMode = MSCGUIParameters.DEFAULT_COLOR_SCALE_MODE;
-	private Color targetColor = MSCGUIParameters.DEFAULT_COLOR_TARGET;
 	private PlotTargetsOptionsPanel targetsOptionsPanel = new PlotTargetsOptionsPanel();
 	
-	private BufferedImage zoomImage = new BufferedImage(100,100, BufferedImage.TYPE_INT_RGB);
-	private JPanel zoomPanel = new JPanel();
-	
 	public MaskVisualizationPanel() {
-		xLimit=0.0;
-		xCenter=0.0;
-		
 		config = new SlitConfiguration();
 		jbInit();
 	}
@@ -136,9 +127,9 @@ class MaskVisualizationPanel extends JPanel {
 		showTargetsButtonGroup.add(showNoTargetsButton);
 		showTargetsButtonGroup.add(showMaskTargetsButton);
 		showTargetsButtonGroup.add(showAllTargetsButton);
-		if (showAllTargets) {
+		if (renderer.doesShowAllTargets()) {
 			showAllTargetsButton.setSelected(true);
-		} else if (showTargets) {
+		} else if (renderer.doesShowTargets()) {
 			showMaskTargetsButton.setSelected(true);
 		} else {
 			showNoTargetsButton.setSelected(true);
@@ -149,6 +140,13 @@ class MaskVisualizationPanel extends JPanel {
 				showTargetsOptionsButton_actionPerformed(e);
 			}
 		});
+		resetZoomButton.setToolTipText("Mouse wheel zooms mask view, and dragging pans it.");
+		resetZoomButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				maskDraw.resetZoom();
+			}
+		});
 		Insets showTargetsInsets = new Insets(2,5,2,5);
 		showTargetsPanel.setLayout(new GridBagLayout());
 		showTargetsPanel.add(showTargetsLabel, new GridBagConstraints(0,0,1,1,0.0,0.0,GridBagConstraints.WEST, GridBagConstraints.NONE, showTargetsInsets, 0, 0));
@@ -156,6 +154,7 @@ class MaskVisualizationPanel extends JPanel {
 		showTargetsPanel.add(showMaskTargetsButton, new GridBagConstraints(2,0,1,1,0.0,0.0,GridBagConstraints.WEST, GridBagConstraints.NONE, showTargetsInsets, 0, 0));
 		showTargetsPanel.add(showAllTargetsButton, new GridBagConstraints(3,0,1,1,0.0,0.0,GridBagConstraints.WEST, GridBagConstraints.NONE, showTargetsInsets, 0, 0));
 		showTargetsPanel.add(showTargetsOptionsButton, new GridBagConstraints(4,0,1,1,0.0,0.0,GridBagConstraints.WEST, GridBagConstraints.NONE, showTargetsInsets, 0, 0));
+		showTargetsPanel.add(resetZoomButton, new GridBagConstraints(5,0,1,1,0.0,0.0,GridBagConstraints.WEST, GridBagConstraints.NONE, showTargetsInsets, 0, 0));
 		
 		pointerInfoPanel.setLayout(new GridBagLayout());
 		pointerInfoPanel.add(rowLabel, new GridBagConstraints(0,0,1,1,0.0,0.0,GridBagConstraints.WEST, GridBagConstraints.NONE, showTargetsInsets, 0, 0));
@@ -242,33 +241,23 @@ class MaskVisualizationPanel extends JPanel {
 		setLayout(new BorderLayout());
 		add(printBtn, BorderLayout.NORTH);
 		add(tabbedPane, BorderLayout.CENTER);
-		
-		/* test window for zooming 
-		JFrame frame = new JFrame();
-		zoomPanel.setPreferredSize(new Dimension(100,100));
-		JPanel frameContent = (JPanel)frame.getContentPane();
-		frameContent.setLayout(new BorderLayout());
-		frameContent.add(zoomPanel, BorderLayout.CENTER);
-		frame.validate();
-		frame.setVisible(true);
-		*/
-		
 	}
 	protected void showTargetsOptionsButton_actionPerformed(ActionEvent e) {
-		targetsOptionsPanel.setScaleTargetColorWithPriority(scaleTargetColorWithPriority);
-		targetsOptionsPanel.setScaleTargetSizeWithPriority(scaleTargetSizeWithPriority);
-		targetsOptionsPanel.setColorScaleMode(colorScaleMode);
-		targetsOptionsPanel.setTargetSize(targetSizePercentageOfRow);
+		targetsOptionsPanel.setScaleTargetColorWithPriority(renderer.doesScaleTargetColorWithPriority());
+		targetsOptionsPanel.setScaleTargetSizeWithPriority(renderer.doesScaleTargetSizeWithPriority());
+		targetsOptionsPanel.setColorScaleMode(renderer.getColorScaleMode());
+		targetsOptionsPanel.setTargetSize(renderer.getTargetSizePercentageOfRow());
 		int answer = JOptionPane.showConfirmDialog(this, targetsOptionsPanel, "Plot Targets Options", JOptionPane.OK_CANCEL_OPTION);
 		if (answer == JOptionPane.OK_OPTION) {
-			targetSizePercentageOfRow = targetsOptionsPanel.getTargetSize();
-			scaleTargetSizeWithPriority = targetsOptionsPanel.getScaleTargetSizeWithPriority();
-			scaleTargetColorWithPriority = targetsOptionsPanel.getScaleTargetColorWithPriority();
-			if (!scaleTargetColorWithPriority) {
-				targetColor = targetsOptionsPanel.getConstantColor();
+			renderer.setTargetSizePercentageOfRow(targetsOptionsPanel.getTargetSize());
+			renderer.setScaleTargetSizeWithPriority(targetsOptionsPanel.getScaleTargetSizeWithPriority());
+			renderer.setScaleTargetColorWithPriority(targetsOptionsPanel.getScaleTargetColorWithPriority());
+			if (!renderer.doesScaleTargetColorWithPriority()) {
+				renderer.setTargetColor(targetsOptionsPanel.getConstantColor());
 			} else {
-				colorScaleMode = targetsOptionsPanel.getColorScaleMode();
+				renderer.setColorScaleMode(targetsOptionsPanel.getColorScaleMode());
 			}
+			maskDraw.invalidateTargets();
 		}
 		repaint();
 	}
@@ -297,39 +286,54 @@ class MaskVisualizationPanel extends JPanel {
 					return;
 				}
 			}
-			try {
-				if (tabbedPane.getSelectedComponent() == maskPanel) {
-					printMaskImage(file);
+			saveImage(file, (tabbedPane.getSelectedComponent() == maskPanel));
+		}
+	}
+	private void saveImage(final File file, final boolean maskImage) {
+		//. image is rendered from a snapshot on a worker thread, so GUI is not blocked
+		//. and configuration can change while it is written.
+		final MaskImageRenderer snapshot = renderer.snapshot();
+		printBtn.setEnabled(false);
+		SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+			@Override
+			protected Void doInBackground() throws IOException {
+				if (maskImage) {
+					snapshot.writeMaskImage(file);
 				} else {
-					printSpectraImage(file);
+					snapshot.writeSpectraImage(file);
 				}
-			} catch (IOException ex) {
-				JOptionPane.showMessageDialog(this, "I/O Error saving to PNG: "+ex.getMessage(), "Error Saving PNG", JOptionPane.ERROR_MESSAGE);
+				return null;
 			}
-		}
+			@Override
+			protected void done() {
+				printBtn.setEnabled(true);
+				try {
+					get();
+				} catch (ExecutionException ex) {
+					logger.error("Error saving image to "+file, ex.getCause());
+					JOptionPane.showMessageDialog(MaskVisualizationPanel.this, "I/O Error saving to PNG: "+ex.getCause().getMessage(), "Error Saving PNG", JOptionPane.ERROR_MESSAGE);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		worker.execute();
 	}
 	public void openNewConfiguration(SlitConfiguration newConfig) throws InvalidValueException {
 
 		config = newConfig;
-		MascgenArguments data = newConfig.getMascgenArgs();
+		renderer.setConfiguration(newConfig);
 		List<AstroObj> allTargets = config.getOriginalTargetList();
-		allObjects.clear();
 		if (allTargets != null) {
 			setAllObjects(allTargets);
+		} else {
+			renderer.setAllObjects(new ArrayList<AstroObj>());
 		}
-		
-		maskName = data.getMaskName();
-
-		xLimit = data.getxRange()*60/CSU_ARCSEC_PER_MM;
-		xCenter = data.getxCenter()*60/CSU_ARCSEC_PER_MM;
 
-		// Some formatters
-		java.text.DecimalFormat secondPlace = 
-			new java.text.DecimalFormat("0.00");
-
-		pa = secondPlace.format(newConfig.getMascgenResult().getPositionAngle());
-
-		spectraDraw.setFilter(filter);
+		renderer.setFilter(filter);
+		renderer.resetMaskZoom();
+		spectraDraw.invalidateLayers();
+		maskDraw.invalidateLayers();
 		spectraDraw.repaint();
 		maskDraw.repaint();
 		
@@ -337,34 +341,46 @@ class MaskVisualizationPanel extends JPanel {
 	}
 
 	public void setActiveRow(int activeRow) {
-		this.activeRow = activeRow;
+		int oldActiveRow = renderer.getActiveRow();
+		if (activeRow != oldActiveRow) {
+			//. only rows whose selection changed need to be recomposited
+			maskDraw.repaintRow(oldActiveRow);
+			spectraDraw.repaintRow(oldActiveRow);
+			renderer.setActiveRow(activeRow);
+			maskDraw.repaintRow(activeRow);
+			spectraDraw.repaintRow(activeRow);
+		}
 	}
 	public int getActiveRow() {
-		return activeRow;
+		return renderer.getActiveRow();
 	}
 	public void setShowTargets(boolean showTargets) {
-		this.showTargets = showTargets;
+		renderer.setShowTargets(showTargets);
+		maskDraw.invalidateTargets();
 	}
 	public boolean doesShowTargets() {
-		return showTargets;
+		return renderer.doesShowTargets();
 	}
 	public void setShowAllTargets(boolean showAllTargets) {
-		this.showAllTargets = showAllTargets;
+		renderer.setShowAllTargets(showAllTargets);
+		maskDraw.invalidateTargets();
 	}
 	public boolean doesShowAllTargets() {
-		return showAllTargets;
+		return renderer.doesShowAllTargets();
 	}
 	public void setScaleTargetColorWithPriority(boolean scaleTargetColorWithPriority) {
-		this.scaleTargetColorWithPriority = scaleTargetColorWithPriority;
+		renderer.setScaleTargetColorWithPriority(scaleTargetColorWithPriority);
+		maskDraw.invalidateTargets();
 	}
 	public boolean doesScaleTargetColorWithPriority() {
-		return scaleTargetColorWithPriority;
+		return renderer.doesScaleTargetColorWithPriority();
 	}
 	public void setScaleTargetSizeWithPriority(boolean scaleTargetSizeWithPriority) {
-		this.scaleTargetSizeWithPriority = scaleTargetSizeWithPriority;
+		renderer.setScaleTargetSizeWithPriority(scaleTargetSizeWithPriority);
+		maskDraw.invalidateTargets();
 	}
 	public boolean doesScaleTargetSizeWithPriority() {
-		return scaleTargetSizeWithPriority;
+		return renderer.doesScaleTargetSizeWithPriority();
 	}
 	public int getRow(int verticalPixel) {
 		if (tabbedPane.getSelectedComponent() == maskPanel) {
@@ -374,13 +390,14 @@ class MaskVisualizationPanel extends JPanel {
 		}
 	}
 	private void filterComboBox_actionPerformed() {
-		String oldFilter = spectraDraw.getFilter();
+		String oldFilter = renderer.getFilter();
 
 		//change the filter
 		filter = (String) filterComboBox.getSelectedItem();
 
 		try {
-			spectraDraw.setFilter(filter);
+			renderer.setFilter(filter);
+			spectraDraw.invalidateLayers();
 			//update the drawing
 			spectraDraw.repaint();
 		} catch (InvalidValueException ex) {
@@ -426,8 +443,9 @@ class MaskVisualizationPanel extends JPanel {
 		}
 
 		try {
-			spectraDraw.setMarkerWavelength(wave);
-			spectraDraw.setMarkedWavelenthString(text);
+			renderer.setMarkerWavelength(wave);
+			renderer.setMarkedWavelengthString(text);
+			spectraDraw.invalidateLayers();
 		} catch (InvalidValueException ex) {
 			JOptionPane.showMessageDialog(this, "Error setting wavelength(s).  "+ex.getMessage(), "Error Parsing Wavelength", JOptionPane.ERROR_MESSAGE);
 		} 
@@ -439,22 +457,14 @@ class MaskVisualizationPanel extends JPanel {
 	}
 
 	public void printMaskImage(File file) throws IOException {
-		// Create an image to save
-
-		RenderedImage maskPrint = maskDraw.makeMaskImage(); 
-		// Write generated image to a file 
-		// Save as PNG 
-		ImageIO.write(maskPrint, "png", file); 
+		renderer.snapshot().writeMaskImage(file);
 	}
 	public void printSpectraImage(File file) throws IOException {
-		// Create an image to save
-		RenderedImage specPrint = spectraDraw.makeSpecImage(); 
-		// Write generated image to a file 
-		// Save as PNG 
-		ImageIO.write(specPrint, "png", file); 
+		renderer.snapshot().writeSpectraImage(file);
 	}
 	public void setAllObjects(Collection<AstroObj> objects) {
-		allObjects = new ArrayList<AstroObj>(objects);
+		ArrayList<AstroObj> allObjects = new ArrayList<AstroObj>(objects);
+		maskDraw.invalidateTargets();
 		RaDec center = config.getMascgenResult().getCenter();
 		double theta = Math.toRadians(config.getMascgenResult().getPositionAngle());
 		MascgenTransforms.raDecToXY(center);
@@ -468,402 +478,106 @@ class MaskVisualizationPanel extends JPanel {
 			obj.setObjY(xOld * Math.sin(theta) + yOld * Math.cos(theta));
 			obj.updateDitherRows(config.getMascgenArgs().getDitherSpace());
 		}
+		renderer.setAllObjects(allObjects);
 	}
 
 	class SpectraDrawComponent extends JComponent {
-		private String filter;
-		private double[] markerWavelength;
-		private double[] markedWaveFraction;
-		private double guiSize;
-		private double guiSpecLength;
-		private double guiRatioPix;
-		private double guiDetectorSize;
-		private double guiCenterX;
-		private double guiSpecCenterY;
-		private double guiSlitHeightPix;
-		private double guiOverlapPix;
-		private String markedWavelengthString = "";
-		
-		// local variables to save the minimum and maximum expected wavelegths
-		//given the filter choice
-		private double minLam;
-		private double maxLam;
-		private double shift;
-		private double minBand;
-		private double maxBand;
-		// The length of a spectrum in pixels
-		private double specLength;
+		private CachedImageLayer spectrumLayer = new CachedImageLayer();
+		private SlitSignature lastSlitSignature;
+		private double lastLayerGuiSize;
 
 		public SpectraDrawComponent() {
 			super();
-			markedWaveFraction = new double[0];
-			markerWavelength = new double[0];
-		}
-		public void setMarkedWavelenthString(String text) {
-			markedWavelengthString = text;
 		}
-		
-		// Returns a JPEG-ready spectral image 
-		public RenderedImage makeSpecImage() { 
-			double oldGuiSize = this.guiSize;
-			setSize(2000);
-
-			int width = (int) Math.floor(guiSize); 
-			int height = (int) Math.floor(guiSize); 
-			// Create a buffered image in which to draw 
-			BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB); 
-			// Create a graphics contents on the buffered image 
-			Graphics2D g2d = bufferedImage.createGraphics(); 
-			// Draw graphics
-
-			// make lines not pixelized
-			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-					RenderingHints.VALUE_ANTIALIAS_ON);
-
-			Color backgroundColor = Color.white;
-
-			Font font = new Font("Serif", Font.BOLD, 30);
-			
-			drawSpecView(g2d, backgroundColor, font);
-
-			g2d.setColor(Color.BLACK);
-
-			font = new Font("Serif", Font.BOLD, 50);
-			g2d.setFont(font);
-			
-			String label = maskName+"    PA = "+pa;
-
-			FontMetrics fm = g2d.getFontMetrics(font);
-			Rectangle2D labelExtents = fm.getStringBounds(label, g2d);
-
-
-			String markedWaves = markedWavelengthString.trim();
-			double labelY;
-			if (markedWaves.isEmpty()) {
-				labelY = guiSize - (guiSize - guiDetectorSize)/4.;
-			} else {
-				labelY = guiSize - (guiSize - guiDetectorSize)/3.;
-			}
-			
-			g2d.drawString(label, (float)(guiSize - labelExtents.getWidth())/2, (float)labelY);
-			
-			if (!markedWaves.isEmpty()) {
-				font = new Font("Serif", 0, 40);
-				g2d.setFont(font);
-				label = "Marked Wavelengths: " + markedWaves;
-				fm = g2d.getFontMetrics(font);
-				labelExtents = fm.getStringBounds(label, g2d);
-				labelY = guiSize - (guiSize - guiDetectorSize)/6.;
-				g2d.drawString(label, (float)(guiSize - labelExtents.getWidth())/2, (float)labelY);
-			}
-				
-			
-			
-			setSize(oldGuiSize);
-
-			return bufferedImage;
-		}
-
-		public String getFilter() {
-			return filter;
-		}
-
-		public void drawSpecView(Graphics2D g2, Color backgroundColor, 	Font f){
-			java.text.DecimalFormat wholeNum = new java.text.DecimalFormat("0");
-			//make the background white
-			Rectangle2D fullGUI = new Rectangle2D.Double(0,0,guiSize,guiSize);
-			g2.setPaint(backgroundColor);
-			g2.draw(fullGUI);
-			g2.fill(fullGUI);
-			g2.setFont(f);
-
-			// store the length of the spectrum
-			guiSpecLength=specLength/guiRatioPix;
-
-			//set the line color to green
-
-			g2.setPaint(Color.blue.darker().darker());
-
-			//Draw a large green rectangle to represent the detector
-
-			// positionArray is feed the width, height, centerX, and centerY coordinates
-			// and returns the lower left hand corner x and y, and the width and height
-			// the values needed to generate a Graphics2D shape
-			double[] loc = positionArray(guiDetectorSize, guiDetectorSize, guiCenterX, guiSpecCenterY);
-			Rectangle2D csuBorder = new Rectangle2D.Double(loc[0],loc[1],loc[2],loc[3]);
-			//g2.draw(csuBorder);
-			g2.fill(csuBorder);
-
-			
-			
-			//Draw some spectra
-			g2.setStroke( new BasicStroke( 2.0f ) );
-			int row;
-			for (MechanicalSlit slitPos : config.getMechanicalSlitList()) {
-				row=slitPos.getSlitNumber()-1;
-				// set the values of the minimum, maximum, and central wavelength
-				double minWave = ((slitPos.getLeftBarPositionInMM()+slitPos.getRightBarPositionInMM())/2 - CSU_ZERO_PT)*shift+minLam;
-				double maxWave = ((slitPos.getLeftBarPositionInMM()+slitPos.getRightBarPositionInMM())/2 - CSU_ZERO_PT)*shift+maxLam;
-				double centerWave = (minWave+maxWave)/2;
-				if (minWave < minBand) {
-					minWave = minBand;
-				}
-				if (maxWave > maxBand){
-					maxWave = maxBand;
-				}
-
-				double centerFraction = (centerWave-minBand)/(maxBand-minBand);	
-
-
-				// spectrumFractionMinX is fed the length of the spectrum and the centerFraction of the 
-				// length where the line falls and returns the min x position of the rectangle in gui coordinates
-				double xPos = spectrumFractionMinX(guiSpecLength, centerFraction);
-				Rectangle2D slit = new Rectangle2D.Double(xPos,
-						guiSpecCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix)
-						,guiSpecLength,guiSlitHeightPix+guiOverlapPix);
-
-				//Fill the spectra with a color gradient in gray
-
-				//Gradient needs lower x,y and higher x,y to work - give it the bounds of the spectrum
-				GradientPaint gradient = new GradientPaint((int)xPos,
-						(int) (guiSpecCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix)),
-						Color.DARK_GRAY,(int) (xPos+guiSpecLength),
-						(int)(guiSpecCenterY+(row+1-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix))
-						,Color.LIGHT_GRAY,true);
-				g2.setPaint(gradient);
-				g2.fill(slit);
-
-				if (row == activeRow) {
-					g2.setPaint(MosfireParameters.COLOR_SELECTED_SLIT);
-					Rectangle2D box = new Rectangle2D.Double(xPos,
-							guiSpecCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix),
-							guiSpecLength,
-							guiSlitHeightPix+guiOverlapPix);
-					g2.fill(box);
-				}
-				
-				//outline in black
-				g2.setPaint(Color.BLACK);
-				g2.draw(slit);
-
-				// And add the minimum and maximum wavelength covered
-				//double xDouble = guiCenterX - guiDetectorSize/6;
-				double xDouble = xPos + guiSpecLength/20; 
-				if (xDouble < guiCenterX - guiDetectorSize/2) {
-					xDouble = guiCenterX - guiDetectorSize/2 +5;
-				}
-				float xFloat = (float) xDouble;
-
-				double yDouble = guiSpecCenterY+(row+0.8-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix);
-				float yFloat = (float) yDouble;
-
-				// Write out the minimum and maximum wavelengths
-				g2.setPaint(Color.WHITE);
-				g2.drawString(wholeNum.format(minWave), xFloat, yFloat);
-
-				//xDouble = guiCenterX + guiDetectorSize/6;
-				//	if (xDouble > xPos+guiSpecLength) {xDouble = xPos + guiSpecLength/10*9;} 
-				xDouble = xPos + guiSpecLength/10*9;
-				if (xDouble > guiCenterX + guiDetectorSize/2-guiSize/20) {
-					xDouble = guiCenterX + guiDetectorSize/2-guiSize/20;
-				}
-				xFloat = (float) xDouble;
-				g2.setPaint(Color.BLACK);
-				g2.drawString(wholeNum.format(maxWave), xFloat, yFloat);
-
-				xFloat = (float) guiSize/2;
-				g2.drawString(slitPos.getTargetName(), xFloat, yFloat);
-
-
-
-				// Draw the marked wavelength if there is one
-				for (int ij=0; ij < markedWaveFraction.length; ij++){
-					Rectangle2D marker = new Rectangle2D.Double(
-							xPos+guiSpecLength*markedWaveFraction[ij],
-							guiSpecCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix)
-							,4,guiSlitHeightPix+guiOverlapPix);
-
-					if (xPos+guiSpecLength*markedWaveFraction[ij] < guiCenterX-guiDetectorSize/2 ||
-							xPos+guiSpecLength*markedWaveFraction[ij] > guiCenterX+guiDetectorSize/2){
-
-						g2.setPaint(Color.RED);
-					}
-					else{
-						g2.setPaint(Color.GREEN);	
-					}
-
-					g2.fill(marker);	
-				}
-			}
-
-		}		
 
 		public void paint(Graphics g){
 			Graphics2D g2 = (Graphics2D)g;
 
-			//Set the line thickness to quite thick
-			g2.setStroke( new BasicStroke( 5.0f ) );
-
-			// make lines not pixelized
-			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-					RenderingHints.VALUE_ANTIALIAS_ON);
-
 			Dimension dim = getSize();
 
 			if (dim.height < dim.width) {
-				setSize((double)dim.height);
+				renderer.setSpectraSize((double)dim.height);
 			} else {
-				setSize((double)dim.width);
+				renderer.setSpectraSize((double)dim.width);
 			}
 
-			Color backgroundColor = Color.black;
-
-			Font font = new Font("Serif", Font.BOLD, 12);
+			//. spectra are cached in a layer, redrawn only when slits, filter, markers or size change.
+			//. the active row is redrawn over it.
+			SlitSignature signature = new SlitSignature(renderer.getConfiguration());
+			if (!signature.equals(lastSlitSignature) || (renderer.getSpectraSize() != lastLayerGuiSize)) {
+				lastSlitSignature = signature;
+				lastLayerGuiSize = renderer.getSpectraSize();
+				invalidateLayers();
+			}
 
-			drawSpecView(g2, backgroundColor, font);
+			spectrumLayer.paint(g2, this, new CachedImageLayer.Renderer() {
+				public void render(Graphics2D layerG2) {
+					//Set the line thickness to quite thick
+					layerG2.setStroke( new BasicStroke( 5.0f ) );
+					setRenderingHints(layerG2);
+					renderer.drawSpectra(layerG2, SPECTRA_BACKGROUND_COLOR, VIEW_FONT, -1);
+				}
+			});
+			setRenderingHints(g2);
+			g2.setFont(VIEW_FONT);
+			renderer.drawActiveSpectrum(g2);
 		}
-		private void setSize(double size) {
-			this.guiSize = size;
-
-			// make variables scaled into GUI coordinates where the scaling is done such that
-			// the focal place circle is just enclosed by the GUI window
-			this.guiCenterX = guiSize / 2;
-
-			// a second scale used for the Spectral view format
-			this.guiRatioPix = DETECTOR_USABLE_PIXELS * 15/12 / guiSize;
-			this.guiDetectorSize = DETECTOR_USABLE_PIXELS / guiRatioPix;
-
-
-			this.guiSpecCenterY = guiSize / 2; // - guiSize/25;
-
-			double slitPlusOverlap = DETECTOR_USABLE_PIXELS/CSU_NUMBER_OF_BAR_PAIRS / guiRatioPix;
-			double slitFraction = SINGLE_SLIT_HEIGHT_MM/(SINGLE_SLIT_HEIGHT_MM+OVERLAP_MM);
-			double overlapFraction = OVERLAP_MM/(SINGLE_SLIT_HEIGHT_MM+OVERLAP_MM);
-
-			this.guiSlitHeightPix = slitFraction * slitPlusOverlap;
-			this.guiOverlapPix = overlapFraction * slitPlusOverlap;
-
-
-
+		private void setRenderingHints(Graphics2D g2) {
+			// make lines not pixelized
+			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_ON);
 		}
-
-		/** Return the bar left position in arcsec. **/
-		public void setFilter(String filter) throws InvalidValueException {
-			this.filter = filter;
-			setMarkerWavelength(new double[0]);
-
-			// decide which wavelength and shift values should be used
-			// based off which filter is selected
-			if (this.filter.compareToIgnoreCase("K") == 0){
-				minLam = MIN_LAM_K;
-				maxLam = MAX_LAM_K;
-				shift = SHIFT_K;
-				minBand = MIN_BAND_WIDTH_K;
-				maxBand = MAX_BAND_WIDTH_K;
-				specLength = (maxBand - minBand)/DISPERSION_K_KS;
-			}
-			else if (this.filter.compareToIgnoreCase("Ks") == 0){
-				minLam = MIN_LAM_KS;
-				maxLam = MAX_LAM_KS;
-				shift = SHIFT_KS;
-				minBand = MIN_BAND_WIDTH_KS;
-				maxBand = MAX_BAND_WIDTH_KS;
-				specLength = (maxBand - minBand)/DISPERSION_K_KS;
-			}
-			else if (this.filter.compareToIgnoreCase("H") == 0){
-				minLam = MIN_LAM_H;
-				maxLam = MAX_LAM_H;
-				shift = SHIFT_H;
-				minBand = MIN_BAND_WIDTH_H;
-				maxBand = MAX_BAND_WIDTH_H;
-				specLength = (maxBand - minBand)/DISPERSION_H;
-			}
-			else if (this.filter.compareToIgnoreCase("J") == 0){
-				minLam = MIN_LAM_J;
-				maxLam = MAX_LAM_J;
-				shift = SHIFT_J;
-				minBand = MIN_BAND_WIDTH_J;
-				maxBand = MAX_BAND_WIDTH_J;
-				specLength = (maxBand - minBand)/DISPERSION_J;
-			}
-			else if (this.filter.compareToIgnoreCase("Y") == 0){
-				minLam = MIN_LAM_Y;
-				maxLam = MAX_LAM_Y;
-				shift = SHIFT_Y;
-				minBand = MIN_BAND_WIDTH_Y;
-				maxBand = MAX_BAND_WIDTH_Y;
-				specLength = (maxBand - minBand)/DISPERSION_Y;
-			} else {
-				throw new InvalidValueException("Invalid filter.  Must be K, Ks, H, J, or Y");
-			}
+		public void invalidateLayers() {
+			spectrumLayer.invalidate();
 		}
-
-		public void setMarkerWavelength(double[] wave) throws InvalidValueException{
-
-
-			for (int i=0; i < wave.length; i++){
-				if ((wave[i] < minBand) || (wave[i] > maxBand)) {
-					throw new InvalidValueException("Wavelength "+wave[i]+" is not within range of filter "+filter+" ("+minBand+" to "+maxBand+" \u212b).");
-				}
-			}
-
-			markerWavelength = wave;
-
-			//the xposition of the marker is the location of the left 
-			// edge of the spectrum (band), xPos, plus, the bandLength
-			// times the bandFraction of the marked wavelength
-			markedWaveFraction = new double[markerWavelength.length];
-
-			for (int ii=0; ii < markedWaveFraction.length; ii++){
-				markedWaveFraction[ii] = (this.markerWavelength[ii] - minBand)/(maxBand-minBand);
+		public void repaintRow(int row) {
+			if (row >= 0) {
+				//. margin for antialiasing and outline
+				Rectangle2D bounds = renderer.getSpectraRowBounds(row);
+				repaint(0, (int)Math.floor(bounds.getY()) - 2, getWidth(), (int)Math.ceil(bounds.getHeight()) + 4);
 			}
-
-
-
-		}
-		//produces the minimum x location of the bar from width of a spectrum
-		//and the fraction of the bandwidth that falls at the zero line of the detector
-		public double spectrumFractionMinX(double width, double bandFraction){
-			return guiCenterX-width*bandFraction;
-
 		}
-		
 		public int getRow(int verticalPixel) {
-			//. (guiSpecCenterY+(row-CSU_NUM_BAR_PAIRS/2)*(guiSlitHeightPix+guiOverlapPix))
-			//. 0-based
-			double topBorder = guiSpecCenterY - (CSU_NUMBER_OF_BAR_PAIRS/2 * (guiSlitHeightPix+guiOverlapPix));
-			double bottomBorder = guiSpecCenterY + (CSU_NUMBER_OF_BAR_PAIRS/2 * (guiSlitHeightPix+guiOverlapPix));
-			if (verticalPixel < topBorder) {
-				return -1;
-			}
-			if (verticalPixel > bottomBorder) {
-				return -1;
-			}
-			return (int)Math.floor((verticalPixel-topBorder)/((guiSlitHeightPix+guiOverlapPix)));
+			return renderer.getSpectraRow(verticalPixel);
 		}
-
-
 	}  //. end SpectraDrawComponent inner class
 
 
 
-	class MaskDrawComponent extends JComponent implements MouseMotionListener  {
-		private double guiSize;
-		private double guiCSUHeight;
-		private double guiCenterX;
-		private double guiCenterY;
-		private double guiFocalPlane;
-		private double guiXLimit;
-		private double guiXCenter;
-		private double guiRatio;
-		private double guiSlitHeight;
-		private double guiOverlap;
+	class MaskDrawComponent extends JComponent implements MouseMotionListener, MouseWheelListener  {
 		private DecimalFormat csuXFormatter = new DecimalFormat("0.00\"");
-		private HashSet<TargetShape> targetShapes = new HashSet<TargetShape>();
+		//. target shapes drawn in last paint, in drawing order, and index of them for mouse lookups.
+		//. index is only rebuilt when shapes change, e.g. on resize or new target set.
+		private ArrayList<Shape> targetShapes = new ArrayList<Shape>();
+		private ArrayList<AstroObj> targetShapeObjects = new ArrayList<AstroObj>();
+		private ShapeGridIndex<AstroObj> targetIndex = new ShapeGridIndex<AstroObj>(targetShapes, targetShapeObjects);
+		private CachedImageLayer backgroundLayer = new CachedImageLayer();
+		private CachedImageLayer slitLayer = new CachedImageLayer();
+		private CachedImageLayer targetLayer = new CachedImageLayer();
+		private SlitSignature lastSlitSignature;
+		private double lastLayerGuiSize;
 		private AstroObj currentTarget;
+		//. last mouse position while dragging to pan
+		private Point dragPoint;
 		public MaskDrawComponent() {
 			super();
 			addMouseMotionListener(this);
+			addMouseWheelListener(this);
+			addMouseListener(new MouseAdapter() {
+				@Override
+				public void mousePressed(MouseEvent e) {
+					dragPoint = e.getPoint();
+				}
+				@Override
+				public void mouseReleased(MouseEvent e) {
+					dragPoint = null;
+					//. layers were moved while dragging.  redraw them at new view.
+					if (backgroundLayer.isTranslated()) {
+						invalidateLayers();
+						repaint();
+					}
+				}
+			});
 			showNoTargetsButton.addActionListener(new ActionListener() {				
 				@Override
 				public void actionPerformed(ActionEvent e) {
@@ -884,472 +598,211 @@ class MaskVisualizationPanel extends JPanel {
 			});
 		}
 		public void paint(Graphics g){
-			Graphics2D g2 = (Graphics2D)g;
-
-			//Set the line thickness to quite thick
-			g2.setStroke( new BasicStroke( 5.0f ) );
-
-			// make lines not pixelized
-			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-					RenderingHints.VALUE_ANTIALIAS_ON);
+			final Graphics2D g2 = (Graphics2D)g;
 
 			Dimension dim = getSize();
 
 			if (dim.height < dim.width) {
-				setSize((double)dim.height);
+				renderer.setMaskSize((double)dim.height);
 			} else {
-				setSize((double)dim.width);
+				renderer.setMaskSize((double)dim.width);
 			}
 
-//			Color backgroundColor = new Color(100,100,125);
-			Color backgroundColor = new Color(150,150,175);
-			Color csuEdgeColor = Color.black;
-			Color barColor = Color.white;
-			Color legalColor = Color.red;
-			Color focalCircleColor = Color.lightGray;
-			Font font = new Font("Serif", Font.BOLD, 12);
-
-			drawMaskView(g2, backgroundColor, csuEdgeColor, barColor, legalColor, focalCircleColor, font);		
-
-		}
-		private void setSize(double size) {
-			this.guiSize = size;
-			// make variables scaled into GUI coordinates where the scaling is done such that
-			// the focal place circle is just enclosed by the GUI window
-			this.guiRatio = CSU_FP_RADIUS_MM*2 / guiSize;
-			this.guiCSUHeight = CSU_HEIGHT_MM / guiRatio;
-			this.guiSlitHeight = SINGLE_SLIT_HEIGHT_MM/ guiRatio;
-			this.guiOverlap = OVERLAP_MM / guiRatio;
-			this.guiFocalPlane = CSU_FP_RADIUS_MM*2 / guiRatio;
-			this.guiCenterX = guiSize / 2;
-			this.guiCenterY = guiSize / 2;
-			//  this.guiBarLength = BAR_LENGTH / guiRatio;
-			this.guiXLimit = xLimit / guiRatio;
-			this.guiXCenter = xCenter / guiRatio;
-		}
-		public void drawMaskView(Graphics2D g2, Color backgroundColor, Color csuEdgeColor,
-				Color barColor, Color legalColor, Color focalCircleColor, Font font){
-
-			if (showTargets || showAllTargets) {
-				targetShapes.clear();
+			//. static geometry, slits and targets are cached in separate layers, each redrawn
+			//. only when its inputs change.  the active row is drawn between slits and targets.
+			SlitSignature signature = new SlitSignature(renderer.getConfiguration());
+			if (!signature.equals(lastSlitSignature)) {
+				lastSlitSignature = signature;
+				slitLayer.invalidate();
+				targetLayer.invalidate();
 			}
-			
-			// make the background Black
-			Rectangle2D fullGUI = new Rectangle2D.Double(0,0,guiSize,guiSize);
-			g2.setPaint(backgroundColor);
-			g2.draw(fullGUI);
-			g2.fill(fullGUI);
-			g2.setFont(font);
-
-
-			g2.setColor(barColor);
-
-			//Draw a large white rectangle to represent the outside of the CSU
-
-			// positionArray is feed the width, height, centerX, and centerY coordinates
-			// and returns the lower left hand corner x and y, and the width and height
-			// the values needed to generate a Graphics2D shape
-			double[] loc = positionArray(guiCSUHeight, guiCSUHeight, guiCenterX, guiCenterY);
-			Rectangle2D csuBorder = new Rectangle2D.Double(loc[0],loc[1],loc[2],loc[3]);
-			//g2.draw(csuBorder);
-			g2.fill(csuBorder);
-
-			//g2.setPaint(Color.black);
-			g2.setColor(csuEdgeColor);
-			g2.draw(csuBorder);
-
-
-			//Draw a gray circle representing the Keck Focal Plane
-			//g2.setPaint(Color.LIGHT_GRAY);
-			g2.setColor(focalCircleColor);
-
-			loc = positionArray(guiFocalPlane, guiFocalPlane, guiCenterX, guiCenterY);
-			Ellipse2D focalPlane = new Ellipse2D.Double(loc[0],loc[1],loc[2],loc[3]);
-			g2.draw(focalPlane);
-
-			// draw in a rectangle that is the bounding box for the legal range
-			//g2.setPaint(Color.RED);
-			g2.setColor(legalColor);
-			double ulx = guiCenterX - guiXCenter - guiXLimit/2.;
-			double uly = guiCenterY - guiCSUHeight/2.0;
-			double urx = guiCenterX - guiXCenter + guiXLimit/2.0;
-			double minX = guiCenterX - guiCSUHeight/2.0;
-			double maxX = guiCenterX + guiCSUHeight/2.0;
-			if (ulx < minX) {
-				ulx = minX;
-			}
-			if (urx > maxX) {
-				urx = maxX;
+			if (renderer.getMaskSize() != lastLayerGuiSize) {
+				lastLayerGuiSize = renderer.getMaskSize();
+				invalidateLayers();
 			}
-//			loc = positionArray(guiXLimit, guiCSUHeight, guiCenterX-guiXCenter, guiCenterY);
-//			Rectangle2D legalBorder = new Rectangle2D.Double(loc[0],loc[1],loc[2],loc[3]);
-			Rectangle2D legalBorder = new Rectangle2D.Double(ulx, uly, (urx-ulx), guiCSUHeight);
-			g2.draw(legalBorder);
-
-			//. set stroke to 1 pixel wide
-			g2.setStroke( new BasicStroke( 1.0f ) );
-
-			double leftBarLocationFromCenter;
-			double rightBarLocationFromCenter;
-			int row=0;
-			//hasAlignmentStars=false;
-			//Draw the alignment boxes first, if alignment stars are available
-			for (MechanicalSlit pos : config.getAlignSlitList()) {
-					
-					//. alignment boxes are distinguished from regular slits because they have
-					//. a different width than the science slit on the same row
-					GeneralPath slit = new GeneralPath(GeneralPath.WIND_EVEN_ODD, 4);
-					
-					//. draw coordinate system goes positive left to right, but our coordinate 
-					//. system goes positive to the left.  so these values must be subtracted from guiCenterX
-					leftBarLocationFromCenter = pos.getLeftBarPositionInMM() - MosfireParameters.CSU_ZERO_PT;
-					rightBarLocationFromCenter = pos.getRightBarPositionInMM() - MosfireParameters.CSU_ZERO_PT;
-					row = pos.getSlitNumber() - 1;
-					
-						// determine the x and y coordinates of the box, in this order: lowerLeft, upperLeft, upperRight, lowerRight						
-						float[] x = {(float) (guiCenterX-leftBarLocationFromCenter/guiRatio-guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS)),
-												 (float) (guiCenterX-leftBarLocationFromCenter/guiRatio+guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS)),
-												 (float) (guiCenterX-rightBarLocationFromCenter/guiRatio+guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS)),
-												 (float) (guiCenterX-rightBarLocationFromCenter/guiRatio-guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS))};
-
-						float[] y = {(float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap/2),
-								(float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiSlitHeight+guiOverlap),
-								(float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiSlitHeight+guiOverlap),
-								(float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap/2)};
-
-
 
-						slit.moveTo(x[0], y[0]);
-						for (int index = 1; index < x.length; index++) {
-							slit.lineTo(x[index], y[index]);
-						}
-						slit.closePath();
-						g2.setColor(Color.ORANGE);
-						g2.fill(slit);
-						if (showTargets || showAllTargets) {
-							targetShapes.add(new TargetShape(slit, pos.getTarget()));
-						}
-						
-						// And add the target names
-						float xFloat = (float)(guiCenterX-leftBarLocationFromCenter/guiRatio);
-						float yFloat = (float)(guiCenterY+(row+0.9-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap));
-
-						// Write out the target names
-						g2.setColor(Color.BLACK);
-						g2.drawString(pos.getTargetName(), xFloat, yFloat);
-					}
-
-			// Now draw science slits
-			for (MechanicalSlit pos : config.getMechanicalSlitList()) {
-				
-				//. draw coordinate system goes positive left to right, but our coordinate 
-				//. system goes positive to the left.  so these values must be subtracted from guiCenterX
-				leftBarLocationFromCenter = pos.getLeftBarPositionInMM() - MosfireParameters.CSU_ZERO_PT;
-				rightBarLocationFromCenter = pos.getRightBarPositionInMM() - MosfireParameters.CSU_ZERO_PT;
-				row = pos.getSlitNumber() - 1;
-
-				// determine the x and y coordinates of the box, in this order: lowerLeft, upperLeft, upperRight, lowerRight						
-				float[] x = {(float) (guiCenterX-leftBarLocationFromCenter/guiRatio-guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS)),
-										 (float) (guiCenterX-leftBarLocationFromCenter/guiRatio+guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS)),
-										 (float) (guiCenterX-rightBarLocationFromCenter/guiRatio+guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS)),
-										 (float) (guiCenterX-rightBarLocationFromCenter/guiRatio-guiSlitHeight/2*Math.tan(CSU_SLIT_TILT_ANGLE_RADIANS))};
-
-				float[] y = {(float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap/2),
-										 (float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiSlitHeight+guiOverlap),
-										 (float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiSlitHeight+guiOverlap),
-										 (float) (guiCenterY+(row-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap/2)};
-
-				GeneralPath slit = new GeneralPath(GeneralPath.WIND_EVEN_ODD, 4);
-
-				//. draw slits
-				slit.moveTo(x[0], y[0]);
-				for (int index = 1; index < x.length; index++) {
-					slit.lineTo(x[index], y[index]);
-				}
-				slit.closePath();
-				if (pos.getTarget().isInValidSlit()) {
-					g2.setColor(Color.BLACK);
-				} else {
-					g2.setColor(Color.RED);
-				}
-				g2.fill(slit);
-
-				// And add the target names
-				float xFloat = (float)(guiCenterX-rightBarLocationFromCenter/guiRatio+ guiSize/40); 
-				float yFloat = (float)(guiCenterY+(row+0.9-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap));
-
-				// Write out the target names
-				g2.drawString(pos.getTargetName(), xFloat, yFloat);
+			if (backgroundLayer.isTranslated()) {
+				//. area uncovered by moved layers
+				g2.setColor(getBackground());
+				g2.fillRect(0, 0, getWidth(), getHeight());
 			}
-
-			g2.setColor(Color.BLACK);
-			for (int ii=0; ii<MosfireParameters.CSU_NUMBER_OF_BAR_PAIRS; ii++) {
-				//Draw a line in the overlap region
-				Rectangle2D overlap = new Rectangle2D.Double(guiCenterX-guiCSUHeight/2,
-						guiCenterY+(ii-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap),
-						guiCSUHeight, guiOverlap);
-
-				g2.fill(overlap);
-				
-				if (ii == activeRow) {
-					g2.setColor(MosfireParameters.COLOR_SELECTED_SLIT);
-					Rectangle2D activeRowBox = new Rectangle2D.Double(guiCenterX - guiCSUHeight/2,
-							guiCenterY+(ii-CSU_NUMBER_OF_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap, guiCSUHeight, guiSlitHeight);
-					g2.fill(activeRowBox);
-					g2.setColor(Color.BLACK);
+			backgroundLayer.paint(g2, this, new CachedImageLayer.Renderer() {
+				public void render(Graphics2D layerG2) {
+					//Set the line thickness to quite thick
+					layerG2.setStroke( new BasicStroke( 5.0f ) );
+					setRenderingHints(layerG2);
+					renderer.drawMaskBackground(layerG2, MASK_BACKGROUND_COLOR, Color.black, Color.white, Color.red, Color.lightGray, VIEW_FONT);
 				}
-			}
-			
-			double maxPriority=0;
-			if (showAllTargets) {
-				//. draw targets
-				Color objectColor = targetColor;
-				if (scaleTargetColorWithPriority) {
-					//. get max priority
-					for (AstroObj obj : allObjects) {
-						double currentPriority = obj.getObjPriority(); 
-						if  (currentPriority > maxPriority) {
-							maxPriority = currentPriority;
-						}
-					}
-				} else {
-					g2.setColor(objectColor);
-				}
-				for (AstroObj obj : allObjects) {
-					double centerX = guiCenterX - obj.getObjX() / CSU_ARCSEC_PER_MM / guiRatio;
-					double centerY = guiCenterY - obj.getObjY() / CSU_ARCSEC_PER_MM / guiRatio;
-					double diam = guiSlitHeight * targetSizePercentageOfRow / 100.0;
-					if (scaleTargetSizeWithPriority) {
-						diam *= Math.log10(obj.getObjPriority()); // config.getMascgenResult().getTotalPriority();
-					}
-					if (scaleTargetColorWithPriority) {
-						objectColor = ColorUtilities.getColorFromScale(colorScaleMode, (float)(obj.getObjPriority()/maxPriority), 1.0f);
-						g2.setColor(objectColor);
-					}
-					Ellipse2D.Double targetCircle = new Ellipse2D.Double(centerX - diam/2.0, centerY - diam/2., diam, diam);
-					g2.fill(targetCircle);
-					targetShapes.add(new TargetShape(targetCircle, obj));
-				}				
-			} 
-			if (showTargets) {
-				//. draw targets
-				Color objectColor = targetColor;
-				if (scaleTargetColorWithPriority) {
-					//. get max priority
-					for (ScienceSlit slit : config.getScienceSlitList()) {
-						double currentPriority = slit.getTarget().getObjPriority(); 
-						if  (currentPriority > maxPriority) {
-							maxPriority = currentPriority;
-						}
-					}
-				} else {
-					g2.setColor(objectColor);
-				}
-				for (ScienceSlit slit : config.getScienceSlitList()) {
-					AstroObj obj = slit.getTarget();
-					double centerX = guiCenterX - obj.getObjX() / CSU_ARCSEC_PER_MM / guiRatio;
-					double centerY = guiCenterY - obj.getObjY() / CSU_ARCSEC_PER_MM / guiRatio;
-					double diam = guiSlitHeight * targetSizePercentageOfRow / 100.0;
-					if (scaleTargetSizeWithPriority) {
-						diam *= Math.log10(obj.getObjPriority()); // config.getMascgenResult().getTotalPriority();
-					}
-					if (scaleTargetColorWithPriority) {
-						objectColor = ColorUtilities.getColorFromScale(colorScaleMode, (float)(obj.getObjPriority()/maxPriority), 1.0f);
-						g2.setColor(objectColor);
-					}
-					Ellipse2D.Double targetCircle = new Ellipse2D.Double(centerX - diam/2.0, centerY - diam/2., diam, diam);
-					g2.fill(targetCircle);
-					targetShapes.add(new TargetShape(targetCircle, obj));
+			});
+			slitLayer.paint(g2, this, new CachedImageLayer.Renderer() {
+				public void render(Graphics2D layerG2) {
+					layerG2.setStroke( new BasicStroke( 1.0f ) );
+					setRenderingHints(layerG2);
+					layerG2.setFont(VIEW_FONT);
+					renderer.drawMaskSlits(layerG2);
 				}
-			}
-			if (showTargets || showAllTargets) {
-				if (showColorScale && scaleTargetColorWithPriority) {
-					g2.setStroke(new BasicStroke(1));
-					double scaleBottomY = guiSize;
-					double scaleTopY = guiSize - (guiSize - guiCSUHeight)/6.0;
-					for (int ii=0; ii<(int)Math.round(guiSize); ii++) {
-						Color scaleColor = ColorUtilities.getColorFromScale(colorScaleMode, (float)(ii/guiSize), 1.0f);
-						g2.setColor(scaleColor);
-						Line2D.Double line = new Line2D.Double(ii, scaleBottomY, ii, scaleTopY);
-						g2.draw(line);
-					}
-					g2.setColor(Color.black);
-					g2.drawString("0", 5.0f, (float)(scaleTopY - 10));
-					String maxPriorityString = Double.toString(maxPriority); 
-					double width = g2.getFontMetrics().getStringBounds(maxPriorityString, g2).getWidth();
-					g2.drawString(maxPriorityString, (float)(guiSize - width), (float)(scaleTopY - 10));
+			});
+			setRenderingHints(g2);
+			renderer.drawActiveRow(g2);
+			targetLayer.paint(g2, this, new CachedImageLayer.Renderer() {
+				public void render(Graphics2D layerG2) {
+					layerG2.setStroke( new BasicStroke( 1.0f ) );
+					setRenderingHints(layerG2);
+					layerG2.setFont(VIEW_FONT);
+					drawMaskTargets(layerG2);
 				}
-			}
+			});
 		}
-				
-		// Returns a JPEG-ready mask image 		
-		public RenderedImage makeMaskImage() { 
-			double oldGuiSize = this.guiSize;
-			setSize(2000);
-
-			int width = (int) Math.floor(guiSize); 
-			int height = (int) Math.floor(guiSize); 
-			// Create a buffered image in which to draw 
-			BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB); 
-			// Create a graphics contents on the buffered image 
-			Graphics2D g2d = bufferedImage.createGraphics(); 
-			// Draw graphics
-
+		private void setRenderingHints(Graphics2D g2) {
 			// make lines not pixelized
-			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
 					RenderingHints.VALUE_ANTIALIAS_ON);
-
-			Color backgroundColor = Color.white;
-			Color csuEdgeColor = Color.black;
-			Color barColor = Color.lightGray;//.brighter();
-			Color legalColor = Color.red;
-			Color focalCircleColor = Color.blue;
-
-			Font font = new Font("Serif", Font.BOLD, 30);
-			
-			int oldActiveRow = activeRow;
-			
-			activeRow = -1;
-			
-			drawMaskView(g2d, backgroundColor, csuEdgeColor, barColor, legalColor, focalCircleColor, font);
-
-			g2d.setColor(Color.BLACK);
-
-			font = new Font("Serif", Font.BOLD, 50);
-			g2d.setFont(font);
-			String label = maskName+"    PA = "+pa;
-
-			FontMetrics fm = g2d.getFontMetrics(font);
-			Rectangle2D labelExtents = fm.getStringBounds(label, g2d);
-			
-			double labelY = (guiSize - guiCSUHeight)/2. - 20;
-
-			g2d.drawString(label, (float)(guiSize - labelExtents.getWidth())/2, (float)labelY);
-
-			/**
-			 * // And add the target names
-					double xDouble = guiCenterX+alignmentBarPositions[i].getBarLeft()/guiRatio;//+ guiSize/40; 
-					float xFloat = (float) xDouble;
-
-					double yDouble = guiCenterY+(i+0.9-BAR_NUMBER/2)*(guiSlitHeight+guiOverlap);
-					float yFloat = (float) yDouble;
-
-					// Write out the target names
-					g2.setPaint(Color.BLACK);
-					g2.drawString(alignmentBarPositions[i].getObjName(), xFloat, yFloat);
-
-			 */
-			activeRow = oldActiveRow;
-			setSize(oldGuiSize);
-
-			return bufferedImage;
 		}
-		public int getRow(int verticalPixel) {
-			//. guiCenterY+(ii-CSU_NUM_BAR_PAIRS/2)*(guiSlitHeight+guiOverlap)+guiOverlap
-			//. 0-based
-			double topBorder = guiCenterY - (CSU_NUMBER_OF_BAR_PAIRS/2 * (guiSlitHeight+guiOverlap));
-			double bottomBorder = guiCenterY + (CSU_NUMBER_OF_BAR_PAIRS/2 * (guiSlitHeight+guiOverlap));
-			if (verticalPixel < topBorder) {
-				return -1;
-			}
-			if (verticalPixel > bottomBorder) {
-				return -1;
+		public void invalidateLayers() {
+			backgroundLayer.invalidate();
+			slitLayer.invalidate();
+			targetLayer.invalidate();
+		}
+		public void invalidateTargets() {
+			targetLayer.invalidate();
+		}
+		public void repaintRow(int row) {
+			if (row >= 0) {
+				//. include overlap regions on either side, with margin for antialiasing
+				Rectangle2D bounds = renderer.getMaskRowBounds(row);
+				repaint(0, (int)Math.floor(bounds.getY()) - 2, getWidth(), (int)Math.ceil(bounds.getHeight()) + 4);
 			}
-			return (int)Math.floor((verticalPixel-topBorder)/((guiSlitHeight+guiOverlap)));
 		}
-		private TargetShape getTargetShape(double x, double y) {
-			TargetShape returnedShape = null;
-			for (TargetShape shape : targetShapes) {
-				if (shape.contains(x, y)) {
-					returnedShape = shape;
-					break;
+		private void drawMaskTargets(Graphics2D g2) {
+			targetShapes.clear();
+			targetShapeObjects.clear();
+			renderer.drawMaskTargets(g2, targetShapes, targetShapeObjects);
+			if (renderer.doesShowTargets() || renderer.doesShowAllTargets()) {
+				if (!targetIndex.matches(targetShapes, targetShapeObjects)) {
+					targetIndex = new ShapeGridIndex<AstroObj>(targetShapes, targetShapeObjects);
 				}
 			}
-			return returnedShape;
+		}
+		public int getRow(int verticalPixel) {
+			return renderer.getMaskRow(verticalPixel);
+		}
+		public void resetZoom() {
+			renderer.resetMaskZoom();
+			invalidateLayers();
+			repaint();
+		}
+		@Override
+		public void mouseWheelMoved(MouseWheelEvent e) {
+			//. zoom about pointer.  all layers move, so all are redrawn.
+			renderer.zoomMask(Math.pow(MASK_ZOOM_STEP, -e.getWheelRotation()), e.getX(), e.getY());
+			invalidateLayers();
+			repaint();
 		}
 		@Override
 		public void mouseDragged(MouseEvent e) {
-			// TODO Auto-generated method stub
-			
+			if ((dragPoint != null) && (renderer.getMaskZoom() > 1)) {
+				//. move cached layers with view while dragging, and redraw them when released
+				Point2D shift = renderer.panMask(e.getX() - dragPoint.x, e.getY() - dragPoint.y);
+				backgroundLayer.translate(shift.getX(), shift.getY());
+				slitLayer.translate(shift.getX(), shift.getY());
+				targetLayer.translate(shift.getX(), shift.getY());
+				repaint();
+			}
+			dragPoint = e.getPoint();
 		}
 		@Override
 		public void mouseMoved(MouseEvent e) {
-			double x = (guiCenterX - e.getX()) * guiRatio * CSU_ARCSEC_PER_MM;
+			double x = renderer.getMaskCSUX(e.getX());
 			xValueLabel.setText(csuXFormatter.format(x));
 			rowValueLabel.setText(Integer.toString(getRow(e.getY())+1));
-			if (showTargets) {
-				TargetShape shape = getTargetShape(e.getX(), e.getY());
-				if (shape == null) {
+			if (renderer.doesShowTargets()) {
+				AstroObj target = targetIndex.find(e.getX(), e.getY());
+				if (target == null) {
 					objectValueLabel.setText(" ");
 					objectValueLabel.setToolTipText(" ");
 					priorityValueLabel.setText(" ");
 					priorityValueLabel.setToolTipText(" ");
 					currentTarget = null;
 				} else {
-					objectValueLabel.setText(shape.getTargetName());
-					objectValueLabel.setToolTipText(shape.getTargetName());
-					priorityValueLabel.setText(Double.toString(shape.getPriority()));
-					priorityValueLabel.setToolTipText(Double.toString(shape.getPriority()));
-					currentTarget = shape.getTarget();
+					objectValueLabel.setText(target.getObjName());
+					objectValueLabel.setToolTipText(target.getObjName());
+					priorityValueLabel.setText(Double.toString(target.getObjPriority()));
+					priorityValueLabel.setToolTipText(Double.toString(target.getObjPriority()));
+					currentTarget = target;
 				}
 			}
-			/* zoom window
-			if (e.getX() > 50 && e.getX() < maskDraw.getWidth() - 50 && e.getY() > 50 && e.getY() < maskDraw.getHeight() - 50) {
-			BufferedImage tempImage = new BufferedImage(maskDraw.getWidth()*4, maskDraw.getHeight()*4, BufferedImage.TYPE_INT_RGB);
-			Graphics g = tempImage.getGraphics();
-			maskDraw.paint(g);
-			zoomImage = tempImage.getSubimage(e.getX()-50, e.getY()-50, 100, 100);
-			Graphics2D g2 = (Graphics2D) zoomPanel.getGraphics();
-			g2.scale(4.0, 4.0);
-			g2.drawImage(zoomImage, null, 0, 0);
-			}
-			*/
 		}
 		public void handleShowTargetsButtons(ActionEvent ev) {
 			if (ev.getSource().equals(showNoTargetsButton)) {
-				showTargets = false;
-				showAllTargets = false;
+				renderer.setShowTargets(false);
+				renderer.setShowAllTargets(false);
 			} else if (ev.getSource().equals(showMaskTargetsButton)) {
-					showTargets = true;
-					showAllTargets = false;
+					renderer.setShowTargets(true);
+					renderer.setShowAllTargets(false);
 			} else if (ev.getSource().equals(showAllTargetsButton)) {
-				showTargets = true;
-				showAllTargets = true;
+				renderer.setShowTargets(true);
+				renderer.setShowAllTargets(true);
 			}
+			invalidateTargets();
 			repaint();
 		}
 		
 		public AstroObj getCurrentTarget() {
 			return currentTarget;
 		}
+	}  //. end MaskDrawComponent inner class
 
-		private class TargetShape {
-			private Shape targetShape;
-			private AstroObj target;
-			public TargetShape(Shape shape, AstroObj obj) {
-				targetShape = shape;
-				target = obj;
-			}
-			public double getPriority() {
-				return target.getObjPriority();
-			}
-			public String getTargetName() {
-				return target.getObjName();
-			}
-			public AstroObj getTarget() {
-				return target;
+	/**
+	 * Values of a configuration that the slit and target layers are drawn from, so that
+	 * layers can be redrawn when the configuration is modified in place.
+	 */
+	private static class SlitSignature {
+		private final double[] values;
+		private final String[] names;
+		public SlitSignature(SlitConfiguration config) {
+			List<MechanicalSlit> alignSlits = config.getAlignSlitList();
+			List<MechanicalSlit> mechanicalSlits = config.getMechanicalSlitList();
+			List<ScienceSlit> scienceSlits = config.getScienceSlitList();
+			values = new double[3 + alignSlits.size()*3 + mechanicalSlits.size()*4 + scienceSlits.size()*3];
+			names = new String[alignSlits.size() + mechanicalSlits.size()];
+			int ii=0;
+			int jj=0;
+			values[ii++] = alignSlits.size();
+			for (MechanicalSlit slit : alignSlits) {
+				values[ii++] = slit.getSlitNumber();
+				values[ii++] = slit.getLeftBarPositionInMM();
+				values[ii++] = slit.getRightBarPositionInMM();
+				names[jj++] = slit.getTargetName();
+			}
+			values[ii++] = mechanicalSlits.size();
+			for (MechanicalSlit slit : mechanicalSlits) {
+				values[ii++] = slit.getSlitNumber();
+				values[ii++] = slit.getLeftBarPositionInMM();
+				values[ii++] = slit.getRightBarPositionInMM();
+				values[ii++] = slit.getTarget().isInValidSlit() ? 1 : 0;
+				names[jj++] = slit.getTargetName();
+			}
+			values[ii++] = scienceSlits.size();
+			for (ScienceSlit slit : scienceSlits) {
+				values[ii++] = slit.getTarget().getObjX();
+				values[ii++] = slit.getTarget().getObjY();
+				values[ii++] = slit.getTarget().getObjPriority();
 			}
-			public boolean contains(double x, double y) {
-				return targetShape.contains(new Point2D.Double(x, y));
+		}
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof SlitSignature)) {
+				return false;
 			}
+			SlitSignature other = (SlitSignature)obj;
+			return Arrays.equals(values, other.values) && Arrays.equals(names, other.names);
+		}
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(values);
 		}
-	}  //. end MaskDrawComponent inner class
-
-	//useful for producing the numbers required for 2D graphics from center positions, height and width
-	public double[] positionArray(double width, double height, double centerX, double centerY){
-		double[] array={centerX-width/2,centerY-height/2,width,height};
-		return array;
 	}
+
 	public AstroObj getCurrentTarget() {
 		return maskDraw.getCurrentTarget();
 	}
@@ -0,0 +1,202 @@
+package edu.ucla.astro.irlab.mosfire.mscgui;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import edu.ucla.astro.irlab.util.InvalidValueException;
+import edu.ucla.astro.irlab.util.IntegerProperty;
+import edu.ucla.astro.irlab.util.NoSuchPropertyException;
+import edu.ucla.astro.irlab.util.PropertyList;
+import edu.ucla.astro.irlab.util.StringProperty;
+
+/**
+ * <p>Title: SimulatedCSU</p>
+ * <p>Description: Stand-in for the CSU server, for testing mask setup and execution without
+ * the instrument.  Sets the CSU readiness, status, and mask name properties as the server's
+ * keywords would change during a setup or move, after a simulated duration, so code waiting
+ * on CSUMoveReadiness can be exercised.  Properties missing from the list are added.</p>
+ */
+public class SimulatedCSU {
+	private static final Logger logger = Logger.getLogger(SimulatedCSU.class);
+	public static final String PROPERTY_READINESS = "CSUMoveReadiness";
+	public static final String PROPERTY_STATUS = "CSUStatus";
+	public static final String PROPERTY_SETUP_MASK_NAME = "CSUSetupMaskName";
+	public static final String PROPERTY_FITS_EXTENSION_FILENAME = "CSUFitsExtensionFilename";
+
+	private final PropertyList propertyList;
+	private final ScheduledExecutorService scheduler;
+	//. operation in progress, or null.  guarded by this.
+	private ScheduledFuture<?> pendingCompletion;
+
+	/**
+	 * Constructor.  CSU starts ready to move.
+	 *
+	 * @param list  PropertyList with CSU properties
+	 */
+	public SimulatedCSU(PropertyList list) {
+		propertyList = list;
+		if (list.getProperty(PROPERTY_READINESS) == null) {
+			list.addProperty(new IntegerProperty(PROPERTY_READINESS));
+		}
+		if (list.getProperty(PROPERTY_STATUS) == null) {
+			list.addProperty(new StringProperty(PROPERTY_STATUS));
+		}
+		if (list.getProperty(PROPERTY_SETUP_MASK_NAME) == null) {
+			list.addProperty(new StringProperty(PROPERTY_SETUP_MASK_NAME));
+		}
+		if (list.getProperty(PROPERTY_FITS_EXTENSION_FILENAME) == null) {
+			list.addProperty(new StringProperty(PROPERTY_FITS_EXTENSION_FILENAME));
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "SimulatedCSU");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		setState(MSCGUIParameters.CSU_READINESS_STATE_READY_TO_MOVE, "OK");
+	}
+
+	/**
+	 * Simulate setup of mask: CSU is configuring for durationMs, then ready to move with
+	 * the mask name set.
+	 *
+	 * @param maskName    name of mask being set up
+	 * @param durationMs  time to configure, in milliseconds
+	 */
+	public void setupMask(final String maskName, long durationMs) {
+		setState(MSCGUIParameters.CSU_READINESS_STATE_CONFIGURING, "Setting up mask "+maskName);
+		complete(new Runnable() {
+			public void run() {
+				setProperty(PROPERTY_SETUP_MASK_NAME, maskName);
+				setState(MSCGUIParameters.CSU_READINESS_STATE_READY_TO_MOVE, "OK");
+			}
+		}, durationMs);
+	}
+
+	/**
+	 * Simulate move of bars to setup: CSU is moving for durationMs, then ready to move.
+	 *
+	 * @param durationMs  time to move, in milliseconds
+	 */
+	public void move(long durationMs) {
+		setState(MSCGUIParameters.CSU_READINESS_STATE_MOVING, "Moving");
+		complete(new Runnable() {
+			public void run() {
+				setState(MSCGUIParameters.CSU_READINESS_STATE_READY_TO_MOVE, "OK");
+			}
+		}, durationMs);
+	}
+
+	/**
+	 * Set readiness state immediately, cancelling any operation in progress.
+	 *
+	 * @param state  readiness state, one of MSCGUIParameters.CSU_READINESS_STATES
+	 */
+	public void setReadiness(int state) {
+		synchronized (this) {
+			cancelPendingCompletion();
+		}
+		setState(state, MSCGUIParameters.CSU_READINESS_STATES[state+MSCGUIParameters.CSU_READINESS_STATES_ARRAY_OFFSET]);
+	}
+
+	public int getReadiness() {
+		return ((Integer)propertyList.getProperty(PROPERTY_READINESS).getValue()).intValue();
+	}
+
+	/**
+	 * Stop simulation.  Operations in progress do not complete.
+	 */
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	/**
+	 * Main for testing: run a mask setup and a move against an MSCGUIModel, and check its
+	 * waits return when the simulated readiness changes, and time out when it does not.
+	 * Runs in engineering mode, so no script or keyword modify reaches the instrument.
+	 *
+	 * Usage: SimulatedCSU [durationMs]
+	 */
+	public static void main(String[] args) throws Exception {
+		long durationMs = (args.length > 0) ? Long.parseLong(args[0]) : 1000;
+		MSCGUIParameters.ENGINEERING_MODE = true;
+		PropertyList list = new PropertyList();
+		SimulatedCSU csu = new SimulatedCSU(list);
+		MSCGUIModel model = new MSCGUIModel(list, true);
+		File scriptDirectory = File.createTempFile("SimulatedCSU", "");
+		scriptDirectory.delete();
+		scriptDirectory.mkdir();
+		model.setScriptDirectory(scriptDirectory);
+		model.setCloseOffType(MSCGUIModel.CLOSE_OFF_TYPE_DO_NOTHING);
+		int failures = 0;
+
+		//. mask setup: script is sent while CSU configures
+		long startTime = System.nanoTime();
+		csu.setupMask("SimulatedMask", durationMs);
+		failures += check("CSU configuring after setup starts", model.getCsuReady() == MSCGUIParameters.CSU_READINESS_STATE_CONFIGURING);
+		model.executeMaskSetup(false);
+		failures += check("script finished", model.waitForScriptFinished(MSCGUIParameters.MASK_SETUP_SCRIPT_TIMEOUT_MS));
+		failures += check("CSU ready after setup", model.waitForCsuReady(MSCGUIParameters.CSU_READINESS_STATE_READY_TO_MOVE, MSCGUIParameters.CSU_READY_TIMEOUT_MS));
+		failures += checkElapsed("setup", startTime, durationMs);
+		failures += check("mask name set", "SimulatedMask".equals(model.getLoadedMaskSetup()));
+
+		//. move
+		startTime = System.nanoTime();
+		csu.move(durationMs);
+		failures += check("CSU moving", model.getCsuReady() == MSCGUIParameters.CSU_READINESS_STATE_MOVING);
+		failures += check("CSU ready after move", model.waitForCsuReady(MSCGUIParameters.CSU_READINESS_STATE_READY_TO_MOVE, MSCGUIParameters.CSU_READY_TIMEOUT_MS));
+		failures += checkElapsed("move", startTime, durationMs);
+
+		//. readiness does not change, so wait times out
+		csu.setReadiness(MSCGUIParameters.CSU_READINESS_STATE_MOVING);
+		failures += check("wait times out", !model.waitForCsuReady(MSCGUIParameters.CSU_READINESS_STATE_READY_TO_MOVE, durationMs / 4));
+
+		csu.shutdown();
+		for (File file : scriptDirectory.listFiles()) {
+			file.delete();
+		}
+		scriptDirectory.delete();
+		System.out.println((failures == 0) ? "All checks passed." : failures+" checks failed.");
+		System.exit((failures == 0) ? 0 : 1);
+	}
+	private static int check(String description, boolean passed) {
+		System.out.println((passed ? "OK    " : "FAIL  ")+description);
+		return passed ? 0 : 1;
+	}
+	//. wait must not return before the simulated operation ends, nor long after
+	private static int checkElapsed(String operation, long startTime, long durationMs) {
+		long elapsedMs = (System.nanoTime() - startTime) / 1000000;
+		return check(operation+" wait returned after "+elapsedMs+" ms", (elapsedMs >= durationMs) && (elapsedMs < durationMs + 500));
+	}
+
+	private synchronized void complete(Runnable completion, long durationMs) {
+		cancelPendingCompletion();
+		pendingCompletion = scheduler.schedule(completion, durationMs, TimeUnit.MILLISECONDS);
+	}
+	private void cancelPendingCompletion() {
+		if (pendingCompletion != null) {
+			pendingCompletion.cancel(false);
+			pendingCompletion = null;
+		}
+	}
+	private void setState(int readiness, String status) {
+		setProperty(PROPERTY_STATUS, status);
+		setProperty(PROPERTY_READINESS, Integer.toString(readiness));
+	}
+	private void setProperty(String name, String value) {
+		try {
+			propertyList.setPropertyValue(name, value);
+		} catch (NoSuchPropertyException ex) {
+			logger.error("Simulated CSU property <"+name+"> not found", ex);
+		} catch (InvalidValueException ex) {
+			logger.error("Invalid value <"+value+"> for simulated CSU property <"+name+">", ex);
+		}
+	}
+}